@@ -35,6 +35,7 @@ import org.apache.activemq.artemis.core.journal.RecordInfo;
 import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
 import org.apache.activemq.artemis.core.journal.impl.JournalRecord;
 import org.apache.activemq.artemis.utils.Base64;
+import org.apache.activemq.artemis.utils.ConcurrentLongHashMap;
 
 @Command(name = "decode", description = "Decode a journal's internal format into a new journal set of files")
 public class DecodeJournal extends LockAbstract {
@@ -125,7 +126,7 @@ public class DecodeJournal extends LockAbstract {
 
       long lineNumber = 0;
 
-      Map<Long, JournalRecord> journalRecords = journal.getRecords();
+      ConcurrentLongHashMap<JournalRecord> journalRecords = journal.getRecords();
 
       while ((line = buffReader.readLine()) != null) {
          lineNumber++;
@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A concurrent map of primitive long keys.
+ *
+ * The keys and values are kept in open addressing tables split in sections, each section guarded by its own
+ * lock, so an entry costs a slot in two arrays instead of a map node and a boxed {@link Long}.
+ *
+ * Null values aren't allowed. Like the views of a ConcurrentHashMap, {@link #keys()}, {@link #values()} and
+ * {@link #forEach(EntryProcessor)} are weakly consistent: each section is copied as it is at the moment it's
+ * visited.
+ */
+public class ConcurrentLongHashMap<V> {
+
+   private static final int DEFAULT_EXPECTED_ITEMS = 256;
+
+   private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+   private static final float MAP_FILL_FACTOR = 0.66f;
+
+   private final Section<V>[] sections;
+
+   public ConcurrentLongHashMap() {
+      this(DEFAULT_EXPECTED_ITEMS, DEFAULT_CONCURRENCY_LEVEL);
+   }
+
+   public ConcurrentLongHashMap(final int expectedItems) {
+      this(expectedItems, DEFAULT_CONCURRENCY_LEVEL);
+   }
+
+   @SuppressWarnings("unchecked")
+   public ConcurrentLongHashMap(final int expectedItems, final int concurrencyLevel) {
+      if (expectedItems <= 0) {
+         throw new IllegalArgumentException("expectedItems must be > 0");
+      }
+      if (concurrencyLevel <= 0) {
+         throw new IllegalArgumentException("concurrencyLevel must be > 0");
+      }
+
+      int numSections = powerOfTwo(concurrencyLevel);
+      int perSectionExpectedItems = Math.max(1, expectedItems / numSections);
+      int perSectionCapacity = powerOfTwo((int) (perSectionExpectedItems / MAP_FILL_FACTOR) + 1);
+
+      sections = new Section[numSections];
+      for (int i = 0; i < numSections; i++) {
+         sections[i] = new Section<V>(perSectionCapacity);
+      }
+   }
+
+   public int size() {
+      int size = 0;
+      for (Section<V> section : sections) {
+         size += section.size();
+      }
+      return size;
+   }
+
+   public boolean isEmpty() {
+      for (Section<V> section : sections) {
+         if (section.size() != 0) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   public V get(final long key) {
+      long h = hash(key);
+      return sectionFor(h).get(key, (int) h);
+   }
+
+   public boolean containsKey(final long key) {
+      return get(key) != null;
+   }
+
+   public V put(final long key, final V value) {
+      checkNotNull(value);
+      long h = hash(key);
+      return sectionFor(h).put(key, value, (int) h, false);
+   }
+
+   public V putIfAbsent(final long key, final V value) {
+      checkNotNull(value);
+      long h = hash(key);
+      return sectionFor(h).put(key, value, (int) h, true);
+   }
+
+   public V remove(final long key) {
+      long h = hash(key);
+      return sectionFor(h).remove(key, (int) h);
+   }
+
+   public void clear() {
+      for (Section<V> section : sections) {
+         section.clear();
+      }
+   }
+
+   public long[] keys() {
+      long[][] sectionKeys = new long[sections.length][];
+      int count = 0;
+      for (int i = 0; i < sections.length; i++) {
+         sectionKeys[i] = sections[i].copyKeys();
+         count += sectionKeys[i].length;
+      }
+
+      long[] keys = new long[count];
+      int offset = 0;
+      for (long[] copied : sectionKeys) {
+         System.arraycopy(copied, 0, keys, offset, copied.length);
+         offset += copied.length;
+      }
+      return keys;
+   }
+
+   public List<V> values() {
+      List<V> values = new ArrayList<V>(size());
+      for (Section<V> section : sections) {
+         section.copyValues(values);
+      }
+      return values;
+   }
+
+   /**
+    * Calls the processor for every entry, outside of the locks, so the processor may update this map.
+    */
+   @SuppressWarnings("unchecked")
+   public void forEach(final EntryProcessor<V> processor) {
+      for (Section<V> section : sections) {
+         long[] keys;
+         Object[] values;
+         synchronized (section) {
+            keys = section.keys.clone();
+            values = section.values.clone();
+         }
+         for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+               processor.accept(keys[i], (V) values[i]);
+            }
+         }
+      }
+   }
+
+   public interface EntryProcessor<V> {
+
+      void accept(long key, V value);
+   }
+
+   private Section<V> sectionFor(final long hash) {
+      // the high bits pick the section, the low bits the bucket within it
+      return sections[(int) (hash >>> 32) & (sections.length - 1)];
+   }
+
+   private static void checkNotNull(final Object value) {
+      if (value == null) {
+         throw new NullPointerException("Null values aren't allowed");
+      }
+   }
+
+   static long hash(final long key) {
+      // the finalizer of MurmurHash3, so sequential ids spread over the sections and buckets
+      long h = key;
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      h *= 0xc4ceb9fe1a85ec53L;
+      h ^= h >>> 33;
+      return h;
+   }
+
+   private static int powerOfTwo(final int n) {
+      int power = 1;
+      while (power < n) {
+         power <<= 1;
+      }
+      return power;
+   }
+
+   private static final class Section<V> {
+
+      private long[] keys;
+
+      // null marks a free bucket
+      private Object[] values;
+
+      private int size;
+
+      private int resizeThreshold;
+
+      private Section(final int capacity) {
+         keys = new long[capacity];
+         values = new Object[capacity];
+         resizeThreshold = (int) (capacity * MAP_FILL_FACTOR);
+      }
+
+      private synchronized int size() {
+         return size;
+      }
+
+      @SuppressWarnings("unchecked")
+      private synchronized V get(final long key, final int hash) {
+         int mask = values.length - 1;
+         int bucket = hash & mask;
+         while (true) {
+            Object value = values[bucket];
+            if (value == null) {
+               return null;
+            }
+            if (keys[bucket] == key) {
+               return (V) value;
+            }
+            bucket = (bucket + 1) & mask;
+         }
+      }
+
+      @SuppressWarnings("unchecked")
+      private synchronized V put(final long key, final V value, final int hash, final boolean onlyIfAbsent) {
+         int mask = values.length - 1;
+         int bucket = hash & mask;
+         while (true) {
+            Object current = values[bucket];
+            if (current == null) {
+               keys[bucket] = key;
+               values[bucket] = value;
+               if (++size > resizeThreshold) {
+                  rehash();
+               }
+               return null;
+            }
+            if (keys[bucket] == key) {
+               if (!onlyIfAbsent) {
+                  values[bucket] = value;
+               }
+               return (V) current;
+            }
+            bucket = (bucket + 1) & mask;
+         }
+      }
+
+      @SuppressWarnings("unchecked")
+      private synchronized V remove(final long key, final int hash) {
+         int mask = values.length - 1;
+         int bucket = hash & mask;
+         while (true) {
+            Object current = values[bucket];
+            if (current == null) {
+               return null;
+            }
+            if (keys[bucket] == key) {
+               removeAt(bucket);
+               size--;
+               return (V) current;
+            }
+            bucket = (bucket + 1) & mask;
+         }
+      }
+
+      /**
+       * Frees the bucket, moving back the entries of the same probe sequence that follow it, so the lookups
+       * never need tombstones.
+       */
+      private void removeAt(int free) {
+         int mask = values.length - 1;
+         int bucket = free;
+         while (true) {
+            bucket = (bucket + 1) & mask;
+            if (values[bucket] == null) {
+               break;
+            }
+            int ideal = (int) hash(keys[bucket]) & mask;
+            // the entry can move to the free bucket unless its ideal bucket lies cyclically in (free, bucket]
+            if (((bucket - ideal) & mask) >= ((bucket - free) & mask)) {
+               keys[free] = keys[bucket];
+               values[free] = values[bucket];
+               free = bucket;
+            }
+         }
+         values[free] = null;
+      }
+
+      private void rehash() {
+         long[] oldKeys = keys;
+         Object[] oldValues = values;
+         int capacity = values.length * 2;
+         int mask = capacity - 1;
+
+         keys = new long[capacity];
+         values = new Object[capacity];
+         resizeThreshold = (int) (capacity * MAP_FILL_FACTOR);
+
+         for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+               int bucket = (int) hash(oldKeys[i]) & mask;
+               while (values[bucket] != null) {
+                  bucket = (bucket + 1) & mask;
+               }
+               keys[bucket] = oldKeys[i];
+               values[bucket] = oldValues[i];
+            }
+         }
+      }
+
+      private synchronized void clear() {
+         Arrays.fill(values, null);
+         size = 0;
+      }
+
+      private synchronized long[] copyKeys() {
+         long[] copy = new long[size];
+         int count = 0;
+         for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+               copy[count++] = keys[i];
+            }
+         }
+         return copy;
+      }
+
+      @SuppressWarnings("unchecked")
+      private synchronized void copyValues(final List<V> target) {
+         for (Object value : values) {
+            if (value != null) {
+               target.add((V) value);
+            }
+         }
+      }
+   }
+}
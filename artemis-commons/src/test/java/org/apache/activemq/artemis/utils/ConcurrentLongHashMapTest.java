@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentLongHashMapTest extends Assert {
+
+   @Test
+   public void testPutGetRemove() {
+      ConcurrentLongHashMap<String> map = new ConcurrentLongHashMap<String>();
+
+      assertTrue(map.isEmpty());
+      assertNull(map.put(1, "one"));
+      assertNull(map.put(-1, "minus one"));
+      assertEquals("one", map.put(1, "uno"));
+      assertEquals("uno", map.putIfAbsent(1, "one"));
+      assertNull(map.putIfAbsent(Long.MAX_VALUE, "max"));
+
+      assertEquals(3, map.size());
+      assertEquals("uno", map.get(1));
+      assertEquals("minus one", map.get(-1));
+      assertEquals("max", map.get(Long.MAX_VALUE));
+      assertNull(map.get(2));
+      assertTrue(map.containsKey(-1));
+      assertFalse(map.containsKey(2));
+
+      assertEquals("uno", map.remove(1));
+      assertNull(map.remove(1));
+      assertNull(map.get(1));
+      assertEquals(2, map.size());
+
+      map.clear();
+      assertTrue(map.isEmpty());
+      assertNull(map.get(-1));
+   }
+
+   @Test(expected = NullPointerException.class)
+   public void testNullValue() {
+      new ConcurrentLongHashMap<String>().put(1, null);
+   }
+
+   @Test
+   public void testAgainstHashMap() {
+      // a small map, so it's rehashed and the removals move entries back along long probe sequences
+      ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<Long>(1, 2);
+      Map<Long, Long> expected = new HashMap<Long, Long>();
+      Random random = new Random(4);
+
+      for (int i = 0; i < 200000; i++) {
+         long key = random.nextInt(2000);
+         Long value = random.nextLong();
+         switch (random.nextInt(3)) {
+            case 0:
+               assertEquals(expected.put(key, value), map.put(key, value));
+               break;
+            case 1:
+               assertEquals(expected.remove(key), map.remove(key));
+               break;
+            default:
+               assertEquals(expected.get(key), map.get(key));
+         }
+      }
+
+      assertEquals(expected.size(), map.size());
+
+      long[] keys = map.keys();
+      assertEquals(expected.size(), keys.length);
+      for (long key : keys) {
+         assertEquals(expected.get(key), map.get(key));
+      }
+
+      List<Long> values = map.values();
+      assertEquals(expected.size(), values.size());
+      assertTrue(values.containsAll(expected.values()));
+   }
+
+   @Test
+   public void testForEach() {
+      ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<Long>();
+      for (long i = 0; i < 1000; i++) {
+         map.put(i, i * 2);
+      }
+
+      final List<Long> visited = new ArrayList<Long>();
+      map.forEach(new ConcurrentLongHashMap.EntryProcessor<Long>() {
+         public void accept(final long key, final Long value) {
+            assertEquals(key * 2, value.longValue());
+            visited.add(key);
+         }
+      });
+
+      assertEquals(1000, visited.size());
+      long[] keys = map.keys();
+      Arrays.sort(keys);
+      for (int i = 0; i < keys.length; i++) {
+         assertEquals(i, keys[i]);
+      }
+   }
+
+   @Test
+   public void testConcurrentUpdates() throws Exception {
+      final ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<Long>();
+      final int threads = 8;
+      final int keysPerThread = 10000;
+      final CountDownLatch done = new CountDownLatch(threads);
+
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+         for (int t = 0; t < threads; t++) {
+            final long base = (long) t * keysPerThread;
+            executor.execute(new Runnable() {
+               public void run() {
+                  for (long i = base; i < base + keysPerThread; i++) {
+                     map.put(i, i);
+                  }
+                  // every other key is removed again
+                  for (long i = base; i < base + keysPerThread; i += 2) {
+                     map.remove(i);
+                  }
+                  done.countDown();
+               }
+            });
+         }
+
+         assertTrue(done.await(10, TimeUnit.SECONDS));
+      }
+      finally {
+         executor.shutdown();
+      }
+
+      assertEquals(threads * keysPerThread / 2, map.size());
+      for (long i = 0; i < threads * keysPerThread; i++) {
+         if (i % 2 == 0) {
+            assertNull(map.get(i));
+         }
+         else {
+            assertEquals(Long.valueOf(i), map.get(i));
+         }
+      }
+   }
+}
@@ -135,6 +135,12 @@ public final class ActiveMQDefaultConfiguration {
    // Maximum number of threads to use for the thread pool. -1 means 'no limits'.
    private static int DEFAULT_THREAD_POOL_MAX_SIZE = 30;
 
+   // true means that the ordered executors of the server use a lock free queue
+   private static boolean DEFAULT_MPSC_ORDERED_EXECUTOR = false;
+
+   // Number of tasks an ordered executor runs before giving its thread back to the thread pool. -1 means 'no limits'.
+   private static int DEFAULT_ORDERED_EXECUTOR_BATCH_SIZE = -1;
+
    // true means that security is enabled
    private static boolean DEFAULT_SECURITY_ENABLED = true;
 
@@ -201,12 +207,18 @@ public final class ActiveMQDefaultConfiguration {
    // the priority of the thread expiring messages
    private static int DEFAULT_MESSAGE_EXPIRY_THREAD_PRIORITY = 3;
 
+   // the duration (in ms) of a tick of the broker wide scheduled delivery timing wheel, -1 means every queue schedules its own deliveries
+   private static long DEFAULT_SCHEDULED_DELIVERY_TICK_DURATION = -1;
+
    // the size of the cache for pre-creating message ID's
    private static int DEFAULT_ID_CACHE_SIZE = 20000;
 
    // true means that ID's are persisted to the journal
    private static boolean DEFAULT_PERSIST_ID_CACHE = true;
 
+   // true means that the bodies of routed messages are kept in pooled direct buffers instead of on the heap
+   private static boolean DEFAULT_OFF_HEAP_MESSAGE_BODIES = false;
+
    // True means that the delivery count is persisted before delivery. False means that this only happens after a message has been cancelled.
    private static boolean DEFAULT_PERSIST_DELIVERY_COUNT_BEFORE_DELIVERY = false;
 
@@ -249,6 +261,9 @@ public final class ActiveMQDefaultConfiguration {
    // The minimal number of data files before we can start compacting
    private static int DEFAULT_JOURNAL_COMPACT_MIN_FILES = 10;
 
+   // The number of threads reading the journal files while the journal is loaded, -1 for the number of available processors
+   private static int DEFAULT_JOURNAL_LOAD_THREADS = 1;
+
    // XXX Only meant to be used by project developers
    private static int DEFAULT_JOURNAL_PERF_BLAST_PAGES = -1;
 
@@ -377,6 +392,9 @@ public final class ActiveMQDefaultConfiguration {
    // When a replica comes online this is how long the replicating server will wait for a confirmation from the replica that the replication synchronization process is complete
    private static long DEFAULT_INITIAL_REPLICATION_SYNC_TIMEOUT = 30000;
 
+   // the number of batches of replicated journal and page writes in flight to the replica, -1 means every operation is sent on its own
+   private static int DEFAULT_REPLICATION_WINDOW = -1;
+
    // Will this backup server come live on a normal server shutdown
    private static boolean DEFAULT_FAILOVER_ON_SERVER_SHUTDOWN = false;
 
@@ -427,6 +445,20 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_THREAD_POOL_MAX_SIZE;
    }
 
+   /**
+    * true means that the ordered executors of the server use a lock free queue
+    */
+   public static boolean isDefaultMpscOrderedExecutor() {
+      return DEFAULT_MPSC_ORDERED_EXECUTOR;
+   }
+
+   /**
+    * Number of tasks an ordered executor runs before giving its thread back to the thread pool. -1 means 'no limits'.
+    */
+   public static int getDefaultOrderedExecutorBatchSize() {
+      return DEFAULT_ORDERED_EXECUTOR_BATCH_SIZE;
+   }
+
    /**
     * true means that security is enabled
     */
@@ -581,6 +613,13 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_MESSAGE_EXPIRY_THREAD_PRIORITY;
    }
 
+   /**
+    * the duration (in ms) of a tick of the broker wide scheduled delivery timing wheel, -1 means every queue schedules its own deliveries
+    */
+   public static long getDefaultScheduledDeliveryTickDuration() {
+      return DEFAULT_SCHEDULED_DELIVERY_TICK_DURATION;
+   }
+
    /**
     * the size of the cache for pre-creating message ID's
     */
@@ -595,6 +634,13 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_PERSIST_ID_CACHE;
    }
 
+   /**
+    * true means that the bodies of routed messages are kept in pooled direct buffers instead of on the heap
+    */
+   public static boolean isDefaultOffHeapMessageBodies() {
+      return DEFAULT_OFF_HEAP_MESSAGE_BODIES;
+   }
+
    /**
     * True means that the delivery count is persisted before delivery. False means that this only happens after a message has been cancelled.
     */
@@ -693,6 +739,13 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_JOURNAL_COMPACT_MIN_FILES;
    }
 
+   /**
+    * The number of threads reading the journal files while the journal is loaded, -1 for the number of available processors
+    */
+   public static int getDefaultJournalLoadThreads() {
+      return DEFAULT_JOURNAL_LOAD_THREADS;
+   }
+
    /**
     * XXX Only meant to be used by project developers
     */
@@ -991,6 +1044,13 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_INITIAL_REPLICATION_SYNC_TIMEOUT;
    }
 
+   /**
+    * the number of batches of replicated journal and page writes in flight to the replica, -1 means every operation is sent on its own
+    */
+   public static int getDefaultReplicationWindow() {
+      return DEFAULT_REPLICATION_WINDOW;
+   }
+
    /**
     * if we have to start as a replicated server this is the delay to wait before fail-back occurs
     * @deprecated  use getDefaultInitialReplicationSyncTimeout()
@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.artemis.api.core.management;
 
+import javax.management.MBeanOperationInfo;
 import java.util.Map;
 
 /**
@@ -38,4 +39,12 @@ public interface AcceptorControl extends ActiveMQComponentControl {
     * Returns the parameters used to configure this acceptor
     */
    Map<String, Object> getParameters();
+
+   /**
+    * Lists how often the writes of each connection of this acceptor were flushed and how many bytes
+    * each flush carried on average, using JSON serialization.
+    * Acceptors which don't flush their connections themselves return an empty list.
+    */
+   @Operation(desc = "List the number of flushes and the bytes per flush of each connection", impact = MBeanOperationInfo.INFO)
+   String listConnectionFlushesAsJSON() throws Exception;
 }
@@ -72,6 +72,40 @@ public interface ActiveMQServerControl {
     */
    long getSecurityInvalidationInterval();
 
+   /**
+    * Returns the number of permission checks answered from the security cache.
+    */
+   long getSecurityCacheHits();
+
+   /**
+    * Returns the number of permission checks which found nothing in the security cache.
+    */
+   long getSecurityCacheMisses();
+
+   /**
+    * Returns the number of permission checks which found an expired permission in the security cache and validated
+    * it again.
+    */
+   long getSecurityCacheReloads();
+
+   /**
+    * Returns the number of journal, page and large message files sent to the backup by the initial
+    * replication synchronization, 0 if this server is not replicating.
+    */
+   long getReplicationSyncFiles();
+
+   /**
+    * Returns the number of bytes of files sent to the backup by the initial replication synchronization,
+    * 0 if this server is not replicating.
+    */
+   long getReplicationSyncBytes();
+
+   /**
+    * Returns the bytes per second the initial replication synchronization sent files to the backup at,
+    * 0 if this server is not replicating.
+    */
+   long getReplicationSyncThroughput();
+
    /**
     * Returns whether security is enabled for this server.
     */
@@ -147,6 +181,13 @@ public interface ActiveMQServerControl {
     */
    int getJournalCompactPercentage();
 
+   /**
+    * Lists, for the message and the bindings journals, the pauses compacting imposed on appending records,
+    * as a histogram in JSON format.
+    */
+   @Operation(desc = "List the pauses compacting imposed on the journals, in JSON format", impact = MBeanOperationInfo.INFO)
+   String listJournalCompactPausesAsJSON() throws Exception;
+
    /**
     * Returns whether this server is using persistence and store data.
     */
@@ -406,6 +447,15 @@ public interface ActiveMQServerControl {
    @Operation(desc = "Reset all message counters history", impact = MBeanOperationInfo.ACTION)
    void resetAllMessageCounterHistories() throws Exception;
 
+   /**
+    * Lists, for all message counters and at each resolution they are kept, the samples of how many messages were
+    * added to and acknowledged from their queue and of its depth, in JSON format.
+    * <p>
+    * The samples are read without locking the queues.
+    */
+   @Operation(desc = "List the samples of all message counters, in JSON format", impact = MBeanOperationInfo.INFO)
+   String listMessageCounterSamplesAsJSON() throws Exception;
+
    /**
     * List all the prepared transaction, sorted by date, oldest first.
     * <br>
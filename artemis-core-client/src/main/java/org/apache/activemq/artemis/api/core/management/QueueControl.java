@@ -85,6 +85,16 @@ public interface QueueControl {
     */
    long getMessagesAcknowledged();
 
+   /**
+    * Returns the number of messages moved from this queue to other nodes of the cluster since it was created.
+    */
+   long getMessagesRedistributed();
+
+   /**
+    * Returns the number of messages per second moved from this queue to other nodes of the cluster since the last call.
+    */
+   float getRedistributionRate();
+
    /**
     * Returns the first message on the queue as JSON
     */
@@ -371,6 +381,36 @@ public interface QueueControl {
    @Operation(desc = "List all the existent consumers on the Queue")
    String listConsumersAsJSON() throws Exception;
 
+   /**
+    * Returns the number of message groups currently assigned to the consumers of this queue.
+    */
+   int getGroupCount();
+
+   /**
+    * Lists the message groups of this queue with the consumer each one is assigned to using JSON serialization.
+    */
+   @Operation(desc = "List the message groups of the Queue with the consumer each one is assigned to", impact = MBeanOperationInfo.INFO)
+   String listGroupsAsJSON() throws Exception;
+
+   /**
+    * Lists the number of message groups assigned to each consumer of this queue using JSON serialization.
+    */
+   @Operation(desc = "List the number of message groups assigned to each consumer of the Queue", impact = MBeanOperationInfo.INFO)
+   String listGroupDistributionAsJSON() throws Exception;
+
+   /**
+    * Releases the given message group from its consumer.
+    * The next message of the group will be assigned to a consumer again.
+    */
+   @Operation(desc = "Release the given message group from its consumer", impact = MBeanOperationInfo.ACTION)
+   void resetGroup(@Parameter(name = "groupID", desc = "A message group ID") String groupID) throws Exception;
+
+   /**
+    * Releases all the message groups of this queue from their consumers.
+    */
+   @Operation(desc = "Release all the message groups of the Queue from their consumers", impact = MBeanOperationInfo.ACTION)
+   void resetAllGroups() throws Exception;
+
    /**
     * Returns whether the queue is paused.
     */
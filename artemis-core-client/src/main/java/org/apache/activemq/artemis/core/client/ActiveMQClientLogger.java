@@ -314,6 +314,16 @@ public interface ActiveMQClientLogger extends BasicLogger {
       format = Message.Format.MESSAGE_FORMAT)
    void broadcastGroupBindError(String hostAndPort);
 
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(id = 212057, value = "Netty''s native epoll transport is not available, using NIO instead: {0}",
+      format = Message.Format.MESSAGE_FORMAT)
+   void epollUnavailable(String reason);
+
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(id = 212058, value = "Option {0} is not supported by this version of Netty''s epoll transport, ignoring it",
+      format = Message.Format.MESSAGE_FORMAT)
+   void epollOptionUnsupported(String option);
+
    @LogMessage(level = Logger.Level.ERROR)
    @Message(id = 214000, value = "Failed to call onMessage", format = Message.Format.MESSAGE_FORMAT)
    void onMessageError(@Cause Throwable e);
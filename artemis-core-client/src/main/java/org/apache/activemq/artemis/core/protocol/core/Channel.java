@@ -71,6 +71,19 @@ public interface Channel {
     */
    boolean sendAndFlush(Packet packet);
 
+   /**
+    * Sends a packet whose body is a file region, such as a large message continuation, without copying the body into the heap.
+    * <p>
+    * This is only possible if the connection supports file regions, there are no outgoing
+    * interceptors to show the body to and the packet doesn't have to be kept for resending.
+    * If it isn't, the packet isn't sent and its file body is left untouched.
+    *
+    * @param packet the packet to send
+    * @return false if the packet has to be sent with its body in memory instead; true if the send
+    * was successful
+    */
+   boolean sendFileRegion(FileRegionPacket packet);
+
    /**
     * Sends a packet on this channel and then blocks until a response is received or a timeout
     * occurs.
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.core;
+
+import io.netty.channel.FileRegion;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
+
+/**
+ * A packet whose body can be written to the connection as a region of a file, between an encoded
+ * header and trailer, so the body never gets copied into memory.
+ *
+ * @see Channel#sendFileRegion(FileRegionPacket)
+ */
+public interface FileRegionPacket extends Packet {
+
+   /**
+    * @return the file region holding the body, null if the body is in memory
+    */
+   FileRegion getFileBody();
+
+   /**
+    * Encodes everything the packet has before its file body.
+    */
+   ActiveMQBuffer encodeHeader(RemotingConnection connection);
+
+   /**
+    * Encodes everything the packet has after its file body.
+    */
+   ActiveMQBuffer encodeTrailer(RemotingConnection connection);
+}
@@ -35,10 +35,12 @@ import org.apache.activemq.artemis.core.protocol.core.Channel;
 import org.apache.activemq.artemis.core.protocol.core.ChannelHandler;
 import org.apache.activemq.artemis.core.protocol.core.CommandConfirmationHandler;
 import org.apache.activemq.artemis.core.protocol.core.CoreRemotingConnection;
+import org.apache.activemq.artemis.core.protocol.core.FileRegionPacket;
 import org.apache.activemq.artemis.core.protocol.core.Packet;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ActiveMQExceptionMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.PacketsConfirmedMessage;
 import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
+import org.apache.activemq.artemis.spi.core.remoting.Connection;
 
 public final class ChannelImpl implements Channel {
 
@@ -227,26 +229,7 @@ public final class ChannelImpl implements Channel {
          lock.lock();
 
          try {
-            if (failingOver) {
-               try {
-                  if (connection.getBlockingCallFailoverTimeout() < 0) {
-                     failoverCondition.await();
-                  }
-                  else {
-                     if (!failoverCondition.await(connection.getBlockingCallFailoverTimeout(), TimeUnit.MILLISECONDS)) {
-                        ActiveMQClientLogger.LOGGER.debug("timed-out waiting for fail-over condition on non-blocking send");
-                     }
-                  }
-               }
-               catch (InterruptedException e) {
-                  throw new ActiveMQInterruptedException(e);
-               }
-            }
-
-            // Sanity check
-            if (transferring) {
-               throw ActiveMQClientMessageBundle.BUNDLE.cannotSendPacketDuringFailover();
-            }
+            awaitFailover();
 
             if (resendCache != null && packet.isRequiresConfirmations()) {
                resendCache.add(packet);
@@ -268,6 +251,64 @@ public final class ChannelImpl implements Channel {
       }
    }
 
+   public boolean sendFileRegion(final FileRegionPacket packet) {
+      Connection transportConnection = connection.getTransportConnection();
+
+      // the body would be gone by the time the packet is shown to an interceptor or resent
+      if (resendCache != null || interceptors != null && !interceptors.isEmpty() || !transportConnection.isFileRegionSupported()) {
+         return false;
+      }
+
+      synchronized (sendLock) {
+         packet.setChannelID(id);
+
+         if (isTrace) {
+            ActiveMQClientLogger.LOGGER.trace("Sending file region packet nonblocking " + packet + " on channeID=" + id);
+         }
+
+         ActiveMQBuffer header = packet.encodeHeader(connection);
+
+         ActiveMQBuffer trailer = packet.encodeTrailer(connection);
+
+         lock.lock();
+
+         try {
+            awaitFailover();
+         }
+         finally {
+            lock.unlock();
+         }
+
+         transportConnection.write(header, packet.getFileBody(), trailer, false);
+
+         return true;
+      }
+   }
+
+   // must be called holding the lock
+   private void awaitFailover() {
+      if (failingOver) {
+         try {
+            if (connection.getBlockingCallFailoverTimeout() < 0) {
+               failoverCondition.await();
+            }
+            else {
+               if (!failoverCondition.await(connection.getBlockingCallFailoverTimeout(), TimeUnit.MILLISECONDS)) {
+                  ActiveMQClientLogger.LOGGER.debug("timed-out waiting for fail-over condition on non-blocking send");
+               }
+            }
+         }
+         catch (InterruptedException e) {
+            throw new ActiveMQInterruptedException(e);
+         }
+      }
+
+      // Sanity check
+      if (transferring) {
+         throw ActiveMQClientMessageBundle.BUNDLE.cannotSendPacketDuringFailover();
+      }
+   }
+
    /**
     * Due to networking issues or server issues the server may take longer to answer than expected.. the client may timeout the call throwing an exception
     * and the client could eventually retry another call, but the server could then answer a previous command issuing a class-cast-exception.
@@ -245,6 +245,10 @@ public class PacketImpl implements Packet {
 
    public static final byte REPLICATION_RESPONSE_V2 = -9;
 
+   public static final byte REPLICATION_BATCH = -10;
+
+   public static final byte REPLICATION_BATCH_RESPONSE = -11;
+
    // Static --------------------------------------------------------
 
    public PacketImpl(final byte type) {
@@ -16,10 +16,13 @@
  */
 package org.apache.activemq.artemis.core.protocol.core.impl.wireformat;
 
+import io.netty.channel.FileRegion;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.core.protocol.core.FileRegionPacket;
+import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.artemis.utils.DataConstants;
 
-public class SessionReceiveContinuationMessage extends SessionContinuationMessage {
+public class SessionReceiveContinuationMessage extends SessionContinuationMessage implements FileRegionPacket {
 
    // Constants -----------------------------------------------------
 
@@ -29,6 +32,8 @@ public class SessionReceiveContinuationMessage extends SessionContinuationMessag
 
    private long consumerID;
 
+   private FileRegion fileBody;
+
    // Static --------------------------------------------------------
 
    // Constructors --------------------------------------------------
@@ -60,6 +65,20 @@ public class SessionReceiveContinuationMessage extends SessionContinuationMessag
       this.size = packetSize;
    }
 
+   /**
+    * A continuation whose body is a region of the file the large message is stored in,
+    * to be sent through {@link org.apache.activemq.artemis.core.protocol.core.Channel#sendFileRegion(FileRegionPacket)}.
+    *
+    * @param consumerID
+    * @param fileBody
+    * @param continues
+    */
+   public SessionReceiveContinuationMessage(final long consumerID, final FileRegion fileBody, final boolean continues) {
+      super(SESS_RECEIVE_CONTINUATION, null, continues);
+      this.consumerID = consumerID;
+      this.fileBody = fileBody;
+   }
+
    /**
     * @return the consumerID
     */
@@ -67,8 +86,46 @@ public class SessionReceiveContinuationMessage extends SessionContinuationMessag
       return consumerID;
    }
 
+   /**
+    * @return the file region holding the body, null if the body is in memory
+    */
+   public FileRegion getFileBody() {
+      return fileBody;
+   }
+
    // Public --------------------------------------------------------
 
+   /**
+    * Encodes everything the packet has before its file body.
+    */
+   public ActiveMQBuffer encodeHeader(final RemotingConnection connection) {
+      int bodySize = (int) fileBody.count();
+
+      ActiveMQBuffer buffer = connection.createTransportBuffer(PACKET_HEADERS_SIZE + DataConstants.SIZE_INT);
+
+      size = SESSION_RECEIVE_CONTINUATION_BASE_SIZE + bodySize;
+
+      // The length doesn't include the actual length byte
+      buffer.writeInt(size - DataConstants.SIZE_INT);
+      buffer.writeByte(getType());
+      buffer.writeLong(getChannelID());
+      buffer.writeInt(bodySize);
+
+      return buffer;
+   }
+
+   /**
+    * Encodes everything the packet has after its file body.
+    */
+   public ActiveMQBuffer encodeTrailer(final RemotingConnection connection) {
+      ActiveMQBuffer buffer = connection.createTransportBuffer(DataConstants.SIZE_BOOLEAN + DataConstants.SIZE_LONG);
+
+      buffer.writeBoolean(continues);
+      buffer.writeLong(consumerID);
+
+      return buffer;
+   }
+
    @Override
    public void encodeRest(final ActiveMQBuffer buffer) {
       super.encodeRest(buffer);
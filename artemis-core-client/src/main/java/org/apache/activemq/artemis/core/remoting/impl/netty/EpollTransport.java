@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.remoting.impl.netty;
+
+import java.lang.reflect.Field;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
+import org.apache.activemq.artemis.core.client.ActiveMQClientLogger;
+
+/**
+ * Helper for Netty's native epoll transport, which is only available on Linux and only when the
+ * native library can be loaded. Acceptors and connectors check {@link #isAvailable(boolean)} before
+ * using the epoll channels and fall back to NIO otherwise.
+ */
+public final class EpollTransport {
+
+   private EpollTransport() {
+   }
+
+   /**
+    * Returns whether the epoll transport can be used, logging the reason when it was requested but can't be.
+    *
+    * @param requested whether epoll was asked for in the transport configuration
+    */
+   public static boolean isAvailable(final boolean requested) {
+      if (!requested) {
+         return false;
+      }
+      try {
+         if (Epoll.isAvailable()) {
+            return true;
+         }
+         ActiveMQClientLogger.LOGGER.epollUnavailable(String.valueOf(Epoll.unavailabilityCause()));
+      }
+      catch (Throwable e) {
+         // the epoll classes are there but not for this platform
+         ActiveMQClientLogger.LOGGER.epollUnavailable(e.toString());
+      }
+      return false;
+   }
+
+   public static void applyOptions(final Bootstrap bootstrap,
+                                   final boolean edgeTriggered,
+                                   final boolean tcpQuickAck,
+                                   final int soBusyPoll) {
+      bootstrap.option(EpollChannelOption.EPOLL_MODE, edgeTriggered ? EpollMode.EDGE_TRIGGERED : EpollMode.LEVEL_TRIGGERED);
+      if (tcpQuickAck) {
+         ChannelOption<Boolean> option = lookup("TCP_QUICKACK");
+         if (option != null) {
+            bootstrap.option(option, true);
+         }
+      }
+      if (soBusyPoll > 0) {
+         ChannelOption<Integer> option = lookup("SO_BUSY_POLL");
+         if (option != null) {
+            bootstrap.option(option, soBusyPoll);
+         }
+      }
+   }
+
+   public static void applyChildOptions(final ServerBootstrap bootstrap,
+                                        final boolean edgeTriggered,
+                                        final boolean tcpQuickAck,
+                                        final int soBusyPoll) {
+      bootstrap.option(EpollChannelOption.EPOLL_MODE, edgeTriggered ? EpollMode.EDGE_TRIGGERED : EpollMode.LEVEL_TRIGGERED);
+      bootstrap.childOption(EpollChannelOption.EPOLL_MODE, edgeTriggered ? EpollMode.EDGE_TRIGGERED : EpollMode.LEVEL_TRIGGERED);
+      if (tcpQuickAck) {
+         ChannelOption<Boolean> option = lookup("TCP_QUICKACK");
+         if (option != null) {
+            bootstrap.childOption(option, true);
+         }
+      }
+      if (soBusyPoll > 0) {
+         ChannelOption<Integer> option = lookup("SO_BUSY_POLL");
+         if (option != null) {
+            bootstrap.childOption(option, soBusyPoll);
+         }
+      }
+   }
+
+   /**
+    * Not every option exists in every Netty release, so the newer ones are looked up by name and
+    * skipped with a warning when missing.
+    */
+   @SuppressWarnings("unchecked")
+   private static <T> ChannelOption<T> lookup(final String name) {
+      try {
+         Field field = EpollChannelOption.class.getField(name);
+         return (ChannelOption<T>) field.get(null);
+      }
+      catch (Exception e) {
+         ActiveMQClientLogger.LOGGER.epollOptionUnsupported(name);
+         return null;
+      }
+   }
+}
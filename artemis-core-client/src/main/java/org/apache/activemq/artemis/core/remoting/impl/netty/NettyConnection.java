@@ -20,13 +20,17 @@ import java.net.SocketAddress;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelOutboundHandler;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoop;
+import io.netty.channel.FileRegion;
 import io.netty.handler.ssl.SslHandler;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
@@ -59,8 +63,27 @@ public class NettyConnection implements Connection {
 
    private final boolean directDeliver;
 
+   private final int adaptiveBatchSize;
+
    private volatile ActiveMQBuffer batchBuffer;
 
+   // these two are only used from the eventloop
+   private int unflushedBytes;
+
+   private boolean flushScheduled;
+
+   private final Runnable adaptiveFlush = new Runnable() {
+      @Override
+      public void run() {
+         flushScheduled = false;
+         flushAdaptive();
+      }
+   };
+
+   private final AtomicLong flushCount = new AtomicLong();
+
+   private final AtomicLong flushedBytes = new AtomicLong();
+
    private final Map<String, Object> configuration;
 
    private final Semaphore writeLock = new Semaphore(1);
@@ -78,6 +101,19 @@ public class NettyConnection implements Connection {
                           final ConnectionLifeCycleListener listener,
                           boolean batchingEnabled,
                           boolean directDeliver) {
+      this(configuration, channel, listener, batchingEnabled, directDeliver, 0);
+   }
+
+   /**
+    * @param adaptiveBatchSize when greater than 0 writes are only flushed once the eventloop has run
+    *                          every task queued so far, or as soon as this many bytes are waiting to be flushed
+    */
+   public NettyConnection(final Map<String, Object> configuration,
+                          final Channel channel,
+                          final ConnectionLifeCycleListener listener,
+                          boolean batchingEnabled,
+                          boolean directDeliver,
+                          int adaptiveBatchSize) {
       this.configuration = configuration;
 
       this.channel = channel;
@@ -87,6 +123,8 @@ public class NettyConnection implements Connection {
       this.batchingEnabled = batchingEnabled;
 
       this.directDeliver = directDeliver;
+
+      this.adaptiveBatchSize = adaptiveBatchSize;
    }
 
    // Public --------------------------------------------------------
@@ -94,6 +132,20 @@ public class NettyConnection implements Connection {
    public Channel getNettyChannel() {
       return channel;
    }
+
+   /**
+    * Returns the number of times the writes of this connection were flushed onto the wire.
+    */
+   public long getFlushCount() {
+      return flushCount.get();
+   }
+
+   /**
+    * Returns the number of bytes flushed onto the wire by this connection.
+    */
+   public long getFlushedBytes() {
+      return flushedBytes.get();
+   }
    // Connection implementation ----------------------------
 
    public void forceClose() {
@@ -168,6 +220,7 @@ public class NettyConnection implements Connection {
       if (writeLock.tryAcquire()) {
          try {
             if (batchBuffer != null && batchBuffer.readable()) {
+               flushed(batchBuffer.readableBytes());
                channel.writeAndFlush(batchBuffer.byteBuf());
 
                batchBuffer = createTransportBuffer(BATCHING_BUFFER_SIZE);
@@ -205,6 +258,9 @@ public class NettyConnection implements Connection {
             if (batchBuffer != null) {
                batchBuffer.writeBytes(buffer, 0, buffer.writerIndex());
 
+               // the bytes now live in the batch, give back whatever reference the caller handed over with them
+               buffer.byteBuf().release();
+
                if (batchBuffer.writerIndex() >= BATCHING_BUFFER_SIZE || !batched || flush) {
                   // If the batch buffer is full or it's flush param or not batched then flush the buffer
 
@@ -237,7 +293,12 @@ public class NettyConnection implements Connection {
 
             EventLoop eventLoop = channel.eventLoop();
             boolean inEventLoop = eventLoop.inEventLoop();
-            if (!inEventLoop) {
+            if (adaptiveBatchSize > 0) {
+               // the eventloop decides when to flush, so the write has to go through it from any thread
+               eventLoop.execute(new AdaptiveWrite(buf, flush, promise, futureListener));
+            }
+            else if (!inEventLoop) {
+               flushed(buf.readableBytes());
                if (futureListener != null) {
                   channel.writeAndFlush(buf, promise).addListener(futureListener);
                }
@@ -252,6 +313,7 @@ public class NettyConnection implements Connection {
                final Runnable task = new Runnable() {
                   @Override
                   public void run() {
+                     flushed(buf.readableBytes());
                      if (futureListener != null) {
                         channel.writeAndFlush(buf, promise).addListener(futureListener);
                      }
@@ -291,6 +353,95 @@ public class NettyConnection implements Connection {
       }
    }
 
+   public boolean isFileRegionSupported() {
+      // a region is transferred to the socket as is, so nothing may be encoding the outbound bytes (e.g. SSL or HTTP)
+      for (Map.Entry<String, ChannelHandler> entry : channel.pipeline()) {
+         ChannelHandler handler = entry.getValue();
+         if (handler instanceof ChannelOutboundHandler && !(handler instanceof ActiveMQChannelHandler)) {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   public void write(final ActiveMQBuffer header,
+                     final FileRegion region,
+                     final ActiveMQBuffer trailer,
+                     final boolean flush) {
+      try {
+         writeLock.acquire();
+
+         try {
+            // anything batched so far has to be written before the region
+            final ByteBuf batched;
+            if (batchBuffer != null && batchBuffer.readable()) {
+               batched = batchBuffer.byteBuf();
+               batchBuffer = null;
+            }
+            else {
+               batched = null;
+            }
+
+            final ChannelPromise promise;
+            if (flush) {
+               promise = channel.newPromise();
+            }
+            else {
+               promise = channel.voidPromise();
+            }
+
+            final Runnable task = new Runnable() {
+               @Override
+               public void run() {
+                  if (batched != null) {
+                     channel.write(batched, channel.voidPromise());
+                  }
+                  channel.write(header.byteBuf(), channel.voidPromise());
+                  channel.write(region, channel.voidPromise());
+                  flushed((batched != null ? batched.readableBytes() : 0) + header.readableBytes() + region.count() + trailer.readableBytes());
+                  channel.writeAndFlush(trailer.byteBuf(), promise);
+               }
+            };
+
+            EventLoop eventLoop = channel.eventLoop();
+            boolean inEventLoop = eventLoop.inEventLoop();
+            if (!inEventLoop) {
+               task.run();
+            }
+            else {
+               // same as in write(ActiveMQBuffer...), going through the eventloop keeps the writes in order
+               eventLoop.execute(task);
+            }
+
+            // only try to wait if not in the eventloop otherwise we will produce a deadlock
+            if (flush && !inEventLoop) {
+               while (true) {
+                  try {
+                     boolean ok = promise.await(10000);
+
+                     if (!ok) {
+                        ActiveMQClientLogger.LOGGER.timeoutFlushingPacket();
+                     }
+
+                     break;
+                  }
+                  catch (InterruptedException e) {
+                     throw new ActiveMQInterruptedException(e);
+                  }
+               }
+            }
+         }
+         finally {
+            writeLock.release();
+         }
+      }
+      catch (InterruptedException e) {
+         region.release();
+         throw new ActiveMQInterruptedException(e);
+      }
+   }
+
    public String getRemoteAddress() {
       SocketAddress address = channel.remoteAddress();
       if (address == null) {
@@ -377,6 +528,66 @@ public class NettyConnection implements Connection {
          ActiveMQClientLogger.LOGGER.timeoutClosingNettyChannel();
       }
    }
+
+   private void flushed(final long bytes) {
+      flushCount.incrementAndGet();
+      flushedBytes.addAndGet(bytes);
+   }
+
+   // only called from the eventloop
+   private void flushAdaptive() {
+      if (unflushedBytes > 0) {
+         flushed(unflushedBytes);
+         unflushedBytes = 0;
+         channel.flush();
+      }
+   }
+
    // Inner classes -------------------------------------------------
 
+   /**
+    * Writes a buffer without flushing it. The flush is left to a task queued behind every write already
+    * waiting on the eventloop, so a busy eventloop flushes many writes at once while a single write on an
+    * idle one still goes out straight away.
+    */
+   private final class AdaptiveWrite implements Runnable {
+
+      private final ByteBuf buf;
+
+      private final boolean flush;
+
+      private final ChannelPromise promise;
+
+      private final ChannelFutureListener futureListener;
+
+      private AdaptiveWrite(final ByteBuf buf,
+                            final boolean flush,
+                            final ChannelPromise promise,
+                            final ChannelFutureListener futureListener) {
+         this.buf = buf;
+         this.flush = flush;
+         this.promise = promise;
+         this.futureListener = futureListener;
+      }
+
+      @Override
+      public void run() {
+         unflushedBytes += buf.readableBytes();
+         if (futureListener != null) {
+            channel.write(buf, promise).addListener(futureListener);
+         }
+         else {
+            channel.write(buf, promise);
+         }
+
+         if (flush || unflushedBytes >= adaptiveBatchSize) {
+            flushAdaptive();
+         }
+         else if (!flushScheduled) {
+            flushScheduled = true;
+            channel.eventLoop().execute(adaptiveFlush);
+         }
+      }
+   }
+
 }
@@ -58,6 +58,8 @@ import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioSocketChannel;
@@ -210,6 +212,16 @@ public class NettyConnector extends AbstractConnector {
 
    private boolean useNioGlobalWorkerPool;
 
+   private boolean useEpoll;
+
+   private boolean epollEdgeTriggered;
+
+   private boolean tcpQuickAck;
+
+   private int soBusyPoll;
+
+   private int adaptiveBatchSize;
+
    private ScheduledExecutorService scheduledThreadPool;
 
    private Executor closeExecutor;
@@ -281,6 +293,11 @@ public class NettyConnector extends AbstractConnector {
 
       useNioGlobalWorkerPool = ConfigurationHelper.getBooleanProperty(TransportConstants.USE_NIO_GLOBAL_WORKER_POOL_PROP_NAME, TransportConstants.DEFAULT_USE_NIO_GLOBAL_WORKER_POOL, configuration);
 
+      useEpoll = ConfigurationHelper.getBooleanProperty(TransportConstants.USE_EPOLL_PROP_NAME, TransportConstants.DEFAULT_USE_EPOLL, configuration);
+      epollEdgeTriggered = ConfigurationHelper.getBooleanProperty(TransportConstants.EPOLL_EDGE_TRIGGERED_PROP_NAME, TransportConstants.DEFAULT_EPOLL_EDGE_TRIGGERED, configuration);
+      tcpQuickAck = ConfigurationHelper.getBooleanProperty(TransportConstants.TCP_QUICKACK_PROPNAME, TransportConstants.DEFAULT_TCP_QUICKACK, configuration);
+      soBusyPoll = ConfigurationHelper.getIntProperty(TransportConstants.SO_BUSY_POLL_PROPNAME, TransportConstants.DEFAULT_SO_BUSY_POLL, configuration);
+
       useServlet = ConfigurationHelper.getBooleanProperty(TransportConstants.USE_SERVLET_PROP_NAME, TransportConstants.DEFAULT_USE_SERVLET, configuration);
       host = ConfigurationHelper.getStringProperty(TransportConstants.HOST_PROP_NAME, TransportConstants.DEFAULT_HOST, configuration);
       port = ConfigurationHelper.getIntProperty(TransportConstants.PORT_PROP_NAME, TransportConstants.DEFAULT_PORT, configuration);
@@ -321,6 +338,10 @@ public class NettyConnector extends AbstractConnector {
 
       batchDelay = ConfigurationHelper.getLongProperty(TransportConstants.BATCH_DELAY, TransportConstants.DEFAULT_BATCH_DELAY, configuration);
 
+      if (ConfigurationHelper.getBooleanProperty(TransportConstants.ADAPTIVE_BATCHING, TransportConstants.DEFAULT_ADAPTIVE_BATCHING, configuration)) {
+         adaptiveBatchSize = ConfigurationHelper.getIntProperty(TransportConstants.ADAPTIVE_BATCH_SIZE, TransportConstants.DEFAULT_ADAPTIVE_BATCH_SIZE, configuration);
+      }
+
       connectTimeoutMillis = ConfigurationHelper.getIntProperty(TransportConstants.NETTY_CONNECT_TIMEOUT, TransportConstants.DEFAULT_NETTY_CONNECT_TIMEOUT, configuration);
       this.closeExecutor = closeExecutor;
       this.scheduledThreadPool = scheduledThreadPool;
@@ -362,7 +383,14 @@ public class NettyConnector extends AbstractConnector {
          threadsToUse = this.nioRemotingThreads;
       }
 
-      if (useNioGlobalWorkerPool) {
+      boolean epoll = EpollTransport.isAvailable(useEpoll);
+
+      if (epoll) {
+         // the shared worker pool is NIO only, so an epoll connector always has its own group
+         channelClazz = EpollSocketChannel.class;
+         group = new EpollEventLoopGroup(threadsToUse);
+      }
+      else if (useNioGlobalWorkerPool) {
          channelClazz = NioSocketChannel.class;
          group = SharedNioEventLoopGroup.getInstance(threadsToUse);
       }
@@ -390,6 +418,9 @@ public class NettyConnector extends AbstractConnector {
       bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
       bootstrap.option(ChannelOption.SO_REUSEADDR, true);
       bootstrap.option(ChannelOption.ALLOCATOR, PartialPooledByteBufAllocator.INSTANCE);
+      if (epoll) {
+         EpollTransport.applyOptions(bootstrap, epollEdgeTriggered, tcpQuickAck, soBusyPoll);
+      }
       channelGroup = new DefaultChannelGroup("activemq-connector", GlobalEventExecutor.INSTANCE);
 
       final SSLContext context;
@@ -519,7 +550,7 @@ public class NettyConnector extends AbstractConnector {
          }
       });
 
-      if (batchDelay > 0) {
+      if (batchDelay > 0 && adaptiveBatchSize == 0) {
          flusher = new BatchFlusher();
 
          batchFlusherFuture = scheduledThreadPool.scheduleWithFixedDelay(flusher, batchDelay, batchDelay, TimeUnit.MILLISECONDS);
@@ -675,7 +706,7 @@ public class NettyConnector extends AbstractConnector {
 
          // No acceptor on a client connection
          Listener connectionListener = new Listener();
-         NettyConnection conn = new NettyConnection(configuration, ch, connectionListener, !httpEnabled && batchDelay > 0, false);
+         NettyConnection conn = new NettyConnection(configuration, ch, connectionListener, !httpEnabled && batchDelay > 0 && adaptiveBatchSize == 0, false, httpEnabled ? 0 : adaptiveBatchSize);
          connectionListener.connectionCreated(null, conn, protocolManager.getName());
          return conn;
       }
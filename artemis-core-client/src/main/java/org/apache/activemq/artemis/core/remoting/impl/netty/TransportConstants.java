@@ -53,6 +53,20 @@ public class TransportConstants {
 
    public static final String USE_INVM_PROP_NAME = "useInvm";
 
+   /**
+    * Use Netty's native epoll transport, falling back to NIO where it isn't available
+    */
+   public static final String USE_EPOLL_PROP_NAME = "useEpoll";
+
+   public static final String EPOLL_EDGE_TRIGGERED_PROP_NAME = "epollEdgeTriggered";
+
+   public static final String TCP_QUICKACK_PROPNAME = "tcpQuickAck";
+
+   /**
+    * Microseconds to busy poll the device queue for new packets, 0 disables busy polling
+    */
+   public static final String SO_BUSY_POLL_PROPNAME = "soBusyPoll";
+
    /**
     * @deprecated use PROTOCOLS_PROP_NAME
     */
@@ -111,6 +125,10 @@ public class TransportConstants {
 
    public static final String BATCH_DELAY = "batchDelay";
 
+   public static final String ADAPTIVE_BATCHING = "adaptiveBatching";
+
+   public static final String ADAPTIVE_BATCH_SIZE = "adaptiveBatchSize";
+
    public static final String DIRECT_DELIVER = "directDeliver";
 
    public static final String CLUSTER_CONNECTION = "clusterConnection";
@@ -125,6 +143,14 @@ public class TransportConstants {
 
    public static final boolean DEFAULT_USE_INVM = false;
 
+   public static final boolean DEFAULT_USE_EPOLL = false;
+
+   public static final boolean DEFAULT_EPOLL_EDGE_TRIGGERED = true;
+
+   public static final boolean DEFAULT_TCP_QUICKACK = false;
+
+   public static final int DEFAULT_SO_BUSY_POLL = 0;
+
    public static final boolean DEFAULT_USE_SERVLET = false;
 
    public static final String DEFAULT_HOST = "localhost";
@@ -179,6 +205,10 @@ public class TransportConstants {
 
    public static final long DEFAULT_BATCH_DELAY = 0;
 
+   public static final boolean DEFAULT_ADAPTIVE_BATCHING = false;
+
+   public static final int DEFAULT_ADAPTIVE_BATCH_SIZE = 32 * 1024;
+
    public static final boolean DEFAULT_DIRECT_DELIVER = true;
 
    public static final Set<String> ALLOWABLE_CONNECTOR_KEYS;
@@ -191,6 +221,14 @@ public class TransportConstants {
 
    public static final String STOMP_MIN_LARGE_MESSAGE_SIZE = "stomp-min-large-message-size";
 
+   public static final String STOMP_POOLED_DECODER = "stompPooledDecoder";
+
+   public static final boolean DEFAULT_STOMP_POOLED_DECODER = false;
+
+   public static final String MQTT_MAX_OFFLINE_SESSIONS = "mqttMaxOfflineSessions";
+
+   public static final int DEFAULT_MQTT_MAX_OFFLINE_SESSIONS = -1;
+
    public static final String NETTY_CONNECT_TIMEOUT = "connect-timeout-millis";
 
    public static final int DEFAULT_NETTY_CONNECT_TIMEOUT = -1;
@@ -207,6 +245,10 @@ public class TransportConstants {
       allowableAcceptorKeys.add(TransportConstants.HTTP_UPGRADE_ENABLED_PROP_NAME);
       allowableAcceptorKeys.add(TransportConstants.USE_NIO_PROP_NAME);
       allowableAcceptorKeys.add(TransportConstants.USE_INVM_PROP_NAME);
+      allowableAcceptorKeys.add(TransportConstants.USE_EPOLL_PROP_NAME);
+      allowableAcceptorKeys.add(TransportConstants.EPOLL_EDGE_TRIGGERED_PROP_NAME);
+      allowableAcceptorKeys.add(TransportConstants.TCP_QUICKACK_PROPNAME);
+      allowableAcceptorKeys.add(TransportConstants.SO_BUSY_POLL_PROPNAME);
       allowableAcceptorKeys.add(TransportConstants.PROTOCOL_PROP_NAME);
       allowableAcceptorKeys.add(TransportConstants.PROTOCOLS_PROP_NAME);
       allowableAcceptorKeys.add(TransportConstants.HOST_PROP_NAME);
@@ -225,12 +267,16 @@ public class TransportConstants {
       allowableAcceptorKeys.add(TransportConstants.TCP_RECEIVEBUFFER_SIZE_PROPNAME);
       allowableAcceptorKeys.add(TransportConstants.NIO_REMOTING_THREADS_PROPNAME);
       allowableAcceptorKeys.add(TransportConstants.BATCH_DELAY);
+      allowableAcceptorKeys.add(TransportConstants.ADAPTIVE_BATCHING);
+      allowableAcceptorKeys.add(TransportConstants.ADAPTIVE_BATCH_SIZE);
       allowableAcceptorKeys.add(TransportConstants.DIRECT_DELIVER);
       allowableAcceptorKeys.add(TransportConstants.CLUSTER_CONNECTION);
       allowableAcceptorKeys.add(TransportConstants.STOMP_CONSUMERS_CREDIT);
       allowableAcceptorKeys.add(TransportConstants.STOMP_MIN_LARGE_MESSAGE_SIZE);
       allowableAcceptorKeys.add(TransportConstants.CONNECTION_TTL);
       allowableAcceptorKeys.add(TransportConstants.STOMP_ENABLE_MESSAGE_ID);
+      allowableAcceptorKeys.add(TransportConstants.STOMP_POOLED_DECODER);
+      allowableAcceptorKeys.add(TransportConstants.MQTT_MAX_OFFLINE_SESSIONS);
       allowableAcceptorKeys.add(TransportConstants.CONNECTIONS_ALLOWED);
       allowableAcceptorKeys.add(ActiveMQDefaultConfiguration.getPropMaskPassword());
       allowableAcceptorKeys.add(ActiveMQDefaultConfiguration.getPropPasswordCodec());
@@ -249,6 +295,10 @@ public class TransportConstants {
       allowableConnectorKeys.add(TransportConstants.SERVLET_PATH);
       allowableConnectorKeys.add(TransportConstants.USE_NIO_PROP_NAME);
       allowableConnectorKeys.add(TransportConstants.USE_NIO_GLOBAL_WORKER_POOL_PROP_NAME);
+      allowableConnectorKeys.add(TransportConstants.USE_EPOLL_PROP_NAME);
+      allowableConnectorKeys.add(TransportConstants.EPOLL_EDGE_TRIGGERED_PROP_NAME);
+      allowableConnectorKeys.add(TransportConstants.TCP_QUICKACK_PROPNAME);
+      allowableConnectorKeys.add(TransportConstants.SO_BUSY_POLL_PROPNAME);
       allowableConnectorKeys.add(TransportConstants.HOST_PROP_NAME);
       allowableConnectorKeys.add(TransportConstants.PORT_PROP_NAME);
       allowableConnectorKeys.add(TransportConstants.LOCAL_ADDRESS_PROP_NAME);
@@ -266,6 +316,8 @@ public class TransportConstants {
       allowableConnectorKeys.add(TransportConstants.TCP_RECEIVEBUFFER_SIZE_PROPNAME);
       allowableConnectorKeys.add(TransportConstants.NIO_REMOTING_THREADS_PROPNAME);
       allowableConnectorKeys.add(TransportConstants.BATCH_DELAY);
+      allowableConnectorKeys.add(TransportConstants.ADAPTIVE_BATCHING);
+      allowableConnectorKeys.add(TransportConstants.ADAPTIVE_BATCH_SIZE);
       allowableConnectorKeys.add(ActiveMQDefaultConfiguration.getPropMaskPassword());
       allowableConnectorKeys.add(ActiveMQDefaultConfiguration.getPropPasswordCodec());
       allowableConnectorKeys.add(TransportConstants.NETTY_CONNECT_TIMEOUT);
@@ -17,6 +17,7 @@
 package org.apache.activemq.artemis.spi.core.remoting;
 
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.FileRegion;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.TransportConfiguration;
 import org.apache.activemq.artemis.core.security.ActiveMQPrincipal;
@@ -71,6 +72,26 @@ public interface Connection {
     */
    void write(ActiveMQBuffer buffer);
 
+   /**
+    * Returns whether file regions can be written to this connection without being copied into the heap,
+    * which is not the case once the bytes have to go through an encoder such as SSL.
+    *
+    * @return whether {@link #write(ActiveMQBuffer, FileRegion, ActiveMQBuffer, boolean)} writes the region without
+    * copying it, connections returning false still accept regions but read them into a buffer first
+    */
+   boolean isFileRegionSupported();
+
+   /**
+    * writes the header, the file region and the trailer to the connection, with no other write in between.
+    * The region is released once it has been written.
+    *
+    * @param header  the bytes to write before the region
+    * @param region  the region of a file to write
+    * @param trailer the bytes to write after the region
+    * @param flush   whether to flush the buffers onto the wire
+    */
+   void write(ActiveMQBuffer header, FileRegion region, ActiveMQBuffer trailer, boolean flush);
+
    /**
     * This should close the internal channel without calling any listeners.
     * This is to avoid a situation where the broker is busy writing on an internal thread.
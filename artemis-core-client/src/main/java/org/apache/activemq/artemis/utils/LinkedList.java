@@ -24,6 +24,18 @@ public interface LinkedList<E> {
 
    E poll();
 
+   /**
+    * Returns the element with the given ID, or null if the list can't find elements by ID or has no such element.
+    */
+   E peekWithID(long id);
+
+   /**
+    * Removes the element with the given ID, nudging any iterators currently positioned on it.
+    *
+    * @return the removed element, or null if the list can't find elements by ID or has no such element
+    */
+   E removeWithID(long id);
+
    LinkedListIterator<E> iterator();
 
    void clear();
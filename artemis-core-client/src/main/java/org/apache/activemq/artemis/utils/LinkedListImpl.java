@@ -23,6 +23,9 @@ import java.util.NoSuchElementException;
  * A linked list implementation which allows multiple iterators to exist at the same time on the queue, and which see any
  * elements added or removed from the queue either directly or via iterators.
  *
+ * When created with an {@link IDSupplier} the list can find its elements by ID, and if indexed it also keeps an index
+ * from element ID to node so {@link #peekWithID(long)} and {@link #removeWithID(long)} don't need to traverse the list.
+ *
  * This class is not thread safe.
  */
 public class LinkedListImpl<E> implements LinkedList<E> {
@@ -42,13 +45,34 @@ public class LinkedListImpl<E> implements LinkedList<E> {
 
    private int nextIndex;
 
+   private final IDSupplier<E> idSupplier;
+
+   // null unless indexed, the list is not thread safe so a single section is enough
+   private final ConcurrentLongHashMap<Node<E>> nodesByID;
+
    public LinkedListImpl() {
+      this(null, false);
+   }
+
+   public LinkedListImpl(final IDSupplier<E> idSupplier) {
+      this(idSupplier, true);
+   }
+
+   /**
+    * @param idSupplier used to find the elements by ID, by scanning the list unless indexed
+    * @param indexed    whether to keep an index of the elements by ID
+    */
+   public LinkedListImpl(final IDSupplier<E> idSupplier, final boolean indexed) {
       iters = createIteratorArray(INITIAL_ITERATOR_ARRAY_SIZE);
+      this.idSupplier = idSupplier;
+      this.nodesByID = idSupplier != null && indexed ? new ConcurrentLongHashMap<Node<E>>(16, 1) : null;
    }
 
    public void addHead(E e) {
       Node<E> node = new Node<E>(e);
 
+      addToIndex(node);
+
       node.next = head.next;
 
       node.prev = head;
@@ -73,6 +97,8 @@ public class LinkedListImpl<E> implements LinkedList<E> {
       else {
          Node<E> node = new Node<E>(e);
 
+         addToIndex(node);
+
          node.prev = tail;
 
          tail.next = node;
@@ -96,10 +122,36 @@ public class LinkedListImpl<E> implements LinkedList<E> {
       }
    }
 
+   public E peekWithID(final long id) {
+      Node<E> node = findNode(id);
+
+      return node == null ? null : node.val;
+   }
+
+   public E removeWithID(final long id) {
+      Node<E> node = findNode(id);
+
+      if (node == null) {
+         return null;
+      }
+
+      removeAfter(node.prev);
+
+      return node.val;
+   }
+
+   public boolean isIndexed() {
+      return nodesByID != null;
+   }
+
    public void clear() {
       tail = head.next = null;
 
       size = 0;
+
+      if (nodesByID != null) {
+         nodesByID.clear();
+      }
    }
 
    public int size() {
@@ -136,9 +188,73 @@ public class LinkedListImpl<E> implements LinkedList<E> {
       return (Iterator[]) Array.newInstance(Iterator.class, size);
    }
 
+   private Node<E> findNode(final long id) {
+      if (nodesByID != null) {
+         return nodesByID.get(id);
+      }
+
+      if (idSupplier == null) {
+         return null;
+      }
+
+      for (Node<E> node = head.next; node != null; node = node.next) {
+         if (idSupplier.getID(node.val) == id) {
+            return node;
+         }
+      }
+
+      return null;
+   }
+
+   private void addToIndex(final Node<E> node) {
+      if (nodesByID != null) {
+         node.id = idSupplier.getID(node.val);
+
+         Node<E> indexed = nodesByID.putIfAbsent(node.id, node);
+
+         if (indexed != null) {
+            // the same ID was added more than once, the indexed node chains the others
+            node.sameID = indexed.sameID;
+            indexed.sameID = node;
+         }
+      }
+   }
+
+   private void removeFromIndex(final Node<E> node) {
+      if (nodesByID == null) {
+         return;
+      }
+
+      Node<E> indexed = nodesByID.get(node.id);
+
+      if (indexed == node) {
+         if (node.sameID == null) {
+            nodesByID.remove(node.id);
+         }
+         else {
+            nodesByID.put(node.id, node.sameID);
+         }
+      }
+      else if (indexed != null) {
+         Node<E> previous = indexed;
+
+         while (previous.sameID != null && previous.sameID != node) {
+            previous = previous.sameID;
+         }
+
+         if (previous.sameID == node) {
+            previous.sameID = node.sameID;
+         }
+      }
+
+      node.sameID = null;
+   }
+
    private void removeAfter(Node<E> node) {
       Node<E> toRemove = node.next;
 
+      removeFromIndex(toRemove);
+
       node.next = toRemove.next;
 
       if (toRemove.next != null) {
@@ -223,6 +339,12 @@ public class LinkedListImpl<E> implements LinkedList<E> {
 
       int iterCount;
 
+      // only set when the list is indexed
+      long id;
+
+      // the next node indexed with the same id
+      Node<E> sameID;
+
       Node(E e) {
          val = e;
       }
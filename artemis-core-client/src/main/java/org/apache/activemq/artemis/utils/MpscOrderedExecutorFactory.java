@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.activemq.artemis.api.core.ActiveMQInterruptedException;
+import org.apache.activemq.artemis.core.client.ActiveMQClientLogger;
+
+/**
+ * A factory for producing executors that run all tasks in order, which delegate to a single common executor instance.
+ * <br>
+ * Unlike {@link OrderedExecutorFactory} the executors neither lock nor allocate on {@link Executor#execute(Runnable)}:
+ * tasks go into an array queue with many producers and a single consumer, which only allocates a new chunk of
+ * slots every {@value #CHUNK_SIZE} tasks.
+ */
+public final class MpscOrderedExecutorFactory implements ExecutorFactory {
+
+   static final int CHUNK_SIZE = 1024;
+
+   private final Executor parent;
+
+   private final int batchSize;
+
+   /**
+    * Construct a new instance delegating to the given parent executor, each executor running its tasks
+    * until it has none left.
+    *
+    * @param parent the parent executor
+    */
+   public MpscOrderedExecutorFactory(final Executor parent) {
+      this(parent, -1);
+   }
+
+   /**
+    * Construct a new instance delegating to the given parent executor.
+    *
+    * @param parent    the parent executor
+    * @param batchSize the number of tasks an executor runs before giving the thread back to the parent executor,
+    *                  -1 to run tasks until there are none left
+    */
+   public MpscOrderedExecutorFactory(final Executor parent, final int batchSize) {
+      this.parent = parent;
+      this.batchSize = batchSize;
+   }
+
+   /**
+    * Get an executor that always executes tasks in order.
+    *
+    * @return an ordered executor
+    */
+   public MpscOrderedExecutor getExecutor() {
+      return new MpscOrderedExecutor(parent, batchSize);
+   }
+
+   /**
+    * An executor that always runs all tasks in order, using a delegate executor to run the tasks.
+    * <br>
+    * More specifically, any call B to the {@link #execute(Runnable)} method that happens-after another call A to the
+    * same method, will result in B's task running after A's.
+    */
+   public static final class MpscOrderedExecutor implements Executor {
+
+      private final TaskQueue tasks = new TaskQueue();
+
+      // the number of tasks fully added to the queue and not run yet, the one moving it from 0 starts the runner
+      private final AtomicInteger pending = new AtomicInteger();
+
+      private final Executor parent;
+
+      private final int batchSize;
+
+      private final Runnable runner;
+
+      // only written by the runner, which never runs twice at the same time
+      private volatile long executedCount;
+
+      private volatile long totalLatency;
+
+      private volatile long maxLatency;
+
+      MpscOrderedExecutor(final Executor parent, final int batchSize) {
+         this.parent = parent;
+         this.batchSize = batchSize > 0 ? batchSize : Integer.MAX_VALUE;
+         runner = new Runnable() {
+            public void run() {
+               runTasks();
+            }
+         };
+      }
+
+      /**
+       * Run a task.
+       *
+       * @param command the task to run.
+       */
+      public void execute(final Runnable command) {
+         tasks.offer(command, System.nanoTime());
+         if (pending.getAndIncrement() == 0) {
+            parent.execute(runner);
+         }
+      }
+
+      private void runTasks() {
+         int run = 0;
+         for (;;) {
+            int batch = Math.min(pending.get(), batchSize - run);
+            long latencies = 0;
+            long max = 0;
+            for (int i = 0; i < batch; i++) {
+               Runnable task = tasks.poll();
+               long latency = System.nanoTime() - tasks.lastEnqueueTime;
+               latencies += latency;
+               if (latency > max) {
+                  max = latency;
+               }
+               try {
+                  task.run();
+               }
+               catch (ActiveMQInterruptedException e) {
+                  // This could happen during shutdowns. Nothing to be concerned about here
+                  ActiveMQClientLogger.LOGGER.debug("Interrupted Thread", e);
+               }
+               catch (Throwable t) {
+                  ActiveMQClientLogger.LOGGER.caughtunexpectedThrowable(t);
+               }
+            }
+            run += batch;
+
+            executedCount += batch;
+            totalLatency += latencies;
+            if (max > maxLatency) {
+               maxLatency = max;
+            }
+
+            if (pending.addAndGet(-batch) == 0) {
+               return;
+            }
+            if (run >= batchSize) {
+               // let the other executors sharing the parent have a go before carrying on
+               parent.execute(runner);
+               return;
+            }
+         }
+      }
+
+      /**
+       * Returns the number of tasks waiting to be run.
+       */
+      public int getQueueDepth() {
+         return pending.get();
+      }
+
+      /**
+       * Returns the number of tasks run so far.
+       */
+      public long getExecutedCount() {
+         return executedCount;
+      }
+
+      /**
+       * Returns the average time, in nanoseconds, tasks waited in the queue before being run.
+       */
+      public long getAverageLatency() {
+         long count = executedCount;
+         return count == 0 ? 0 : totalLatency / count;
+      }
+
+      /**
+       * Returns the longest time, in nanoseconds, a task waited in the queue before being run.
+       */
+      public long getMaxLatency() {
+         return maxLatency;
+      }
+
+      public String toString() {
+         return "MpscOrderedExecutor(pending=" + pending.get() + ", executed=" + executedCount + ")";
+      }
+   }
+
+   private static final class Chunk {
+
+      final AtomicReferenceArray<Runnable> tasks = new AtomicReferenceArray<>(CHUNK_SIZE);
+
+      // written before the task itself is published
+      final long[] enqueueTimes = new long[CHUNK_SIZE];
+
+      final AtomicInteger producerIndex = new AtomicInteger();
+
+      final AtomicReference<Chunk> next = new AtomicReference<>();
+   }
+
+   /**
+    * An unbounded queue of chunks of slots. Producers claim a slot by incrementing the index of the last chunk,
+    * and those who find it full link and move on to the next chunk.
+    */
+   private static final class TaskQueue {
+
+      private final AtomicReference<Chunk> producerChunk;
+
+      // only used by the consumer
+      private Chunk consumerChunk;
+
+      private int consumerIndex;
+
+      long lastEnqueueTime;
+
+      TaskQueue() {
+         consumerChunk = new Chunk();
+         producerChunk = new AtomicReference<>(consumerChunk);
+      }
+
+      void offer(final Runnable task, final long enqueueTime) {
+         for (;;) {
+            Chunk chunk = producerChunk.get();
+            int index = chunk.producerIndex.getAndIncrement();
+            if (index < CHUNK_SIZE) {
+               chunk.enqueueTimes[index] = enqueueTime;
+               chunk.tasks.lazySet(index, task);
+               return;
+            }
+
+            Chunk next = chunk.next.get();
+            if (next == null) {
+               next = new Chunk();
+               if (!chunk.next.compareAndSet(null, next)) {
+                  next = chunk.next.get();
+               }
+            }
+            producerChunk.compareAndSet(chunk, next);
+         }
+      }
+
+      /**
+       * Only called once a task is known to be there: a producer may still be writing a slot it
+       * claimed earlier than the task that was counted, so this waits for it.
+       */
+      Runnable poll() {
+         if (consumerIndex == CHUNK_SIZE) {
+            Chunk next;
+            while ((next = consumerChunk.next.get()) == null) {
+               Thread.yield();
+            }
+            consumerChunk = next;
+            consumerIndex = 0;
+         }
+
+         Runnable task;
+         while ((task = consumerChunk.tasks.get(consumerIndex)) == null) {
+            Thread.yield();
+         }
+         consumerChunk.tasks.lazySet(consumerIndex, null);
+         lastEnqueueTime = consumerChunk.enqueueTimes[consumerIndex];
+         consumerIndex++;
+         return task;
+      }
+   }
+}
@@ -28,6 +28,10 @@ public interface PriorityLinkedList<T> {
 
    T poll();
 
+   T peekWithID(long id);
+
+   T removeWithID(long id);
+
    void clear();
 
    int size();
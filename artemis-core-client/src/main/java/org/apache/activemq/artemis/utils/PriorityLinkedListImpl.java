@@ -37,10 +37,25 @@ public class PriorityLinkedListImpl<T> implements PriorityLinkedList<T> {
    private int lastPriority = -1;
 
    public PriorityLinkedListImpl(final int priorities) {
+      this(priorities, null, false);
+   }
+
+   /**
+    * @param idSupplier if not null every level will index its elements by ID,
+    *                   see {@link LinkedListImpl#LinkedListImpl(IDSupplier)}
+    */
+   public PriorityLinkedListImpl(final int priorities, final IDSupplier<T> idSupplier) {
+      this(priorities, idSupplier, true);
+   }
+
+   /**
+    * @see LinkedListImpl#LinkedListImpl(IDSupplier, boolean)
+    */
+   public PriorityLinkedListImpl(final int priorities, final IDSupplier<T> idSupplier, final boolean indexed) {
       levels = (LinkedListImpl<T>[]) Array.newInstance(LinkedListImpl.class, priorities);
 
       for (int i = 0; i < priorities; i++) {
-         levels[i] = new LinkedListImpl<T>();
+         levels[i] = new LinkedListImpl<T>(idSupplier, indexed);
       }
    }
 
@@ -108,6 +123,41 @@ public class PriorityLinkedListImpl<T> implements PriorityLinkedList<T> {
       return t;
    }
 
+   public T peekWithID(final long id) {
+      for (int i = levels.length - 1; i >= 0; i--) {
+         T t = levels[i].peekWithID(id);
+
+         if (t != null) {
+            return t;
+         }
+      }
+
+      return null;
+   }
+
+   public T removeWithID(final long id) {
+      for (int i = levels.length - 1; i >= 0; i--) {
+         LinkedListImpl<T> ll = levels[i];
+
+         T t = ll.removeWithID(id);
+
+         if (t != null) {
+            size--;
+
+            if (i == highestPriority) {
+               // same as the iterator's remove, we can't leave highestPriority on an empty level
+               while (highestPriority >= 0 && levels[highestPriority].size() == 0) {
+                  highestPriority--;
+               }
+            }
+
+            return t;
+         }
+      }
+
+      return null;
+   }
+
    public void clear() {
       for (LinkedListImpl<T> list : levels) {
          list.clear();
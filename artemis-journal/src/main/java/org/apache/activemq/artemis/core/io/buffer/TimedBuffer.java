@@ -18,7 +18,6 @@ package org.apache.activemq.artemis.core.io.buffer;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -52,11 +51,22 @@ public class TimedBuffer {
 
    private final int bufferSize;
 
-   private final ActiveMQBuffer buffer;
+   // The records are added to the current batch while the previous one is being written by a flush,
+   // so adding records never waits for the observer.
+   private Batch batch;
+
+   // The batch swapped in on the next flush, null while it's being written to the observer
+   private Batch spare;
+
+   // Serializes the flushes, so the batches reach the observer, and their callbacks complete, in the order
+   // they were filled. It's always taken before the monitor of this object, which is only held to add
+   // records or swap the batches.
+   private final Object flushLock = new Object();
 
    private int bufferLimit = 0;
 
-   private List<IOCallback> callbacks;
+   // The bytes left in the file for the current batch, given the batches flushed since it was checked
+   private int remainingInFile;
 
    private volatile int timeout;
 
@@ -105,14 +115,12 @@ public class TimedBuffer {
       }
       // Setting the interval for nano-sleeps
 
-      buffer = ActiveMQBuffers.fixedBuffer(bufferSize);
+      batch = new Batch(bufferSize);
 
-      buffer.clear();
+      spare = new Batch(bufferSize);
 
       bufferLimit = 0;
 
-      callbacks = new ArrayList<IOCallback>();
-
       this.timeout = timeout;
    }
 
@@ -182,12 +190,19 @@ public class TimedBuffer {
       started = false;
    }
 
-   public synchronized void setObserver(final TimedBufferObserver observer) {
-      if (bufferObserver != null) {
-         flush();
-      }
+   public void setObserver(final TimedBufferObserver observer) {
+      synchronized (flushLock) {
+         synchronized (this) {
+            if (bufferObserver != null) {
+               flush();
+            }
 
-      bufferObserver = observer;
+            bufferObserver = observer;
+
+            // the limit has to be calculated against the new file
+            bufferLimit = 0;
+         }
+      }
    }
 
    /**
@@ -195,7 +210,7 @@ public class TimedBuffer {
     *
     * @param sizeChecked
     */
-   public synchronized boolean checkSize(final int sizeChecked) {
+   public boolean checkSize(final int sizeChecked) {
       if (!started) {
          throw new IllegalStateException("TimedBuffer is not started");
       }
@@ -205,33 +220,41 @@ public class TimedBuffer {
                                             ") on the journal");
       }
 
-      if (bufferLimit == 0 || buffer.writerIndex() + sizeChecked > bufferLimit) {
-         // Either there is not enough space left in the buffer for the sized record
-         // Or a flush has just been performed and we need to re-calcualate bufferLimit
+      synchronized (this) {
+         if (bufferLimit != 0 && batch.buffer.writerIndex() + sizeChecked <= bufferLimit) {
+            delayFlush = true;
+
+            return true;
+         }
+      }
+
+      // Either there is not enough space left in the buffer for the sized record
+      // Or a flush has just been performed and we need to re-calcualate bufferLimit
 
+      synchronized (flushLock) {
          flush();
 
-         delayFlush = true;
+         synchronized (this) {
+            delayFlush = true;
 
-         final int remainingInFile = bufferObserver.getRemainingBytes();
+            // nothing is waiting to be written now, the observer knows exactly what's left in the file
+            remainingInFile = bufferObserver.getRemainingBytes();
 
-         if (sizeChecked > remainingInFile) {
-            return false;
-         }
-         else {
-            // There is enough space in the file for this size
+            if (sizeChecked > remainingInFile) {
+               bufferLimit = 0;
 
-            // Need to re-calculate buffer limit
+               return false;
+            }
+            else {
+               // There is enough space in the file for this size
 
-            bufferLimit = Math.min(remainingInFile, bufferSize);
+               // Need to re-calculate buffer limit
 
-            return true;
-         }
-      }
-      else {
-         delayFlush = true;
+               bufferLimit = Math.min(remainingInFile, bufferSize);
 
-         return true;
+               return true;
+            }
+         }
       }
    }
 
@@ -246,9 +269,9 @@ public class TimedBuffer {
 
       delayFlush = false;
 
-      bytes.encode(buffer);
+      bytes.encode(batch.buffer);
 
-      callbacks.add(callback);
+      batch.callbacks.add(callback);
 
       if (sync) {
          pendingSync = true;
@@ -267,40 +290,75 @@ public class TimedBuffer {
     * or data could be lost
     */
    public void flush(final boolean force) {
-      synchronized (this) {
-         if (!started) {
-            throw new IllegalStateException("TimedBuffer is not started");
-         }
+      synchronized (flushLock) {
+         final Batch flushing;
+
+         final ByteBuffer bufferToFlush;
+
+         final TimedBufferObserver observer;
+
+         final boolean sync;
+
+         synchronized (this) {
+            if (!started) {
+               throw new IllegalStateException("TimedBuffer is not started");
+            }
+
+            if ((!force && delayFlush) || batch.buffer.writerIndex() == 0) {
+               return;
+            }
 
-         if ((force || !delayFlush) && buffer.writerIndex() > 0) {
-            int pos = buffer.writerIndex();
+            int pos = batch.buffer.writerIndex();
 
             if (logRates) {
                bytesFlushed.addAndGet(pos);
             }
 
-            ByteBuffer bufferToFlush = bufferObserver.newBuffer(bufferSize, pos);
+            bufferToFlush = bufferObserver.newBuffer(bufferSize, pos);
 
-            // Putting a byteArray on a native buffer is much faster, since it will do in a single native call.
-            // Using bufferToFlush.put(buffer) would make several append calls for each byte
-            // We also transfer the content of this buffer to the native file's buffer
+            observer = bufferObserver;
+
+            sync = pendingSync;
+
+            // the records added from now on go to the spare batch while this one is written
+            flushing = batch;
+
+            batch = spare;
+
+            spare = null;
 
-            bufferToFlush.put(buffer.toByteBuffer().array(), 0, pos);
+            if (force || bufferLimit == 0) {
+               bufferLimit = 0;
+            }
+            else {
+               // the flushed batch can take more than its size in the file once aligned
+               remainingInFile -= bufferToFlush.limit();
 
-            bufferObserver.flushBuffer(bufferToFlush, pendingSync, callbacks);
+               bufferLimit = remainingInFile > 0 ? Math.min(remainingInFile, bufferSize) : 0;
+            }
 
             stopSpin();
 
             pendingSync = false;
 
-            // swap the instance as the previous callback list is being used asynchronously
-            callbacks = new LinkedList<IOCallback>();
+            flushesDone.incrementAndGet();
+         }
 
-            buffer.clear();
+         try {
+            // Putting a byteArray on a native buffer is much faster, since it will do in a single native call.
+            // Using bufferToFlush.put(buffer) would make several append calls for each byte
+            // We also transfer the content of this buffer to the native file's buffer
 
-            bufferLimit = 0;
+            bufferToFlush.put(flushing.buffer.toByteBuffer().array(), 0, flushing.buffer.writerIndex());
 
-            flushesDone.incrementAndGet();
+            observer.flushBuffer(bufferToFlush, sync, flushing.callbacks);
+         }
+         finally {
+            synchronized (this) {
+               flushing.clear();
+
+               spare = flushing;
+            }
          }
       }
    }
@@ -313,6 +371,26 @@ public class TimedBuffer {
 
    // Inner classes -------------------------------------------------
 
+   private static final class Batch {
+
+      private final ActiveMQBuffer buffer;
+
+      private List<IOCallback> callbacks = new ArrayList<IOCallback>();
+
+      private Batch(final int size) {
+         buffer = ActiveMQBuffers.fixedBuffer(size);
+
+         buffer.clear();
+      }
+
+      private void clear() {
+         buffer.clear();
+
+         // swap the instance as the previous callback list is being used asynchronously
+         callbacks = new ArrayList<IOCallback>();
+      }
+   }
+
    private class LogRatesTimerTask extends TimerTask {
 
       private boolean closed;
@@ -222,6 +222,11 @@ public interface Journal extends ActiveMQComponent {
     */
    void scheduleCompactAndBlock(int timeout) throws Exception;
 
+   /**
+    * Returns the pauses compacting imposed on the journal, while appending records had to wait.
+    */
+   PauseHistogram getCompactPauses();
+
    /**
     * Stops any operation that may delete or modify old (stale) data.
     * <p>
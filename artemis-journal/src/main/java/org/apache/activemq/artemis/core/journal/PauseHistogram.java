@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.journal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts pauses, such as the time compacting holds appends out of the journal, in power of two buckets of
+ * microseconds: bucket {@code i} counts the pauses shorter than {@code 2^i} microseconds that did not fit in the
+ * previous bucket, and the last bucket counts everything longer.
+ */
+public final class PauseHistogram {
+
+   public static final int BUCKETS = 24;
+
+   private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+   private final AtomicLong totalMicros = new AtomicLong();
+
+   private final AtomicLong maxMicros = new AtomicLong();
+
+   public void record(final long nanos) {
+      long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+
+      counts.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+      totalMicros.addAndGet(micros);
+
+      long max = maxMicros.get();
+      while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+         max = maxMicros.get();
+      }
+   }
+
+   /**
+    * @return the pauses shorter than {@link #getBucketLimitMicros(int)}, and not counted by the previous bucket
+    */
+   public long getCount(final int bucket) {
+      return counts.get(bucket);
+   }
+
+   public long getCount() {
+      long count = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+         count += counts.get(i);
+      }
+      return count;
+   }
+
+   public long getTotalMicros() {
+      return totalMicros.get();
+   }
+
+   public long getMaxMicros() {
+      return maxMicros.get();
+   }
+
+   /**
+    * @return the exclusive upper limit of a bucket, or {@link Long#MAX_VALUE} for the last one
+    */
+   public static long getBucketLimitMicros(final int bucket) {
+      return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+   }
+
+   public void reset() {
+      for (int i = 0; i < BUCKETS; i++) {
+         counts.set(i, 0);
+      }
+      totalMicros.set(0);
+      maxMicros.set(0);
+   }
+
+   @Override
+   public String toString() {
+      return "PauseHistogram [count=" + getCount() + ", totalMicros=" + getTotalMicros() + ", maxMicros=" + getMaxMicros() + "]";
+   }
+}
@@ -19,7 +19,6 @@ package org.apache.activemq.artemis.core.journal.impl;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
@@ -29,7 +28,7 @@ import org.apache.activemq.artemis.core.io.SequentialFileFactory;
 import org.apache.activemq.artemis.core.journal.impl.dataformat.ByteArrayEncoding;
 import org.apache.activemq.artemis.core.journal.impl.dataformat.JournalAddRecord;
 import org.apache.activemq.artemis.core.journal.impl.dataformat.JournalInternalRecord;
-import org.apache.activemq.artemis.utils.ConcurrentHashSet;
+import org.apache.activemq.artemis.utils.ConcurrentLongHashMap;
 
 /**
  * Super class for Journal maintenances such as clean up and Compactor
@@ -55,7 +54,12 @@ public abstract class AbstractJournalUpdateTask implements JournalReaderCallback
 
    private ActiveMQBuffer writingChannel;
 
-   private final Set<Long> recordsSnapshot = new ConcurrentHashSet<Long>();
+   // The records of the journal when the task started. The journal has replaced this map by a new one, so it is not
+   // changed anymore and can be read without copying it
+   private final ConcurrentLongHashMap<?> recordsSnapshot;
+
+   // Records the task was told about after it started
+   private final ConcurrentLongHashMap<Boolean> addedRecords = new ConcurrentLongHashMap<Boolean>();
 
    protected final List<JournalFile> newDataFiles = new ArrayList<JournalFile>();
 
@@ -66,14 +70,14 @@ public abstract class AbstractJournalUpdateTask implements JournalReaderCallback
    protected AbstractJournalUpdateTask(final SequentialFileFactory fileFactory,
                                        final JournalImpl journal,
                                        final JournalFilesRepository filesRepository,
-                                       final Set<Long> recordsSnapshot,
+                                       final ConcurrentLongHashMap<?> recordsSnapshot,
                                        final long nextOrderingID) {
       super();
       this.journal = journal;
       this.filesRepository = filesRepository;
       this.fileFactory = fileFactory;
       this.nextOrderingID = nextOrderingID;
-      this.recordsSnapshot.addAll(recordsSnapshot);
+      this.recordsSnapshot = recordsSnapshot;
    }
 
    // Public --------------------------------------------------------
@@ -172,7 +176,7 @@ public abstract class AbstractJournalUpdateTask implements JournalReaderCallback
    }
 
    public boolean lookupRecord(final long id) {
-      return recordsSnapshot.contains(id);
+      return recordsSnapshot.containsKey(id) || addedRecords.containsKey(id);
    }
 
    // Package protected ---------------------------------------------
@@ -202,7 +206,7 @@ public abstract class AbstractJournalUpdateTask implements JournalReaderCallback
    }
 
    protected void addToRecordsSnaptshot(final long id) {
-      recordsSnapshot.add(id);
+      addedRecords.put(id, Boolean.TRUE);
    }
 
    /**
@@ -30,6 +30,7 @@ import org.apache.activemq.artemis.core.journal.IOCompletion;
 import org.apache.activemq.artemis.core.journal.Journal;
 import org.apache.activemq.artemis.core.journal.JournalLoadInformation;
 import org.apache.activemq.artemis.core.journal.LoaderCallback;
+import org.apache.activemq.artemis.core.journal.PauseHistogram;
 import org.apache.activemq.artemis.core.journal.PreparedTransactionInfo;
 import org.apache.activemq.artemis.core.journal.RecordInfo;
 import org.apache.activemq.artemis.core.io.SequentialFileFactory;
@@ -307,6 +308,11 @@ public final class FileWrapperJournal extends JournalBase {
       throw new UnsupportedOperationException();
    }
 
+   @Override
+   public PauseHistogram getCompactPauses() {
+      return journal.getCompactPauses();
+   }
+
    @Override
    public void replicationSyncPreserveOldFiles() {
       throw new UnsupportedOperationException();
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.journal.impl;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.RecordInfo;
+
+/**
+ * Reads and decodes the files of a journal on a pool of threads while they are being loaded.
+ * <p>
+ * At most {@value #MAX_FILES_AHEAD} files are read ahead of the file being loaded, whatever the number of threads, as
+ * the records of each file are kept on the heap as they were read until they are replayed on the loading thread, in
+ * the order of the files, by {@link #replay(JournalFile, JournalReaderCallback)}.
+ */
+final class JournalFilesReadAhead {
+
+   static final int MAX_FILES_AHEAD = 4;
+
+   private final SequentialFileFactory fileFactory;
+
+   private final List<JournalFile> files;
+
+   private final ExecutorService executor;
+
+   private final int window;
+
+   private final ArrayDeque<Future<ReadFile>> pending = new ArrayDeque<Future<ReadFile>>();
+
+   private int next;
+
+   JournalFilesReadAhead(final SequentialFileFactory fileFactory, final List<JournalFile> files, final int threads) {
+      this.fileFactory = fileFactory;
+      this.files = files;
+      this.window = MAX_FILES_AHEAD;
+      // a thread beyond the window would never have a file to read
+      this.executor = Executors.newFixedThreadPool(Math.min(threads, window), new ThreadFactory() {
+         private final AtomicInteger count = new AtomicInteger();
+
+         public Thread newThread(final Runnable r) {
+            Thread thread = new Thread(r, "JournalImpl::LoadExecutor-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+         }
+      });
+
+      while (pending.size() < window && next < files.size()) {
+         submitNext();
+      }
+   }
+
+   /**
+    * Passes the records of the file to the callback, as {@link JournalImpl#readJournalFile} would have, and returns
+    * the position after its last record. The files have to be replayed in the order they were given.
+    * <p>
+    * The threads are released once the last file is replayed, or as soon as reading or replaying a file fails.
+    */
+   int replay(final JournalFile file, final JournalReaderCallback callback) throws Exception {
+      boolean done = false;
+      try {
+         Future<ReadFile> future = pending.poll();
+         if (future == null) {
+            throw new IllegalStateException("No file left to replay " + file);
+         }
+
+         if (next < files.size()) {
+            submitNext();
+         }
+
+         ReadFile readFile;
+         try {
+            readFile = future.get();
+         }
+         catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+               throw (Exception) cause;
+            }
+            throw new Exception(cause.getMessage(), cause);
+         }
+
+         if (readFile.file != file) {
+            throw new IllegalStateException("Files replayed out of order, expected " + readFile.file + " but got " + file);
+         }
+
+         readFile.replay(callback);
+         done = true;
+         return readFile.lastDataPos;
+      }
+      finally {
+         if (!done || pending.isEmpty()) {
+            close();
+         }
+      }
+   }
+
+   /**
+    * Releases the threads and the files read ahead, if the load ends before the last file is replayed.
+    */
+   void close() {
+      for (Future<ReadFile> future : pending) {
+         future.cancel(false);
+      }
+      pending.clear();
+      executor.shutdown();
+   }
+
+   private void submitNext() {
+      final JournalFile file = files.get(next++);
+      pending.add(executor.submit(new Callable<ReadFile>() {
+         public ReadFile call() throws Exception {
+            ReadFile readFile = new ReadFile(file);
+            readFile.lastDataPos = JournalImpl.readJournalFile(fileFactory, file, readFile);
+            return readFile;
+         }
+      }));
+   }
+
+   /**
+    * The callbacks of a file, recorded in arrays to be replayed later.
+    */
+   private static final class ReadFile implements JournalReaderCallback {
+
+      private static final byte ADD = 0;
+      private static final byte UPDATE = 1;
+      private static final byte DELETE = 2;
+      private static final byte ADD_TX = 3;
+      private static final byte UPDATE_TX = 4;
+      private static final byte DELETE_TX = 5;
+      private static final byte PREPARE = 6;
+      private static final byte COMMIT = 7;
+      private static final byte ROLLBACK = 8;
+      private static final byte MARK_AS_DATA_FILE = 9;
+
+      private final JournalFile file;
+
+      private byte[] types = new byte[64];
+
+      private long[] ids = new long[64];
+
+      private Object[] values = new Object[64];
+
+      private int[] numbers = new int[64];
+
+      private int size;
+
+      private int lastDataPos;
+
+      private ReadFile(final JournalFile file) {
+         this.file = file;
+      }
+
+      private void add(final byte type, final long id, final Object value, final int number) {
+         if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            values = Arrays.copyOf(values, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+         }
+         types[size] = type;
+         ids[size] = id;
+         values[size] = value;
+         numbers[size] = number;
+         size++;
+      }
+
+      private void replay(final JournalReaderCallback callback) throws Exception {
+         for (int i = 0; i < size; i++) {
+            long id = ids[i];
+            Object value = values[i];
+            // the records may be released as soon as the callback is done with them
+            values[i] = null;
+
+            switch (types[i]) {
+               case ADD:
+                  callback.onReadAddRecord((RecordInfo) value);
+                  break;
+               case UPDATE:
+                  callback.onReadUpdateRecord((RecordInfo) value);
+                  break;
+               case DELETE:
+                  callback.onReadDeleteRecord(id);
+                  break;
+               case ADD_TX:
+                  callback.onReadAddRecordTX(id, (RecordInfo) value);
+                  break;
+               case UPDATE_TX:
+                  callback.onReadUpdateRecordTX(id, (RecordInfo) value);
+                  break;
+               case DELETE_TX:
+                  callback.onReadDeleteRecordTX(id, (RecordInfo) value);
+                  break;
+               case PREPARE:
+                  callback.onReadPrepareRecord(id, (byte[]) value, numbers[i]);
+                  break;
+               case COMMIT:
+                  callback.onReadCommitRecord(id, numbers[i]);
+                  break;
+               case ROLLBACK:
+                  callback.onReadRollbackRecord(id);
+                  break;
+               case MARK_AS_DATA_FILE:
+                  callback.markAsDataFile((JournalFile) value);
+                  break;
+               default:
+                  throw new IllegalStateException("Invalid callback " + types[i]);
+            }
+         }
+      }
+
+      public void onReadAddRecord(final RecordInfo info) {
+         add(ADD, 0, info, 0);
+      }
+
+      public void onReadUpdateRecord(final RecordInfo info) {
+         add(UPDATE, 0, info, 0);
+      }
+
+      public void onReadDeleteRecord(final long recordID) {
+         add(DELETE, recordID, null, 0);
+      }
+
+      public void onReadAddRecordTX(final long transactionID, final RecordInfo info) {
+         add(ADD_TX, transactionID, info, 0);
+      }
+
+      public void onReadUpdateRecordTX(final long transactionID, final RecordInfo info) {
+         add(UPDATE_TX, transactionID, info, 0);
+      }
+
+      public void onReadDeleteRecordTX(final long transactionID, final RecordInfo info) {
+         add(DELETE_TX, transactionID, info, 0);
+      }
+
+      public void onReadPrepareRecord(final long transactionID, final byte[] extraData, final int numberOfRecords) {
+         add(PREPARE, transactionID, extraData, numberOfRecords);
+      }
+
+      public void onReadCommitRecord(final long transactionID, final int numberOfRecords) {
+         add(COMMIT, transactionID, null, numberOfRecords);
+      }
+
+      public void onReadRollbackRecord(final long transactionID) {
+         add(ROLLBACK, transactionID, null, 0);
+      }
+
+      public void markAsDataFile(final JournalFile file) {
+         add(MARK_AS_DATA_FILE, 0, file, 0);
+      }
+   }
+}
@@ -22,15 +22,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -51,6 +45,7 @@ import org.apache.activemq.artemis.core.journal.EncodingSupport;
 import org.apache.activemq.artemis.core.journal.IOCompletion;
 import org.apache.activemq.artemis.core.journal.JournalLoadInformation;
 import org.apache.activemq.artemis.core.journal.LoaderCallback;
+import org.apache.activemq.artemis.core.journal.PauseHistogram;
 import org.apache.activemq.artemis.core.journal.PreparedTransactionInfo;
 import org.apache.activemq.artemis.core.journal.RecordInfo;
 import org.apache.activemq.artemis.core.io.SequentialFile;
@@ -69,6 +64,7 @@ import org.apache.activemq.artemis.core.journal.impl.dataformat.JournalRollbackR
 import org.apache.activemq.artemis.journal.ActiveMQJournalBundle;
 import org.apache.activemq.artemis.journal.ActiveMQJournalLogger;
 import org.apache.activemq.artemis.utils.ConcurrentHashSet;
+import org.apache.activemq.artemis.utils.ConcurrentLongHashMap;
 import org.apache.activemq.artemis.utils.DataConstants;
 
 /**
@@ -161,6 +157,8 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
    private volatile boolean autoReclaim = true;
 
+   private volatile int loadThreads = 1;
+
    private final int userVersion;
 
    private final int minFiles;
@@ -173,17 +171,20 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
    private final JournalFilesRepository filesRepository;
 
-   // Compacting may replace this structure
-   private final ConcurrentMap<Long, JournalRecord> records = new ConcurrentHashMap<Long, JournalRecord>();
+   // Compacting replaces this structure, always under the journal write lock
+   private volatile ConcurrentLongHashMap<JournalRecord> records = new ConcurrentLongHashMap<JournalRecord>();
 
    // Compacting may replace this structure
-   private final ConcurrentMap<Long, JournalTransaction> transactions = new ConcurrentHashMap<Long, JournalTransaction>();
+   private final ConcurrentLongHashMap<JournalTransaction> transactions = new ConcurrentLongHashMap<JournalTransaction>();
 
    // This will be set only while the JournalCompactor is being executed
    private volatile JournalCompactor compactor;
 
    private final AtomicBoolean compactorRunning = new AtomicBoolean();
 
+   // Time the journal write lock is held by compacting, while appends wait
+   private final PauseHistogram compactPauses = new PauseHistogram();
+
    private ExecutorService filesExecutor = null;
 
    private ExecutorService compactorExecutor = null;
@@ -319,7 +320,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       latch.await();
    }
 
-   public Map<Long, JournalRecord> getRecords() {
+   public ConcurrentLongHashMap<JournalRecord> getRecords() {
       return records;
    }
 
@@ -331,6 +332,11 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       return compactor;
    }
 
+   @Override
+   public PauseHistogram getCompactPauses() {
+      return compactPauses;
+   }
+
    /**
     * this method is used internally only however tools may use it to maintenance.
     * It won't be part of the interface as the tools should be specific to the implementation
@@ -1149,12 +1155,12 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                                                    final List<PreparedTransactionInfo> preparedTransactions,
                                                    final TransactionFailureCallback failureCallback,
                                                    final boolean fixBadTX) throws Exception {
-      final Set<Long> recordsToDelete = new HashSet<Long>();
-      // ArrayList was taking too long to delete elements on checkDeleteSize
-      final List<RecordInfo> records = new LinkedList<RecordInfo>();
-
       final int DELETE_FLUSH = 20000;
 
+      // the deleted ids are kept in a primitive map, the records are removed from the list by compacting it in place
+      final ConcurrentLongHashMap<Boolean> recordsToDelete = new ConcurrentLongHashMap<Boolean>(DELETE_FLUSH, 1);
+      final ArrayList<RecordInfo> records = new ArrayList<RecordInfo>();
+
       JournalLoadInformation info = load(new LoaderCallback() {
          Runtime runtime = Runtime.getRuntime();
 
@@ -1164,14 +1170,15 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                ActiveMQJournalLogger.LOGGER.debug("Flushing deletes during loading, deleteCount = " + recordsToDelete.size());
                // Clean up when the list is too large, or it won't be possible to load large sets of files
                // Done as part of JBMESSAGING-1678
-               Iterator<RecordInfo> iter = records.iterator();
-               while (iter.hasNext()) {
-                  RecordInfo record = iter.next();
+               int kept = 0;
+               for (int i = 0; i < records.size(); i++) {
+                  RecordInfo record = records.get(i);
 
-                  if (recordsToDelete.contains(record.id)) {
-                     iter.remove();
+                  if (!recordsToDelete.containsKey(record.id)) {
+                     records.set(kept++, record);
                   }
                }
+               records.subList(kept, records.size()).clear();
 
                recordsToDelete.clear();
 
@@ -1195,7 +1202,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
          }
 
          public void deleteRecord(final long id) {
-            recordsToDelete.add(id);
+            recordsToDelete.put(id, Boolean.TRUE);
             checkDeleteSize();
          }
 
@@ -1209,7 +1216,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       }, fixBadTX, null);
 
       for (RecordInfo record : records) {
-         if (!recordsToDelete.contains(record.id)) {
+         if (!recordsToDelete.containsKey(record.id)) {
             committedRecords.add(record);
          }
       }
@@ -1281,6 +1288,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
             // We need to guarantee that the journal is frozen for this short time
             // We don't freeze the journal as we compact, only for the short time where we replace records
+            long pauseStart = System.nanoTime();
             journalLock.writeLock().lock();
             try {
                if (state != JournalState.LOADED) {
@@ -1305,19 +1313,24 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                   return;
                }
 
-               compactor = new JournalCompactor(fileFactory, this, filesRepository, records.keySet(), dataFilesToProcess.get(0).getFileID());
+               // The current records become the compactor's snapshot as they are, and the journal starts over with an
+               // empty map, so nothing is copied while appends wait
+               compactor = new JournalCompactor(fileFactory, this, filesRepository, records, dataFilesToProcess.get(0).getFileID());
 
-               for (Map.Entry<Long, JournalTransaction> entry : transactions.entrySet()) {
-                  compactor.addPendingTransaction(entry.getKey(), entry.getValue().getPositiveArray());
-                  entry.getValue().setCompacting();
-               }
+               transactions.forEach(new ConcurrentLongHashMap.EntryProcessor<JournalTransaction>() {
+                  public void accept(final long txID, final JournalTransaction transaction) {
+                     compactor.addPendingTransaction(txID, transaction.getPositiveArray());
+                     transaction.setCompacting();
+                  }
+               });
 
                // We will calculate the new records during compacting, what will take the position the records will take
                // after compacting
-               records.clear();
+               records = new ConcurrentLongHashMap<JournalRecord>();
             }
             finally {
                journalLock.writeLock().unlock();
+               compactPauses.record(System.nanoTime() - pauseStart);
             }
 
             Collections.sort(dataFilesToProcess, new JournalFileComparator());
@@ -1350,6 +1363,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
             SequentialFile controlFile = createControlFile(dataFilesToProcess, compactor.getNewDataFiles(), null);
 
+            pauseStart = System.nanoTime();
             journalLock.writeLock().lock();
             try {
                // Need to clear the compactor here, or the replay commands will send commands back (infinite loop)
@@ -1359,10 +1373,15 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
                newDatafiles = localCompactor.getNewDataFiles();
 
-               // Restore newRecords created during compacting
-               for (Map.Entry<Long, JournalRecord> newRecordEntry : localCompactor.getNewRecords().entrySet()) {
-                  records.put(newRecordEntry.getKey(), newRecordEntry.getValue());
-               }
+               // The records written by the compactor take over, with the few records added while compacting on top.
+               // Compacted records win over those, as when they were put back one by one
+               final ConcurrentLongHashMap<JournalRecord> newRecords = localCompactor.getNewRecords();
+               records.forEach(new ConcurrentLongHashMap.EntryProcessor<JournalRecord>() {
+                  public void accept(final long id, final JournalRecord record) {
+                     newRecords.putIfAbsent(id, record);
+                  }
+               });
+               records = newRecords;
 
                // Restore compacted dataFiles
                for (int i = newDatafiles.size() - 1; i >= 0; i--) {
@@ -1404,6 +1423,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
             }
             finally {
                journalLock.writeLock().unlock();
+               compactPauses.record(System.nanoTime() - pauseStart);
             }
 
             // At this point the journal is unlocked. We keep renaming files while the journal is already operational
@@ -1511,12 +1531,15 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       // AtomicLong is used only as a reference, not as an Atomic value
       final AtomicLong maxID = new AtomicLong(-1);
 
+      int threads = Math.min(loadThreads, orderedFiles.size());
+      final JournalFilesReadAhead readAhead = threads > 1 ? new JournalFilesReadAhead(fileFactory, orderedFiles, threads) : null;
+
       for (final JournalFile file : orderedFiles) {
          JournalImpl.trace("Loading file " + file.getFile().getFileName());
 
          final AtomicBoolean hasData = new AtomicBoolean(false);
 
-         int resultLastPost = JournalImpl.readJournalFile(fileFactory, file, new JournalReaderCallback() {
+         JournalReaderCallback fileLoader = new JournalReaderCallback() {
 
             private void checkID(final long id) {
                if (id > maxID.longValue()) {
@@ -1731,17 +1754,28 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                hasData.set(true);
             }
 
-         });
+         };
+
+         int resultLastPost = readAhead != null ? readAhead.replay(file, fileLoader) : JournalImpl.readJournalFile(fileFactory, file, fileLoader);
 
-         if (hasData.get()) {
-            lastDataPos = resultLastPost;
-            filesRepository.addDataFileOnBottom(file);
+         try {
+            if (hasData.get()) {
+               lastDataPos = resultLastPost;
+               filesRepository.addDataFileOnBottom(file);
+            }
+            else {
+               if (changeData) {
+                  // Empty dataFiles with no data
+                  filesRepository.addFreeFile(file, false, false);
+               }
+            }
          }
-         else {
-            if (changeData) {
-               // Empty dataFiles with no data
-               filesRepository.addFreeFile(file, false, false);
+         catch (Exception e) {
+            // a failed replay already released the read ahead, but the files left have to be released here
+            if (readAhead != null) {
+               readAhead.close();
             }
+            throw e;
          }
       }
 
@@ -1897,6 +1931,21 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       return autoReclaim;
    }
 
+   /**
+    * Sets the number of threads reading and decoding the journal files while the journal is loaded, 1 to read them
+    * one after the other on the loading thread.
+    */
+   public void setLoadThreads(final int loadThreads) {
+      if (loadThreads < 1) {
+         throw new IllegalArgumentException("loadThreads must be >= 1");
+      }
+      this.loadThreads = loadThreads;
+   }
+
+   public int getLoadThreads() {
+      return loadThreads;
+   }
+
    /* Only meant to be used in tests. */
    @Override
    public String debug() throws Exception {
@@ -16,10 +16,7 @@
  */
 package org.apache.activemq.artemis.core.journal.impl;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import org.apache.activemq.artemis.api.core.Pair;
+import java.util.Arrays;
 
 /**
  * This holds the relationship a record has with other files in regard to reference counting.
@@ -33,7 +30,12 @@ public class JournalRecord {
 
    private final int size;
 
-   private List<Pair<JournalFile, Integer>> updateFiles;
+   // The files and sizes of the updates, kept in arrays as this is retained for every live record
+   private JournalFile[] updateFiles;
+
+   private int[] updateSizes;
+
+   private int updates;
 
    public JournalRecord(final JournalFile addFile, final int size) {
       this.addFile = addFile;
@@ -47,10 +49,17 @@ public class JournalRecord {
 
    void addUpdateFile(final JournalFile updateFile, final int size) {
       if (updateFiles == null) {
-         updateFiles = new ArrayList<Pair<JournalFile, Integer>>();
+         updateFiles = new JournalFile[1];
+         updateSizes = new int[1];
+      }
+      else if (updates == updateFiles.length) {
+         updateFiles = Arrays.copyOf(updateFiles, updates * 2);
+         updateSizes = Arrays.copyOf(updateSizes, updates * 2);
       }
 
-      updateFiles.add(new Pair<JournalFile, Integer>(updateFile, size));
+      updateFiles[updates] = updateFile;
+      updateSizes[updates] = size;
+      updates++;
 
       updateFile.incPosCount();
 
@@ -61,11 +70,9 @@ public class JournalRecord {
       file.incNegCount(addFile);
       addFile.decSize(size);
 
-      if (updateFiles != null) {
-         for (Pair<JournalFile, Integer> updFile : updateFiles) {
-            file.incNegCount(updFile.getA());
-            updFile.getA().decSize(updFile.getB());
-         }
+      for (int i = 0; i < updates; i++) {
+         file.incNegCount(updateFiles[i]);
+         updateFiles[i].decSize(updateSizes[i]);
       }
    }
 
@@ -74,12 +81,8 @@ public class JournalRecord {
       StringBuilder buffer = new StringBuilder();
       buffer.append("JournalRecord(add=" + addFile.getFile().getFileName());
 
-      if (updateFiles != null) {
-
-         for (Pair<JournalFile, Integer> update : updateFiles) {
-            buffer.append(", update=" + update.getA().getFile().getFileName());
-         }
-
+      for (int i = 0; i < updates; i++) {
+         buffer.append(", update=" + updateFiles[i].getFile().getFileName());
       }
 
       buffer.append(")");
@@ -19,6 +19,7 @@ package org.apache.activemq.artemis.core.protocol.proton.plug;
 import java.util.concurrent.Executor;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.FileRegion;
 import org.apache.activemq.artemis.core.io.IOCallback;
 import org.apache.qpid.proton.amqp.Binary;
 import org.apache.qpid.proton.amqp.transport.AmqpError;
@@ -301,6 +302,11 @@ public class ProtonSessionIntegrationCallback implements AMQPSessionCallback, Se
       return 0;
    }
 
+   @Override
+   public int sendLargeMessageContinuation(ServerConsumer consumer, FileRegion body, boolean continues) {
+      return -1;
+   }
+
    @Override
    public void closed() {
    }
@@ -129,33 +129,13 @@ public class MQTTConnectionManager {
       session.getSessionState().deleteWillMessage();
    }
 
-   private MQTTSessionState getSessionState(String clientId, boolean cleanSession) throws InterruptedException {
-      synchronized (MQTTSession.SESSIONS) {
-         /* [MQTT-3.1.2-6] If CleanSession is set to 1, the Client and Server MUST discard any previous Session and
-          * start a new one  This Session lasts as long as the Network Connection. State data associated with this Session
-          * MUST NOT be reused in any subsequent Session */
-         if (cleanSession) {
-            MQTTSession.SESSIONS.remove(clientId);
-            return new MQTTSessionState(clientId);
-         }
-         else {
-            /* [MQTT-3.1.2-4] Attach an existing session if one exists (if cleanSession flag is false) otherwise create
-            a new one. */
-            MQTTSessionState state = MQTTSession.SESSIONS.get(clientId);
-            if (state != null) {
-               // TODO Add a count down latch for handling wait during attached session state.
-               while (state.getAttached()) {
-                  Thread.sleep(1000);
-               }
-               return state;
-            }
-            else {
-               state = new MQTTSessionState(clientId);
-               MQTTSession.SESSIONS.put(clientId, state);
-               return state;
-            }
-         }
-      }
+   private MQTTSessionState getSessionState(String clientId, boolean cleanSession) throws Exception {
+      /* [MQTT-3.1.2-6] If CleanSession is set to 1, the Client and Server MUST discard any previous Session and
+       * start a new one  This Session lasts as long as the Network Connection. State data associated with this Session
+       * MUST NOT be reused in any subsequent Session.
+       * [MQTT-3.1.2-4] Attach an existing session if one exists (if cleanSession flag is false) otherwise create
+       * a new one. */
+      return session.getSessionStateRegistry().attach(clientId, cleanSession);
    }
 
    private String validateClientId(String clientId, boolean cleanSession) {
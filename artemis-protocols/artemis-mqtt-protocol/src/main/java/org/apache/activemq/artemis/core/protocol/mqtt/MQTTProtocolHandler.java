@@ -54,6 +54,8 @@ public class MQTTProtocolHandler extends ChannelInboundHandlerAdapter {
 
    private ActiveMQServer server;
 
+   private MQTTProtocolManager protocolManager;
+
    // This Channel Handler is not sharable, therefore it can only ever be associated with a single ctx.
    private ChannelHandlerContext ctx;
 
@@ -61,8 +63,9 @@ public class MQTTProtocolHandler extends ChannelInboundHandlerAdapter {
 
    private boolean stopped = false;
 
-   public MQTTProtocolHandler(ActiveMQServer server) {
+   public MQTTProtocolHandler(ActiveMQServer server, MQTTProtocolManager protocolManager) {
       this.server = server;
+      this.protocolManager = protocolManager;
    }
 
    void setConnection(MQTTConnection connection, ConnectionEntry entry) throws Exception {
@@ -290,4 +293,8 @@ public class MQTTProtocolHandler extends ChannelInboundHandlerAdapter {
    ActiveMQServer getServer() {
       return server;
    }
+
+   MQTTProtocolManager getProtocolManager() {
+      return protocolManager;
+   }
 }
@@ -23,6 +23,8 @@ import io.netty.handler.codec.mqtt.MqttDecoder;
 import io.netty.handler.codec.mqtt.MqttEncoder;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.core.remoting.impl.netty.NettyServerConnection;
+import org.apache.activemq.artemis.core.remoting.impl.netty.TransportConstants;
+import org.apache.activemq.artemis.core.server.ActivateCallback;
 import org.apache.activemq.artemis.core.server.ActiveMQServer;
 import org.apache.activemq.artemis.core.server.management.Notification;
 import org.apache.activemq.artemis.core.server.management.NotificationListener;
@@ -33,6 +35,7 @@ import org.apache.activemq.artemis.spi.core.protocol.ProtocolManagerFactory;
 import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.artemis.spi.core.remoting.Acceptor;
 import org.apache.activemq.artemis.spi.core.remoting.Connection;
+import org.apache.activemq.artemis.utils.ConfigurationHelper;
 
 /**
  * MQTTProtocolManager
@@ -43,8 +46,68 @@ class MQTTProtocolManager implements ProtocolManager, NotificationListener {
 
    private MQTTLogger log = MQTTLogger.LOGGER;
 
+   private final MQTTRetainedMessageStore retainedMessageStore;
+
+   private final MQTTSessionStateRegistry sessionStateRegistry;
+
    public MQTTProtocolManager(ActiveMQServer server) {
       this.server = server;
+      this.retainedMessageStore = new MQTTRetainedMessageStore(server);
+      this.sessionStateRegistry = new MQTTSessionStateRegistry(server, TransportConstants.DEFAULT_MQTT_MAX_OFFLINE_SESSIONS);
+
+      // the retained messages and the sessions are loaded once the journal has been, and the stores let go of their
+      // state when the server stops
+      server.registerActivateCallback(new ActivateCallback() {
+         @Override
+         public void preActivate() {
+         }
+
+         @Override
+         public void activated() {
+            try {
+               retainedMessageStore.start();
+            }
+            catch (Exception e) {
+               log.warn(e.getMessage(), e);
+            }
+
+            try {
+               sessionStateRegistry.start();
+            }
+            catch (Exception e) {
+               log.warn(e.getMessage(), e);
+            }
+         }
+
+         @Override
+         public void deActivate() {
+            try {
+               retainedMessageStore.stop();
+            }
+            catch (Exception e) {
+               log.warn(e.getMessage(), e);
+            }
+
+            try {
+               sessionStateRegistry.stop();
+            }
+            catch (Exception e) {
+               log.warn(e.getMessage(), e);
+            }
+         }
+
+         @Override
+         public void activationComplete() {
+         }
+      });
+   }
+
+   MQTTRetainedMessageStore getRetainedMessageStore() {
+      return retainedMessageStore;
+   }
+
+   MQTTSessionStateRegistry getSessionStateRegistry() {
+      return sessionStateRegistry;
    }
 
    @Override
@@ -65,6 +128,9 @@ class MQTTProtocolManager implements ProtocolManager, NotificationListener {
    @Override
    public ConnectionEntry createConnectionEntry(Acceptor acceptorUsed, Connection connection) {
       try {
+         // the sessions are shared by every acceptor of the server, the bound set on the last one used applies
+         sessionStateRegistry.setMaxOfflineSessions(ConfigurationHelper.getIntProperty(TransportConstants.MQTT_MAX_OFFLINE_SESSIONS, TransportConstants.DEFAULT_MQTT_MAX_OFFLINE_SESSIONS, acceptorUsed.getConfiguration()));
+
          MQTTConnection mqttConnection = new MQTTConnection(connection);
          ConnectionEntry entry = new ConnectionEntry(mqttConnection, null, System.currentTimeMillis(), MQTTUtil.DEFAULT_KEEP_ALIVE_FREQUENCY);
 
@@ -100,7 +166,7 @@ class MQTTProtocolManager implements ProtocolManager, NotificationListener {
       pipeline.addLast(new MqttEncoder());
       pipeline.addLast(new MqttDecoder(MQTTUtil.MAX_MESSAGE_SIZE));
 
-      pipeline.addLast(new MQTTProtocolHandler(server));
+      pipeline.addLast(new MQTTProtocolHandler(server, this));
    }
 
    @Override
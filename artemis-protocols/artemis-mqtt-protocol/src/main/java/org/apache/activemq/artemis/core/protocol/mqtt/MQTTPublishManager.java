@@ -135,9 +135,9 @@ public class MQTTPublishManager {
             serverMessage.setDurable(MQTTUtil.DURABLE_MESSAGES);
          }
 
-         if (qos < 2 || !session.getSessionState().getPubRec().contains(messageId)) {
+         if (qos < 2 || !session.getSessionState().isPubRec(messageId)) {
             if (qos == 2)
-               session.getSessionState().getPubRec().add(messageId);
+               session.getSessionState().addPubRec(messageId);
             session.getServerSession().send(serverMessage, true);
          }
 
@@ -199,7 +199,7 @@ public class MQTTPublishManager {
 
    void handlePubRel(int messageId) {
       // We don't check to see if a PubRel existed for this message.  We assume it did and so send PubComp.
-      session.getSessionState().getPubRec().remove(messageId);
+      session.getSessionState().removePubRec(messageId);
       session.getProtocolHandler().sendPubComp(messageId);
       session.getSessionState().removeMessageRef(messageId);
    }
@@ -17,11 +17,8 @@
 
 package org.apache.activemq.artemis.core.protocol.mqtt;
 
-import java.util.Iterator;
-
 import org.apache.activemq.artemis.api.core.SimpleString;
-import org.apache.activemq.artemis.core.server.BindingQueryResult;
-import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.server.Queue;
 import org.apache.activemq.artemis.core.server.ServerMessage;
 
@@ -34,56 +31,27 @@ public class MQTTRetainMessageManager {
    }
 
    /**
-    * FIXME
-    * Retained messages should be handled in the core API.  There is currently no support for retained messages
-    * at the time of writing.  Instead we handle retained messages here.  This method will create a new queue for
-    * every address that is used to store retained messages.  THere should only ever be one message in the retained
-    * message queue.  When a new subscription is created the queue should be browsed and the message copied onto
-    * the subscription queue for the consumer.  When a new retained message is received the message will be sent to
-    * the retained queue and the previous retain message consumed to remove it from the queue.
+    * The retained messages are kept in the {@link MQTTRetainedMessageStore} of the protocol manager, which holds at
+    * most one message per topic. A new retained message replaces the previous one of its topic, and an empty one
+    * just removes it.
     */
    void handleRetainedMessage(ServerMessage message, String address, boolean reset) throws Exception {
-      SimpleString retainAddress = new SimpleString(MQTTUtil.convertMQTTAddressFilterToCoreRetain(address));
-
-      Queue queue = session.getServer().locateQueue(retainAddress);
-      if (queue == null) {
-         queue = session.getServerSession().createQueue(retainAddress, retainAddress, null, false, true);
-      }
-
-      // Set the address of this message to the retained queue.
-      message.setAddress(retainAddress);
-
-      Iterator<MessageReference> iterator = queue.iterator();
-      synchronized (iterator) {
-         if (iterator.hasNext()) {
-            Long messageId = iterator.next().getMessage().getMessageID();
-            queue.deleteReference(messageId);
-         }
-
-         if (!reset) {
-            session.getServerSession().send(message.copy(), true);
-         }
-      }
+      session.getRetainedMessageStore().retain(address, reset ? null : message);
    }
 
    void addRetainedMessagesToQueue(SimpleString queueName, String address) throws Exception {
       // Queue to add the retained messages to
-      Queue queue = session.getServer().locateQueue(queueName);
+      final Queue queue = session.getServer().locateQueue(queueName);
 
-      // The address filter that matches all retained message queues.
-      String retainAddress = MQTTUtil.convertMQTTAddressFilterToCoreRetain(address);
-      BindingQueryResult bindingQueryResult = session.getServerSession().executeBindingQuery(new SimpleString(retainAddress));
+      final StorageManager storageManager = session.getServer().getStorageManager();
 
-      // Iterate over all matching retain queues and add the head message to the original queue.
-      for (SimpleString retainedQueueName : bindingQueryResult.getQueueNames()) {
-         Queue retainedQueue = session.getServer().locateQueue(retainedQueueName);
-         synchronized (this) {
-            Iterator<MessageReference> i = retainedQueue.iterator();
-            if (i.hasNext()) {
-               ServerMessage message = i.next().getMessage().copy(session.getServer().getStorageManager().generateID());
-               queue.addTail(message.createReference(queue), true);
-            }
+      // Add a copy of the retained message of every topic matching the address, as the store finds them.
+      session.getRetainedMessageStore().forEachMatching(address, new MQTTRetainedMessageStore.RetainedMessageVisitor() {
+         @Override
+         public void visit(ServerMessage retained) {
+            ServerMessage message = MQTTRetainedMessageStore.copyForDelivery(retained, storageManager.generateID());
+            queue.addTail(message.createReference(queue), true);
          }
-      }
+      });
    }
 }
@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.postoffice.Binding;
+import org.apache.activemq.artemis.core.postoffice.BindingType;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.ServerMessage;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.utils.LinkedListIterator;
+
+/**
+ * The retained messages of the MQTT clients of a server, at most one per topic, kept in a trie of the topic levels
+ * so the messages matching a subscription are found by walking the levels of its filter once.
+ * <p>
+ * The messages are stored in the {@link #RETAINED_ADDRESS} queue through the storage manager of the server, so they
+ * are replicated to a backup like any other durable message, with the address of their topic kept as
+ * {@link Message#HDR_ORIGINAL_ADDRESS}. Replacing the retained message of a topic deletes the previous one from the
+ * queue. The store loads the queue when the server activates, and imports the retained messages of the
+ * {@link MQTTUtil#MQTT_RETAIN_ADDRESS_PREFIX} queues used by earlier versions, one queue per topic, deleting them.
+ * <p>
+ * Updates are serialized by the store, but only append to the journal without waiting for it: the completion is
+ * left to the operation context of the caller. Lookups may run concurrently with the updates.
+ */
+public class MQTTRetainedMessageStore {
+
+   public static final SimpleString RETAINED_ADDRESS = new SimpleString(MQTTUtil.MQTT_ADDRESS_PREFIX + "retained");
+
+   private static final String SINGLE_LEVEL = "+";
+
+   private static final String MULTI_LEVEL = "#";
+
+   private final ActiveMQServer server;
+
+   private final Node root = new Node(null, null);
+
+   private volatile Queue queue;
+
+   private volatile int size;
+
+   public MQTTRetainedMessageStore(ActiveMQServer server) {
+      this.server = server;
+
+      // replacing a retained message looks up the previous one by ID, which shouldn't scan the whole queue
+      AddressSettings settings = new AddressSettings();
+      settings.setMessageIDIndex(true);
+      server.getAddressSettingsRepository().addMatch(RETAINED_ADDRESS.toString(), settings);
+   }
+
+   /**
+    * Loads the retained messages, to be called once the journal of the server has been loaded and before any client
+    * connects.
+    */
+   public synchronized void start() throws Exception {
+      if (queue != null) {
+         return;
+      }
+
+      Queue retained = server.locateQueue(RETAINED_ADDRESS);
+      if (retained == null) {
+         retained = server.createQueue(RETAINED_ADDRESS, RETAINED_ADDRESS, null, true, false);
+      }
+
+      queue = retained;
+
+      load();
+
+      importLegacyQueues();
+   }
+
+   public synchronized void stop() throws Exception {
+      queue = null;
+
+      root.children.clear();
+      root.message = null;
+      size = 0;
+   }
+
+   /**
+    * Replaces the retained message of the topic with a copy of the message, or removes it if the message is null.
+    */
+   public synchronized void retain(String topic, ServerMessage message) throws Exception {
+      if (queue == null) {
+         throw new IllegalStateException("The retained messages haven't been loaded yet");
+      }
+
+      ServerMessage replaced;
+      if (message == null) {
+         replaced = remove(topic);
+      }
+      else {
+         ServerMessage copy = message.copy(server.getStorageManager().generateID());
+         copy.putStringProperty(Message.HDR_ORIGINAL_ADDRESS, new SimpleString(MQTTUtil.convertMQTTAddressFilterToCore(topic)));
+         copy.setAddress(RETAINED_ADDRESS);
+
+         store(copy);
+         replaced = put(topic, copy);
+      }
+
+      if (replaced != null) {
+         queue.deleteReference(replaced.getMessageID());
+      }
+   }
+
+   /**
+    * Passes the retained messages of the topics matching the filter to the visitor, as they are found.
+    */
+   public void forEachMatching(String filter, RetainedMessageVisitor visitor) throws Exception {
+      forEachMatching(root, filter.split("/", -1), 0, visitor);
+   }
+
+   public ServerMessage getRetainedMessage(String topic) {
+      Node node = root;
+      for (String level : topic.split("/", -1)) {
+         node = node.children.get(level);
+         if (node == null) {
+            return null;
+         }
+      }
+      return node.message;
+   }
+
+   /**
+    * Returns the number of topics with a retained message.
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Returns a copy of a retained message to be delivered to a subscriber, sent to the address of its topic again.
+    */
+   static ServerMessage copyForDelivery(ServerMessage retained, long newID) {
+      ServerMessage message = retained.copy(newID);
+      message.setAddress(message.getSimpleStringProperty(Message.HDR_ORIGINAL_ADDRESS));
+      message.removeProperty(Message.HDR_ORIGINAL_ADDRESS);
+      return message;
+   }
+
+   /**
+    * Adds the message to the queue as routing would, but without waiting for the journal: the message is in the
+    * queue as soon as it is the retained message of its topic, so replacing it can always find it.
+    */
+   private void store(ServerMessage message) throws Exception {
+      MessageReference reference = message.createReference(queue);
+
+      if (message.isDurable()) {
+         StorageManager storageManager = server.getStorageManager();
+
+         message.incrementDurableRefCount();
+         storageManager.storeMessage(message);
+         storageManager.storeReference(queue.getID(), message.getMessageID(), true);
+      }
+
+      message.incrementRefCount();
+
+      queue.addTail(reference, false);
+   }
+
+   private void load() throws Exception {
+      List<Long> duplicates = new ArrayList<>();
+
+      LinkedListIterator<MessageReference> iterator = queue.iterator();
+      try {
+         while (iterator.hasNext()) {
+            ServerMessage message = iterator.next().getMessage();
+
+            String topic = MQTTUtil.convertCoreAddressFilterToMQTT(message.getSimpleStringProperty(Message.HDR_ORIGINAL_ADDRESS).toString());
+            ServerMessage replaced = put(topic, message);
+            if (replaced != null) {
+               // the server stopped between the add of a retained message and the delete of the one it replaced
+               if (replaced.getMessageID() > message.getMessageID()) {
+                  put(topic, replaced);
+                  replaced = message;
+               }
+               duplicates.add(replaced.getMessageID());
+            }
+         }
+      }
+      finally {
+         iterator.close();
+      }
+
+      for (Long id : duplicates) {
+         queue.deleteReference(id);
+      }
+   }
+
+   private void importLegacyQueues() throws Exception {
+      List<SimpleString> legacyQueues = new ArrayList<>();
+      for (Binding binding : server.getPostOffice().getMatchingBindings(new SimpleString(MQTTUtil.MQTT_RETAIN_ADDRESS_PREFIX + "#")).getBindings()) {
+         if (binding.getType() == BindingType.LOCAL_QUEUE) {
+            legacyQueues.add(binding.getUniqueName());
+         }
+      }
+
+      for (SimpleString legacyQueue : legacyQueues) {
+         LinkedListIterator<MessageReference> iterator = server.locateQueue(legacyQueue).iterator();
+         try {
+            if (iterator.hasNext()) {
+               ServerMessage message = iterator.next().getMessage();
+
+               // the address of the legacy queues is the one of their topic, behind the prefix
+               String topic = MQTTUtil.convertCoreAddressFilterToMQTT(message.getAddress().toString());
+               if (getRetainedMessage(topic) == null) {
+                  retain(topic, message);
+               }
+            }
+         }
+         finally {
+            iterator.close();
+         }
+
+         server.destroyQueue(legacyQueue, null, false);
+      }
+   }
+
+   private ServerMessage put(String topic, ServerMessage message) {
+      Node node = root;
+      for (String level : topic.split("/", -1)) {
+         Node child = node.children.get(level);
+         if (child == null) {
+            child = new Node(node, level);
+            node.children.put(level, child);
+         }
+         node = child;
+      }
+
+      ServerMessage replaced = node.message;
+      node.message = message;
+      if (replaced == null) {
+         size++;
+      }
+      return replaced;
+   }
+
+   private ServerMessage remove(String topic) {
+      Node node = root;
+      for (String level : topic.split("/", -1)) {
+         node = node.children.get(level);
+         if (node == null) {
+            return null;
+         }
+      }
+
+      ServerMessage removed = node.message;
+      node.message = null;
+      if (removed != null) {
+         size--;
+      }
+
+      // prune the levels no longer leading to any retained message
+      while (node.parent != null && node.message == null && node.children.isEmpty()) {
+         node.parent.children.remove(node.level);
+         node = node.parent;
+      }
+      return removed;
+   }
+
+   private static void forEachMatching(Node node,
+                                       String[] filter,
+                                       int pos,
+                                       RetainedMessageVisitor visitor) throws Exception {
+      if (pos == filter.length) {
+         visit(node, visitor);
+         return;
+      }
+
+      String level = filter[pos];
+      if (MULTI_LEVEL.equals(level)) {
+         // '#' matches the parent level as well as every level below it
+         forEachBelow(node, visitor);
+      }
+      else if (SINGLE_LEVEL.equals(level)) {
+         for (Node child : node.children.values()) {
+            forEachMatching(child, filter, pos + 1, visitor);
+         }
+      }
+      else {
+         Node child = node.children.get(level);
+         if (child != null) {
+            forEachMatching(child, filter, pos + 1, visitor);
+         }
+      }
+   }
+
+   private static void forEachBelow(Node node, RetainedMessageVisitor visitor) throws Exception {
+      visit(node, visitor);
+      for (Node child : node.children.values()) {
+         forEachBelow(child, visitor);
+      }
+   }
+
+   private static void visit(Node node, RetainedMessageVisitor visitor) throws Exception {
+      ServerMessage message = node.message;
+      if (message != null) {
+         visitor.visit(message);
+      }
+   }
+
+   public interface RetainedMessageVisitor {
+
+      void visit(ServerMessage message) throws Exception;
+   }
+
+   private static final class Node {
+
+      private final Node parent;
+
+      private final String level;
+
+      private final Map<String, Node> children = new ConcurrentHashMap<>();
+
+      private volatile ServerMessage message;
+
+      private Node(Node parent, String level) {
+         this.parent = parent;
+         this.level = level;
+      }
+   }
+}
@@ -21,14 +21,10 @@ import org.apache.activemq.artemis.core.server.ActiveMQServer;
 import org.apache.activemq.artemis.core.server.impl.ServerSessionImpl;
 import org.apache.activemq.artemis.spi.core.protocol.SessionCallback;
 
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class MQTTSession {
 
-   static Map<String, MQTTSessionState> SESSIONS = new ConcurrentHashMap<>();
-
    private final String id = UUID.randomUUID().toString();
 
    private MQTTProtocolHandler protocolHandler;
@@ -87,7 +83,7 @@ public class MQTTSession {
          }
 
          if (state != null) {
-            state.setAttached(false);
+            getSessionStateRegistry().detach(state);
          }
       }
       stopped = true;
@@ -121,6 +117,14 @@ public class MQTTSession {
       return protocolHandler.getServer();
    }
 
+   MQTTRetainedMessageStore getRetainedMessageStore() {
+      return protocolHandler.getProtocolManager().getRetainedMessageStore();
+   }
+
+   MQTTSessionStateRegistry getSessionStateRegistry() {
+      return protocolHandler.getProtocolManager().getSessionStateRegistry();
+   }
+
    MQTTSubscriptionManager getSubscriptionManager() {
       return subscriptionManager;
    }
@@ -17,6 +17,7 @@
 
 package org.apache.activemq.artemis.core.protocol.mqtt;
 
+import io.netty.channel.FileRegion;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.server.ServerConsumer;
 import org.apache.activemq.artemis.core.server.ServerMessage;
@@ -54,6 +55,11 @@ public class MQTTSessionCallback implements SessionCallback {
       return 1;
    }
 
+   @Override
+   public int sendLargeMessageContinuation(ServerConsumer consumerID, FileRegion body, boolean continues) {
+      return -1;
+   }
+
    @Override
    public void addReadyListener(ReadyListener listener) {
       session.getConnection().getTransportConnection().addReadyListener(listener);
@@ -14,13 +14,10 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.apache.activemq.artemis.core.protocol.mqtt;
 
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -28,9 +25,19 @@ import java.util.concurrent.atomic.AtomicInteger;
 import io.netty.handler.codec.mqtt.MqttTopicSubscription;
 import org.apache.activemq.artemis.api.core.Pair;
 import org.apache.activemq.artemis.core.server.ServerMessage;
+import org.apache.activemq.artemis.utils.ConcurrentLongHashMap;
 
+/**
+ * The state of an MQTT session, which outlives the connection of a client that didn't ask for a clean session.
+ * <p>
+ * The references of the messages in flight are kept in maps of primitive keys, created the first time they're
+ * needed and released by {@link #releaseIdleState()} once they're empty, so a session without messages in flight
+ * only holds its client id and subscriptions.
+ */
 public class MQTTSessionState {
 
+   private static final int INFLIGHT_EXPECTED_ITEMS = 16;
+
    private String clientId;
 
    private ServerMessage willMessage;
@@ -38,39 +45,38 @@ public class MQTTSessionState {
    private final ConcurrentMap<String, MqttTopicSubscription> subscriptions = new ConcurrentHashMap<>();
 
    // Used to store Packet ID of Publish QoS1 and QoS2 message.  See spec: 4.3.3 QoS 2: Exactly once delivery.  Method B.
-   private Map<Integer, MQTTMessageInfo> messageRefStore;
-
-   private ConcurrentMap<String, Map<Long, Integer>> addressMessageMap;
+   private volatile ConcurrentLongHashMap<MQTTMessageInfo> messageRefStore;
 
-   private Set<Integer> pubRec;
+   private volatile ConcurrentMap<String, ConcurrentLongHashMap<Integer>> addressMessageMap;
 
-   private Set<Integer> pub;
+   // packet ids are at most 16 bits, so the QoS 2 messages received but not released yet are kept in a bit set
+   private BitSet pubRec;
 
-   private boolean attached = false;
-
-   private MQTTLogger log = MQTTLogger.LOGGER;
+   private volatile boolean attached = false;
 
    // Objects track the Outbound message references
-   private Map<Integer, Pair<String, Long>> outboundMessageReferenceStore;
+   private volatile ConcurrentLongHashMap<Pair<String, Long>> outboundMessageReferenceStore;
 
-   private ConcurrentMap<String, ConcurrentMap<Long, Integer>> reverseOutboundReferenceStore;
+   private volatile ConcurrentMap<String, ConcurrentLongHashMap<Integer>> reverseOutboundReferenceStore;
 
    private final Object outboundLock = new Object();
 
    // FIXME We should use a better mechanism for creating packet IDs.
-   private AtomicInteger lastId = new AtomicInteger(0);
+   private final AtomicInteger lastId = new AtomicInteger(0);
+
+   // the id of the journal record of the session, 0 if it has none
+   private long recordId;
 
    public MQTTSessionState(String clientId) {
       this.clientId = clientId;
+   }
 
-      pubRec = new HashSet<>();
-      pub = new HashSet<>();
-
-      outboundMessageReferenceStore = new ConcurrentHashMap<>();
-      reverseOutboundReferenceStore = new ConcurrentHashMap<>();
+   long getRecordId() {
+      return recordId;
+   }
 
-      messageRefStore = new ConcurrentHashMap<>();
-      addressMessageMap = new ConcurrentHashMap<>();
+   void setRecordId(long recordId) {
+      this.recordId = recordId;
    }
 
    int generateId() {
@@ -78,30 +84,45 @@ public class MQTTSessionState {
       return lastId.addAndGet(1);
    }
 
+   int getLastId() {
+      return lastId.get();
+   }
+
+   void setLastId(int id) {
+      lastId.set(id);
+   }
+
    void addOutbandMessageRef(int mqttId, String address, long serverMessageId, int qos) {
       synchronized (outboundLock) {
-         outboundMessageReferenceStore.put(mqttId, new Pair<String, Long>(address, serverMessageId));
+         if (outboundMessageReferenceStore == null) {
+            outboundMessageReferenceStore = new ConcurrentLongHashMap<>(INFLIGHT_EXPECTED_ITEMS, 1);
+            reverseOutboundReferenceStore = new ConcurrentHashMap<>();
+         }
+
+         outboundMessageReferenceStore.put(mqttId, new Pair<>(address, serverMessageId));
          if (qos == 2) {
-            if (reverseOutboundReferenceStore.containsKey(address)) {
-               reverseOutboundReferenceStore.get(address).put(serverMessageId, mqttId);
-            }
-            else {
-               ConcurrentHashMap<Long, Integer> serverToMqttId = new ConcurrentHashMap<Long, Integer>();
-               serverToMqttId.put(serverMessageId, mqttId);
+            ConcurrentLongHashMap<Integer> serverToMqttId = reverseOutboundReferenceStore.get(address);
+            if (serverToMqttId == null) {
+               serverToMqttId = new ConcurrentLongHashMap<>(INFLIGHT_EXPECTED_ITEMS, 1);
                reverseOutboundReferenceStore.put(address, serverToMqttId);
             }
+            serverToMqttId.put(serverMessageId, mqttId);
          }
       }
    }
 
    Pair<String, Long> removeOutbandMessageRef(int mqttId, int qos) {
       synchronized (outboundLock) {
+         if (outboundMessageReferenceStore == null) {
+            return null;
+         }
+
          Pair<String, Long> messageInfo = outboundMessageReferenceStore.remove(mqttId);
-         if (qos == 1) {
+         if (qos == 1 || messageInfo == null) {
             return messageInfo;
          }
 
-         Map<Long, Integer> map = reverseOutboundReferenceStore.get(messageInfo.getA());
+         ConcurrentLongHashMap<Integer> map = reverseOutboundReferenceStore.get(messageInfo.getA());
          if (map != null) {
             map.remove(messageInfo.getB());
             if (map.isEmpty()) {
@@ -113,12 +134,21 @@ public class MQTTSessionState {
       }
    }
 
-   Set<Integer> getPubRec() {
-      return pubRec;
+   synchronized boolean isPubRec(int mqttId) {
+      return pubRec != null && pubRec.get(mqttId);
+   }
+
+   synchronized void addPubRec(int mqttId) {
+      if (pubRec == null) {
+         pubRec = new BitSet();
+      }
+      pubRec.set(mqttId);
    }
 
-   Set<Integer> getPub() {
-      return pub;
+   synchronized void removePubRec(int mqttId) {
+      if (pubRec != null) {
+         pubRec.clear(mqttId);
+      }
    }
 
    boolean getAttached() {
@@ -151,8 +181,6 @@ public class MQTTSessionState {
 
    boolean addSubscription(MqttTopicSubscription subscription) {
       synchronized (subscriptions) {
-         addressMessageMap.putIfAbsent(MQTTUtil.convertMQTTAddressFilterToCore(subscription.topicName()), new ConcurrentHashMap<Long, Integer>());
-
          MqttTopicSubscription existingSubscription = subscriptions.get(subscription.topicName());
          if (existingSubscription != null) {
             if (subscription.qualityOfService().value() > existingSubscription.qualityOfService().value()) {
@@ -171,7 +199,10 @@ public class MQTTSessionState {
    void removeSubscription(String address) {
       synchronized (subscriptions) {
          subscriptions.remove(address);
-         addressMessageMap.remove(address);
+         ConcurrentMap<String, ConcurrentLongHashMap<Integer>> addressMessageMap = this.addressMessageMap;
+         if (addressMessageMap != null) {
+            addressMessageMap.remove(MQTTUtil.convertMQTTAddressFilterToCore(address));
+         }
       }
    }
 
@@ -187,27 +218,84 @@ public class MQTTSessionState {
       this.clientId = clientId;
    }
 
-   void storeMessageRef(Integer mqttId, MQTTMessageInfo messageInfo, boolean storeAddress) {
+   void storeMessageRef(int mqttId, MQTTMessageInfo messageInfo, boolean storeAddress) {
+      ConcurrentLongHashMap<MQTTMessageInfo> messageRefStore = this.messageRefStore;
+      if (messageRefStore == null) {
+         synchronized (this) {
+            messageRefStore = this.messageRefStore;
+            if (messageRefStore == null) {
+               messageRefStore = new ConcurrentLongHashMap<>(INFLIGHT_EXPECTED_ITEMS, 1);
+               addressMessageMap = new ConcurrentHashMap<>();
+               this.messageRefStore = messageRefStore;
+            }
+         }
+      }
+
       messageRefStore.put(mqttId, messageInfo);
-      if (storeAddress) {
-         Map<Long, Integer> addressMap = addressMessageMap.get(messageInfo.getAddress());
-         if (addressMap != null) {
-            addressMap.put(messageInfo.getServerMessageId(), mqttId);
+      if (storeAddress && subscriptions.containsKey(MQTTUtil.convertCoreAddressFilterToMQTT(messageInfo.getAddress()))) {
+         ConcurrentLongHashMap<Integer> addressMap = addressMessageMap.get(messageInfo.getAddress());
+         if (addressMap == null) {
+            addressMap = new ConcurrentLongHashMap<>(INFLIGHT_EXPECTED_ITEMS, 1);
+            ConcurrentLongHashMap<Integer> existing = addressMessageMap.putIfAbsent(messageInfo.getAddress(), addressMap);
+            if (existing != null) {
+               addressMap = existing;
+            }
          }
+         addressMap.put(messageInfo.getServerMessageId(), mqttId);
       }
    }
 
-   void removeMessageRef(Integer mqttId) {
+   void removeMessageRef(int mqttId) {
+      ConcurrentLongHashMap<MQTTMessageInfo> messageRefStore = this.messageRefStore;
+      if (messageRefStore == null) {
+         return;
+      }
+
       MQTTMessageInfo info = messageRefStore.remove(mqttId);
       if (info != null) {
-         Map<Long, Integer> addressMap = addressMessageMap.get(info.getAddress());
+         ConcurrentLongHashMap<Integer> addressMap = addressMessageMap.get(info.getAddress());
          if (addressMap != null) {
             addressMap.remove(info.getServerMessageId());
          }
       }
    }
 
-   MQTTMessageInfo getMessageInfo(Integer mqttId) {
-      return messageRefStore.get(mqttId);
+   MQTTMessageInfo getMessageInfo(int mqttId) {
+      ConcurrentLongHashMap<MQTTMessageInfo> messageRefStore = this.messageRefStore;
+      return messageRefStore == null ? null : messageRefStore.get(mqttId);
+   }
+
+   /**
+    * Returns true if no message is in flight and there's no will message, so the session is fully described by
+    * its client id, subscriptions and last packet id.
+    */
+   synchronized boolean isIdle() {
+      synchronized (outboundLock) {
+         return willMessage == null &&
+            (messageRefStore == null || messageRefStore.isEmpty()) &&
+            (outboundMessageReferenceStore == null || outboundMessageReferenceStore.isEmpty()) &&
+            (pubRec == null || pubRec.isEmpty());
+      }
+   }
+
+   /**
+    * Drops the maps of the messages in flight that are empty, to be called once the session is detached.
+    */
+   synchronized void releaseIdleState() {
+      if (messageRefStore != null && messageRefStore.isEmpty()) {
+         messageRefStore = null;
+         addressMessageMap = null;
+      }
+
+      if (pubRec != null && pubRec.isEmpty()) {
+         pubRec = null;
+      }
+
+      synchronized (outboundLock) {
+         if (outboundMessageReferenceStore != null && outboundMessageReferenceStore.isEmpty()) {
+            outboundMessageReferenceStore = null;
+            reverseOutboundReferenceStore = null;
+         }
+      }
    }
 }
@@ -0,0 +1,480 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.netty.handler.codec.mqtt.MqttTopicSubscription;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.journal.EncodingSupport;
+import org.apache.activemq.artemis.core.message.impl.MessageImpl;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.ServerMessage;
+import org.apache.activemq.artemis.core.server.impl.ServerMessageImpl;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.utils.LinkedListIterator;
+
+/**
+ * The states of the MQTT sessions of a server, by client id.
+ * <p>
+ * The sessions are split in shards, each guarded by its own lock, so connecting clients only contend with the
+ * clients of the same shard. Waiting for a session still attached to a previous connection doesn't hold any lock.
+ * <p>
+ * When persistence is enabled the subscriptions and last packet id of every session that isn't clean are stored as a
+ * message of the {@link #SESSIONS_ADDRESS} queue, through the storage manager of the server, so they survive a restart
+ * and are replicated to a backup like any other durable message. The message of a session is replaced when the
+ * session is created, when its subscriptions change and when its client goes offline, the ID of its message being
+ * the record id of the session.
+ * <p>
+ * The state of a client that went offline is kept as is, until there are more than
+ * {@link #getMaxOfflineSessions()} offline sessions. The oldest offline sessions without a message in flight are then
+ * compacted to the same encoding as their record, in a byte array, and materialized again when their client
+ * reconnects. Compacting only bounds the heap, it has no effect on what is stored.
+ */
+public class MQTTSessionStateRegistry {
+
+   public static final SimpleString SESSIONS_ADDRESS = new SimpleString(MQTTUtil.MQTT_ADDRESS_PREFIX + "sessions");
+
+   private static final int SHARDS = 16;
+
+   private static final long ATTACHED_SESSION_WAIT = 1000;
+
+   private final ActiveMQServer server;
+
+   private final Shard[] shards = new Shard[SHARDS];
+
+   private volatile int maxOfflineSessions;
+
+   private volatile boolean started;
+
+   // null unless persistence is enabled
+   private volatile Queue queue;
+
+   public MQTTSessionStateRegistry(ActiveMQServer server, int maxOfflineSessions) {
+      this.server = server;
+      this.maxOfflineSessions = maxOfflineSessions;
+      for (int i = 0; i < SHARDS; i++) {
+         shards[i] = new Shard();
+      }
+
+      // replacing the message of a session looks up the previous one by ID, which shouldn't scan the whole queue
+      AddressSettings settings = new AddressSettings();
+      settings.setMessageIDIndex(true);
+      server.getAddressSettingsRepository().addMatch(SESSIONS_ADDRESS.toString(), settings);
+   }
+
+   /**
+    * Loads the stored sessions, to be called once the journal of the server has been loaded and before any client
+    * connects.
+    */
+   public synchronized void start() throws Exception {
+      if (started) {
+         return;
+      }
+
+      if (server.getConfiguration().isPersistenceEnabled()) {
+         Queue sessions = server.locateQueue(SESSIONS_ADDRESS);
+         if (sessions == null) {
+            sessions = server.createQueue(SESSIONS_ADDRESS, SESSIONS_ADDRESS, null, true, false);
+         }
+
+         queue = sessions;
+
+         load();
+      }
+
+      started = true;
+   }
+
+   public synchronized void stop() throws Exception {
+      queue = null;
+
+      for (Shard shard : shards) {
+         synchronized (shard) {
+            shard.sessions.clear();
+            shard.offline.clear();
+            shard.compacted = 0;
+         }
+      }
+
+      started = false;
+   }
+
+   /**
+    * The number of offline sessions kept as is before the oldest ones are compacted, or -1 if they're never compacted.
+    */
+   public int getMaxOfflineSessions() {
+      return maxOfflineSessions;
+   }
+
+   public void setMaxOfflineSessions(int maxOfflineSessions) {
+      this.maxOfflineSessions = maxOfflineSessions;
+   }
+
+   /**
+    * Returns the session of the client, attached to the caller.
+    * <p>
+    * A clean session discards the session the client had and isn't registered, as it lasts as long as its connection.
+    * Otherwise the session of the client is reused, or created if it had none, once the connection it may still be
+    * attached to has detached it.
+    */
+   public MQTTSessionState attach(String clientId, boolean cleanSession) throws Exception {
+      if (!started) {
+         start();
+      }
+
+      Shard shard = shard(clientId);
+      synchronized (shard) {
+         if (cleanSession) {
+            remove(shard, clientId);
+            return new MQTTSessionState(clientId);
+         }
+
+         while (true) {
+            MQTTSessionState state;
+            Object entry = shard.sessions.get(clientId);
+            if (entry == null) {
+               state = new MQTTSessionState(clientId);
+               store(state);
+               shard.sessions.put(clientId, state);
+            }
+            else if (entry instanceof byte[]) {
+               state = materialize(clientId, (byte[]) entry);
+               shard.sessions.put(clientId, state);
+               shard.compacted--;
+            }
+            else {
+               state = (MQTTSessionState) entry;
+            }
+
+            if (!state.getAttached()) {
+               shard.offline.remove(clientId);
+               state.setAttached(true);
+               return state;
+            }
+
+            // releases the shard until a session of the shard is detached
+            shard.wait(ATTACHED_SESSION_WAIT);
+         }
+      }
+   }
+
+   /**
+    * Stores the subscriptions of the session again, once they have changed.
+    */
+   public void update(MQTTSessionState state) throws Exception {
+      String clientId = state.getClientId();
+      Shard shard = shard(clientId);
+      synchronized (shard) {
+         if (shard.sessions.get(clientId) == state) {
+            store(state);
+         }
+      }
+   }
+
+   /**
+    * Takes back a session its connection no longer uses, which then counts as offline.
+    */
+   public void detach(MQTTSessionState state) throws Exception {
+      String clientId = state.getClientId();
+      Shard shard = shard(clientId);
+      synchronized (shard) {
+         state.setAttached(false);
+         shard.notifyAll();
+         if (shard.sessions.get(clientId) != state) {
+            // a clean session, or a session discarded by a clean session of the same client
+            return;
+         }
+
+         store(state);
+         state.releaseIdleState();
+         shard.offline.put(clientId, state);
+
+         int max = maxOfflineSessions;
+         if (max >= 0) {
+            compact(shard, (max + SHARDS - 1) / SHARDS);
+         }
+      }
+   }
+
+   /**
+    * Returns the number of sessions, attached, offline or compacted.
+    */
+   public int size() {
+      int size = 0;
+      for (Shard shard : shards) {
+         synchronized (shard) {
+            size += shard.sessions.size();
+         }
+      }
+      return size;
+   }
+
+   public int getOfflineCount() {
+      int count = 0;
+      for (Shard shard : shards) {
+         synchronized (shard) {
+            count += shard.offline.size() + shard.compacted;
+         }
+      }
+      return count;
+   }
+
+   public int getCompactedCount() {
+      int count = 0;
+      for (Shard shard : shards) {
+         synchronized (shard) {
+            count += shard.compacted;
+         }
+      }
+      return count;
+   }
+
+   private Shard shard(String clientId) {
+      int h = clientId.hashCode();
+      return shards[(h ^ (h >>> 16)) & (SHARDS - 1)];
+   }
+
+   private void remove(Shard shard, String clientId) throws Exception {
+      Object entry = shard.sessions.remove(clientId);
+      if (entry instanceof byte[]) {
+         shard.compacted--;
+         deleteRecord(ActiveMQBuffers.wrappedBuffer((byte[]) entry).readLong());
+      }
+      else if (entry != null) {
+         shard.offline.remove(clientId);
+         deleteRecord(((MQTTSessionState) entry).getRecordId());
+      }
+   }
+
+   private void compact(Shard shard, int maxOffline) throws Exception {
+      Iterator<MQTTSessionState> iterator = shard.offline.values().iterator();
+      while (shard.offline.size() > maxOffline && iterator.hasNext()) {
+         MQTTSessionState state = iterator.next();
+         // the sessions with messages in flight are kept as they are
+         if (!state.isIdle()) {
+            continue;
+         }
+
+         iterator.remove();
+         shard.sessions.put(state.getClientId(), compact(state));
+         shard.compacted++;
+      }
+   }
+
+   /**
+    * The state of an offline session is stored when it detaches, so its record is still current when it's compacted.
+    */
+   private byte[] compact(MQTTSessionState state) throws Exception {
+      return new SessionStateEncoding(state).toCompacted(state.getRecordId());
+   }
+
+   private MQTTSessionState materialize(String clientId, byte[] compacted) throws Exception {
+      ActiveMQBuffer buffer = ActiveMQBuffers.wrappedBuffer(compacted);
+      long recordId = buffer.readLong();
+
+      SessionStateEncoding encoding = new SessionStateEncoding();
+      encoding.decodeState(buffer);
+
+      MQTTSessionState state = new MQTTSessionState(clientId);
+      state.setRecordId(recordId);
+      encoding.applyTo(state);
+      return state;
+   }
+
+   /**
+    * Replaces the message of the session with one of its current state. As with the retained messages, the message is
+    * added to the queue as routing would but without waiting for the journal, which isn't synced either as the state
+    * is stored again whenever it changes.
+    */
+   private void store(MQTTSessionState state) throws Exception {
+      Queue sessions = queue;
+      if (sessions == null) {
+         return;
+      }
+
+      StorageManager storageManager = server.getStorageManager();
+      SessionStateEncoding encoding = new SessionStateEncoding(state);
+
+      ServerMessage message = new ServerMessageImpl(storageManager.generateID(), MessageImpl.BODY_OFFSET + encoding.getEncodeSize());
+      message.setAddress(SESSIONS_ADDRESS);
+      message.setDurable(true);
+      encoding.encode(message.getBodyBuffer());
+
+      MessageReference reference = message.createReference(sessions);
+
+      message.incrementDurableRefCount();
+      storageManager.storeMessage(message);
+      storageManager.storeReference(sessions.getID(), message.getMessageID(), false);
+
+      message.incrementRefCount();
+
+      sessions.addTail(reference, false);
+
+      deleteRecord(state.getRecordId());
+      state.setRecordId(message.getMessageID());
+   }
+
+   private void deleteRecord(long recordId) throws Exception {
+      Queue sessions = queue;
+      if (sessions != null && recordId != 0) {
+         sessions.deleteReference(recordId);
+      }
+   }
+
+   private void load() throws Exception {
+      List<Long> duplicates = new ArrayList<>();
+
+      LinkedListIterator<MessageReference> iterator = queue.iterator();
+      try {
+         while (iterator.hasNext()) {
+            ServerMessage message = iterator.next().getMessage();
+            long recordId = message.getMessageID();
+
+            SessionStateEncoding encoding = new SessionStateEncoding();
+            encoding.decode(message.getBodyBufferCopy());
+
+            // every loaded session is offline and idle, so it's kept compacted until its client reconnects
+            String clientId = encoding.clientId.toString();
+            byte[] compacted = encoding.toCompacted(recordId);
+
+            Shard shard = shard(clientId);
+            synchronized (shard) {
+               Object replaced = shard.sessions.put(clientId, compacted);
+               if (replaced != null) {
+                  // the server stopped between the add of a message and the delete of the one it replaced
+                  long replacedId = ActiveMQBuffers.wrappedBuffer((byte[]) replaced).readLong();
+                  if (replacedId > recordId) {
+                     shard.sessions.put(clientId, replaced);
+                     replacedId = recordId;
+                  }
+                  shard.compacted--;
+                  duplicates.add(replacedId);
+               }
+               shard.compacted++;
+            }
+         }
+      }
+      finally {
+         iterator.close();
+      }
+
+      for (Long id : duplicates) {
+         queue.deleteReference(id);
+      }
+   }
+
+   private static final class Shard {
+
+      // the state of each session, or the byte array it was compacted to
+      private final Map<String, Object> sessions = new HashMap<>();
+
+      // the offline sessions not compacted yet, oldest first
+      private final LinkedHashMap<String, MQTTSessionState> offline = new LinkedHashMap<>();
+
+      private int compacted;
+   }
+
+   private static final class SessionStateEncoding implements EncodingSupport {
+
+      private SimpleString clientId;
+
+      private int lastId;
+
+      private List<MqttTopicSubscription> subscriptions;
+
+      private SessionStateEncoding() {
+      }
+
+      private SessionStateEncoding(MQTTSessionState state) {
+         this.clientId = new SimpleString(state.getClientId());
+         this.lastId = state.getLastId();
+         this.subscriptions = new ArrayList<>(state.getSubscriptions());
+      }
+
+      @Override
+      public int getEncodeSize() {
+         return SimpleString.sizeofString(clientId) + getStateSize();
+      }
+
+      @Override
+      public void encode(ActiveMQBuffer buffer) {
+         buffer.writeSimpleString(clientId);
+         encodeState(buffer);
+      }
+
+      @Override
+      public void decode(ActiveMQBuffer buffer) {
+         clientId = buffer.readSimpleString();
+         decodeState(buffer);
+      }
+
+      private void decodeState(ActiveMQBuffer buffer) {
+         lastId = buffer.readInt();
+         int count = buffer.readInt();
+         subscriptions = new ArrayList<>(count);
+         for (int i = 0; i < count; i++) {
+            String topic = buffer.readSimpleString().toString();
+            subscriptions.add(new MqttTopicSubscription(topic, MqttQoS.valueOf(buffer.readByte())));
+         }
+      }
+
+      private void applyTo(MQTTSessionState state) {
+         state.setLastId(lastId);
+         for (MqttTopicSubscription subscription : subscriptions) {
+            state.addSubscription(subscription);
+         }
+      }
+
+      private byte[] toCompacted(long recordId) {
+         byte[] compacted = new byte[8 + getStateSize()];
+         ActiveMQBuffer buffer = ActiveMQBuffers.wrappedBuffer(compacted);
+         buffer.writerIndex(0);
+         buffer.writeLong(recordId);
+         encodeState(buffer);
+         return compacted;
+      }
+
+      private int getStateSize() {
+         int size = 4 + 4;
+         for (MqttTopicSubscription subscription : subscriptions) {
+            size += SimpleString.sizeofString(new SimpleString(subscription.topicName())) + 1;
+         }
+         return size;
+      }
+
+      private void encodeState(ActiveMQBuffer buffer) {
+         buffer.writeInt(lastId);
+         buffer.writeInt(subscriptions.size());
+         for (MqttTopicSubscription subscription : subscriptions) {
+            buffer.writeSimpleString(new SimpleString(subscription.topicName()));
+            buffer.writeByte((byte) subscription.qualityOfService().value());
+         }
+      }
+   }
+}
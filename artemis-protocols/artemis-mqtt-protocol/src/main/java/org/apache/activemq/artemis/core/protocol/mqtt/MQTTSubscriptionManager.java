@@ -116,6 +116,7 @@ public class MQTTSubscriptionManager {
       for (String topic : topics) {
          removeSubscription(topic);
       }
+      session.getSessionStateRegistry().update(session.getSessionState());
    }
 
    // FIXME: Do we need this synchronzied?
@@ -149,6 +150,7 @@ public class MQTTSubscriptionManager {
          addSubscription(subscriptions.get(i));
          qos[i] = subscriptions.get(i).qualityOfService().value();
       }
+      session.getSessionStateRegistry().update(session.getSessionState());
       return qos;
    }
 
@@ -80,10 +80,6 @@ public class MQTTUtil {
       return swapMQTTAndCoreWildCards(filter);
    }
 
-   public static String convertMQTTAddressFilterToCoreRetain(String filter) {
-      return MQTT_RETAIN_ADDRESS_PREFIX + swapMQTTAndCoreWildCards(filter);
-   }
-
    public static String swapMQTTAndCoreWildCards(String filter) {
       char[] topicFilter = filter.toCharArray();
       for (int i = 0; i < topicFilter.length; i++) {
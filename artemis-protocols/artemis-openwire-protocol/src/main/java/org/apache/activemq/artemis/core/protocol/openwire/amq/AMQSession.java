@@ -29,6 +29,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import io.netty.channel.FileRegion;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.command.ActiveMQDestination;
 import org.apache.activemq.command.ConnectionInfo;
@@ -180,6 +181,11 @@ public class AMQSession implements SessionCallback {
       return 0;
    }
 
+   @Override
+   public int sendLargeMessageContinuation(ServerConsumer consumerID, FileRegion body, boolean continues) {
+      return -1;
+   }
+
    @Override
    public void closed() {
       // TODO Auto-generated method stub
@@ -37,6 +37,13 @@ public class SimpleBytes {
       return new String(contents, 0, index, StandardCharsets.UTF_8);
    }
 
+   public String getString(StompHeaderTable table) {
+      if (table == null)
+         return getString();
+
+      return table.get(contents, 0, index);
+   }
+
    public void reset() {
       index = 0;
    }
@@ -81,6 +81,8 @@ public final class StompConnection implements RemotingConnection {
 
    private final boolean enableMessageID;
 
+   private final boolean pooledDecoder;
+
    private StompVersions version;
 
    private VersionedStompFrameHandler frameHandler;
@@ -129,14 +131,16 @@ public final class StompConnection implements RemotingConnection {
 
       this.manager = manager;
 
-      this.frameHandler = new StompFrameHandlerV10(this);
-
       this.creationTime = System.currentTimeMillis();
 
       this.acceptorUsed = acceptorUsed;
 
       this.enableMessageID = ConfigurationHelper.getBooleanProperty(TransportConstants.STOMP_ENABLE_MESSAGE_ID, false, acceptorUsed.getConfiguration());
       this.minLargeMessageSize = ConfigurationHelper.getIntProperty(TransportConstants.STOMP_MIN_LARGE_MESSAGE_SIZE, ActiveMQClient.DEFAULT_MIN_LARGE_MESSAGE_SIZE, acceptorUsed.getConfiguration());
+      this.pooledDecoder = ConfigurationHelper.getBooleanProperty(TransportConstants.STOMP_POOLED_DECODER, TransportConstants.DEFAULT_STOMP_POOLED_DECODER, acceptorUsed.getConfiguration());
+
+      // the decoder of the handler checks the mode, so this has to come after the configuration
+      this.frameHandler = new StompFrameHandlerV10(this);
    }
 
    @Override
@@ -707,4 +711,8 @@ public final class StompConnection implements RemotingConnection {
       return minLargeMessageSize;
    }
 
+   public boolean isPooledDecoder() {
+      return pooledDecoder;
+   }
+
 }
@@ -164,8 +164,16 @@ public class StompDecoder {
 
    protected final VersionedStompFrameHandler handler;
 
+   // only set in pooled mode, where the bodies are also left in the working buffer until the next call to decode
+   protected final StompHeaderTable headerTable;
+
    public StompDecoder(VersionedStompFrameHandler handler) {
       this.handler = handler;
+      this.headerTable = handler.connection.isPooledDecoder() ? new StompHeaderTable() : null;
+   }
+
+   public StompHeaderTable getHeaderTable() {
+      return headerTable;
    }
 
    public boolean hasBytes() {
@@ -183,8 +191,13 @@ public class StompDecoder {
     * and 1.2, it is also responsible for giving out a proper exception when it detects
     * unsupported EOLs ("\r\n" valid for 1.2 only). The StompConnection will switch
     * to proper version decoders on catching such exceptions.
+    *
+    * In pooled mode the body of the returned frame is a slice of the working buffer,
+    * which is only valid until the next call.
     */
    public synchronized StompFrame decode(final ActiveMQBuffer buffer) throws ActiveMQStompException {
+      compact();
+
       int readable = buffer.readableBytes();
 
       if (data + readable >= workingBuffer.length) {
@@ -216,16 +229,18 @@ public class StompDecoder {
    }
 
    protected StompFrame parseBody() throws ActiveMQStompException {
-      byte[] content = null;
+      int bodyOffset = -1;
+
+      int bodyLength = -1;
 
       if (contentLength != -1) {
          if (pos + contentLength + 1 > data) {
             // Need more bytes
          }
          else {
-            content = new byte[contentLength];
+            bodyOffset = pos;
 
-            System.arraycopy(workingBuffer, pos, content, 0, contentLength);
+            bodyLength = contentLength;
 
             pos += contentLength + 1;
          }
@@ -239,42 +254,87 @@ public class StompDecoder {
 
          while (pos < data) {
             if (workingBuffer[pos++] == 0) {
-               content = new byte[pos - bodyStart - 1];
+               bodyOffset = bodyStart;
 
-               System.arraycopy(workingBuffer, bodyStart, content, 0, content.length);
+               bodyLength = pos - bodyStart - 1;
 
                break;
             }
          }
       }
 
-      if (content != null) {
-         if (data > pos) {
-            if (workingBuffer[pos] == NEW_LINE)
-               pos++;
+      if (bodyLength != -1) {
+         StompFrame ret = handler.createStompFrame(command);
+         ret.headers = headers;
 
-            if (data > pos)
-               // More data still in the buffer from the next packet
-               System.arraycopy(workingBuffer, pos, workingBuffer, 0, data - pos);
-         }
+         return completeFrame(ret, bodyOffset, bodyLength);
+      }
+      else {
+         return null;
+      }
+   }
 
-         data = data - pos;
+   /**
+    * Sets the body of a frame whose terminating NUL has been read and resets the decoder for the next frame.
+    */
+   protected StompFrame completeFrame(StompFrame frame, int bodyOffset, int bodyLength) {
+      if (data > pos && workingBuffer[pos] == NEW_LINE) {
+         pos++;
+      }
 
-         // reset
+      if (headerTable != null) {
+         frame.setBodySlice(workingBuffer, bodyOffset, bodyLength);
 
-         StompFrame ret = handler.createStompFrame(command);
-         ret.headers = headers;
-         ret.setByteBody(content);
+         // the bytes of the frame are dropped by the next call to decode
+         int end = pos;
 
          init();
 
-         return ret;
+         pos = end;
       }
       else {
-         return null;
+         byte[] content = new byte[bodyLength];
+
+         System.arraycopy(workingBuffer, bodyOffset, content, 0, bodyLength);
+
+         frame.setByteBody(content);
+
+         if (data > pos)
+            // More data still in the buffer from the next packet
+            System.arraycopy(workingBuffer, pos, workingBuffer, 0, data - pos);
+
+         data = data - pos;
+
+         init();
+      }
+
+      return frame;
+   }
+
+   /**
+    * Drops the bytes of the frame returned last in pooled mode, which is the only case
+    * where pos is not 0 before a command has been parsed.
+    */
+   protected void compact() {
+      if (command == null && pos > 0) {
+         if (data > pos) {
+            System.arraycopy(workingBuffer, pos, workingBuffer, 0, data - pos);
+         }
+
+         data = data - pos;
+
+         pos = 0;
       }
    }
 
+   protected String toHeaderString(int offset, int length) {
+      if (headerTable == null) {
+         return new String(workingBuffer, offset, length);
+      }
+
+      return headerTable.get(workingBuffer, offset, length);
+   }
+
    protected boolean parseHeaders() throws ActiveMQStompException {
       if (headerBytesCopyStart == -1) {
          headerBytesCopyStart = pos;
@@ -288,7 +348,7 @@ public class StompDecoder {
          switch (b) {
             case HEADER_SEPARATOR: {
                if (inHeaderName) {
-                  headerName = new String(workingBuffer, headerBytesCopyStart, pos - headerBytesCopyStart - 1);
+                  headerName = toHeaderString(headerBytesCopyStart, pos - headerBytesCopyStart - 1);
 
                   inHeaderName = false;
 
@@ -309,7 +369,7 @@ public class StompDecoder {
                   break outer;
                }
 
-               String headerValue = new String(workingBuffer, headerBytesCopyStart, pos - headerBytesCopyStart - 1);
+               String headerValue = toHeaderString(headerBytesCopyStart, pos - headerBytesCopyStart - 1);
 
                headers.put(headerName, headerValue);
 
@@ -39,6 +39,13 @@ public class StompFrame {
 
    protected byte[] bytesBody;
 
+   // the body of a frame decoded in pooled mode, left in the working buffer of the decoder
+   private byte[] bodySlice;
+
+   private int bodySliceOffset;
+
+   private int bodySliceLength;
+
    protected ActiveMQBuffer buffer = null;
 
    protected int size;
@@ -77,7 +84,7 @@ public class StompFrame {
    @Override
    public String toString() {
       return "StompFrame[command=" + command + ", headers=" + headers + ", content= " + this.body + " bytes " +
-         Arrays.toString(bytesBody);
+         Arrays.toString(getBodyAsBytes());
    }
 
    public boolean isPing() {
@@ -90,6 +97,8 @@ public class StompFrame {
 
    public ActiveMQBuffer toActiveMQBuffer() throws Exception {
       if (buffer == null) {
+         byte[] bytesBody = getBodyAsBytes();
+
          if (bytesBody != null) {
             buffer = ActiveMQBuffers.dynamicBuffer(bytesBody.length + 512);
          }
@@ -214,6 +223,7 @@ public class StompFrame {
    public void setBody(String body) {
       this.body = body;
       this.bytesBody = body.getBytes(StandardCharsets.UTF_8);
+      this.bodySlice = null;
    }
 
    public boolean hasHeader(String key) {
@@ -222,7 +232,10 @@ public class StompFrame {
 
    public String getBody() {
       if (body == null) {
-         if (bytesBody != null) {
+         if (bodySlice != null) {
+            body = new String(bodySlice, bodySliceOffset, bodySliceLength, StandardCharsets.UTF_8);
+         }
+         else if (bytesBody != null) {
             body = new String(bytesBody, StandardCharsets.UTF_8);
          }
       }
@@ -231,15 +244,44 @@ public class StompFrame {
 
    //Since 1.1, there is a content-type header that needs to take care of
    public byte[] getBodyAsBytes() {
+      if (bodySlice != null) {
+         bytesBody = Arrays.copyOfRange(bodySlice, bodySliceOffset, bodySliceOffset + bodySliceLength);
+         bodySlice = null;
+      }
       return bytesBody;
    }
 
+   /**
+    * Writes the body to the buffer, straight from the working buffer of the decoder if the frame was decoded in
+    * pooled mode.
+    */
+   public void writeBodyTo(ActiveMQBuffer target) {
+      if (bodySlice != null) {
+         target.writeBytes(bodySlice, bodySliceOffset, bodySliceLength);
+      }
+      else {
+         target.writeBytes(bytesBody);
+      }
+   }
+
    public boolean needsDisconnect() {
       return disconnect;
    }
 
    public void setByteBody(byte[] content) {
       this.bytesBody = content;
+      this.bodySlice = null;
+   }
+
+   /**
+    * Sets the body as a range of the decoder's working buffer, which is only valid until the decoder is
+    * given more bytes. Interceptors that keep the frame must call {@link #getBodyAsBytes()} before returning.
+    */
+   public void setBodySlice(byte[] bytes, int offset, int length) {
+      this.bytesBody = null;
+      this.bodySlice = bytes;
+      this.bodySliceOffset = offset;
+      this.bodySliceLength = length;
    }
 
    public void setNeedsDisconnect(boolean b) {
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.stomp;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns the bytes of STOMP header names and values into strings without allocating for the ones seen before.
+ * <p>
+ * The names and values defined in {@link Stomp.Headers} are returned as the constants themselves, and the other
+ * ASCII strings are kept in a table of recent strings, indexed by their hash code, so a client sending the same
+ * destinations and header values frame after frame gets back the same instances.
+ * <p>
+ * A table belongs to a single decoder and isn't thread safe.
+ */
+public class StompHeaderTable {
+
+   public static final int DEFAULT_SIZE = 1024;
+
+   private static final String[] WELL_KNOWN;
+
+   private static final int WELL_KNOWN_MASK;
+
+   static {
+      List<String> constants = new ArrayList<>();
+      collectConstants(Stomp.Headers.class, constants);
+
+      int size = Integer.highestOneBit(constants.size() * 4 - 1) << 1;
+      WELL_KNOWN = new String[size];
+      WELL_KNOWN_MASK = size - 1;
+
+      for (String constant : constants) {
+         int slot = constant.hashCode() & WELL_KNOWN_MASK;
+         while (WELL_KNOWN[slot] != null && !WELL_KNOWN[slot].equals(constant)) {
+            slot = (slot + 1) & WELL_KNOWN_MASK;
+         }
+         WELL_KNOWN[slot] = constant;
+      }
+   }
+
+   private final String[] recent;
+
+   private final int recentMask;
+
+   private long hits;
+
+   private long misses;
+
+   public StompHeaderTable() {
+      this(DEFAULT_SIZE);
+   }
+
+   /**
+    * @param size the number of recent strings to keep, rounded up to a power of 2
+    */
+   public StompHeaderTable(final int size) {
+      int capacity = size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+      recent = new String[capacity];
+      recentMask = capacity - 1;
+   }
+
+   /**
+    * Returns the string of the given bytes, decoded as UTF-8.
+    */
+   public String get(final byte[] bytes, final int offset, final int length) {
+      if (length == 0) {
+         return "";
+      }
+
+      // the same as String.hashCode() as long as all the bytes are ASCII
+      int hash = 0;
+      for (int i = offset; i < offset + length; i++) {
+         byte b = bytes[i];
+         if (b < 0) {
+            misses++;
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+         }
+         hash = 31 * hash + b;
+      }
+
+      int slot = hash & WELL_KNOWN_MASK;
+      String candidate;
+      while ((candidate = WELL_KNOWN[slot]) != null) {
+         if (matches(candidate, bytes, offset, length)) {
+            hits++;
+            return candidate;
+         }
+         slot = (slot + 1) & WELL_KNOWN_MASK;
+      }
+
+      slot = hash & recentMask;
+      candidate = recent[slot];
+      if (candidate != null && matches(candidate, bytes, offset, length)) {
+         hits++;
+         return candidate;
+      }
+
+      misses++;
+      candidate = new String(bytes, offset, length, StandardCharsets.US_ASCII);
+      recent[slot] = candidate;
+      return candidate;
+   }
+
+   /**
+    * Returns the number of strings that were found in the table.
+    */
+   public long getHits() {
+      return hits;
+   }
+
+   /**
+    * Returns the number of strings that had to be allocated.
+    */
+   public long getMisses() {
+      return misses;
+   }
+
+   private static boolean matches(final String string, final byte[] bytes, final int offset, final int length) {
+      if (string.length() != length) {
+         return false;
+      }
+      for (int i = 0; i < length; i++) {
+         if (string.charAt(i) != bytes[offset + i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static void collectConstants(final Class<?> type, final List<String> constants) {
+      for (Field field : type.getDeclaredFields()) {
+         if (field.getType() == String.class && Modifier.isStatic(field.getModifiers())) {
+            try {
+               constants.add((String) field.get(null));
+            }
+            catch (IllegalAccessException e) {
+               // the fields of an interface are all public
+               throw new IllegalStateException(e);
+            }
+         }
+      }
+      for (Class<?> nested : type.getDeclaredClasses()) {
+         collectConstants(nested, constants);
+      }
+   }
+}
@@ -22,6 +22,7 @@ import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.Inflater;
 
+import io.netty.channel.FileRegion;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.Pair;
@@ -168,6 +169,10 @@ public class StompSession implements SessionCallback {
       return 0;
    }
 
+   public int sendLargeMessageContinuation(ServerConsumer consumer, FileRegion body, boolean continues) {
+      return -1;
+   }
+
    public int sendLargeMessage(ServerMessage msg, ServerConsumer consumer, long bodySize, int deliveryCount) {
       return 0;
    }
@@ -180,7 +180,7 @@ public abstract class VersionedStompFrameHandler {
          StompUtils.copyStandardHeadersFromFrameToMessage(frame, message);
          if (frame.hasHeader(Stomp.Headers.CONTENT_LENGTH)) {
             message.setType(Message.BYTES_TYPE);
-            message.getBodyBuffer().writeBytes(frame.getBodyAsBytes());
+            frame.writeBodyTo(message.getBodyBuffer());
          }
          else {
             message.setType(Message.TEXT_TYPE);
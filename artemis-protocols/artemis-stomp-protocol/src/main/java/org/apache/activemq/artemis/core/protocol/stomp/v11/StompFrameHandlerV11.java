@@ -617,7 +617,7 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
                }
                case HEADER_SEPARATOR: {
                   if (inHeaderName) {
-                     headerName = holder.getString();
+                     headerName = holder.getString(headerTable);
 
                      holder.reset();
 
@@ -658,7 +658,7 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
                      break outer;
                   }
 
-                  String headerValue = holder.getString();
+                  String headerValue = holder.getString(headerTable);
                   holder.reset();
 
                   headers.put(headerName, headerValue);
@@ -696,16 +696,18 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
       }
 
       protected StompFrame parseBody() throws ActiveMQStompException {
-         byte[] content = null;
+         int bodyOffset = -1;
+
+         int bodyLength = -1;
 
          if (contentLength != -1) {
             if (pos + contentLength + 1 > data) {
                // Need more bytes
             }
             else {
-               content = new byte[contentLength];
+               bodyOffset = pos;
 
-               System.arraycopy(workingBuffer, pos, content, 0, contentLength);
+               bodyLength = contentLength;
 
                pos += contentLength;
 
@@ -730,34 +732,17 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
 
             while (pos < data) {
                if (workingBuffer[pos++] == 0) {
-                  content = new byte[pos - bodyStart - 1];
+                  bodyOffset = bodyStart;
 
-                  System.arraycopy(workingBuffer, bodyStart, content, 0, content.length);
+                  bodyLength = pos - bodyStart - 1;
 
                   break;
                }
             }
          }
 
-         if (content != null) {
-            if (data > pos) {
-               if (workingBuffer[pos] == NEW_LINE)
-                  pos++;
-
-               if (data > pos)
-                  // More data still in the buffer from the next packet
-                  System.arraycopy(workingBuffer, pos, workingBuffer, 0, data - pos);
-            }
-
-            data = data - pos;
-
-            // reset
-
-            StompFrame ret = new StompFrameV11(command, headers, content);
-
-            init();
-
-            return ret;
+         if (bodyLength != -1) {
+            return completeFrame(new StompFrameV11(command, headers, null), bodyOffset, bodyLength);
          }
          else {
             return null;
@@ -70,58 +70,84 @@ public abstract class UnaryExpression implements Expression {
       else {
          t = new HashSet<Object>(elements);
       }
-      final Collection<Object> inList = t;
 
-      return new BooleanUnaryExpression(right) {
-         public Object evaluate(Filterable message) throws FilterException {
+      return new InExpression(right, t, not);
+   }
 
-            Object rvalue = right.evaluate(message);
-            if (rvalue == null) {
-               return null;
-            }
-            if (rvalue.getClass() != String.class) {
-               return null;
-            }
+   /**
+    * A {@code property [NOT] IN (...)} expression.
+    */
+   public static class InExpression extends BooleanUnaryExpression {
 
-            if ((inList != null && inList.contains(rvalue)) ^ not) {
-               return Boolean.TRUE;
-            }
-            else {
-               return Boolean.FALSE;
-            }
+      private final Collection<Object> inList;
 
-         }
+      private final boolean not;
 
-         public String toString() {
-            StringBuffer answer = new StringBuffer();
-            answer.append(right);
-            answer.append(" ");
-            answer.append(getExpressionSymbol());
-            answer.append(" ( ");
-
-            int count = 0;
-            for (Iterator<Object> i = inList.iterator(); i.hasNext(); ) {
-               Object o = (Object) i.next();
-               if (count != 0) {
-                  answer.append(", ");
-               }
-               answer.append(o);
-               count++;
-            }
+      InExpression(final PropertyExpression right, final Collection<Object> inList, final boolean not) {
+         super(right);
+         this.inList = inList;
+         this.not = not;
+      }
 
-            answer.append(" )");
-            return answer.toString();
+      /**
+       * @return the values the property is checked against, null if the list is empty
+       */
+      public Collection<Object> getInList() {
+         return inList;
+      }
+
+      public boolean isNot() {
+         return not;
+      }
+
+      public Object evaluate(Filterable message) throws FilterException {
+
+         Object rvalue = right.evaluate(message);
+         if (rvalue == null) {
+            return null;
+         }
+         if (rvalue.getClass() != String.class) {
+            return null;
          }
 
-         public String getExpressionSymbol() {
-            if (not) {
-               return "NOT IN";
-            }
-            else {
-               return "IN";
+         if ((inList != null && inList.contains(rvalue)) ^ not) {
+            return Boolean.TRUE;
+         }
+         else {
+            return Boolean.FALSE;
+         }
+
+      }
+
+      public String toString() {
+         StringBuffer answer = new StringBuffer();
+         answer.append(right);
+         answer.append(" ");
+         answer.append(getExpressionSymbol());
+         answer.append(" ( ");
+
+         int count = 0;
+         for (Iterator<Object> i = inList.iterator(); i.hasNext(); ) {
+            Object o = (Object) i.next();
+            if (count != 0) {
+               answer.append(", ");
             }
+            answer.append(o);
+            count++;
          }
-      };
+
+         answer.append(" )");
+         return answer.toString();
+      }
+
+      public String getExpressionSymbol() {
+         if (not) {
+            return "NOT IN";
+         }
+         else {
+            return "IN";
+         }
+      }
    }
 
    abstract static class BooleanUnaryExpression extends UnaryExpression implements BooleanExpression {
@@ -0,0 +1,634 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.selector.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.activemq.artemis.selector.filter.BinaryExpression;
+import org.apache.activemq.artemis.selector.filter.BooleanExpression;
+import org.apache.activemq.artemis.selector.filter.ComparisonExpression;
+import org.apache.activemq.artemis.selector.filter.ConstantExpression;
+import org.apache.activemq.artemis.selector.filter.Expression;
+import org.apache.activemq.artemis.selector.filter.FilterException;
+import org.apache.activemq.artemis.selector.filter.Filterable;
+import org.apache.activemq.artemis.selector.filter.LogicExpression;
+import org.apache.activemq.artemis.selector.filter.PropertyExpression;
+import org.apache.activemq.artemis.selector.filter.UnaryExpression;
+
+/**
+ * Compiles the expression tree built by {@link SelectorParser} into a tree of specialised predicates.
+ * <p>
+ * The compiled form:
+ * <ul>
+ * <li>folds every sub expression that only depends on constants,</li>
+ * <li>flattens {@code AND} / {@code OR} chains and evaluates their cheapest operands first,</li>
+ * <li>compares numeric properties against numeric constants on primitives, without the boxing and
+ * type promotion done by {@link ComparisonExpression},</li>
+ * <li>evaluates {@code IN} against a hash set whatever the size of the list.</li>
+ * </ul>
+ * Any expression it does not know how to specialise is kept as is and interpreted, so a compiled
+ * selector always matches exactly the same messages as the parsed one.
+ */
+public final class SelectorCompiler {
+
+   private static final LRUCache<String, BooleanExpression> cache = new LRUCache<String, BooleanExpression>(100);
+
+   private static final int INTERPRETED_COST = 10;
+
+   private static final Comparator<Predicate> COST_ORDER = new Comparator<Predicate>() {
+      public int compare(Predicate p1, Predicate p2) {
+         return p1.cost < p2.cost ? -1 : (p1.cost == p2.cost ? 0 : 1);
+      }
+   };
+
+   private SelectorCompiler() {
+   }
+
+   /**
+    * Parses and compiles a selector, caching the compiled result by selector string.
+    */
+   public static BooleanExpression compile(String sql) throws FilterException {
+      synchronized (cache) {
+         BooleanExpression compiled = cache.get(sql);
+         if (compiled != null) {
+            return compiled;
+         }
+      }
+
+      BooleanExpression compiled = compile(SelectorParser.parse(sql));
+
+      synchronized (cache) {
+         cache.put(sql, compiled);
+      }
+      return compiled;
+   }
+
+   public static BooleanExpression compile(BooleanExpression expression) {
+      return new CompiledExpression(expression, compile(expression, true));
+   }
+
+   public static void clearCache() {
+      synchronized (cache) {
+         cache.clear();
+      }
+   }
+
+   /**
+    * @param truth true if only {@link Predicate#matches(Filterable)} will be called on the result, in
+    *              which case the three valued logic of the interpreter can be relaxed to reorder and
+    *              fold operands
+    */
+   private static Predicate compile(BooleanExpression expression, boolean truth) {
+      if (isConstant(expression)) {
+         try {
+            Object value = expression.evaluate(null);
+            if (value == null || value instanceof Boolean) {
+               return new ConstantPredicate((Boolean) value);
+            }
+         }
+         catch (Throwable e) {
+            // let it fail at evaluation time as the interpreter would
+         }
+         return new InterpretedPredicate(expression);
+      }
+
+      if (expression instanceof LogicExpression) {
+         LogicExpression logic = (LogicExpression) expression;
+         boolean and = "AND".equals(logic.getExpressionSymbol());
+         if (truth) {
+            return compileChain(logic, and);
+         }
+         Predicate left = compile((BooleanExpression) logic.getLeft(), false);
+         Predicate right = compile((BooleanExpression) logic.getRight(), false);
+         return and ? new AndPredicate(left, right) : new OrPredicate(left, right);
+      }
+
+      if (expression instanceof ComparisonExpression) {
+         Predicate predicate = compileComparison((ComparisonExpression) expression);
+         if (predicate != null) {
+            return predicate;
+         }
+      }
+      else if (expression instanceof UnaryExpression.InExpression) {
+         UnaryExpression.InExpression in = (UnaryExpression.InExpression) expression;
+         return new InPredicate(((PropertyExpression) in.getRight()).getName(), in.getInList(), in.isNot());
+      }
+      else if (expression instanceof UnaryExpression) {
+         UnaryExpression unary = (UnaryExpression) expression;
+         String symbol = unary.getExpressionSymbol();
+         if ("NOT".equals(symbol)) {
+            return new NotPredicate(compile((BooleanExpression) unary.getRight(), false));
+         }
+         if ("".equals(symbol) && unary.getRight() instanceof PropertyExpression) {
+            return new BooleanPropertyPredicate(((PropertyExpression) unary.getRight()).getName());
+         }
+      }
+
+      return new InterpretedPredicate(expression);
+   }
+
+   private static Predicate compileChain(LogicExpression logic, boolean and) {
+      List<BooleanExpression> operands = new ArrayList<BooleanExpression>();
+      flatten(logic, logic.getExpressionSymbol(), operands);
+
+      List<Predicate> predicates = new ArrayList<Predicate>(operands.size());
+      for (BooleanExpression operand : operands) {
+         Predicate predicate = compile(operand, true);
+         if (predicate instanceof ConstantPredicate) {
+            boolean matches = ((ConstantPredicate) predicate).value == Boolean.TRUE;
+            if (matches != and) {
+               // FALSE (or unknown) on an AND, TRUE on an OR decides the whole chain
+               return new ConstantPredicate(Boolean.valueOf(matches));
+            }
+            // TRUE on an AND, FALSE (or unknown) on an OR can't change the outcome
+            continue;
+         }
+         predicates.add(predicate);
+      }
+
+      if (predicates.isEmpty()) {
+         return new ConstantPredicate(Boolean.valueOf(and));
+      }
+      if (predicates.size() == 1) {
+         return predicates.get(0);
+      }
+
+      // stable, so operands of the same cost keep the order they were written in
+      Collections.sort(predicates, COST_ORDER);
+      Predicate[] array = predicates.toArray(new Predicate[predicates.size()]);
+      return and ? new AllMatchPredicate(array) : new AnyMatchPredicate(array);
+   }
+
+   private static void flatten(BooleanExpression expression, String symbol, List<BooleanExpression> operands) {
+      if (expression instanceof LogicExpression && symbol.equals(((LogicExpression) expression).getExpressionSymbol())) {
+         LogicExpression logic = (LogicExpression) expression;
+         flatten((BooleanExpression) logic.getLeft(), symbol, operands);
+         flatten((BooleanExpression) logic.getRight(), symbol, operands);
+      }
+      else {
+         operands.add(expression);
+      }
+   }
+
+   private static Predicate compileComparison(ComparisonExpression comparison) {
+      if (!(comparison.getLeft() instanceof PropertyExpression) || !isConstant(comparison.getRight())) {
+         return null;
+      }
+
+      String name = ((PropertyExpression) comparison.getLeft()).getName();
+      Object value;
+      try {
+         value = comparison.getRight().evaluate(null);
+      }
+      catch (Throwable e) {
+         return null;
+      }
+
+      String symbol = comparison.getExpressionSymbol();
+      int operator;
+      if ("=".equals(symbol)) {
+         if (value == null) {
+            return new IsNullPredicate(name);
+         }
+         if (value instanceof String) {
+            return new StringEqualsPredicate(name, (String) value, comparison);
+         }
+         operator = NumericComparisonPredicate.EQ;
+      }
+      else if ("<".equals(symbol)) {
+         operator = NumericComparisonPredicate.LT;
+      }
+      else if ("<=".equals(symbol)) {
+         operator = NumericComparisonPredicate.LE;
+      }
+      else if (">".equals(symbol)) {
+         operator = NumericComparisonPredicate.GT;
+      }
+      else if (">=".equals(symbol)) {
+         operator = NumericComparisonPredicate.GE;
+      }
+      else {
+         return null;
+      }
+
+      if (value instanceof Integer || value instanceof Long || value instanceof Double) {
+         return new NumericComparisonPredicate(name, operator, (Number) value, comparison);
+      }
+      return null;
+   }
+
+   private static boolean isConstant(Expression expression) {
+      if (expression instanceof ConstantExpression) {
+         return true;
+      }
+      if (expression instanceof BinaryExpression) {
+         BinaryExpression binary = (BinaryExpression) expression;
+         return isConstant(binary.getLeft()) && isConstant(binary.getRight());
+      }
+      if (expression instanceof UnaryExpression) {
+         return isConstant(((UnaryExpression) expression).getRight());
+      }
+      return false;
+   }
+
+   /**
+    * The {@link BooleanExpression} handed out by the compiler, {@link #evaluate(Filterable)} is kept
+    * on the original expression so that the result is exactly the interpreted one.
+    */
+   private static final class CompiledExpression implements BooleanExpression {
+
+      private final BooleanExpression expression;
+
+      private final Predicate predicate;
+
+      CompiledExpression(BooleanExpression expression, Predicate predicate) {
+         this.expression = expression;
+         this.predicate = predicate;
+      }
+
+      public boolean matches(Filterable message) throws FilterException {
+         return predicate.matches(message);
+      }
+
+      public Object evaluate(Filterable message) throws FilterException {
+         return expression.evaluate(message);
+      }
+
+      public String toString() {
+         return expression.toString();
+      }
+   }
+
+   abstract static class Predicate {
+
+      final int cost;
+
+      Predicate(int cost) {
+         this.cost = cost;
+      }
+
+      /**
+       * @return {@link Boolean#TRUE}, {@link Boolean#FALSE} or null for unknown, as the interpreter would
+       */
+      abstract Boolean evaluate(Filterable message) throws FilterException;
+
+      boolean matches(Filterable message) throws FilterException {
+         return evaluate(message) == Boolean.TRUE;
+      }
+   }
+
+   static final class ConstantPredicate extends Predicate {
+
+      final Boolean value;
+
+      ConstantPredicate(Boolean value) {
+         super(0);
+         this.value = value;
+      }
+
+      Boolean evaluate(Filterable message) {
+         return value;
+      }
+   }
+
+   static final class InterpretedPredicate extends Predicate {
+
+      private final BooleanExpression expression;
+
+      InterpretedPredicate(BooleanExpression expression) {
+         super(INTERPRETED_COST);
+         this.expression = expression;
+      }
+
+      Boolean evaluate(Filterable message) throws FilterException {
+         return (Boolean) expression.evaluate(message);
+      }
+
+      boolean matches(Filterable message) throws FilterException {
+         return expression.matches(message);
+      }
+   }
+
+   static final class AllMatchPredicate extends Predicate {
+
+      private final Predicate[] predicates;
+
+      AllMatchPredicate(Predicate[] predicates) {
+         super(sumCost(predicates));
+         this.predicates = predicates;
+      }
+
+      Boolean evaluate(Filterable message) throws FilterException {
+         return matches(message) ? Boolean.TRUE : Boolean.FALSE;
+      }
+
+      boolean matches(Filterable message) throws FilterException {
+         for (Predicate predicate : predicates) {
+            if (!predicate.matches(message)) {
+               return false;
+            }
+         }
+         return true;
+      }
+   }
+
+   static final class AnyMatchPredicate extends Predicate {
+
+      private final Predicate[] predicates;
+
+      AnyMatchPredicate(Predicate[] predicates) {
+         super(sumCost(predicates));
+         this.predicates = predicates;
+      }
+
+      Boolean evaluate(Filterable message) throws FilterException {
+         return matches(message) ? Boolean.TRUE : Boolean.FALSE;
+      }
+
+      boolean matches(Filterable message) throws FilterException {
+         for (Predicate predicate : predicates) {
+            if (predicate.matches(message)) {
+               return true;
+            }
+         }
+         return false;
+      }
+   }
+
+   /**
+    * Same three valued logic as {@link LogicExpression#createAND}, used where unknown must be told apart
+    * from false (e.g. below a NOT).
+    */
+   static final class AndPredicate extends Predicate {
+
+      private final Predicate left;
+
+      private final Predicate right;
+
+      AndPredicate(Predicate left, Predicate right) {
+         super(left.cost + right.cost);
+         this.left = left;
+         this.right = right;
+      }
+
+      Boolean evaluate(Filterable message) throws FilterException {
+         Boolean lv = left.evaluate(message);
+         if (lv == null) {
+            return null;
+         }
+         if (!lv.booleanValue()) {
+            return Boolean.FALSE;
+         }
+         return right.evaluate(message);
+      }
+   }
+
+   /**
+    * Same three valued logic as {@link LogicExpression#createOR}.
+    */
+   static final class OrPredicate extends Predicate {
+
+      private final Predicate left;
+
+      private final Predicate right;
+
+      OrPredicate(Predicate left, Predicate right) {
+         super(left.cost + right.cost);
+         this.left = left;
+         this.right = right;
+      }
+
+      Boolean evaluate(Filterable message) throws FilterException {
+         Boolean lv = left.evaluate(message);
+         if (lv != null && lv.booleanValue()) {
+            return Boolean.TRUE;
+         }
+         return right.evaluate(message);
+      }
+   }
+
+   static final class NotPredicate extends Predicate {
+
+      private final Predicate predicate;
+
+      NotPredicate(Predicate predicate) {
+         super(predicate.cost);
+         this.predicate = predicate;
+      }
+
+      Boolean evaluate(Filterable message) throws FilterException {
+         Boolean value = predicate.evaluate(message);
+         if (value == null) {
+            return null;
+         }
+         return value.booleanValue() ? Boolean.FALSE : Boolean.TRUE;
+      }
+   }
+
+   static final class IsNullPredicate extends Predicate {
+
+      private final String name;
+
+      IsNullPredicate(String name) {
+         super(1);
+         this.name = name;
+      }
+
+      Boolean evaluate(Filterable message) {
+         return message.getProperty(name) == null ? Boolean.TRUE : Boolean.FALSE;
+      }
+   }
+
+   static final class BooleanPropertyPredicate extends Predicate {
+
+      private final String name;
+
+      BooleanPropertyPredicate(String name) {
+         super(1);
+         this.name = name;
+      }
+
+      Boolean evaluate(Filterable message) {
+         Object value = message.getProperty(name);
+         if (value == null) {
+            return null;
+         }
+         if (value.getClass() != Boolean.class) {
+            return Boolean.FALSE;
+         }
+         return ((Boolean) value).booleanValue() ? Boolean.TRUE : Boolean.FALSE;
+      }
+   }
+
+   static final class StringEqualsPredicate extends Predicate {
+
+      private final String name;
+
+      private final String value;
+
+      private final BooleanExpression fallback;
+
+      StringEqualsPredicate(String name, String value, BooleanExpression fallback) {
+         super(2);
+         this.name = name;
+         this.value = value;
+         this.fallback = fallback;
+      }
+
+      Boolean evaluate(Filterable message) throws FilterException {
+         Object property = message.getProperty(name);
+         if (property == null) {
+            return Boolean.FALSE;
+         }
+         if (property.getClass() == String.class) {
+            return value.equals(property) ? Boolean.TRUE : Boolean.FALSE;
+         }
+         // conversions between types are left to the interpreter
+         return (Boolean) fallback.evaluate(message);
+      }
+   }
+
+   /**
+    * Compares a numeric property against an {@link Integer}, {@link Long} or {@link Double} constant,
+    * following the type promotions of {@link ComparisonExpression}.
+    */
+   static final class NumericComparisonPredicate extends Predicate {
+
+      static final int EQ = 0;
+      static final int LT = 1;
+      static final int LE = 2;
+      static final int GT = 3;
+      static final int GE = 4;
+
+      private final String name;
+
+      private final int operator;
+
+      private final boolean floating;
+
+      private final long longValue;
+
+      private final float floatValue;
+
+      private final double doubleValue;
+
+      private final BooleanExpression fallback;
+
+      NumericComparisonPredicate(String name, int operator, Number value, BooleanExpression fallback) {
+         super(2);
+         this.name = name;
+         this.operator = operator;
+         this.floating = value instanceof Double;
+         this.longValue = value.longValue();
+         this.floatValue = value.floatValue();
+         this.doubleValue = value.doubleValue();
+         this.fallback = fallback;
+      }
+
+      Boolean evaluate(Filterable message) throws FilterException {
+         Object property = message.getProperty(name);
+         if (property == null) {
+            return operator == EQ ? Boolean.FALSE : null;
+         }
+
+         Class<?> clazz = property.getClass();
+         int result;
+         if (clazz == Integer.class || clazz == Long.class || clazz == Short.class || clazz == Byte.class) {
+            if (floating) {
+               result = Double.compare(((Number) property).doubleValue(), doubleValue);
+            }
+            else {
+               long lv = ((Number) property).longValue();
+               result = lv < longValue ? -1 : (lv == longValue ? 0 : 1);
+            }
+         }
+         else if (clazz == Double.class) {
+            result = Double.compare(((Double) property).doubleValue(), doubleValue);
+         }
+         else if (clazz == Float.class) {
+            if (floating) {
+               result = Double.compare(((Float) property).doubleValue(), doubleValue);
+            }
+            else {
+               result = Float.compare(((Float) property).floatValue(), floatValue);
+            }
+         }
+         else {
+            // conversions from other types are left to the interpreter
+            return (Boolean) fallback.evaluate(message);
+         }
+
+         boolean matches;
+         switch (operator) {
+            case EQ:
+               matches = result == 0;
+               break;
+            case LT:
+               matches = result < 0;
+               break;
+            case LE:
+               matches = result <= 0;
+               break;
+            case GT:
+               matches = result > 0;
+               break;
+            default:
+               matches = result >= 0;
+               break;
+         }
+         return matches ? Boolean.TRUE : Boolean.FALSE;
+      }
+   }
+
+   static final class InPredicate extends Predicate {
+
+      private final String name;
+
+      private final Set<Object> values;
+
+      private final boolean not;
+
+      InPredicate(String name, Collection<Object> values, boolean not) {
+         super(3);
+         this.name = name;
+         this.values = values == null ? Collections.emptySet() : new HashSet<Object>(values);
+         this.not = not;
+      }
+
+      Boolean evaluate(Filterable message) {
+         Object value = message.getProperty(name);
+         if (value == null || value.getClass() != String.class) {
+            return null;
+         }
+         return values.contains(value) ^ not ? Boolean.TRUE : Boolean.FALSE;
+      }
+   }
+
+   private static int sumCost(Predicate[] predicates) {
+      int cost = 0;
+      for (Predicate predicate : predicates) {
+         cost += predicate.cost;
+      }
+      return cost;
+   }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.selector;
+
+import org.apache.activemq.artemis.selector.filter.BooleanExpression;
+import org.apache.activemq.artemis.selector.filter.FilterException;
+import org.apache.activemq.artemis.selector.impl.SelectorCompiler;
+import org.apache.activemq.artemis.selector.impl.SelectorParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Runs every {@link SelectorTest} against the compiled selectors, checking they match the
+ * interpreted ones.
+ */
+public class CompiledSelectorTest extends SelectorTest {
+
+   @Test
+   public void testUnknownValues() throws Exception {
+      MockMessage message = createMessage();
+
+      // unknown must not be turned into false below a NOT
+      assertSelector(message, "NOT (missing > 10)", false);
+      assertSelector(message, "NOT (missing > 10 AND rank = 123)", false);
+      assertSelector(message, "NOT (rank = 123 AND missing > 10)", false);
+      assertSelector(message, "NOT (missing > 10 OR rank = 1)", true);
+      assertSelector(message, "NOT (rank = 1 OR missing > 10)", false);
+      assertSelector(message, "NOT (missing IN ('a', 'b'))", false);
+      assertSelector(message, "NOT (missing = 10)", true);
+      assertSelector(message, "NOT (missing = 'a')", true);
+   }
+
+   @Test
+   public void testNumericPromotions() throws Exception {
+      MockMessage message = createMessage();
+
+      for (String property : new String[]{"byteProp", "shortProp", "intProp", "longProp", "floatProp", "doubleProp"}) {
+         assertSelector(message, property + " = 123", true);
+         assertSelector(message, property + " = 123.0", true);
+         assertSelector(message, property + " > 122.5", true);
+         assertSelector(message, property + " < 123.5", true);
+         assertSelector(message, property + " >= 123", true);
+         assertSelector(message, property + " <= 122", false);
+         assertSelector(message, property + " = 100 + 23", true);
+         assertSelector(message, property + " > -5", true);
+         assertSelector(message, property + " BETWEEN 120 AND 125", true);
+         assertSelector(message, property + " NOT BETWEEN 120 AND 125", false);
+      }
+
+      message.setLongProperty("big", Long.MAX_VALUE);
+      assertSelector(message, "big > 2147483647", true);
+      assertSelector(message, "big = 9223372036854775807", true);
+
+      assertSelector(message, "name > 5", false);
+      assertSelector(message, "trueProp = 1", false);
+   }
+
+   @Test
+   public void testConstantFolding() throws Exception {
+      MockMessage message = createMessage();
+
+      assertSelector(message, "1 = 1 AND rank = 123", true);
+      assertSelector(message, "1 = 2 AND rank = 123", false);
+      assertSelector(message, "1 = 2 OR rank = 123", true);
+      assertSelector(message, "1 = 1 OR missing = 'x'", true);
+      assertSelector(message, "NOT (1 = 2) AND 2 * 3 = 6", true);
+   }
+
+   @Test
+   public void testCache() throws Exception {
+      BooleanExpression first = SelectorCompiler.compile("rank > 100 AND name = 'James'");
+      Assert.assertSame(first, SelectorCompiler.compile("rank > 100 AND name = 'James'"));
+
+      SelectorCompiler.clearCache();
+      Assert.assertNotSame(first, SelectorCompiler.compile("rank > 100 AND name = 'James'"));
+   }
+
+   @Override
+   protected void assertSelector(MockMessage message, String text, boolean expected) throws FilterException {
+      BooleanExpression interpreted = SelectorParser.parse(text);
+      Assert.assertEquals("Interpreted selector for: " + text, expected, interpreted.matches(message));
+
+      BooleanExpression compiled = SelectorCompiler.compile(text);
+      Assert.assertTrue("Created a valid selector", compiled != null);
+      Assert.assertEquals("Compiled selector for: " + text, expected, compiled.matches(message));
+   }
+}
@@ -112,6 +112,30 @@ public interface Configuration {
     */
    Configuration setThreadPoolMaxSize(int maxSize);
 
+   /**
+    * Returns whether the ordered executors of this server queue their tasks in a lock free
+    * {@link org.apache.activemq.artemis.utils.MpscOrderedExecutorFactory}. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_MPSC_ORDERED_EXECUTOR}.
+    */
+   boolean isMpscOrderedExecutor();
+
+   /**
+    * Sets whether the ordered executors of this server queue their tasks in a lock free queue.
+    */
+   Configuration setMpscOrderedExecutor(boolean mpsc);
+
+   /**
+    * Returns the number of tasks an ordered executor runs before giving its thread back to the thread pool,
+    * -1 meaning it runs tasks until it has none left. Only used by lock free ordered executors. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_ORDERED_EXECUTOR_BATCH_SIZE}.
+    */
+   int getOrderedExecutorBatchSize();
+
+   /**
+    * Sets the number of tasks an ordered executor runs before giving its thread back to the thread pool.
+    */
+   Configuration setOrderedExecutorBatchSize(int batchSize);
+
    /**
     * Returns the maximum number of threads in the <em>scheduled</em> thread pool of this server. <br>
     * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_SCHEDULED_THREAD_POOL_MAX_SIZE}.
@@ -439,6 +463,17 @@ public interface Configuration {
     */
    Configuration setPersistIDCache(boolean persist);
 
+   /**
+    * Returns whether the bodies of routed messages are kept in pooled direct buffers instead of on the heap. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_OFF_HEAP_MESSAGE_BODIES}.
+    */
+   boolean isOffHeapMessageBodies();
+
+   /**
+    * Sets whether the bodies of routed messages are kept in pooled direct buffers instead of on the heap.
+    */
+   Configuration setOffHeapMessageBodies(boolean offHeap);
+
    // Journal related attributes ------------------------------------------------------------
 
    /**
@@ -545,6 +580,18 @@ public interface Configuration {
     */
    Configuration setJournalCompactMinFiles(int minFiles);
 
+   /**
+    * Returns the number of threads reading the journal files while the journal is loaded, -1 for the number of
+    * available processors. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_LOAD_THREADS}.
+    */
+   int getJournalLoadThreads();
+
+   /**
+    * Sets the number of threads reading the journal files while the journal is loaded.
+    */
+   Configuration setJournalLoadThreads(int threads);
+
    /**
     * Returns the percentage of live data before compacting the journal. <br>
     * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_COMPACT_PERCENTAGE}.
@@ -823,6 +870,20 @@ public interface Configuration {
     */
    Configuration setMessageExpiryThreadPriority(int messageExpiryThreadPriority);
 
+   /**
+    * Returns the duration (in milliseconds) of a tick of the timing wheel used to deliver scheduled
+    * messages. A value of {@code -1} means each queue schedules its own deliveries on the scheduled
+    * thread pool. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_SCHEDULED_DELIVERY_TICK_DURATION}.
+    */
+   long getScheduledDeliveryTickDuration();
+
+   /**
+    * Sets the duration (in milliseconds) of a tick of the timing wheel used to deliver scheduled
+    * messages.
+    */
+   Configuration setScheduledDeliveryTickDuration(long scheduledDeliveryTickDuration);
+
    /**
     * @return A list of AddressSettings per matching to be deployed to the address settings repository
     */
@@ -29,6 +29,8 @@ public class ReplicatedPolicyConfiguration implements HAPolicyConfiguration {
 
    private long initialReplicationSyncTimeout = ActiveMQDefaultConfiguration.getDefaultInitialReplicationSyncTimeout();
 
+   private int replicationWindow = ActiveMQDefaultConfiguration.getDefaultReplicationWindow();
+
    public ReplicatedPolicyConfiguration() {
    }
 
@@ -71,4 +73,13 @@ public class ReplicatedPolicyConfiguration implements HAPolicyConfiguration {
    public void setInitialReplicationSyncTimeout(long initialReplicationSyncTimeout) {
       this.initialReplicationSyncTimeout = initialReplicationSyncTimeout;
    }
+
+   public int getReplicationWindow() {
+      return replicationWindow;
+   }
+
+   public ReplicatedPolicyConfiguration setReplicationWindow(int replicationWindow) {
+      this.replicationWindow = replicationWindow;
+      return this;
+   }
 }
@@ -76,6 +76,10 @@ public class ConfigurationImpl implements Configuration, Serializable {
 
    private int threadPoolMaxSize = ActiveMQDefaultConfiguration.getDefaultThreadPoolMaxSize();
 
+   private boolean mpscOrderedExecutor = ActiveMQDefaultConfiguration.isDefaultMpscOrderedExecutor();
+
+   private int orderedExecutorBatchSize = ActiveMQDefaultConfiguration.getDefaultOrderedExecutorBatchSize();
+
    private long securityInvalidationInterval = ActiveMQDefaultConfiguration.getDefaultSecurityInvalidationInterval();
 
    private boolean securityEnabled = ActiveMQDefaultConfiguration.isDefaultSecurityEnabled();
@@ -96,10 +100,14 @@ public class ConfigurationImpl implements Configuration, Serializable {
 
    private int messageExpiryThreadPriority = ActiveMQDefaultConfiguration.getDefaultMessageExpiryThreadPriority();
 
+   private long scheduledDeliveryTickDuration = ActiveMQDefaultConfiguration.getDefaultScheduledDeliveryTickDuration();
+
    protected int idCacheSize = ActiveMQDefaultConfiguration.getDefaultIdCacheSize();
 
    private boolean persistIDCache = ActiveMQDefaultConfiguration.isDefaultPersistIdCache();
 
+   private boolean offHeapMessageBodies = ActiveMQDefaultConfiguration.isDefaultOffHeapMessageBodies();
+
    private List<String> incomingInterceptorClassNames = new ArrayList<String>();
 
    private List<String> outgoingInterceptorClassNames = new ArrayList<String>();
@@ -148,6 +156,8 @@ public class ConfigurationImpl implements Configuration, Serializable {
 
    protected int journalCompactPercentage = ActiveMQDefaultConfiguration.getDefaultJournalCompactPercentage();
 
+   protected int journalLoadThreads = ActiveMQDefaultConfiguration.getDefaultJournalLoadThreads();
+
    protected int journalFileSize = ActiveMQDefaultConfiguration.getDefaultJournalFileSize();
 
    protected int journalMinFiles = ActiveMQDefaultConfiguration.getDefaultJournalMinFiles();
@@ -280,6 +290,24 @@ public class ConfigurationImpl implements Configuration, Serializable {
       return this;
    }
 
+   public boolean isMpscOrderedExecutor() {
+      return mpscOrderedExecutor;
+   }
+
+   public ConfigurationImpl setMpscOrderedExecutor(final boolean mpsc) {
+      mpscOrderedExecutor = mpsc;
+      return this;
+   }
+
+   public int getOrderedExecutorBatchSize() {
+      return orderedExecutorBatchSize;
+   }
+
+   public ConfigurationImpl setOrderedExecutorBatchSize(final int batchSize) {
+      orderedExecutorBatchSize = batchSize;
+      return this;
+   }
+
    public long getSecurityInvalidationInterval() {
       return securityInvalidationInterval;
    }
@@ -508,6 +536,15 @@ public class ConfigurationImpl implements Configuration, Serializable {
       return this;
    }
 
+   public boolean isOffHeapMessageBodies() {
+      return offHeapMessageBodies;
+   }
+
+   public ConfigurationImpl setOffHeapMessageBodies(final boolean offHeap) {
+      offHeapMessageBodies = offHeap;
+      return this;
+   }
+
    public File getBindingsLocation() {
       return subFolder(getBindingsDirectory());
    }
@@ -693,6 +730,15 @@ public class ConfigurationImpl implements Configuration, Serializable {
       return this;
    }
 
+   public long getScheduledDeliveryTickDuration() {
+      return scheduledDeliveryTickDuration;
+   }
+
+   public ConfigurationImpl setScheduledDeliveryTickDuration(final long scheduledDeliveryTickDuration) {
+      this.scheduledDeliveryTickDuration = scheduledDeliveryTickDuration;
+      return this;
+   }
+
    public boolean isSecurityEnabled() {
       return securityEnabled;
    }
@@ -841,6 +887,15 @@ public class ConfigurationImpl implements Configuration, Serializable {
       return this;
    }
 
+   public int getJournalLoadThreads() {
+      return journalLoadThreads;
+   }
+
+   public ConfigurationImpl setJournalLoadThreads(final int threads) {
+      journalLoadThreads = threads;
+      return this;
+   }
+
    public long getServerDumpInterval() {
       return serverDumpInterval;
    }
@@ -1109,6 +1164,7 @@ public class ConfigurationImpl implements Configuration, Serializable {
       result = prime * result + journalBufferTimeout_NIO;
       result = prime * result + journalCompactMinFiles;
       result = prime * result + journalCompactPercentage;
+      result = prime * result + journalLoadThreads;
       result = prime * result + ((journalDirectory == null) ? 0 : journalDirectory.hashCode());
       result = prime * result + journalFileSize;
       result = prime * result + journalMaxIO_AIO;
@@ -1131,11 +1187,13 @@ public class ConfigurationImpl implements Configuration, Serializable {
       result = prime * result + (int) (messageCounterSamplePeriod ^ (messageCounterSamplePeriod >>> 32));
       result = prime * result + (int) (messageExpiryScanPeriod ^ (messageExpiryScanPeriod >>> 32));
       result = prime * result + messageExpiryThreadPriority;
+      result = prime * result + (int) (scheduledDeliveryTickDuration ^ (scheduledDeliveryTickDuration >>> 32));
       result = prime * result + ((name == null) ? 0 : name.hashCode());
       result = prime * result + ((outgoingInterceptorClassNames == null) ? 0 : outgoingInterceptorClassNames.hashCode());
       result = prime * result + ((pagingDirectory == null) ? 0 : pagingDirectory.hashCode());
       result = prime * result + (persistDeliveryCountBeforeDelivery ? 1231 : 1237);
       result = prime * result + (persistIDCache ? 1231 : 1237);
+      result = prime * result + (offHeapMessageBodies ? 1231 : 1237);
       result = prime * result + (persistenceEnabled ? 1231 : 1237);
       result = prime * result + ((queueConfigurations == null) ? 0 : queueConfigurations.hashCode());
       result = prime * result + (runSyncSpeedTest ? 1231 : 1237);
@@ -1145,6 +1203,8 @@ public class ConfigurationImpl implements Configuration, Serializable {
       result = prime * result + ((securitySettings == null) ? 0 : securitySettings.hashCode());
       result = prime * result + (int) (serverDumpInterval ^ (serverDumpInterval >>> 32));
       result = prime * result + threadPoolMaxSize;
+      result = prime * result + (mpscOrderedExecutor ? 1231 : 1237);
+      result = prime * result + orderedExecutorBatchSize;
       result = prime * result + (int) (transactionTimeout ^ (transactionTimeout >>> 32));
       result = prime * result + (int) (transactionTimeoutScanPeriod ^ (transactionTimeoutScanPeriod >>> 32));
       result = prime * result + (wildcardRoutingEnabled ? 1231 : 1237);
@@ -1281,6 +1341,8 @@ public class ConfigurationImpl implements Configuration, Serializable {
          return false;
       if (journalCompactPercentage != other.journalCompactPercentage)
          return false;
+      if (journalLoadThreads != other.journalLoadThreads)
+         return false;
       if (journalDirectory == null) {
          if (other.journalDirectory != null)
             return false;
@@ -1341,6 +1403,8 @@ public class ConfigurationImpl implements Configuration, Serializable {
          return false;
       if (messageExpiryThreadPriority != other.messageExpiryThreadPriority)
          return false;
+      if (scheduledDeliveryTickDuration != other.scheduledDeliveryTickDuration)
+         return false;
       if (name == null) {
          if (other.name != null)
             return false;
@@ -1364,6 +1428,8 @@ public class ConfigurationImpl implements Configuration, Serializable {
          return false;
       if (persistIDCache != other.persistIDCache)
          return false;
+      if (offHeapMessageBodies != other.offHeapMessageBodies)
+         return false;
       if (persistenceEnabled != other.persistenceEnabled)
          return false;
       if (queueConfigurations == null) {
@@ -1390,6 +1456,10 @@ public class ConfigurationImpl implements Configuration, Serializable {
          return false;
       if (threadPoolMaxSize != other.threadPoolMaxSize)
          return false;
+      if (mpscOrderedExecutor != other.mpscOrderedExecutor)
+         return false;
+      if (orderedExecutorBatchSize != other.orderedExecutorBatchSize)
+         return false;
       if (transactionTimeout != other.transactionTimeout)
          return false;
       if (transactionTimeoutScanPeriod != other.transactionTimeoutScanPeriod)
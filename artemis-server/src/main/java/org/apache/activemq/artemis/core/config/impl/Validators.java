@@ -20,6 +20,7 @@ import org.apache.activemq.artemis.core.server.ActiveMQMessageBundle;
 import org.apache.activemq.artemis.core.server.JournalType;
 import org.apache.activemq.artemis.core.server.cluster.impl.MessageLoadBalancingType;
 import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
+import org.apache.activemq.artemis.core.settings.impl.DuplicateIDCacheType;
 import org.apache.activemq.artemis.core.settings.impl.SlowConsumerPolicy;
 
 /**
@@ -146,6 +147,15 @@ public final class Validators {
       }
    };
 
+   public static final Validator DUPLICATE_ID_CACHE_TYPE = new Validator() {
+      public void validate(final String name, final Object value) {
+         String val = (String) value;
+         if (val == null || !val.equals(DuplicateIDCacheType.DEFAULT.toString()) && !val.equals(DuplicateIDCacheType.OFF_HEAP.toString())) {
+            throw ActiveMQMessageBundle.BUNDLE.invalidDuplicateIDCacheType(val);
+         }
+      }
+   };
+
    public static final Validator MESSAGE_LOAD_BALANCING_TYPE = new Validator() {
       public void validate(final String name, final Object value) {
          String val = (String) value;
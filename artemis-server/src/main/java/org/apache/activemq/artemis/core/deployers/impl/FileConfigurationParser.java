@@ -60,6 +60,7 @@ import org.apache.activemq.artemis.core.server.cluster.impl.MessageLoadBalancing
 import org.apache.activemq.artemis.core.server.group.impl.GroupingHandlerConfiguration;
 import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.core.settings.impl.DuplicateIDCacheType;
 import org.apache.activemq.artemis.core.settings.impl.ResourceLimitSettings;
 import org.apache.activemq.artemis.core.settings.impl.SlowConsumerPolicy;
 import org.apache.activemq.artemis.uri.AcceptorTransportConfigurationParser;
@@ -149,6 +150,16 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
    private static final String AUTO_DELETE_JMS_QUEUES = "auto-delete-jms-queues";
 
+   private static final String DUPLICATE_ID_CACHE_TYPE_NODE_NAME = "duplicate-id-cache-type";
+
+   private static final String MAX_GROUPS_NODE_NAME = "max-groups";
+
+   private static final String GROUP_IDLE_TIMEOUT_NODE_NAME = "group-idle-timeout";
+
+   private static final String REDISTRIBUTION_BATCH_SIZE_NODE_NAME = "redistribution-batch-size";
+
+   private static final String MESSAGE_ID_INDEX_NODE_NAME = "message-id-index";
+
    private static final String MAX_CONNECTIONS_NODE_NAME = "max-connections";
 
    private static final String MAX_QUEUES_NODE_NAME = "max-queues";
@@ -210,6 +221,10 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       config.setThreadPoolMaxSize(getInteger(e, "thread-pool-max-size", config.getThreadPoolMaxSize(), Validators.MINUS_ONE_OR_GT_ZERO));
 
+      config.setMpscOrderedExecutor(getBoolean(e, "mpsc-ordered-executor", config.isMpscOrderedExecutor()));
+
+      config.setOrderedExecutorBatchSize(getInteger(e, "ordered-executor-batch-size", config.getOrderedExecutorBatchSize(), Validators.MINUS_ONE_OR_GT_ZERO));
+
       config.setSecurityEnabled(getBoolean(e, "security-enabled", config.isSecurityEnabled()));
 
       config.setGracefulShutdownEnabled(getBoolean(e, "graceful-shutdown-enabled", config.isGracefulShutdownEnabled()));
@@ -234,10 +249,14 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       config.setMessageExpiryThreadPriority(getInteger(e, "message-expiry-thread-priority", config.getMessageExpiryThreadPriority(), Validators.THREAD_PRIORITY_RANGE));
 
+      config.setScheduledDeliveryTickDuration(getLong(e, "scheduled-delivery-tick-duration", config.getScheduledDeliveryTickDuration(), Validators.MINUS_ONE_OR_GT_ZERO));
+
       config.setIDCacheSize(getInteger(e, "id-cache-size", config.getIDCacheSize(), Validators.GT_ZERO));
 
       config.setPersistIDCache(getBoolean(e, "persist-id-cache", config.isPersistIDCache()));
 
+      config.setOffHeapMessageBodies(getBoolean(e, "off-heap-message-bodies", config.isOffHeapMessageBodies()));
+
       config.setManagementAddress(new SimpleString(getString(e, "management-address", config.getManagementAddress().toString(), Validators.NOT_NULL_OR_EMPTY)));
 
       config.setManagementNotificationAddress(new SimpleString(getString(e, "management-notification-address", config.getManagementNotificationAddress().toString(), Validators.NOT_NULL_OR_EMPTY)));
@@ -462,6 +481,8 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       config.setJournalCompactPercentage(getInteger(e, "journal-compact-percentage", config.getJournalCompactPercentage(), Validators.PERCENTAGE));
 
+      config.setJournalLoadThreads(getInteger(e, "journal-load-threads", config.getJournalLoadThreads(), Validators.MINUS_ONE_OR_GT_ZERO));
+
       config.setLogJournalWriteRate(getBoolean(e, "log-journal-write-rate", ActiveMQDefaultConfiguration.isDefaultJournalLogWriteRate()));
 
       config.setJournalPerfBlastPages(getInteger(e, "perf-blast-pages", ActiveMQDefaultConfiguration.getDefaultJournalPerfBlastPages(), Validators.MINUS_ONE_OR_GT_ZERO));
@@ -733,6 +754,30 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
          else if (AUTO_DELETE_JMS_QUEUES.equalsIgnoreCase(name)) {
             addressSettings.setAutoDeleteJmsQueues(XMLUtil.parseBoolean(child));
          }
+         else if (DUPLICATE_ID_CACHE_TYPE_NODE_NAME.equalsIgnoreCase(name)) {
+            String value = getTrimmedTextContent(child);
+            Validators.DUPLICATE_ID_CACHE_TYPE.validate(DUPLICATE_ID_CACHE_TYPE_NODE_NAME, value);
+            DuplicateIDCacheType type = Enum.valueOf(DuplicateIDCacheType.class, value);
+            addressSettings.setDuplicateIDCacheType(type);
+         }
+         else if (MAX_GROUPS_NODE_NAME.equalsIgnoreCase(name)) {
+            int maxGroups = XMLUtil.parseInt(child);
+            Validators.MINUS_ONE_OR_GT_ZERO.validate(MAX_GROUPS_NODE_NAME, maxGroups);
+            addressSettings.setMaxGroups(maxGroups);
+         }
+         else if (GROUP_IDLE_TIMEOUT_NODE_NAME.equalsIgnoreCase(name)) {
+            long groupIdleTimeout = XMLUtil.parseLong(child);
+            Validators.MINUS_ONE_OR_GT_ZERO.validate(GROUP_IDLE_TIMEOUT_NODE_NAME, groupIdleTimeout);
+            addressSettings.setGroupIdleTimeout(groupIdleTimeout);
+         }
+         else if (REDISTRIBUTION_BATCH_SIZE_NODE_NAME.equalsIgnoreCase(name)) {
+            int redistributionBatchSize = XMLUtil.parseInt(child);
+            Validators.GT_ZERO.validate(REDISTRIBUTION_BATCH_SIZE_NODE_NAME, redistributionBatchSize);
+            addressSettings.setRedistributionBatchSize(redistributionBatchSize);
+         }
+         else if (MESSAGE_ID_INDEX_NODE_NAME.equalsIgnoreCase(name)) {
+            addressSettings.setMessageIDIndex(XMLUtil.parseBoolean(child));
+         }
       }
       return setting;
    }
@@ -922,6 +967,8 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       configuration.setInitialReplicationSyncTimeout(getLong(policyNode, "initial-replication-sync-timeout", configuration.getInitialReplicationSyncTimeout(), Validators.GT_ZERO));
 
+      configuration.setReplicationWindow(getInteger(policyNode, "replication-window", configuration.getReplicationWindow(), Validators.MINUS_ONE_OR_GT_ZERO));
+
       return configuration;
    }
 
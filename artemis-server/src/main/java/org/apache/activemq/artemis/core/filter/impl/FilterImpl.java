@@ -21,6 +21,7 @@ import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
 import org.apache.activemq.artemis.selector.filter.BooleanExpression;
 import org.apache.activemq.artemis.selector.filter.FilterException;
 import org.apache.activemq.artemis.selector.filter.Filterable;
+import org.apache.activemq.artemis.selector.impl.SelectorCompiler;
 import org.apache.activemq.artemis.selector.impl.SelectorParser;
 import org.apache.activemq.artemis.api.core.FilterConstants;
 import org.apache.activemq.artemis.api.core.SimpleString;
@@ -50,10 +51,18 @@ public class FilterImpl implements Filter {
 
    // Constants -----------------------------------------------------
 
+   /**
+    * When set, filters are evaluated through the expression compiled by {@link SelectorCompiler}
+    * instead of interpreting the parsed expression.
+    */
+   private static final boolean COMPILE_FILTERS = Boolean.getBoolean("org.apache.activemq.artemis.filter.compile");
+
    private final SimpleString sfilterString;
 
    private final BooleanExpression booleanExpression;
 
+   private final BooleanExpression parsedExpression;
+
    // Static ---------------------------------------------------------
 
    /**
@@ -73,22 +82,50 @@ public class FilterImpl implements Filter {
          return null;
       }
 
+      BooleanExpression parsedExpression;
       BooleanExpression booleanExpression;
       try {
-         booleanExpression = SelectorParser.parse(filterStr.toString());
+         parsedExpression = SelectorParser.parse(filterStr.toString());
+         if (COMPILE_FILTERS) {
+            booleanExpression = SelectorCompiler.compile(filterStr.toString());
+         }
+         else {
+            booleanExpression = parsedExpression;
+         }
       }
       catch (Throwable e) {
          ActiveMQServerLogger.LOGGER.invalidFilter(e, filterStr);
          throw ActiveMQMessageBundle.BUNDLE.invalidFilter(e, filterStr);
       }
-      return new FilterImpl(filterStr, booleanExpression);
+      return new FilterImpl(filterStr, booleanExpression, parsedExpression);
+   }
+
+   /**
+    * @return the value of a message property as seen by filters, with <code>SimpleString</code>s
+    * converted to <code>String</code>s
+    */
+   public static Object getFilterProperty(final ServerMessage message, final String id) {
+      Object result = null;
+      if (id.startsWith(FilterConstants.ACTIVEMQ_PREFIX.toString())) {
+         result = getHeaderFieldValue(message, new SimpleString(id));
+      }
+      if (result == null) {
+         result = message.getObjectProperty(new SimpleString(id));
+      }
+      if (result != null) {
+         if (result.getClass() == SimpleString.class) {
+            result = result.toString();
+         }
+      }
+      return result;
    }
 
    // Constructors ---------------------------------------------------
 
-   private FilterImpl(final SimpleString str, final BooleanExpression expression) {
+   private FilterImpl(final SimpleString str, final BooleanExpression expression, final BooleanExpression parsedExpression) {
       sfilterString = str;
       this.booleanExpression = expression;
+      this.parsedExpression = parsedExpression;
    }
 
    // Filter implementation ---------------------------------------------------------------------
@@ -97,6 +134,13 @@ public class FilterImpl implements Filter {
       return sfilterString;
    }
 
+   /**
+    * @return the expression tree parsed from the filter string
+    */
+   public BooleanExpression getExpression() {
+      return parsedExpression;
+   }
+
    public synchronized boolean match(final ServerMessage message) {
       try {
          boolean result = booleanExpression.matches(new FilterableServerMessage(message));
@@ -176,19 +220,7 @@ public class FilterImpl implements Filter {
 
       @Override
       public Object getProperty(String id) {
-         Object result = null;
-         if (id.startsWith(FilterConstants.ACTIVEMQ_PREFIX.toString())) {
-            result = getHeaderFieldValue(message, new SimpleString(id));
-         }
-         if (result == null) {
-            result = message.getObjectProperty(new SimpleString(id));
-         }
-         if (result != null) {
-            if (result.getClass() == SimpleString.class) {
-               result = result.toString();
-            }
-         }
-         return result;
+         return getFilterProperty(message, id);
       }
 
       @Override
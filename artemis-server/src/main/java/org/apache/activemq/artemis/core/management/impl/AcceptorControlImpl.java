@@ -23,7 +23,11 @@ import javax.management.MBeanOperationInfo;
 import org.apache.activemq.artemis.api.core.TransportConfiguration;
 import org.apache.activemq.artemis.api.core.management.AcceptorControl;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.remoting.impl.netty.NettyAcceptor;
+import org.apache.activemq.artemis.core.remoting.impl.netty.NettyServerConnection;
 import org.apache.activemq.artemis.spi.core.remoting.Acceptor;
+import org.apache.activemq.artemis.utils.json.JSONArray;
+import org.apache.activemq.artemis.utils.json.JSONObject;
 
 public class AcceptorControlImpl extends AbstractControl implements AcceptorControl {
 
@@ -79,6 +83,30 @@ public class AcceptorControlImpl extends AbstractControl implements AcceptorCont
       }
    }
 
+   public String listConnectionFlushesAsJSON() throws Exception {
+      clearIO();
+      try {
+         JSONArray array = new JSONArray();
+         if (acceptor instanceof NettyAcceptor) {
+            for (NettyServerConnection connection : ((NettyAcceptor) acceptor).getConnections()) {
+               long flushes = connection.getFlushCount();
+               long bytes = connection.getFlushedBytes();
+               JSONObject obj = new JSONObject();
+               obj.put("connectionID", connection.getID().toString());
+               obj.put("remoteAddress", connection.getRemoteAddress());
+               obj.put("flushes", flushes);
+               obj.put("bytes", bytes);
+               obj.put("bytesPerFlush", flushes == 0 ? 0 : bytes / flushes);
+               array.put(obj);
+            }
+         }
+         return array.toString();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
    public boolean isStarted() {
       clearIO();
       try {
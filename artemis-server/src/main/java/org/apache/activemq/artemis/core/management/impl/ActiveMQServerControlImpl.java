@@ -51,7 +51,10 @@ import org.apache.activemq.artemis.api.core.management.QueueControl;
 import org.apache.activemq.artemis.core.config.BridgeConfiguration;
 import org.apache.activemq.artemis.core.config.Configuration;
 import org.apache.activemq.artemis.core.config.DivertConfiguration;
+import org.apache.activemq.artemis.core.journal.PauseHistogram;
+import org.apache.activemq.artemis.core.messagecounter.MessageCounter;
 import org.apache.activemq.artemis.core.messagecounter.MessageCounterManager;
+import org.apache.activemq.artemis.core.messagecounter.MessageCounterSamples;
 import org.apache.activemq.artemis.core.messagecounter.impl.MessageCounterManagerImpl;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.persistence.config.PersistedAddressSetting;
@@ -61,6 +64,7 @@ import org.apache.activemq.artemis.core.postoffice.DuplicateIDCache;
 import org.apache.activemq.artemis.core.postoffice.PostOffice;
 import org.apache.activemq.artemis.core.postoffice.impl.LocalQueueBinding;
 import org.apache.activemq.artemis.core.remoting.server.RemotingService;
+import org.apache.activemq.artemis.core.replication.ReplicationManager;
 import org.apache.activemq.artemis.core.security.CheckType;
 import org.apache.activemq.artemis.core.security.Role;
 import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
@@ -358,6 +362,47 @@ public class ActiveMQServerControlImpl extends AbstractControl implements Active
       }
    }
 
+   public String listJournalCompactPausesAsJSON() throws Exception {
+      checkStarted();
+
+      clearIO();
+      try {
+         JSONObject json = new JSONObject();
+         // there are no journals when persistence is disabled
+         if (storageManager.getMessageJournal() != null) {
+            json.put("messages", toJSON(storageManager.getMessageJournal().getCompactPauses()));
+         }
+         if (storageManager.getBindingsJournal() != null) {
+            json.put("bindings", toJSON(storageManager.getBindingsJournal().getCompactPauses()));
+         }
+         return json.toString();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   private static JSONObject toJSON(final PauseHistogram pauses) throws Exception {
+      JSONObject json = new JSONObject();
+      json.put("count", pauses.getCount());
+      json.put("totalMicros", pauses.getTotalMicros());
+      json.put("maxMicros", pauses.getMaxMicros());
+
+      JSONArray buckets = new JSONArray();
+      for (int i = 0; i < PauseHistogram.BUCKETS; i++) {
+         long count = pauses.getCount(i);
+         if (count > 0) {
+            JSONObject bucket = new JSONObject();
+            bucket.put("lessThanMicros", PauseHistogram.getBucketLimitMicros(i));
+            bucket.put("count", count);
+            buckets.put(bucket);
+         }
+      }
+      json.put("buckets", buckets);
+
+      return json;
+   }
+
    public boolean isPersistenceEnabled() {
       checkStarted();
 
@@ -430,6 +475,81 @@ public class ActiveMQServerControlImpl extends AbstractControl implements Active
       }
    }
 
+   public long getSecurityCacheHits() {
+      checkStarted();
+
+      clearIO();
+      try {
+         return server.getSecurityStore().getCacheHits();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   public long getSecurityCacheMisses() {
+      checkStarted();
+
+      clearIO();
+      try {
+         return server.getSecurityStore().getCacheMisses();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   public long getSecurityCacheReloads() {
+      checkStarted();
+
+      clearIO();
+      try {
+         return server.getSecurityStore().getCacheReloads();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   public long getReplicationSyncFiles() {
+      checkStarted();
+
+      clearIO();
+      try {
+         ReplicationManager replicationManager = server.getReplicationManager();
+         return replicationManager == null ? 0 : replicationManager.getSynchronizedFiles();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   public long getReplicationSyncBytes() {
+      checkStarted();
+
+      clearIO();
+      try {
+         ReplicationManager replicationManager = server.getReplicationManager();
+         return replicationManager == null ? 0 : replicationManager.getSynchronizedBytes();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   public long getReplicationSyncThroughput() {
+      checkStarted();
+
+      clearIO();
+      try {
+         ReplicationManager replicationManager = server.getReplicationManager();
+         return replicationManager == null ? 0 : replicationManager.getSynchronizationThroughput();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
    public boolean isClustered() {
       checkStarted();
 
@@ -699,6 +819,54 @@ public class ActiveMQServerControlImpl extends AbstractControl implements Active
       }
    }
 
+   public String listMessageCounterSamplesAsJSON() throws Exception {
+      checkStarted();
+
+      clearIO();
+      try {
+         JSONArray array = new JSONArray();
+         for (MessageCounter counter : messageCounterManager.getMessageCounters()) {
+            JSONObject json = new JSONObject();
+            json.put("destinationName", counter.getDestinationName());
+            json.put("destinationSubscription", counter.getDestinationSubscription());
+
+            JSONArray resolutions = new JSONArray();
+            for (MessageCounterSamples samples : counter.listSamples()) {
+               resolutions.put(toJSON(samples, messageCounterManager.getSamplePeriod()));
+            }
+            json.put("resolutions", resolutions);
+
+            array.put(json);
+         }
+         return array.toString();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   private static JSONObject toJSON(final MessageCounterSamples samples, final long samplePeriod) throws Exception {
+      JSONObject json = new JSONObject();
+      // the finest samples are taken at every sample period
+      json.put("resolution", samples.getResolution() > 0 ? samples.getResolution() : samplePeriod);
+
+      JSONArray list = new JSONArray();
+      for (MessageCounterSamples.Sample sample : samples.getSamples()) {
+         JSONObject item = new JSONObject();
+         item.put("timestamp", sample.getTimestamp());
+         item.put("added", sample.getAdded());
+         item.put("acknowledged", sample.getAcknowledged());
+         item.put("depth", sample.getDepth());
+         item.put("addRate", sample.getAddRate());
+         item.put("acknowledgeRate", sample.getAcknowledgeRate());
+         item.put("depthRate", sample.getDepthRate());
+         list.put(item);
+      }
+      json.put("samples", list);
+
+      return json;
+   }
+
    public boolean isMessageCounterEnabled() {
       checkStarted();
 
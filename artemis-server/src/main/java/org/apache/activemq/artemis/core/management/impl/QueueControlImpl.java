@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -234,6 +235,30 @@ public class QueueControlImpl extends AbstractControl implements QueueControl {
       }
    }
 
+   public long getMessagesRedistributed() {
+      checkStarted();
+
+      clearIO();
+      try {
+         return queue.getMessagesRedistributed();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   public float getRedistributionRate() {
+      checkStarted();
+
+      clearIO();
+      try {
+         return queue.getRedistributionRate();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
    public long getID() {
       checkStarted();
 
@@ -853,6 +878,107 @@ public class QueueControlImpl extends AbstractControl implements QueueControl {
       }
    }
 
+   public int getGroupCount() {
+      checkStarted();
+
+      clearIO();
+      try {
+         return queue.getGroupCount();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   public String listGroupsAsJSON() throws Exception {
+      checkStarted();
+
+      clearIO();
+      try {
+         JSONArray jsonArray = new JSONArray();
+
+         for (Map.Entry<SimpleString, Consumer> entry : queue.getGroups().entrySet()) {
+            JSONObject obj = toJSONConsumer(entry.getValue());
+            obj.put("groupID", entry.getKey().toString());
+
+            jsonArray.put(obj);
+         }
+
+         return jsonArray.toString();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   public String listGroupDistributionAsJSON() throws Exception {
+      checkStarted();
+
+      clearIO();
+      try {
+         Map<Consumer, Integer> distribution = new IdentityHashMap<>();
+
+         for (Consumer consumer : queue.getGroups().values()) {
+            Integer count = distribution.get(consumer);
+            distribution.put(consumer, count == null ? 1 : count + 1);
+         }
+
+         JSONArray jsonArray = new JSONArray();
+
+         for (Map.Entry<Consumer, Integer> entry : distribution.entrySet()) {
+            JSONObject obj = toJSONConsumer(entry.getKey());
+            obj.put("groupCount", entry.getValue().intValue());
+
+            jsonArray.put(obj);
+         }
+
+         return jsonArray.toString();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   public void resetGroup(final String groupID) throws Exception {
+      checkStarted();
+
+      clearIO();
+      try {
+         queue.resetGroup(SimpleString.toSimpleString(groupID));
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   public void resetAllGroups() throws Exception {
+      checkStarted();
+
+      clearIO();
+      try {
+         queue.resetAllGroups();
+      }
+      finally {
+         blockOnIO();
+      }
+   }
+
+   private static JSONObject toJSONConsumer(final Consumer consumer) throws JSONException {
+      JSONObject obj = new JSONObject();
+
+      if (consumer instanceof ServerConsumer) {
+         ServerConsumer serverConsumer = (ServerConsumer) consumer;
+         obj.put("consumerID", serverConsumer.getID());
+         obj.put("connectionID", serverConsumer.getConnectionID().toString());
+         obj.put("sessionID", serverConsumer.getSessionID());
+      }
+      else {
+         obj.put("consumer", consumer.toManagementString());
+      }
+
+      return obj;
+   }
+
    @Override
    protected MBeanOperationInfo[] fillMBeanOperationInfo() {
       return MBeanInfoHelper.getMBeanOperationsInfo(QueueControl.class);
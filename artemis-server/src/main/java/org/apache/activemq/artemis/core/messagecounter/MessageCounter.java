@@ -32,10 +32,26 @@ import org.apache.activemq.artemis.core.server.Queue;
  * Note that the underlying queue *does not* update statistics every time a message
  * is added since that would reall slow things down, instead we *sample* the queues at
  * regular intervals - this means we are less intrusive on the queue
+ *
+ * The samples only read counters the queue keeps without its lock, and are kept in
+ * {@link MessageCounterSamples} at several resolutions which can be read at any time without locking either.
  */
 public class MessageCounter {
    // Constants -----------------------------------------------------
 
+   /**
+    * How many samples are kept at the sample period, a minute and an hour of resolution.
+    */
+   public static final int SAMPLES = 60;
+
+   public static final int MINUTE_SAMPLES = 60;
+
+   public static final int HOUR_SAMPLES = 24 * 7;
+
+   private static final long MINUTE = 60 * 1000;
+
+   private static final long HOUR = 60 * MINUTE;
+
    // Attributes ----------------------------------------------------
 
    // destination related information
@@ -67,6 +83,10 @@ public class MessageCounter {
 
    private long lastMessagesAdded;
 
+   private long lastMessagesAcknowledged;
+
+   private volatile MessageCounterSamples[] samples = newSamples();
+
    // Static --------------------------------------------------------
 
    // Constructors --------------------------------------------------
@@ -103,40 +123,55 @@ public class MessageCounter {
       setHistoryLimit(daycountmax);
    }
 
-   private final Runnable onTimeExecutor = new Runnable() {
-      public void run() {
-         long latestMessagesAdded = serverQueue.getMessagesAdded();
+   // Public --------------------------------------------------------
 
-         long newMessagesAdded = latestMessagesAdded - lastMessagesAdded;
+   /*
+    * This method is called periodically to update statistics from the queue
+    */
+   public synchronized void onTimer() {
+      // Nothing read here locks the queue or waits on its executor, so sampling many queues doesn't get in the way
+      // of their deliveries
+      long now = System.currentTimeMillis();
 
-         countTotal += newMessagesAdded;
+      long latestMessagesAdded = serverQueue.getMessagesAdded();
 
-         lastMessagesAdded = latestMessagesAdded;
+      long latestMessagesAcknowledged = serverQueue.getMessagesAcknowledged();
 
-         if (newMessagesAdded > 0) {
-            timeLastAdd = System.currentTimeMillis();
-         }
+      // the queue counters start over when reset
+      long newMessagesAdded = latestMessagesAdded >= lastMessagesAdded ? latestMessagesAdded - lastMessagesAdded : latestMessagesAdded;
 
-         // update timestamp
-         timeLastUpdate = System.currentTimeMillis();
+      long newMessagesAcknowledged = latestMessagesAcknowledged >= lastMessagesAcknowledged ? latestMessagesAcknowledged - lastMessagesAcknowledged : latestMessagesAcknowledged;
 
-         // update message history
-         updateHistory(newMessagesAdded);
+      countTotal += newMessagesAdded;
 
+      lastMessagesAdded = latestMessagesAdded;
+
+      lastMessagesAcknowledged = latestMessagesAcknowledged;
+
+      if (newMessagesAdded > 0) {
+         timeLastAdd = now;
       }
-   };
 
-   // Public --------------------------------------------------------
+      // update timestamp
+      timeLastUpdate = now;
 
-   /*
-    * This method is called periodically to update statistics from the queue
+      // update message history
+      updateHistory(newMessagesAdded);
+
+      long depth = serverQueue.getMessageCountEstimate();
+
+      for (MessageCounterSamples resolution : samples) {
+         resolution.update(now, newMessagesAdded, newMessagesAcknowledged, depth);
+      }
+   }
+
+   /**
+    * Gets the samples kept at each resolution, the finest first
+    *
+    * Not named as a getter so they are left out of the JSON serialization of the counter
     */
-   public synchronized void onTimer() {
-      // Actor approach here: Instead of having the Counter locking the queue, we will use the Queue's executor
-      // instead of possibly making a lock on the queue.
-      // This way the scheduled Threads will be free to keep doing their pings in case the server is busy with paging or
-      // any other deliveries
-      serverQueue.getExecutor().execute(onTimeExecutor);
+   public MessageCounterSamples[] listSamples() {
+      return samples.clone();
    }
 
    public String getDestinationName() {
@@ -255,6 +290,8 @@ public class MessageCounter {
 
       setHistoryLimit(0);
       setHistoryLimit(max);
+
+      samples = newSamples();
    }
 
    public List<DayCounter> getHistory() {
@@ -317,6 +354,10 @@ public class MessageCounter {
 
    // Private -------------------------------------------------------
 
+   private static MessageCounterSamples[] newSamples() {
+      return new MessageCounterSamples[]{new MessageCounterSamples(0, SAMPLES), new MessageCounterSamples(MINUTE, MINUTE_SAMPLES), new MessageCounterSamples(HOUR, HOUR_SAMPLES)};
+   }
+
    /**
     * Update message counter history
     *
@@ -16,6 +16,8 @@
  */
 package org.apache.activemq.artemis.core.messagecounter;
 
+import java.util.Set;
+
 public interface MessageCounterManager {
 
    void start();
@@ -28,6 +30,8 @@ public interface MessageCounterManager {
 
    MessageCounter unregisterMessageCounter(String name);
 
+   Set<MessageCounter> getMessageCounters();
+
    void resetAllCounters();
 
    void resetAllCounterHistories();
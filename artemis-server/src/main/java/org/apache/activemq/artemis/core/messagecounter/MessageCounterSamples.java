@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.messagecounter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size ring of samples of a queue at one resolution: how many messages were added to and acknowledged
+ * from the queue during each interval, and how many were in it at its end.
+ * <p>
+ * Only the thread sampling the message counters adds samples, and they are read without any lock: a reader
+ * ignores whatever gets overwritten while it is copying.
+ */
+public final class MessageCounterSamples {
+
+   private static final int TIMESTAMP = 0;
+
+   private static final int DURATION = 1;
+
+   private static final int ADDED = 2;
+
+   private static final int ACKNOWLEDGED = 3;
+
+   private static final int DEPTH = 4;
+
+   private static final int DEPTH_DELTA = 5;
+
+   private static final int FIELDS = 6;
+
+   private final long resolution;
+
+   private final int capacity;
+
+   private final AtomicLongArray slots;
+
+   // how many samples were ever stored, the sample n being at the slot n % capacity
+   private volatile long stored;
+
+   // what was counted since the last sample, only used by the sampling thread
+   private long intervalStart = -1;
+
+   private long pendingAdded;
+
+   private long pendingAcknowledged;
+
+   private long lastDepth;
+
+   /**
+    * @param resolution the length in milliseconds of the intervals, aligned on the clock, or 0 to store a sample
+    *                   on every update
+    * @param capacity   how many samples are kept
+    */
+   public MessageCounterSamples(final long resolution, final int capacity) {
+      this.resolution = resolution;
+      this.capacity = capacity;
+      slots = new AtomicLongArray(capacity * FIELDS);
+   }
+
+   public long getResolution() {
+      return resolution;
+   }
+
+   public int getCapacity() {
+      return capacity;
+   }
+
+   /**
+    * Counts what happened to the queue since the previous update, storing a sample once the interval is over.
+    */
+   void update(final long now, final long added, final long acknowledged, final long depth) {
+      pendingAdded += added;
+      pendingAcknowledged += acknowledged;
+
+      if (intervalStart < 0) {
+         // the first interval starts now
+         intervalStart = now;
+         lastDepth = depth;
+         return;
+      }
+
+      if (resolution > 0 && now / resolution == intervalStart / resolution) {
+         return;
+      }
+
+      long next = stored;
+      int slot = (int) (next % capacity) * FIELDS;
+
+      slots.set(slot + TIMESTAMP, now);
+      slots.set(slot + DURATION, now - intervalStart);
+      slots.set(slot + ADDED, pendingAdded);
+      slots.set(slot + ACKNOWLEDGED, pendingAcknowledged);
+      slots.set(slot + DEPTH, depth);
+      slots.set(slot + DEPTH_DELTA, depth - lastDepth);
+
+      stored = next + 1;
+
+      intervalStart = now;
+      pendingAdded = 0;
+      pendingAcknowledged = 0;
+      lastDepth = depth;
+   }
+
+   /**
+    * @return the samples kept, the oldest first
+    */
+   public Sample[] getSamples() {
+      long end = stored;
+      long start = Math.max(0, end - capacity);
+
+      Sample[] samples = new Sample[(int) (end - start)];
+
+      for (long n = start; n < end; n++) {
+         int slot = (int) (n % capacity) * FIELDS;
+
+         samples[(int) (n - start)] = new Sample(slots.get(slot + TIMESTAMP),
+                                                 slots.get(slot + DURATION),
+                                                 slots.get(slot + ADDED),
+                                                 slots.get(slot + ACKNOWLEDGED),
+                                                 slots.get(slot + DEPTH),
+                                                 slots.get(slot + DEPTH_DELTA));
+      }
+
+      // the sample being stored now may be overwriting the oldest one copied
+      long firstValid = stored + 1 - capacity;
+
+      if (firstValid > start) {
+         int skip = (int) Math.min(firstValid - start, samples.length);
+         Sample[] valid = new Sample[samples.length - skip];
+         System.arraycopy(samples, skip, valid, 0, valid.length);
+         return valid;
+      }
+
+      return samples;
+   }
+
+   public static final class Sample {
+
+      private final long timestamp;
+
+      private final long duration;
+
+      private final long added;
+
+      private final long acknowledged;
+
+      private final long depth;
+
+      private final long depthDelta;
+
+      Sample(final long timestamp,
+             final long duration,
+             final long added,
+             final long acknowledged,
+             final long depth,
+             final long depthDelta) {
+         this.timestamp = timestamp;
+         this.duration = duration;
+         this.added = added;
+         this.acknowledged = acknowledged;
+         this.depth = depth;
+         this.depthDelta = depthDelta;
+      }
+
+      /**
+       * @return when the interval ended, in milliseconds
+       */
+      public long getTimestamp() {
+         return timestamp;
+      }
+
+      /**
+       * @return how long the interval lasted, in milliseconds
+       */
+      public long getDuration() {
+         return duration;
+      }
+
+      public long getAdded() {
+         return added;
+      }
+
+      public long getAcknowledged() {
+         return acknowledged;
+      }
+
+      /**
+       * @return the number of messages in the queue at the end of the interval
+       */
+      public long getDepth() {
+         return depth;
+      }
+
+      /**
+       * @return the messages added per second during the interval
+       */
+      public double getAddRate() {
+         return perSecond(added);
+      }
+
+      /**
+       * @return the messages acknowledged per second during the interval
+       */
+      public double getAcknowledgeRate() {
+         return perSecond(acknowledged);
+      }
+
+      /**
+       * @return how fast, in messages per second, the queue grew (or shrank if negative) during the interval
+       */
+      public double getDepthRate() {
+         return perSecond(depthDelta);
+      }
+
+      private double perSecond(final long count) {
+         return duration > 0 ? count * 1000.0 / duration : 0;
+      }
+   }
+}
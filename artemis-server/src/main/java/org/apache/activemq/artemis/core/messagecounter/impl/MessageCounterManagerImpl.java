@@ -16,11 +16,11 @@
  */
 package org.apache.activemq.artemis.core.messagecounter.impl;
 
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -53,7 +53,8 @@ public class MessageCounterManagerImpl implements MessageCounterManager {
    private final ScheduledExecutorService scheduledThreadPool;
 
    public MessageCounterManagerImpl(final ScheduledExecutorService scheduledThreadPool) {
-      messageCounters = new HashMap<String, MessageCounter>();
+      // iterated without locking, so registering counters never waits for them to be sampled
+      messageCounters = new ConcurrentHashMap<String, MessageCounter>();
 
       this.scheduledThreadPool = scheduledThreadPool;
    }
@@ -112,44 +113,34 @@ public class MessageCounterManagerImpl implements MessageCounterManager {
    }
 
    public void registerMessageCounter(final String name, final MessageCounter counter) {
-      synchronized (messageCounters) {
-         messageCounters.put(name, counter);
-      }
+      messageCounters.put(name, counter);
    }
 
    public MessageCounter unregisterMessageCounter(final String name) {
-      synchronized (messageCounters) {
-         return messageCounters.remove(name);
-      }
+      return messageCounters.remove(name);
    }
 
    public Set<MessageCounter> getMessageCounters() {
-      synchronized (messageCounters) {
-         return new HashSet<MessageCounter>(messageCounters.values());
-      }
+      return new HashSet<MessageCounter>(messageCounters.values());
    }
 
    public void resetAllCounters() {
-      synchronized (messageCounters) {
-         Iterator<MessageCounter> iter = messageCounters.values().iterator();
+      Iterator<MessageCounter> iter = messageCounters.values().iterator();
 
-         while (iter.hasNext()) {
-            MessageCounter counter = iter.next();
+      while (iter.hasNext()) {
+         MessageCounter counter = iter.next();
 
-            counter.resetCounter();
-         }
+         counter.resetCounter();
       }
    }
 
    public void resetAllCounterHistories() {
-      synchronized (messageCounters) {
-         Iterator<MessageCounter> iter = messageCounters.values().iterator();
+      Iterator<MessageCounter> iter = messageCounters.values().iterator();
 
-         while (iter.hasNext()) {
-            MessageCounter counter = iter.next();
+      while (iter.hasNext()) {
+         MessageCounter counter = iter.next();
 
-            counter.resetHistory();
-         }
+         counter.resetHistory();
       }
    }
 
@@ -164,14 +155,12 @@ public class MessageCounterManagerImpl implements MessageCounterManager {
             return;
          }
 
-         synchronized (messageCounters) {
-            Iterator<MessageCounter> iter = messageCounters.values().iterator();
+         Iterator<MessageCounter> iter = messageCounters.values().iterator();
 
-            while (iter.hasNext()) {
-               MessageCounter counter = iter.next();
+         while (iter.hasNext()) {
+            MessageCounter counter = iter.next();
 
-               counter.onTimer();
-            }
+            counter.onTimer();
          }
       }
 
@@ -16,11 +16,11 @@
  */
 package org.apache.activemq.artemis.core.postoffice.impl;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
 
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.postoffice.Address;
+import org.apache.activemq.artemis.utils.ConcurrentHashSet;
 
 /**
  * splits an address string into its hierarchical parts split by '.'
@@ -33,7 +33,7 @@ public class AddressImpl implements Address {
 
    private final boolean containsWildCard;
 
-   private final List<Address> linkedAddresses = new ArrayList<Address>();
+   private final Collection<Address> linkedAddresses = new ConcurrentHashSet<Address>();
 
    public AddressImpl(final SimpleString address) {
       this.address = address;
@@ -53,14 +53,12 @@ public class AddressImpl implements Address {
       return containsWildCard;
    }
 
-   public List<Address> getLinkedAddresses() {
+   public Collection<Address> getLinkedAddresses() {
       return linkedAddresses;
    }
 
    public void addLinkedAddress(final Address address) {
-      if (!linkedAddresses.contains(address)) {
-         linkedAddresses.add(address);
-      }
+      linkedAddresses.add(address);
    }
 
    public void removeLinkedAddress(final Address actualAddress) {
@@ -71,58 +69,33 @@ public class AddressImpl implements Address {
       if (containsWildCard == add.containsWildCard()) {
          return address.equals(add.getAddress());
       }
-      int pos = 0;
-      int matchPos = 0;
-
-      SimpleString nextToMatch;
-      for (; matchPos < add.getAddressParts().length; ) {
-         if (pos >= addressParts.length) {
-            // test for # as last address part
-            return pos + 1 == add.getAddressParts().length && add.getAddressParts()[pos].equals(WildcardAddressManager.ANY_WORDS_SIMPLESTRING);
-         }
-         SimpleString curr = addressParts[pos];
-         SimpleString next = addressParts.length > pos + 1 ? addressParts[pos + 1] : null;
-         SimpleString currMatch = add.getAddressParts()[matchPos];
-         if (currMatch.equals(WildcardAddressManager.SINGLE_WORD_SIMPLESTRING)) {
-            pos++;
-            matchPos++;
-         }
-         else if (currMatch.equals(WildcardAddressManager.ANY_WORDS_SIMPLESTRING)) {
-            if (matchPos == addressParts.length - 1) {
-               pos++;
-               matchPos++;
-            }
-            else if (next == null) {
-               return false;
-            }
-            else if (matchPos == add.getAddressParts().length - 1) {
-               return true;
-            }
-            else {
-               nextToMatch = add.getAddressParts()[matchPos + 1];
-               while (curr != null) {
-                  if (curr.equals(nextToMatch)) {
-                     break;
-                  }
-                  pos++;
-                  curr = next;
-                  next = addressParts.length > pos + 1 ? addressParts[pos + 1] : null;
-               }
-               if (curr == null) {
-                  return false;
+      return matches(addressParts, 0, add.getAddressParts(), 0);
+   }
+
+   private static boolean matches(final SimpleString[] parts,
+                                  int pos,
+                                  final SimpleString[] matchParts,
+                                  int matchPos) {
+      for (; matchPos < matchParts.length; matchPos++) {
+         SimpleString currMatch = matchParts[matchPos];
+         if (currMatch.equals(WildcardAddressManager.ANY_WORDS_SIMPLESTRING)) {
+            // # matches any sequence of words, including an empty one
+            for (int next = pos; next <= parts.length; next++) {
+               if (matches(parts, next, matchParts, matchPos + 1)) {
+                  return true;
                }
-               matchPos++;
             }
+            return false;
          }
-         else {
-            if (!curr.equals(currMatch)) {
-               return false;
-            }
-            pos++;
-            matchPos++;
+         if (pos >= parts.length) {
+            return false;
+         }
+         if (!currMatch.equals(WildcardAddressManager.SINGLE_WORD_SIMPLESTRING) && !currMatch.equals(parts[pos])) {
+            return false;
          }
+         pos++;
       }
-      return pos == addressParts.length;
+      return pos == parts.length;
    }
 
    @Override
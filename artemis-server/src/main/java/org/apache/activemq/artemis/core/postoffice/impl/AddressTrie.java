@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.postoffice.impl;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.postoffice.Address;
+
+/**
+ * The addresses known to a {@link WildcardAddressManager}, arranged by their words, so the addresses matching a
+ * wildcard, or the wildcards matching an address, are found by walking as many levels as there are words
+ * instead of comparing every address.
+ *
+ * A trie either holds concrete addresses, searched with {@link #addressesMatching(Address, Collection)}, or
+ * wildcard addresses, whose '*' and '#' words are kept as nodes of their own and searched with
+ * {@link #wildcardsMatching(Address, Collection)}.
+ *
+ * Updates have to be serialized by the caller, while lookups may run concurrently with them.
+ */
+final class AddressTrie {
+
+   private final Node root = new Node(null, null);
+
+   void put(final Address address) {
+      Node node = root;
+      for (SimpleString word : address.getAddressParts()) {
+         Node child = node.children.get(word);
+         if (child == null) {
+            child = new Node(node, word);
+            node.children.put(word, child);
+         }
+         node = child;
+      }
+      node.address = address;
+   }
+
+   void remove(final Address address) {
+      Node node = root;
+      for (SimpleString word : address.getAddressParts()) {
+         node = node.children.get(word);
+         if (node == null) {
+            return;
+         }
+      }
+      node.address = null;
+
+      // prune the words no longer leading to any address
+      while (node.parent != null && node.address == null && node.children.isEmpty()) {
+         node.parent.children.remove(node.word);
+         node = node.parent;
+      }
+   }
+
+   void clear() {
+      root.children.clear();
+      root.address = null;
+   }
+
+   /**
+    * Adds to result the concrete addresses of this trie matched by the wildcard address.
+    */
+   void addressesMatching(final Address wildcard, final Collection<Address> result) {
+      addressesMatching(root, wildcard.getAddressParts(), 0, result);
+   }
+
+   /**
+    * Adds to result the wildcard addresses of this trie matching the concrete address.
+    */
+   void wildcardsMatching(final Address address, final Collection<Address> result) {
+      wildcardsMatching(root, address.getAddressParts(), 0, result);
+   }
+
+   private static void addressesMatching(final Node node,
+                                         final SimpleString[] pattern,
+                                         final int pos,
+                                         final Collection<Address> result) {
+      if (pos == pattern.length) {
+         Address address = node.address;
+         if (address != null) {
+            result.add(address);
+         }
+         return;
+      }
+
+      SimpleString word = pattern[pos];
+      if (word.equals(WildcardAddressManager.ANY_WORDS_SIMPLESTRING)) {
+         // '#' matches no word at all, or the next word with the '#' still to match what follows
+         addressesMatching(node, pattern, pos + 1, result);
+         for (Node child : node.children.values()) {
+            addressesMatching(child, pattern, pos, result);
+         }
+      }
+      else if (word.equals(WildcardAddressManager.SINGLE_WORD_SIMPLESTRING)) {
+         for (Node child : node.children.values()) {
+            addressesMatching(child, pattern, pos + 1, result);
+         }
+      }
+      else {
+         Node child = node.children.get(word);
+         if (child != null) {
+            addressesMatching(child, pattern, pos + 1, result);
+         }
+      }
+   }
+
+   private static void wildcardsMatching(final Node node,
+                                         final SimpleString[] words,
+                                         final int pos,
+                                         final Collection<Address> result) {
+      Node anyWords = node.children.get(WildcardAddressManager.ANY_WORDS_SIMPLESTRING);
+      if (anyWords != null) {
+         // '#' may match any number of the remaining words
+         for (int next = pos; next <= words.length; next++) {
+            wildcardsMatching(anyWords, words, next, result);
+         }
+      }
+
+      if (pos == words.length) {
+         Address address = node.address;
+         if (address != null) {
+            result.add(address);
+         }
+         return;
+      }
+
+      Node child = node.children.get(words[pos]);
+      if (child != null) {
+         wildcardsMatching(child, words, pos + 1, result);
+      }
+
+      Node singleWord = node.children.get(WildcardAddressManager.SINGLE_WORD_SIMPLESTRING);
+      if (singleWord != null) {
+         wildcardsMatching(singleWord, words, pos + 1, result);
+      }
+   }
+
+   private static final class Node {
+
+      private final Node parent;
+
+      private final SimpleString word;
+
+      private final Map<SimpleString, Node> children = new ConcurrentHashMap<SimpleString, Node>();
+
+      private volatile Address address;
+
+      private Node(final Node parent, final SimpleString word) {
+         this.parent = parent;
+         this.word = word;
+      }
+   }
+}
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.postoffice.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.filter.impl.FilterImpl;
+import org.apache.activemq.artemis.core.postoffice.Binding;
+import org.apache.activemq.artemis.core.server.RoutingContext;
+import org.apache.activemq.artemis.core.server.ServerMessage;
+import org.apache.activemq.artemis.core.server.cluster.RemoteQueueBinding;
+import org.apache.activemq.artemis.selector.filter.BooleanExpression;
+import org.apache.activemq.artemis.selector.filter.ComparisonExpression;
+import org.apache.activemq.artemis.selector.filter.ConstantExpression;
+import org.apache.activemq.artemis.selector.filter.Expression;
+import org.apache.activemq.artemis.selector.filter.LogicExpression;
+import org.apache.activemq.artemis.selector.filter.PropertyExpression;
+import org.apache.activemq.artemis.selector.filter.UnaryExpression;
+
+/**
+ * Groups the bindings of an address by the terms of their filters, so that an address with many
+ * filtered subscriptions doesn't need to evaluate every filter for every message.
+ * <p>
+ * A routing name with a single binding whose filter requires a property to be equal to a string,
+ * or to be in a list of strings (as in {@code region = 'EU' AND type IN ('X', 'Y')}), is indexed by
+ * that property and value(s). Routing reads every indexed property once from the message and only
+ * evaluates the filters of the bindings found under its value. Every other routing name is routed
+ * by {@link BindingsImpl} going through its bindings as usual.
+ * <p>
+ * The indexed and unindexed routing names are published together as an immutable {@link Snapshot}, so a
+ * message routed while the bindings of a routing name change always finds that routing name on one side.
+ * The snapshot is made of {@link PersistentHashMap}s, so a change only copies the paths to the routing name
+ * and its values, whatever the number of bindings.
+ */
+final class BindingsFilterIndex {
+
+   private volatile Snapshot snapshot = new Snapshot(PersistentHashMap.<SimpleString, List<Binding>>empty(), PersistentHashMap.<String, PersistentHashMap<String, PersistentHashMap<SimpleString, Binding>>>empty());
+
+   // guarded by this
+   private final Map<SimpleString, IndexedBinding> indexed = new HashMap<SimpleString, IndexedBinding>();
+
+   /**
+    * @return the routing names as they are now, to be used for a whole routing
+    */
+   Snapshot getSnapshot() {
+      return snapshot;
+   }
+
+   /**
+    * Must be called every time the bindings of a routing name change.
+    *
+    * @param bindings the current bindings of the routing name, null if it was removed
+    */
+   synchronized void update(final SimpleString routingName, final List<Binding> bindings) {
+      Snapshot current = snapshot;
+
+      PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<SimpleString, Binding>>> index = current.index;
+
+      IndexedBinding previous = indexed.remove(routingName);
+      if (previous != null) {
+         index = unindex(index, routingName, previous.term);
+      }
+      PersistentHashMap<SimpleString, List<Binding>> unindexed = current.unindexed.remove(routingName);
+
+      if (bindings != null && !bindings.isEmpty()) {
+         Term term = bindings.size() == 1 ? getTerm(bindings.get(0)) : null;
+
+         if (term != null) {
+            IndexedBinding indexedBinding = new IndexedBinding(bindings.get(0), term);
+            indexed.put(routingName, indexedBinding);
+            index = index(index, routingName, indexedBinding);
+         }
+         else {
+            unindexed = unindexed.put(routingName, bindings);
+         }
+      }
+
+      snapshot = new Snapshot(unindexed, index);
+   }
+
+   int getIndexedCount() {
+      synchronized (this) {
+         return indexed.size();
+      }
+   }
+
+   private static PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<SimpleString, Binding>>> index(final PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<SimpleString, Binding>>> index,
+                                                                                                                final SimpleString routingName,
+                                                                                                                final IndexedBinding indexedBinding) {
+      Term term = indexedBinding.term;
+      PersistentHashMap<String, PersistentHashMap<SimpleString, Binding>> values = index.get(term.property);
+      if (values == null) {
+         values = PersistentHashMap.empty();
+      }
+
+      for (String value : term.values) {
+         PersistentHashMap<SimpleString, Binding> bindings = values.get(value);
+         if (bindings == null) {
+            bindings = PersistentHashMap.empty();
+         }
+         values = values.put(value, bindings.put(routingName, indexedBinding.binding));
+      }
+
+      return index.put(term.property, values);
+   }
+
+   private static PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<SimpleString, Binding>>> unindex(final PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<SimpleString, Binding>>> index,
+                                                                                                                  final SimpleString routingName,
+                                                                                                                  final Term term) {
+      PersistentHashMap<String, PersistentHashMap<SimpleString, Binding>> values = index.get(term.property);
+      if (values == null) {
+         return index;
+      }
+
+      for (String value : term.values) {
+         PersistentHashMap<SimpleString, Binding> bindings = values.get(value);
+         if (bindings == null) {
+            continue;
+         }
+         bindings = bindings.remove(routingName);
+         values = bindings.isEmpty() ? values.remove(value) : values.put(value, bindings);
+      }
+
+      return values.isEmpty() ? index.remove(term.property) : index.put(term.property, values);
+   }
+
+   /**
+    * @return the term the binding can be indexed by, null if it can't be indexed
+    */
+   static Term getTerm(final Binding binding) {
+      // remote bindings are left to the load balancing logic of BindingsImpl
+      if (binding instanceof RemoteQueueBinding || binding.isExclusive()) {
+         return null;
+      }
+
+      Filter filter = binding.getFilter();
+      if (!(filter instanceof FilterImpl)) {
+         return null;
+      }
+
+      List<BooleanExpression> terms = new ArrayList<BooleanExpression>();
+      flattenAnd(((FilterImpl) filter).getExpression(), terms);
+
+      // an equality is more selective than an IN, take the first one there is
+      Term in = null;
+      for (BooleanExpression expression : terms) {
+         Term term = getTerm(expression);
+         if (term != null) {
+            if (term.values.size() == 1) {
+               return term;
+            }
+            if (in == null) {
+               in = term;
+            }
+         }
+      }
+      return in;
+   }
+
+   private static void flattenAnd(final BooleanExpression expression, final List<BooleanExpression> terms) {
+      if (expression instanceof LogicExpression && "AND".equals(((LogicExpression) expression).getExpressionSymbol())) {
+         LogicExpression and = (LogicExpression) expression;
+         flattenAnd((BooleanExpression) and.getLeft(), terms);
+         flattenAnd((BooleanExpression) and.getRight(), terms);
+      }
+      else if (expression != null) {
+         terms.add(expression);
+      }
+   }
+
+   private static Term getTerm(final BooleanExpression expression) {
+      if (expression instanceof ComparisonExpression) {
+         ComparisonExpression comparison = (ComparisonExpression) expression;
+         if (!"=".equals(comparison.getExpressionSymbol()) || comparison.isConvertStringExpressions()) {
+            return null;
+         }
+         Expression left = comparison.getLeft();
+         Expression right = comparison.getRight();
+         if (left instanceof ConstantExpression && right instanceof PropertyExpression) {
+            Expression swap = left;
+            left = right;
+            right = swap;
+         }
+         if (left instanceof PropertyExpression && right instanceof ConstantExpression) {
+            Object value = ((ConstantExpression) right).getValue();
+            if (value instanceof String) {
+               return new Term(((PropertyExpression) left).getName(), Collections.singleton((String) value));
+            }
+         }
+      }
+      else if (expression instanceof UnaryExpression.InExpression) {
+         UnaryExpression.InExpression in = (UnaryExpression.InExpression) expression;
+         Collection<Object> list = in.getInList();
+         if (in.isNot() || list == null) {
+            return null;
+         }
+         Set<String> values = new LinkedHashSet<String>();
+         for (Object value : list) {
+            if (!(value instanceof String)) {
+               return null;
+            }
+            values.add((String) value);
+         }
+         return new Term(((PropertyExpression) in.getRight()).getName(), values);
+      }
+      return null;
+   }
+
+   /**
+    * The routing names of the address at some point in time, never changed once published.
+    */
+   static final class Snapshot {
+
+      private final PersistentHashMap<SimpleString, List<Binding>> unindexed;
+
+      // property name -> property value -> routing names whose filter requires that value, with their binding
+      private final PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<SimpleString, Binding>>> index;
+
+      private Snapshot(final PersistentHashMap<SimpleString, List<Binding>> unindexed,
+                       final PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<SimpleString, Binding>>> index) {
+         this.unindexed = unindexed;
+         this.index = index;
+      }
+
+      /**
+       * @return the routing names that couldn't be indexed, with their bindings
+       */
+      Iterable<Map.Entry<SimpleString, List<Binding>>> getUnindexed() {
+         return unindexed;
+      }
+
+      /**
+       * Routes the message to every indexed binding whose filter matches it.
+       */
+      void route(final ServerMessage message, final RoutingContext context) throws Exception {
+         for (Map.Entry<String, PersistentHashMap<String, PersistentHashMap<SimpleString, Binding>>> entry : index) {
+            Object value = FilterImpl.getFilterProperty(message, entry.getKey());
+            if (value == null || value.getClass() != String.class) {
+               continue;
+            }
+
+            PersistentHashMap<SimpleString, Binding> bindings = entry.getValue().get(value);
+            if (bindings == null) {
+               continue;
+            }
+
+            for (Map.Entry<SimpleString, Binding> binding : bindings) {
+               // the term only narrows down the candidates, the rest of the filter still has to match
+               if (binding.getValue().getFilter().match(message)) {
+                  binding.getValue().route(message, context);
+               }
+            }
+         }
+      }
+   }
+
+   static final class Term {
+
+      final String property;
+
+      final Set<String> values;
+
+      Term(final String property, final Set<String> values) {
+         this.property = property;
+         this.values = values;
+      }
+   }
+
+   private static final class IndexedBinding {
+
+      final Binding binding;
+
+      final Term term;
+
+      IndexedBinding(final Binding binding, final Term term) {
+         this.binding = binding;
+         this.term = term;
+      }
+   }
+}
@@ -59,6 +59,8 @@ public final class BindingsImpl implements Bindings {
 
    private final List<Binding> exclusiveBindings = new CopyOnWriteArrayList<Binding>();
 
+   private final BindingsFilterIndex filterIndex = new BindingsFilterIndex();
+
    private volatile MessageLoadBalancingType messageLoadBalancingType = MessageLoadBalancingType.OFF;
 
    private final GroupingHandler groupingHandler;
@@ -112,6 +114,8 @@ public final class BindingsImpl implements Bindings {
          if (!bindings.contains(binding)) {
             bindings.add(binding);
          }
+
+         filterIndex.update(routingName, routingNameBindingMap.get(routingName));
       }
 
       bindingsMap.put(binding.getID(), binding);
@@ -138,6 +142,8 @@ public final class BindingsImpl implements Bindings {
                routingNameBindingMap.remove(routingName);
             }
          }
+
+         filterIndex.update(routingName, routingNameBindingMap.get(routingName));
       }
 
       bindingsMap.remove(binding.getID());
@@ -285,7 +291,10 @@ public final class BindingsImpl implements Bindings {
             if (isTrace) {
                ActiveMQServerLogger.LOGGER.trace("Routing message " + message + " on binding=" + this);
             }
-            for (Map.Entry<SimpleString, List<Binding>> entry : routingNameBindingMap.entrySet()) {
+            // the same snapshot is used for both, so a routing name whose bindings change meanwhile is still routed
+            BindingsFilterIndex.Snapshot routingNames = filterIndex.getSnapshot();
+
+            for (Map.Entry<SimpleString, List<Binding>> entry : routingNames.getUnindexed()) {
                SimpleString routingName = entry.getKey();
 
                List<Binding> bindings = entry.getValue();
@@ -302,6 +311,9 @@ public final class BindingsImpl implements Bindings {
                   theBinding.route(message, context);
                }
             }
+
+            // routing names with a single filtered binding are looked up by the properties their filters require
+            routingNames.route(message, context);
          }
       }
    }
@@ -0,0 +1,459 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.postoffice.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.activemq.artemis.api.core.Pair;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.postoffice.DuplicateIDCache;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.core.transaction.TransactionOperationAbstract;
+
+/**
+ * A fixed size rotating cache of the last X duplicate ids, kept off-heap.
+ * <p>
+ * Instead of the ids themselves only a 128 bits hash of every id is kept in memory, on direct buffers,
+ * so no objects are allocated per cached id. The cache is split in lock stripes, each one with its own
+ * ring for eviction and its own open addressing table (linear probing) pointing into the ring.
+ * <p>
+ * Since eviction happens per stripe, the cache keeps at least the last {@code size / stripes} ids of each stripe
+ * rather than exactly the last {@code size} ids of the address. Every stripe is sized with some slack to compensate.
+ * <p>
+ * The journal records are the same ones written by {@link DuplicateIDCacheImpl}, so the two implementations can be
+ * swapped on an existing journal. As the original ids are not kept, {@link #getMap()} can't return them and
+ * duplicate ids of addresses using this cache are not transferred on scale down, which logs a warning instead.
+ */
+public class OffHeapDuplicateIDCache implements DuplicateIDCache {
+
+   private static final int MAX_STRIPES = 16;
+
+   private static final int MIN_IDS_PER_STRIPE = 1024;
+
+   // hash A, hash B, recordID
+   private static final int ENTRY_SIZE = 3 * 8;
+
+   private static final long EMPTY = Long.MIN_VALUE;
+
+   private static final long NO_RECORD = -1;
+
+   private final SimpleString address;
+
+   private final int cacheSize;
+
+   private final StorageManager storageManager;
+
+   private final boolean persist;
+
+   private final Stripe[] stripes;
+
+   public OffHeapDuplicateIDCache(final SimpleString address,
+                                  final int size,
+                                  final StorageManager storageManager,
+                                  final boolean persist) {
+      this.address = address;
+
+      this.cacheSize = size;
+
+      this.storageManager = storageManager;
+
+      this.persist = persist;
+
+      int numberOfStripes = 1;
+
+      while (numberOfStripes < MAX_STRIPES && size / (numberOfStripes * 2) >= MIN_IDS_PER_STRIPE) {
+         numberOfStripes *= 2;
+      }
+
+      // the slack on each stripe compensates for an uneven distribution of the hashes
+      int stripeCapacity = numberOfStripes == 1 ? Math.max(size, 1) : size / numberOfStripes + size / numberOfStripes / 8;
+
+      stripes = new Stripe[numberOfStripes];
+
+      for (int i = 0; i < numberOfStripes; i++) {
+         stripes[i] = new Stripe(stripeCapacity);
+      }
+   }
+
+   public void load(final List<Pair<byte[], Long>> theIds) throws Exception {
+      int count = 0;
+
+      long txID = -1;
+
+      for (Pair<byte[], Long> id : theIds) {
+         if (count < cacheSize) {
+            addToCacheInMemory(id.getA(), id.getB());
+         }
+         else {
+            // cache size has been reduced in config - delete the extra records
+            if (txID == -1) {
+               txID = storageManager.generateID();
+            }
+
+            storageManager.deleteDuplicateIDTransactional(txID, id.getB());
+         }
+
+         count++;
+      }
+
+      if (txID != -1) {
+         storageManager.commit(txID);
+      }
+   }
+
+   public void load(final Transaction tx, final byte[] duplID) {
+      tx.addOperation(new AddDuplicateIDOperation(duplID, tx.getID()));
+   }
+
+   public boolean contains(final byte[] duplID) {
+      long hashA = hashA(duplID);
+      long hashB = hashB(duplID);
+
+      return stripe(hashB).contains(hashA, hashB);
+   }
+
+   public void addToCache(final byte[] duplID, final Transaction tx) throws Exception {
+      long recordID = NO_RECORD;
+
+      if (tx == null) {
+         if (persist) {
+            recordID = storageManager.generateID();
+            storageManager.storeDuplicateID(address, duplID, recordID);
+         }
+
+         addToCacheInMemory(duplID, recordID);
+      }
+      else {
+         if (persist) {
+            recordID = storageManager.generateID();
+            storageManager.storeDuplicateIDTransactional(tx.getID(), address, duplID, recordID);
+
+            tx.setContainsPersistent();
+         }
+
+         // For a tx, it's important that the entry is not added to the cache until commit
+         // since if the client fails then resends them tx we don't want it to get rejected
+         tx.addOperation(new AddDuplicateIDOperation(duplID, recordID));
+      }
+   }
+
+   public void deleteFromCache(final byte[] duplID) throws Exception {
+      long hashA = hashA(duplID);
+      long hashB = hashB(duplID);
+
+      Stripe stripe = stripe(hashB);
+
+      synchronized (stripe) {
+         long recordID = stripe.remove(hashA, hashB);
+
+         if (recordID >= 0) {
+            storageManager.deleteDuplicateID(recordID);
+         }
+      }
+   }
+
+   public void clear() throws Exception {
+      long tx = -1;
+
+      for (Stripe stripe : stripes) {
+         synchronized (stripe) {
+            for (int pos = 0; pos < stripe.capacity; pos++) {
+               long recordID = stripe.recordID(pos);
+
+               if (recordID >= 0) {
+                  if (tx == -1) {
+                     tx = storageManager.generateID();
+                  }
+                  storageManager.deleteDuplicateIDTransactional(tx, recordID);
+               }
+            }
+
+            stripe.reset();
+         }
+      }
+
+      if (tx != -1) {
+         storageManager.commit(tx);
+      }
+   }
+
+   /**
+    * The original ids are not kept by this cache, hence they can't be returned.
+    */
+   @Override
+   public List<Pair<byte[], Long>> getMap() {
+      return Collections.emptyList();
+   }
+
+   /**
+    * @return the number of ids currently cached
+    */
+   public int size() {
+      int size = 0;
+      for (Stripe stripe : stripes) {
+         synchronized (stripe) {
+            size += stripe.size;
+         }
+      }
+      return size;
+   }
+
+   private void addToCacheInMemory(final byte[] duplID, final long recordID) {
+      long hashA = hashA(duplID);
+      long hashB = hashB(duplID);
+
+      Stripe stripe = stripe(hashB);
+
+      synchronized (stripe) {
+         // The same id could have been added concurrently, its previous record would never be reclaimed otherwise
+         deleteRecord(stripe.remove(hashA, hashB));
+
+         // Record already exists - we delete the old one and add the new one
+         // Note we can't use update since journal update doesn't let older records get reclaimed
+         deleteRecord(stripe.add(hashA, hashB, recordID));
+      }
+   }
+
+   private void deleteRecord(final long recordID) {
+      if (recordID >= 0) {
+         try {
+            storageManager.deleteDuplicateID(recordID);
+         }
+         catch (Exception e) {
+            ActiveMQServerLogger.LOGGER.errorDeletingDuplicateCache(e);
+         }
+      }
+   }
+
+   private Stripe stripe(final long hashB) {
+      return stripes[(int) (hashB >>> 32) & (stripes.length - 1)];
+   }
+
+   static long hashA(final byte[] bytes) {
+      long h = 0xCBF29CE484222325L ^ bytes.length;
+      for (byte b : bytes) {
+         h = (h ^ (b & 0xFF)) * 0x100000001B3L;
+      }
+      return mix(h);
+   }
+
+   static long hashB(final byte[] bytes) {
+      long h = 0x9E3779B97F4A7C15L ^ bytes.length;
+      for (byte b : bytes) {
+         h = Long.rotateLeft(h ^ (b & 0xFF), 27) * 0xC2B2AE3D27D4EB4FL;
+      }
+      return mix(h);
+   }
+
+   private static long mix(long h) {
+      h ^= h >>> 33;
+      h *= 0xFF51AFD7ED558CCDL;
+      h ^= h >>> 33;
+      h *= 0xC4CEB9FE1A85EC53L;
+      h ^= h >>> 33;
+      return h;
+   }
+
+   private static int tableSizeFor(final int capacity) {
+      // keep the load factor of the table under 0.5
+      int tableSize = 2;
+      while (tableSize < capacity * 2) {
+         tableSize <<= 1;
+      }
+      return tableSize;
+   }
+
+   /**
+    * A ring of entries plus a linear probing table holding {@code ring position + 1} (0 meaning a free slot).
+    * All the methods require the caller to hold the monitor of the stripe.
+    */
+   private static final class Stripe {
+
+      final int capacity;
+
+      final ByteBuffer ring;
+
+      final ByteBuffer table;
+
+      final int tableMask;
+
+      int pos;
+
+      int size;
+
+      Stripe(final int capacity) {
+         this.capacity = capacity;
+         this.ring = ByteBuffer.allocateDirect(capacity * ENTRY_SIZE);
+         int tableSize = tableSizeFor(capacity);
+         this.table = ByteBuffer.allocateDirect(tableSize * 4);
+         this.tableMask = tableSize - 1;
+         reset();
+      }
+
+      synchronized boolean contains(final long hashA, final long hashB) {
+         return find(hashA, hashB) >= 0;
+      }
+
+      /**
+       * @return the recordID of the evicted entry, or {@link #EMPTY}
+       */
+      long add(final long hashA, final long hashB, final long recordID) {
+         long evicted = recordID(pos);
+
+         if (evicted != EMPTY) {
+            removeSlot(slotOf(pos));
+         }
+         else {
+            size++;
+         }
+
+         int offset = pos * ENTRY_SIZE;
+         ring.putLong(offset, hashA);
+         ring.putLong(offset + 8, hashB);
+         ring.putLong(offset + 16, recordID);
+
+         int slot = home(hashA);
+         while (table.getInt(slot * 4) != 0) {
+            slot = (slot + 1) & tableMask;
+         }
+         table.putInt(slot * 4, pos + 1);
+
+         if (++pos == capacity) {
+            pos = 0;
+         }
+
+         return evicted;
+      }
+
+      /**
+       * @return the recordID of the removed entry, or {@link #EMPTY} if it wasn't cached
+       */
+      long remove(final long hashA, final long hashB) {
+         int slot = find(hashA, hashB);
+
+         if (slot < 0) {
+            return EMPTY;
+         }
+
+         int entry = table.getInt(slot * 4) - 1;
+         long recordID = recordID(entry);
+
+         ring.putLong(entry * ENTRY_SIZE + 16, EMPTY);
+         removeSlot(slot);
+         size--;
+
+         return recordID;
+      }
+
+      long recordID(final int entry) {
+         return ring.getLong(entry * ENTRY_SIZE + 16);
+      }
+
+      void reset() {
+         for (int i = 0; i < capacity; i++) {
+            ring.putLong(i * ENTRY_SIZE + 16, EMPTY);
+         }
+         for (int i = 0; i <= tableMask; i++) {
+            table.putInt(i * 4, 0);
+         }
+         pos = 0;
+         size = 0;
+      }
+
+      private int home(final long hashA) {
+         return (int) hashA & tableMask;
+      }
+
+      private int find(final long hashA, final long hashB) {
+         int slot = home(hashA);
+         int value;
+         while ((value = table.getInt(slot * 4)) != 0) {
+            int offset = (value - 1) * ENTRY_SIZE;
+            if (ring.getLong(offset) == hashA && ring.getLong(offset + 8) == hashB) {
+               return slot;
+            }
+            slot = (slot + 1) & tableMask;
+         }
+         return -1;
+      }
+
+      private int slotOf(final int entry) {
+         int slot = home(ring.getLong(entry * ENTRY_SIZE));
+         while (table.getInt(slot * 4) != entry + 1) {
+            slot = (slot + 1) & tableMask;
+         }
+         return slot;
+      }
+
+      // backward shift deletion, so the table never needs tombstones
+      private void removeSlot(final int slot) {
+         int hole = slot;
+         int next = slot;
+         while (true) {
+            next = (next + 1) & tableMask;
+            int value = table.getInt(next * 4);
+            if (value == 0) {
+               break;
+            }
+            int home = home(ring.getLong((value - 1) * ENTRY_SIZE));
+            boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (!stays) {
+               table.putInt(hole * 4, value);
+               hole = next;
+            }
+         }
+         table.putInt(hole * 4, 0);
+      }
+   }
+
+   private final class AddDuplicateIDOperation extends TransactionOperationAbstract {
+
+      final byte[] duplID;
+
+      final long recordID;
+
+      volatile boolean done;
+
+      AddDuplicateIDOperation(final byte[] duplID, final long recordID) {
+         this.duplID = duplID;
+         this.recordID = recordID;
+      }
+
+      private void process() {
+         if (!done) {
+            addToCacheInMemory(duplID, recordID);
+
+            done = true;
+         }
+      }
+
+      @Override
+      public void afterCommit(final Transaction tx) {
+         process();
+      }
+
+      @Override
+      public List<MessageReference> getRelatedMessageReferences() {
+         return null;
+      }
+   }
+}
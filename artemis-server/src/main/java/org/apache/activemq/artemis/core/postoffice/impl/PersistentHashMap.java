@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.postoffice.impl;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable hash map, which {@link #put} and {@link #remove} copy only along the path to the key.
+ * <p>
+ * The keys are kept in a trie of 32 wide nodes indexed by 5 bits of their hash at each level, keys
+ * with the same hash being chained at the bottom. A change copies at most one node per level, so it
+ * costs the same whatever the size of the map, while the previous versions can still be read.
+ */
+final class PersistentHashMap<K, V> implements Iterable<Map.Entry<K, V>> {
+
+   private static final int BITS = 5;
+
+   private static final int WIDTH = 1 << BITS;
+
+   private static final int MASK = WIDTH - 1;
+
+   // a 32 bits hash is used up after 7 levels
+   private static final int MAX_DEPTH = 7;
+
+   private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<Object, Object>(new Object[WIDTH], 0);
+
+   // every slot is either null, a chain of entries or a child node
+   private final Object[] root;
+
+   private final int size;
+
+   private PersistentHashMap(final Object[] root, final int size) {
+      this.root = root;
+      this.size = size;
+   }
+
+   @SuppressWarnings("unchecked")
+   static <K, V> PersistentHashMap<K, V> empty() {
+      return (PersistentHashMap<K, V>) EMPTY;
+   }
+
+   int size() {
+      return size;
+   }
+
+   boolean isEmpty() {
+      return size == 0;
+   }
+
+   @SuppressWarnings("unchecked")
+   V get(final Object key) {
+      int hash = hash(key);
+      Object[] node = root;
+      for (int shift = 0; ; shift += BITS) {
+         Object slot = node[(hash >>> shift) & MASK];
+         if (slot instanceof Object[]) {
+            node = (Object[]) slot;
+         }
+         else {
+            for (Entry<K, V> entry = (Entry<K, V>) slot; entry != null; entry = entry.next) {
+               if (entry.hash == hash && entry.key.equals(key)) {
+                  return entry.value;
+               }
+            }
+            return null;
+         }
+      }
+   }
+
+   /**
+    * @return a map with the key mapped to the value, this map is left unchanged
+    */
+   PersistentHashMap<K, V> put(final K key, final V value) {
+      boolean[] added = new boolean[1];
+      Object[] newRoot = put(root, 0, new Entry<K, V>(hash(key), key, value, null), added);
+      return new PersistentHashMap<K, V>(newRoot, added[0] ? size + 1 : size);
+   }
+
+   /**
+    * @return a map without the key, this map itself if it doesn't have the key
+    */
+   PersistentHashMap<K, V> remove(final Object key) {
+      Object[] newRoot = remove(root, 0, hash(key), key);
+      return newRoot == root ? this : new PersistentHashMap<K, V>(newRoot, size - 1);
+   }
+
+   public Iterator<Map.Entry<K, V>> iterator() {
+      return new EntryIterator<K, V>(root);
+   }
+
+   private static int hash(final Object key) {
+      int hash = key.hashCode();
+      // the low bits pick the slots of the first levels, spread the high bits into them
+      return hash ^ (hash >>> 16);
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <K, V> Object[] put(final Object[] node, final int shift, final Entry<K, V> entry, final boolean[] added) {
+      int i = (entry.hash >>> shift) & MASK;
+      Object slot = node[i];
+      Object[] copy = node.clone();
+
+      if (slot == null) {
+         copy[i] = entry;
+         added[0] = true;
+      }
+      else if (slot instanceof Object[]) {
+         copy[i] = put((Object[]) slot, shift + BITS, entry, added);
+      }
+      else {
+         Entry<K, V> chain = (Entry<K, V>) slot;
+         if (chain.hash == entry.hash) {
+            Entry<K, V> rest = removeFromChain(chain, entry.key);
+            added[0] = rest == chain;
+            copy[i] = new Entry<K, V>(entry.hash, entry.key, entry.value, rest);
+         }
+         else {
+            // the hashes differ in a later level, so this always ends before the hashes are used up
+            Object[] child = new Object[WIDTH];
+            child[(chain.hash >>> (shift + BITS)) & MASK] = chain;
+            copy[i] = put(child, shift + BITS, entry, added);
+         }
+      }
+
+      return copy;
+   }
+
+   @SuppressWarnings("unchecked")
+   private static Object[] remove(final Object[] node, final int shift, final int hash, final Object key) {
+      int i = (hash >>> shift) & MASK;
+      Object slot = node[i];
+      Object replacement;
+
+      if (slot == null) {
+         return node;
+      }
+      else if (slot instanceof Object[]) {
+         Object[] child = (Object[]) slot;
+         Object[] newChild = remove(child, shift + BITS, hash, key);
+         if (newChild == child) {
+            return node;
+         }
+         replacement = collapse(newChild);
+      }
+      else {
+         Entry<Object, Object> chain = (Entry<Object, Object>) slot;
+         if (chain.hash != hash) {
+            return node;
+         }
+         Entry<Object, Object> newChain = removeFromChain(chain, key);
+         if (newChain == chain) {
+            return node;
+         }
+         replacement = newChain;
+      }
+
+      Object[] copy = node.clone();
+      copy[i] = replacement;
+      return copy;
+   }
+
+   /**
+    * @return the chain of the node if it has nothing else, so it moves up a level, or the node itself
+    */
+   private static Object collapse(final Object[] node) {
+      Object single = null;
+      for (Object slot : node) {
+         if (slot != null) {
+            if (single != null || slot instanceof Object[]) {
+               return node;
+            }
+            single = slot;
+         }
+      }
+      return single;
+   }
+
+   /**
+    * @return the chain without the key, the chain itself if it doesn't have the key
+    */
+   private static <K, V> Entry<K, V> removeFromChain(final Entry<K, V> chain, final Object key) {
+      if (chain == null) {
+         return null;
+      }
+      if (chain.key.equals(key)) {
+         return chain.next;
+      }
+      Entry<K, V> rest = removeFromChain(chain.next, key);
+      return rest == chain.next ? chain : new Entry<K, V>(chain.hash, chain.key, chain.value, rest);
+   }
+
+   private static final class Entry<K, V> implements Map.Entry<K, V> {
+
+      final int hash;
+
+      final K key;
+
+      final V value;
+
+      // the next entry with the same hash
+      final Entry<K, V> next;
+
+      Entry(final int hash, final K key, final V value, final Entry<K, V> next) {
+         this.hash = hash;
+         this.key = key;
+         this.value = value;
+         this.next = next;
+      }
+
+      public K getKey() {
+         return key;
+      }
+
+      public V getValue() {
+         return value;
+      }
+
+      public V setValue(final V value) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public String toString() {
+         return key + "=" + value;
+      }
+   }
+
+   private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+      private final Object[][] nodes = new Object[MAX_DEPTH][];
+
+      private final int[] positions = new int[MAX_DEPTH];
+
+      private int depth;
+
+      private Entry<K, V> next;
+
+      EntryIterator(final Object[] root) {
+         nodes[0] = root;
+         advance();
+      }
+
+      @SuppressWarnings("unchecked")
+      private void advance() {
+         if (next != null && next.next != null) {
+            next = next.next;
+            return;
+         }
+
+         next = null;
+
+         while (depth >= 0) {
+            if (positions[depth] == WIDTH) {
+               depth--;
+               continue;
+            }
+
+            Object slot = nodes[depth][positions[depth]++];
+            if (slot instanceof Object[]) {
+               depth++;
+               nodes[depth] = (Object[]) slot;
+               positions[depth] = 0;
+            }
+            else if (slot != null) {
+               next = (Entry<K, V>) slot;
+               return;
+            }
+         }
+      }
+
+      public boolean hasNext() {
+         return next != null;
+      }
+
+      public Map.Entry<K, V> next() {
+         Entry<K, V> entry = next;
+         if (entry == null) {
+            throw new NoSuchElementException();
+         }
+         advance();
+         return entry;
+      }
+
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+}
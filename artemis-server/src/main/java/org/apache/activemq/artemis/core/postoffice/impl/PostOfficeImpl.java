@@ -74,6 +74,7 @@ import org.apache.activemq.artemis.core.server.management.Notification;
 import org.apache.activemq.artemis.core.server.management.NotificationListener;
 import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.core.settings.impl.DuplicateIDCacheType;
 import org.apache.activemq.artemis.core.transaction.Transaction;
 import org.apache.activemq.artemis.core.transaction.TransactionOperation;
 import org.apache.activemq.artemis.core.transaction.TransactionOperationAbstract;
@@ -130,6 +131,8 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
    private final ActiveMQServer server;
 
+   private final boolean offHeapMessageBodies;
+
    public PostOfficeImpl(final ActiveMQServer server,
                          final StorageManager storageManager,
                          final PagingManager pagingManager,
@@ -140,6 +143,7 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
                          final boolean enableWildCardRouting,
                          final int idCacheSize,
                          final boolean persistIDCache,
+                         final boolean offHeapMessageBodies,
                          final HierarchicalRepository<AddressSettings> addressSettingsRepository) {
       this.storageManager = storageManager;
 
@@ -164,6 +168,8 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
       this.persistIDCache = persistIDCache;
 
+      this.offHeapMessageBodies = offHeapMessageBodies;
+
       this.addressSettingsRepository = addressSettingsRepository;
 
       this.server = server;
@@ -722,6 +728,10 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
       message.incrementRefCount();
 
+      if (offHeapMessageBodies) {
+         message.moveBodyOffHeap();
+      }
+
       if (tx == null) {
          queue.reload(reference);
       }
@@ -766,7 +776,12 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
       DuplicateIDCache cache = duplicateIDCaches.get(address);
 
       if (cache == null) {
-         cache = new DuplicateIDCacheImpl(address, idCacheSize, storageManager, persistIDCache);
+         if (addressSettingsRepository.getMatch(address.toString()).getDuplicateIDCacheType() == DuplicateIDCacheType.OFF_HEAP) {
+            cache = new OffHeapDuplicateIDCache(address, idCacheSize, storageManager, persistIDCache);
+         }
+         else {
+            cache = new DuplicateIDCacheImpl(address, idCacheSize, storageManager, persistIDCache);
+         }
 
          DuplicateIDCache oldCache = duplicateIDCaches.putIfAbsent(address, cache);
 
@@ -1040,6 +1055,10 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
          }
       }
 
+      if (offHeapMessageBodies) {
+         message.moveBodyOffHeap();
+      }
+
       if (tx != null) {
          tx.addOperation(new AddOperation(refs));
       }
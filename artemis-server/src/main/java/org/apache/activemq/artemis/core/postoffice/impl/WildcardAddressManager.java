@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.artemis.core.postoffice.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -51,6 +52,13 @@ public class WildcardAddressManager extends SimpleAddressManager {
 
    private final Map<SimpleString, Address> wildCardAddresses = new ConcurrentHashMap<SimpleString, Address>();
 
+   /**
+    * The same addresses arranged by their words, so linking an address doesn't compare it with every other one
+    */
+   private final AddressTrie addressTrie = new AddressTrie();
+
+   private final AddressTrie wildCardTrie = new AddressTrie();
+
    public WildcardAddressManager(final BindingsFactory bindingsFactory) {
       super(bindingsFactory);
    }
@@ -134,6 +142,8 @@ public class WildcardAddressManager extends SimpleAddressManager {
       super.clear();
       addresses.clear();
       wildCardAddresses.clear();
+      addressTrie.clear();
+      wildCardTrie.clear();
    }
 
    private Address getAddress(final SimpleString address) {
@@ -161,22 +171,16 @@ public class WildcardAddressManager extends SimpleAddressManager {
          actualAddress = add;
          addAddress(address, actualAddress);
       }
+      List<Address> matching = new ArrayList<Address>();
       if (actualAddress.containsWildCard()) {
-         for (Address destAdd : addresses.values()) {
-            if (destAdd.matches(actualAddress)) {
-               destAdd.addLinkedAddress(actualAddress);
-               actualAddress.addLinkedAddress(destAdd);
-            }
-         }
+         addressTrie.addressesMatching(actualAddress, matching);
       }
       else {
-         for (Address destAdd : wildCardAddresses.values()) {
-            if (actualAddress.matches(destAdd)) {
-               destAdd.addLinkedAddress(actualAddress);
-               actualAddress.addLinkedAddress(destAdd);
-
-            }
-         }
+         wildCardTrie.wildcardsMatching(actualAddress, matching);
+      }
+      for (Address destAdd : matching) {
+         destAdd.addLinkedAddress(actualAddress);
+         actualAddress.addLinkedAddress(destAdd);
       }
       return actualAddress;
    }
@@ -184,9 +188,11 @@ public class WildcardAddressManager extends SimpleAddressManager {
    private void addAddress(final SimpleString address, final Address actualAddress) {
       if (actualAddress.containsWildCard()) {
          wildCardAddresses.put(address, actualAddress);
+         wildCardTrie.put(actualAddress);
       }
       else {
          addresses.put(address, actualAddress);
+         addressTrie.put(actualAddress);
       }
    }
 
@@ -194,7 +200,7 @@ public class WildcardAddressManager extends SimpleAddressManager {
       // we only remove if there are no bindings left
       Bindings bindings = super.getBindingsForRoutingAddress(address.getAddress());
       if (bindings == null || bindings.getBindings().size() == 0) {
-         List<Address> addresses = address.getLinkedAddresses();
+         Collection<Address> addresses = address.getLinkedAddresses();
          for (Address address1 : addresses) {
             address1.removeLinkedAddress(address);
             Bindings linkedBindings = super.getBindingsForRoutingAddress(address1.getAddress());
@@ -209,9 +215,11 @@ public class WildcardAddressManager extends SimpleAddressManager {
    private void removeAddress(final Address add) {
       if (add.containsWildCard()) {
          wildCardAddresses.remove(add.getAddress());
+         wildCardTrie.remove(add);
       }
       else {
          addresses.remove(add.getAddress());
+         addressTrie.remove(add);
       }
    }
 }
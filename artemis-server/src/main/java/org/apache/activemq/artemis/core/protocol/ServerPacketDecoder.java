@@ -55,6 +55,8 @@ import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.QuorumVote
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationLiveIsStoppingMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationAddMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationAddTXMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchResponseMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationCommitMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationDeleteMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationDeleteTXMessage;
@@ -130,6 +132,14 @@ public class ServerPacketDecoder extends ClientPacketDecoder {
             packet = new ReplicationPageWriteMessage();
             break;
          }
+         case PacketImpl.REPLICATION_BATCH: {
+            packet = new ReplicationBatchMessage();
+            break;
+         }
+         case PacketImpl.REPLICATION_BATCH_RESPONSE: {
+            packet = new ReplicationBatchResponseMessage();
+            break;
+         }
          case REPLICATION_PAGE_EVENT: {
             packet = new ReplicationPageEventMessage();
             break;
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.core.impl.wireformat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl;
+
+/**
+ * Consecutive journal appends and page writes sent to the replica as one packet.
+ * <p>
+ * The operations are encoded as they are made, each as its packet type followed by the rest of that packet. The
+ * sequence is the one of the last operation in the batch, the replica acknowledges the whole batch with it.
+ */
+public final class ReplicationBatchMessage extends PacketImpl {
+
+   private long sequence;
+
+   private int count;
+
+   private ActiveMQBuffer operations;
+
+   private List<PacketImpl> packets;
+
+   public ReplicationBatchMessage() {
+      super(PacketImpl.REPLICATION_BATCH);
+   }
+
+   public ReplicationBatchMessage(final long sequence, final int count, final ActiveMQBuffer operations) {
+      this();
+      this.sequence = sequence;
+      this.count = count;
+      this.operations = operations;
+   }
+
+   /**
+    * Adds an operation to an encoded batch.
+    */
+   public static void encodeOperation(final ActiveMQBuffer operations, final PacketImpl packet) {
+      operations.writeByte(packet.getType());
+      packet.encodeRest(operations);
+   }
+
+   // Public --------------------------------------------------------
+
+   @Override
+   public void encodeRest(final ActiveMQBuffer buffer) {
+      buffer.writeLong(sequence);
+      buffer.writeInt(count);
+      buffer.writeBytes(operations, 0, operations.writerIndex());
+   }
+
+   @Override
+   public void decodeRest(final ActiveMQBuffer buffer) {
+      sequence = buffer.readLong();
+      count = buffer.readInt();
+      packets = new ArrayList<PacketImpl>(count);
+      for (int i = 0; i < count; i++) {
+         PacketImpl packet;
+         byte type = buffer.readByte();
+         if (type == PacketImpl.REPLICATION_APPEND) {
+            packet = new ReplicationAddMessage();
+         }
+         else if (type == PacketImpl.REPLICATION_PAGE_WRITE) {
+            packet = new ReplicationPageWriteMessage();
+         }
+         else {
+            throw new IllegalStateException("Invalid replication packet type on a batch: " + type);
+         }
+         packet.decodeRest(buffer);
+         packets.add(packet);
+      }
+   }
+
+   public long getSequence() {
+      return sequence;
+   }
+
+   public int getCount() {
+      return count;
+   }
+
+   /**
+    * @return the operations of a decoded batch, in the order they were made
+    */
+   public List<PacketImpl> getPackets() {
+      return packets;
+   }
+
+   @Override
+   public String toString() {
+      return getParentString() + ", sequence=" + sequence + ", count=" + count + "]";
+   }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.core.impl.wireformat;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl;
+
+/**
+ * Acknowledges every replicated operation up to and including the given sequence.
+ */
+public final class ReplicationBatchResponseMessage extends PacketImpl {
+
+   private long sequence;
+
+   public ReplicationBatchResponseMessage() {
+      super(PacketImpl.REPLICATION_BATCH_RESPONSE);
+   }
+
+   public ReplicationBatchResponseMessage(final long sequence) {
+      this();
+      this.sequence = sequence;
+   }
+
+   @Override
+   public void encodeRest(final ActiveMQBuffer buffer) {
+      buffer.writeLong(sequence);
+   }
+
+   @Override
+   public void decodeRest(final ActiveMQBuffer buffer) {
+      sequence = buffer.readLong();
+   }
+
+   public long getSequence() {
+      return sequence;
+   }
+
+   @Override
+   public String toString() {
+      return getParentString() + ", sequence=" + sequence + "]";
+   }
+}
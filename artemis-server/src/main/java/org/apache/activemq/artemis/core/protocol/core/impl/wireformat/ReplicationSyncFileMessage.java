@@ -16,21 +16,30 @@
  */
 package org.apache.activemq.artemis.core.protocol.core.impl.wireformat;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
+import java.nio.channels.FileChannel;
 import java.util.EnumSet;
 import java.util.Set;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.FileRegion;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.persistence.impl.journal.JournalStorageManager.JournalContent;
+import org.apache.activemq.artemis.core.protocol.core.FileRegionPacket;
 import org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl;
+import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
+import org.apache.activemq.artemis.utils.DataConstants;
 
 /**
  * Message is used to sync {@link org.apache.activemq.artemis.core.journal.SequentialFile}s to a backup server. The {@link FileType} controls
  * which extra information is sent.
+ * <p>
+ * The data is sent as a region of the file when the connection supports it, or read from the file straight into the
+ * transport buffer otherwise. Once decoded it is a view over the received buffer, so it can be written to disk as is.
  */
-public final class ReplicationSyncFileMessage extends PacketImpl {
+public final class ReplicationSyncFileMessage extends PacketImpl implements FileRegionPacket {
 
    /**
     * The JournalType or {@code null} if sync'ing large-messages.
@@ -42,8 +51,16 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
     */
    private long fileId;
    private int dataSize;
+   /**
+    * The file the data is read from when encoding, starting at {@link #position}.
+    */
+   private FileChannel fileChannel;
+   private long position;
+   private FileRegion fileBody;
+   /**
+    * The data received, or {@code null} if the file is finished.
+    */
    private ByteBuffer byteBuffer;
-   private byte[] byteArray;
    private SimpleString pageStoreName;
    private FileType fileType;
 
@@ -78,9 +95,11 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
                                      SimpleString storeName,
                                      long id,
                                      int size,
-                                     ByteBuffer buffer) {
+                                     FileChannel fileChannel,
+                                     long position) {
       this();
-      this.byteBuffer = buffer;
+      this.fileChannel = fileChannel;
+      this.position = position;
       this.pageStoreName = storeName;
       this.dataSize = size;
       this.fileId = id;
@@ -100,11 +119,77 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
       }
    }
 
+   /**
+    * Sets the region of the file holding the data, for the message to be sent with
+    * {@link org.apache.activemq.artemis.core.protocol.core.Channel#sendFileRegion(FileRegionPacket)}.
+    */
+   public void setFileBody(FileRegion fileBody) {
+      this.fileBody = fileBody;
+   }
+
+   public FileRegion getFileBody() {
+      return fileBody;
+   }
+
+   public ActiveMQBuffer encodeHeader(final RemotingConnection connection) {
+      ActiveMQBuffer buffer = connection.createTransportBuffer(PACKET_HEADERS_SIZE + DataConstants.SIZE_LONG + DataConstants.SIZE_BYTE * 2 + DataConstants.SIZE_INT);
+
+      buffer.writeInt(0); // The length gets filled in at the end
+      buffer.writeByte(getType());
+      buffer.writeLong(getChannelID());
+
+      encodeFileHeader(buffer);
+
+      size = buffer.writerIndex() + dataSize;
+
+      // The length doesn't include the actual length byte
+      buffer.setInt(0, size - DataConstants.SIZE_INT);
+
+      return buffer;
+   }
+
+   public ActiveMQBuffer encodeTrailer(final RemotingConnection connection) {
+      // the data is the last thing on the packet
+      return connection.createTransportBuffer(0);
+   }
+
    @Override
    public void encodeRest(final ActiveMQBuffer buffer) {
+      if (!encodeFileHeader(buffer)) {
+         return;
+      }
+      /*
+       * sending -1 will close the file in case of a journal, but not in case of a largeMessage
+       * (which might receive appends)
+       */
+      if (dataSize > 0) {
+         ByteBuf byteBuf = buffer.byteBuf();
+         byteBuf.ensureWritable(dataSize);
+         int writerIndex = byteBuf.writerIndex();
+         ByteBuffer data = byteBuf.nioBuffer(writerIndex, dataSize);
+         try {
+            while (data.hasRemaining()) {
+               if (fileChannel.read(data, position + data.position()) < 0) {
+                  throw new IllegalStateException("File " + fileId + " ended " + data.remaining() + " bytes before the expected size of " + dataSize);
+               }
+            }
+         }
+         catch (IOException e) {
+            throw new IllegalStateException(e);
+         }
+         byteBuf.writerIndex(writerIndex + dataSize);
+      }
+   }
+
+   /**
+    * Encodes everything up to the data.
+    *
+    * @return whether there is data to follow
+    */
+   private boolean encodeFileHeader(final ActiveMQBuffer buffer) {
       buffer.writeLong(fileId);
       if (fileId == -1)
-         return;
+         return false;
       buffer.writeByte(fileType.code);
       switch (fileType) {
          case JOURNAL: {
@@ -121,13 +206,7 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
       }
 
       buffer.writeInt(dataSize);
-      /*
-       * sending -1 will close the file in case of a journal, but not in case of a largeMessage
-       * (which might receive appends)
-       */
-      if (dataSize > 0) {
-         buffer.writeBytes(byteBuffer);
-      }
+      return true;
    }
 
    @Override
@@ -149,10 +228,10 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
             break;
          }
       }
-      int size = buffer.readInt();
-      if (size > 0) {
-         byteArray = new byte[size];
-         buffer.readBytes(byteArray);
+      dataSize = buffer.readInt();
+      if (dataSize > 0) {
+         byteBuffer = buffer.toByteBuffer(buffer.readerIndex(), dataSize);
+         buffer.skipBytes(dataSize);
       }
    }
 
@@ -164,8 +243,22 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
       return journalType;
    }
 
-   public byte[] getData() {
-      return byteArray;
+   /**
+    * @return the data received, only valid while the packet is being handled, or {@code null} if the file is finished
+    */
+   public ByteBuffer getData() {
+      return byteBuffer;
+   }
+
+   public int getDataSize() {
+      return dataSize;
+   }
+
+   /**
+    * @return the position of the data in the file it is read from
+    */
+   public long getPosition() {
+      return position;
    }
 
    public FileType getFileType() {
@@ -180,7 +273,6 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
    public int hashCode() {
       final int prime = 31;
       int result = super.hashCode();
-      result = prime * result + Arrays.hashCode(byteArray);
       result = prime * result + ((byteBuffer == null) ? 0 : byteBuffer.hashCode());
       result = prime * result + dataSize;
       result = prime * result + (int) (fileId ^ (fileId >>> 32));
@@ -202,9 +294,6 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
          return false;
       }
       ReplicationSyncFileMessage other = (ReplicationSyncFileMessage) obj;
-      if (!Arrays.equals(byteArray, other.byteArray)) {
-         return false;
-      }
       if (byteBuffer == null) {
          if (other.byteBuffer != null) {
             return false;
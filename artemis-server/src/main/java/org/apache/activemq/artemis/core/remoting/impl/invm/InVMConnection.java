@@ -16,6 +16,9 @@
  */
 package org.apache.activemq.artemis.core.remoting.impl.invm;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -23,7 +26,9 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.FileRegion;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
 import org.apache.activemq.artemis.api.core.ActiveMQInterruptedException;
@@ -151,6 +156,9 @@ public class InVMConnection implements Connection {
 
       copied.setIndex(buffer.readerIndex(), buffer.writerIndex());
 
+      // the copy is what gets delivered, give back whatever reference the caller handed over with the original
+      buffer.byteBuf().release();
+
       try {
          executor.execute(new Runnable() {
             public void run() {
@@ -204,6 +212,45 @@ public class InVMConnection implements Connection {
 
    }
 
+   public boolean isFileRegionSupported() {
+      return false;
+   }
+
+   public void write(final ActiveMQBuffer header,
+                     final FileRegion region,
+                     final ActiveMQBuffer trailer,
+                     final boolean flush) {
+      final ActiveMQBuffer buffer = ActiveMQBuffers.dynamicBuffer(header.readableBytes() + (int) region.count() + trailer.readableBytes());
+
+      try {
+         buffer.writeBytes(header, header.readerIndex(), header.readableBytes());
+
+         // there is no channel to hand the region over to, so its bytes are read into the packet being delivered
+         WritableByteChannel target = Channels.newChannel(new ByteBufOutputStream(buffer.byteBuf()));
+         long position = 0;
+         while (position < region.count()) {
+            long transferred = region.transferTo(target, position);
+            if (transferred <= 0) {
+               throw new IOException("Could not read " + (region.count() - position) + " remaining bytes from the file region");
+            }
+            position += transferred;
+         }
+
+         buffer.writeBytes(trailer, trailer.readerIndex(), trailer.readableBytes());
+      }
+      catch (IOException e) {
+         buffer.byteBuf().release();
+         throw new IllegalStateException("Failed to read the file region for " + this, e);
+      }
+      finally {
+         region.release();
+         header.byteBuf().release();
+         trailer.byteBuf().release();
+      }
+
+      write(buffer, flush, false);
+   }
+
    public String getRemoteAddress() {
       return "invm:" + serverID;
    }
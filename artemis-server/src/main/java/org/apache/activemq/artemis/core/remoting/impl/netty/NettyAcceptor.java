@@ -23,6 +23,7 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -48,6 +49,8 @@ import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.local.LocalAddress;
 import io.netty.channel.local.LocalEventLoopGroup;
 import io.netty.channel.local.LocalServerChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.ssl.SslHandler;
@@ -139,6 +142,16 @@ public class NettyAcceptor implements Acceptor {
 
    private final boolean tcpNoDelay;
 
+   private final boolean useEpoll;
+
+   private final boolean epollEdgeTriggered;
+
+   private final boolean tcpQuickAck;
+
+   private final int soBusyPoll;
+
+   private boolean epoll;
+
    private final int backlog;
 
    private final int tcpSendBufferSize;
@@ -163,6 +176,8 @@ public class NettyAcceptor implements Acceptor {
 
    private final long batchDelay;
 
+   private final int adaptiveBatchSize;
+
    private final boolean directDeliver;
 
    private final boolean httpUpgradeEnabled;
@@ -233,10 +248,22 @@ public class NettyAcceptor implements Acceptor {
       tcpSendBufferSize = ConfigurationHelper.getIntProperty(TransportConstants.TCP_SENDBUFFER_SIZE_PROPNAME, TransportConstants.DEFAULT_TCP_SENDBUFFER_SIZE, configuration);
       tcpReceiveBufferSize = ConfigurationHelper.getIntProperty(TransportConstants.TCP_RECEIVEBUFFER_SIZE_PROPNAME, TransportConstants.DEFAULT_TCP_RECEIVEBUFFER_SIZE, configuration);
 
+      useEpoll = ConfigurationHelper.getBooleanProperty(TransportConstants.USE_EPOLL_PROP_NAME, TransportConstants.DEFAULT_USE_EPOLL, configuration);
+      epollEdgeTriggered = ConfigurationHelper.getBooleanProperty(TransportConstants.EPOLL_EDGE_TRIGGERED_PROP_NAME, TransportConstants.DEFAULT_EPOLL_EDGE_TRIGGERED, configuration);
+      tcpQuickAck = ConfigurationHelper.getBooleanProperty(TransportConstants.TCP_QUICKACK_PROPNAME, TransportConstants.DEFAULT_TCP_QUICKACK, configuration);
+      soBusyPoll = ConfigurationHelper.getIntProperty(TransportConstants.SO_BUSY_POLL_PROPNAME, TransportConstants.DEFAULT_SO_BUSY_POLL, configuration);
+
       this.scheduledThreadPool = scheduledThreadPool;
 
       batchDelay = ConfigurationHelper.getLongProperty(TransportConstants.BATCH_DELAY, TransportConstants.DEFAULT_BATCH_DELAY, configuration);
 
+      if (ConfigurationHelper.getBooleanProperty(TransportConstants.ADAPTIVE_BATCHING, TransportConstants.DEFAULT_ADAPTIVE_BATCHING, configuration)) {
+         adaptiveBatchSize = ConfigurationHelper.getIntProperty(TransportConstants.ADAPTIVE_BATCH_SIZE, TransportConstants.DEFAULT_ADAPTIVE_BATCH_SIZE, configuration);
+      }
+      else {
+         adaptiveBatchSize = 0;
+      }
+
       directDeliver = ConfigurationHelper.getBooleanProperty(TransportConstants.DIRECT_DELIVER, TransportConstants.DEFAULT_DIRECT_DELIVER, configuration);
 
       httpUpgradeEnabled = ConfigurationHelper.getBooleanProperty(TransportConstants.HTTP_UPGRADE_ENABLED_PROP_NAME, TransportConstants.DEFAULT_HTTP_UPGRADE_ENABLED, configuration);
@@ -265,8 +292,15 @@ public class NettyAcceptor implements Acceptor {
          else {
             threadsToUse = this.nioRemotingThreads;
          }
-         channelClazz = NioServerSocketChannel.class;
-         eventLoopGroup = new NioEventLoopGroup(threadsToUse, new ActiveMQThreadFactory("activemq-netty-threads", true, getThisClassLoader()));
+         epoll = EpollTransport.isAvailable(useEpoll);
+         if (epoll) {
+            channelClazz = EpollServerSocketChannel.class;
+            eventLoopGroup = new EpollEventLoopGroup(threadsToUse, new ActiveMQThreadFactory("activemq-netty-threads", true, getThisClassLoader()));
+         }
+         else {
+            channelClazz = NioServerSocketChannel.class;
+            eventLoopGroup = new NioEventLoopGroup(threadsToUse, new ActiveMQThreadFactory("activemq-netty-threads", true, getThisClassLoader()));
+         }
       }
 
       bootstrap = new ServerBootstrap();
@@ -374,6 +408,9 @@ public class NettyAcceptor implements Acceptor {
       bootstrap.childOption(ChannelOption.SO_REUSEADDR, true);
       bootstrap.childOption(ChannelOption.SO_KEEPALIVE, true);
       bootstrap.childOption(ChannelOption.ALLOCATOR, PartialPooledByteBufAllocator.INSTANCE);
+      if (epoll) {
+         EpollTransport.applyChildOptions(bootstrap, epollEdgeTriggered, tcpQuickAck, soBusyPoll);
+      }
       channelGroup = new DefaultChannelGroup("activemq-accepted-channels", GlobalEventExecutor.INSTANCE);
 
       serverChannelGroup = new DefaultChannelGroup("activemq-acceptor-channels", GlobalEventExecutor.INSTANCE);
@@ -396,7 +433,7 @@ public class NettyAcceptor implements Acceptor {
             notificationService.sendNotification(notification);
          }
 
-         if (batchDelay > 0) {
+         if (batchDelay > 0 && adaptiveBatchSize == 0) {
             flusher = new BatchFlusher();
 
             batchFlusherFuture = scheduledThreadPool.scheduleWithFixedDelay(flusher, batchDelay, batchDelay, TimeUnit.MILLISECONDS);
@@ -435,6 +472,10 @@ public class NettyAcceptor implements Acceptor {
       return this.configuration;
    }
 
+   public Collection<NettyServerConnection> getConnections() {
+      return connections.values();
+   }
+
    public synchronized void stop() {
       if (channelClazz == null) {
          return;
@@ -597,7 +638,7 @@ public class NettyAcceptor implements Acceptor {
             super.channelActive(ctx);
             Listener connectionListener = new Listener();
 
-            NettyServerConnection nc = new NettyServerConnection(configuration, ctx.channel(), connectionListener, !httpEnabled && batchDelay > 0, directDeliver);
+            NettyServerConnection nc = new NettyServerConnection(configuration, ctx.channel(), connectionListener, !httpEnabled && batchDelay > 0 && adaptiveBatchSize == 0, directDeliver, httpEnabled ? 0 : adaptiveBatchSize);
 
             connectionListener.connectionCreated(NettyAcceptor.this, nc, protocol);
 
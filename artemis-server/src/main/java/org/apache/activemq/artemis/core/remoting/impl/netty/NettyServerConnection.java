@@ -33,6 +33,15 @@ public class NettyServerConnection extends NettyConnection {
       super(configuration, channel, listener, batchingEnabled, directDeliver);
    }
 
+   public NettyServerConnection(Map<String, Object> configuration,
+                                Channel channel,
+                                ConnectionLifeCycleListener listener,
+                                boolean batchingEnabled,
+                                boolean directDeliver,
+                                int adaptiveBatchSize) {
+      super(configuration, channel, listener, batchingEnabled, directDeliver, adaptiveBatchSize);
+   }
+
    @Override
    public ActiveMQBuffer createTransportBuffer(int size) {
       return new ChannelBufferWrapper(channel.alloc().directBuffer(size), true);
@@ -24,6 +24,7 @@ import org.apache.activemq.artemis.core.journal.IOCompletion;
 import org.apache.activemq.artemis.core.journal.Journal;
 import org.apache.activemq.artemis.core.journal.JournalLoadInformation;
 import org.apache.activemq.artemis.core.journal.LoaderCallback;
+import org.apache.activemq.artemis.core.journal.PauseHistogram;
 import org.apache.activemq.artemis.core.journal.PreparedTransactionInfo;
 import org.apache.activemq.artemis.core.journal.RecordInfo;
 import org.apache.activemq.artemis.core.io.SequentialFileFactory;
@@ -509,6 +510,11 @@ public class ReplicatedJournal implements Journal {
       localJournal.scheduleCompactAndBlock(timeout);
    }
 
+   @Override
+   public PauseHistogram getCompactPauses() {
+      return localJournal.getCompactPauses();
+   }
+
    @Override
    public void replicationSyncPreserveOldFiles() {
       throw new UnsupportedOperationException("should never get called");
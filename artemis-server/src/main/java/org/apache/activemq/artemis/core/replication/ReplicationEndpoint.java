@@ -57,6 +57,8 @@ import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.BackupRepl
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ActiveMQExceptionMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationAddMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationAddTXMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchResponseMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationCommitMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationDeleteMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationDeleteTXMessage;
@@ -184,6 +186,9 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
          else if (type == PacketImpl.REPLICATION_PAGE_WRITE) {
             handlePageWrite((ReplicationPageWriteMessage) packet);
          }
+         else if (type == PacketImpl.REPLICATION_BATCH) {
+            response = handleBatch((ReplicationBatchMessage) packet);
+         }
          else if (type == PacketImpl.REPLICATION_PAGE_EVENT) {
             handlePageEvent((ReplicationPageEventMessage) packet);
          }
@@ -223,6 +228,21 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
       channel.send(response);
    }
 
+   /**
+    * Applies the batched operations in order, acknowledging them all with a single response.
+    */
+   private ReplicationBatchResponseMessage handleBatch(final ReplicationBatchMessage packet) throws Exception {
+      for (PacketImpl operation : packet.getPackets()) {
+         if (operation.getType() == PacketImpl.REPLICATION_APPEND) {
+            handleAppendAddRecord((ReplicationAddMessage) operation);
+         }
+         else {
+            handlePageWrite((ReplicationPageWriteMessage) operation);
+         }
+      }
+      return new ReplicationBatchResponseMessage(packet.getSequence());
+   }
+
    /**
     * @param packet
     */
@@ -428,7 +448,8 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
     */
    private synchronized void handleReplicationSynchronization(ReplicationSyncFileMessage msg) throws Exception {
       Long id = Long.valueOf(msg.getId());
-      byte[] data = msg.getData();
+      // a view over the received packet, written to disk without copying it
+      ByteBuffer data = msg.getData();
       SequentialFile channel1;
       switch (msg.getFileType()) {
          case LARGE_MESSAGE: {
@@ -453,7 +474,9 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
                channel2.close();
                return;
             }
-            channel2.write(ByteBuffer.wrap(data));
+            while (data.hasRemaining()) {
+               channel2.write(data);
+            }
             return;
          }
          default:
@@ -468,7 +491,7 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
       if (!channel1.isOpen()) {
          channel1.open();
       }
-      channel1.writeDirect(ByteBuffer.wrap(data), true);
+      channel1.writeDirect(data, true);
    }
 
    /**
@@ -16,17 +16,17 @@
  */
 package org.apache.activemq.artemis.core.replication;
 
-import java.io.FileInputStream;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
 import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.ActiveMQExceptionType;
 import org.apache.activemq.artemis.api.core.Pair;
@@ -47,6 +47,8 @@ import org.apache.activemq.artemis.core.protocol.core.impl.ChannelImpl.CHANNEL_I
 import org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationAddMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationAddTXMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchResponseMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationCommitMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationDeleteMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationDeleteTXMessage;
@@ -121,13 +123,68 @@ public final class ReplicationManager implements ActiveMQComponent {
 
    private final ReusableLatch synchronizationIsFinishedAcknowledgement = new ReusableLatch(0);
 
+   /**
+    * Once a batch grows over this size it is sent even if the window is full.
+    */
+   private static final int MAX_BATCH_SIZE = 1 << 17; // 1 << 17 == 131072 == 128 * 1024
+
+   /**
+    * Size of the chunks files are sent to the backup in during the initial synchronization.
+    */
+   private static final int SYNC_CHUNK_SIZE = 1 << 17;
+
+   /**
+    * Maximum number of batches waiting for the backup's response, -1 to send every operation on its own.
+    */
+   private final int replicationWindow;
+
+   /**
+    * Operations encoded while the window is full, guarded by {@link #replicationLock}.
+    */
+   private final ActiveMQBuffer batchBuffer;
+
+   private int batchCount;
+
+   private int inFlightBatches;
+
+   /**
+    * Number of tokens added to {@link #pendingTokens}, guarded by {@link #replicationLock}.
+    */
+   private long sentSequence;
+
+   /**
+    * Number of tokens already completed by a response from the backup.
+    */
+   private long ackedSequence;
+
+   private final AtomicLong syncFiles = new AtomicLong();
+
+   private final AtomicLong syncBytes = new AtomicLong();
+
+   private volatile long syncStartTime;
+
+   private volatile long syncEndTime;
+
    /**
     * @param remotingConnection
     */
    public ReplicationManager(CoreRemotingConnection remotingConnection, final ExecutorFactory executorFactory) {
+      this(remotingConnection, executorFactory, -1);
+   }
+
+   /**
+    * @param remotingConnection
+    * @param replicationWindow  maximum number of batches of journal appends and page writes waiting for the
+    *                           backup's response, -1 to replicate every operation on its own packet
+    */
+   public ReplicationManager(CoreRemotingConnection remotingConnection,
+                             final ExecutorFactory executorFactory,
+                             final int replicationWindow) {
       this.executorFactory = executorFactory;
       this.replicatingChannel = remotingConnection.getChannel(CHANNEL_ID.REPLICATION.id, -1);
       this.remotingConnection = remotingConnection;
+      this.replicationWindow = replicationWindow;
+      this.batchBuffer = replicationWindow > 0 ? ActiveMQBuffers.dynamicBuffer(MAX_BATCH_SIZE) : null;
    }
 
    public void appendUpdateRecord(final byte journalID,
@@ -136,7 +193,12 @@ public final class ReplicationManager implements ActiveMQComponent {
                                   final byte recordType,
                                   final EncodingSupport record) throws Exception {
       if (enabled) {
-         sendReplicatePacket(new ReplicationAddMessage(journalID, operation, id, recordType, record));
+         if (replicationWindow > 0) {
+            batchReplicatePacket(new ReplicationAddMessage(journalID, operation, id, recordType, record));
+         }
+         else {
+            sendReplicatePacket(new ReplicationAddMessage(journalID, operation, id, recordType, record));
+         }
       }
    }
 
@@ -213,7 +275,12 @@ public final class ReplicationManager implements ActiveMQComponent {
 
    public void pageWrite(final PagedMessage message, final int pageNumber) {
       if (enabled) {
-         sendReplicatePacket(new ReplicationPageWriteMessage(message, pageNumber));
+         if (replicationWindow > 0) {
+            batchReplicatePacket(new ReplicationPageWriteMessage(message, pageNumber));
+         }
+         else {
+            sendReplicatePacket(new ReplicationPageWriteMessage(message, pageNumber));
+         }
       }
    }
 
@@ -252,6 +319,8 @@ public final class ReplicationManager implements ActiveMQComponent {
 
       started = true;
 
+      syncStartTime = System.currentTimeMillis();
+
       enabled = true;
    }
 
@@ -284,6 +353,11 @@ public final class ReplicationManager implements ActiveMQComponent {
     */
    public void clearReplicationTokens() {
       synchronized (replicationLock) {
+         if (batchBuffer != null) {
+            batchBuffer.clear();
+            batchCount = 0;
+            inFlightBatches = 0;
+         }
          while (!pendingTokens.isEmpty()) {
             OperationContext ctx = pendingTokens.poll();
             try {
@@ -330,7 +404,10 @@ public final class ReplicationManager implements ActiveMQComponent {
 
       synchronized (replicationLock) {
          if (enabled) {
+            // anything still batched was made before this packet and must reach the backup first
+            flushBatch();
             pendingTokens.add(repliToken);
+            sentSequence++;
             replicatingChannel.send(packet);
          }
          else {
@@ -348,6 +425,53 @@ public final class ReplicationManager implements ActiveMQComponent {
       return repliToken;
    }
 
+   /**
+    * Encodes a journal append or page write into the current batch, which is sent right away unless the window of
+    * batches waiting for the backup is full.
+    * <p>
+    * The packet is encoded before returning so the record can be reused by the caller, as with
+    * {@link #sendReplicatePacket(Packet)}.
+    */
+   private void batchReplicatePacket(final PacketImpl packet) {
+      boolean runItNow = false;
+
+      OperationContext repliToken = OperationContextImpl.getContext(executorFactory);
+      repliToken.replicationLineUp();
+
+      synchronized (replicationLock) {
+         if (enabled) {
+            pendingTokens.add(repliToken);
+            sentSequence++;
+            ReplicationBatchMessage.encodeOperation(batchBuffer, packet);
+            batchCount++;
+            if (inFlightBatches < replicationWindow || batchBuffer.writerIndex() >= MAX_BATCH_SIZE) {
+               flushBatch();
+            }
+         }
+         else {
+            runItNow = true;
+         }
+      }
+
+      if (runItNow) {
+         repliToken.replicationDone();
+      }
+   }
+
+   /**
+    * Sends the batched operations, if any. Must be called holding {@link #replicationLock}.
+    */
+   private void flushBatch() {
+      if (batchCount == 0) {
+         return;
+      }
+      inFlightBatches++;
+      // the channel encodes the packet before returning, so the buffer can be reused right away
+      replicatingChannel.send(new ReplicationBatchMessage(sentSequence, batchCount, batchBuffer));
+      batchBuffer.clear();
+      batchCount = 0;
+   }
+
    /**
     * @throws IllegalStateException By default, all replicated packets generate a replicated
     *                               response. If your packets are triggering this exception, it may be because the
@@ -360,9 +484,28 @@ public final class ReplicationManager implements ActiveMQComponent {
          throw new IllegalStateException("Missing replication token on the queue.");
       }
 
+      ackedSequence++;
       ctx.replicationDone();
    }
 
+   /**
+    * Completes every operation up to the sequence acknowledged by the backup, and sends whatever was batched while
+    * the window was full.
+    */
+   private void replicatedBatch(final long sequence) {
+      while (ackedSequence < sequence) {
+         replicated();
+      }
+      synchronized (replicationLock) {
+         if (inFlightBatches > 0) {
+            inFlightBatches--;
+         }
+         if (enabled) {
+            flushBatch();
+         }
+      }
+   }
+
    // Inner classes -------------------------------------------------
 
    private final class ReplicatedSessionFailureListener implements SessionFailureListener {
@@ -406,6 +549,9 @@ public final class ReplicationManager implements ActiveMQComponent {
                }
             }
          }
+         else if (packet.getType() == PacketImpl.REPLICATION_BATCH_RESPONSE) {
+            replicatedBatch(((ReplicationBatchResponseMessage) packet).getSequence());
+         }
       }
 
    }
@@ -477,49 +623,81 @@ public final class ReplicationManager implements ActiveMQComponent {
       if (!file.isOpen()) {
          file.open();
       }
+      final SyncFileRegion.Source source;
       try {
-         final FileInputStream fis = new FileInputStream(file.getJavaFile());
+         source = new SyncFileRegion.Source(file.getJavaFile());
          try {
-            final FileChannel channel = fis.getChannel();
-            try {
-               // We can afford having a single buffer here for this entire loop
-               // because sendReplicatePacket will encode the packet as a NettyBuffer
-               // through ActiveMQBuffer class leaving this buffer free to be reused on the next copy
-               final ByteBuffer buffer = ByteBuffer.allocate(1 << 17); // 1 << 17 == 131072 == 128 * 1024
-               while (true) {
-                  buffer.clear();
-                  final int bytesRead = channel.read(buffer);
-                  int toSend = bytesRead;
-                  if (bytesRead > 0) {
-                     if (bytesRead >= maxBytesToSend) {
-                        toSend = (int) maxBytesToSend;
-                        maxBytesToSend = 0;
-                     }
-                     else {
-                        maxBytesToSend = maxBytesToSend - bytesRead;
-                     }
-                     buffer.limit(toSend);
-                  }
-                  buffer.rewind();
-
-                  // sending -1 or 0 bytes will close the file at the backup
-                  sendReplicatePacket(new ReplicationSyncFileMessage(content, pageStore, id, toSend, buffer));
-                  if (bytesRead == -1 || bytesRead == 0 || maxBytesToSend == 0)
-                     break;
-               }
-            }
-            finally {
-               channel.close();
+            syncFiles.incrementAndGet();
+            long position = 0;
+            while (true) {
+               final int toSend = (int) Math.min(Math.min(source.getChannel().size() - position, maxBytesToSend), SYNC_CHUNK_SIZE);
+
+               // sending 0 bytes will close the file at the backup
+               sendSyncFilePacket(new ReplicationSyncFileMessage(content, pageStore, id, toSend, source.getChannel(), position), source);
+               if (toSend <= 0 || !enabled)
+                  break;
+               position += toSend;
+               syncBytes.addAndGet(toSend);
+               maxBytesToSend -= toSend;
+               if (maxBytesToSend == 0)
+                  break;
             }
          }
          finally {
-            fis.close();
+            source.release();
          }
       }
       finally {
          if (file.isOpen())
             file.close();
       }
+
+      // Netty writes the regions after they were sent, keep at most one file open at a time
+      while (enabled && !source.awaitClosed(1, TimeUnit.SECONDS)) {
+         ActiveMQServerLogger.LOGGER.debug("Waiting for " + file + " to be written to the backup");
+      }
+   }
+
+   /**
+    * Sends a chunk of a file as a region of the file when the replicating channel can take it, or reading it into
+    * the packet otherwise.
+    */
+   private void sendSyncFilePacket(final ReplicationSyncFileMessage packet, final SyncFileRegion.Source source) {
+      boolean runItNow = false;
+
+      OperationContext repliToken = OperationContextImpl.getContext(executorFactory);
+      repliToken.replicationLineUp();
+
+      synchronized (replicationLock) {
+         if (enabled) {
+            flushBatch();
+            pendingTokens.add(repliToken);
+            sentSequence++;
+            boolean sent = false;
+            if (packet.getDataSize() > 0 && source.isRegions()) {
+               SyncFileRegion region = source.region(packet.getPosition(), packet.getDataSize());
+               packet.setFileBody(region);
+               sent = replicatingChannel.sendFileRegion(packet);
+               if (!sent) {
+                  // the connection can't take file regions (e.g. it's using SSL or there are interceptors)
+                  region.release();
+                  packet.setFileBody(null);
+                  source.disableRegions();
+               }
+            }
+            if (!sent) {
+               replicatingChannel.send(packet);
+            }
+         }
+         else {
+            // Already replicating channel failed, so just play the action now
+            runItNow = true;
+         }
+      }
+
+      if (runItNow) {
+         repliToken.replicationDone();
+      }
    }
 
    /**
@@ -558,6 +736,8 @@ public final class ReplicationManager implements ActiveMQComponent {
             ActiveMQServerLogger.LOGGER.debug(e);
          }
          inSync = false;
+         syncEndTime = System.currentTimeMillis();
+         ActiveMQServerLogger.LOGGER.replicationSynchronized(syncFiles.get(), syncBytes.get(), syncEndTime - syncStartTime, getSynchronizationThroughput());
       }
    }
 
@@ -609,4 +789,27 @@ public final class ReplicationManager implements ActiveMQComponent {
    public boolean isSynchronizing() {
       return inSync;
    }
+
+   /**
+    * @return the number of journal, page and large message files sent to the backup by the initial synchronization
+    */
+   public long getSynchronizedFiles() {
+      return syncFiles.get();
+   }
+
+   /**
+    * @return the number of bytes of files sent to the backup by the initial synchronization
+    */
+   public long getSynchronizedBytes() {
+      return syncBytes.get();
+   }
+
+   /**
+    * @return the bytes per second the initial synchronization sent files at, until now if it is still going on
+    */
+   public long getSynchronizationThroughput() {
+      long end = inSync ? System.currentTimeMillis() : syncEndTime;
+      long elapsed = end - syncStartTime;
+      return elapsed > 0 ? syncBytes.get() * 1000 / elapsed : 0;
+   }
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.replication;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.channel.DefaultFileRegion;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+
+/**
+ * A chunk of a journal, page or large message file sent to the backup during the initial synchronization
+ * straight from the file, so the chunk never gets copied into the heap.
+ * <p>
+ * The chunks of a file share the file channel of their {@link Source}, which is closed once the
+ * {@link ReplicationManager} and every chunk it sent are done with it, as Netty releases a chunk only
+ * after writing it.
+ */
+final class SyncFileRegion extends DefaultFileRegion {
+
+   private final Source source;
+
+   private SyncFileRegion(final Source source, final long position, final long count) {
+      super(source.channel, position, count);
+      this.source = source;
+   }
+
+   @Override
+   protected void deallocate() {
+      // the channel is shared by all the chunks, the source closes it
+      source.release();
+   }
+
+   static final class Source {
+
+      private final FileChannel channel;
+
+      // one for the replication manager plus one for every chunk not released yet
+      private final AtomicInteger references = new AtomicInteger(1);
+
+      private final CountDownLatch closed = new CountDownLatch(1);
+
+      /**
+       * Whether the chunks can be sent as regions, until the replicating channel refuses one.
+       */
+      private boolean regions = true;
+
+      Source(final File file) throws IOException {
+         this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      }
+
+      FileChannel getChannel() {
+         return channel;
+      }
+
+      boolean isRegions() {
+         return regions;
+      }
+
+      void disableRegions() {
+         regions = false;
+      }
+
+      SyncFileRegion region(final long position, final long count) {
+         references.incrementAndGet();
+         return new SyncFileRegion(this, position, count);
+      }
+
+      void release() {
+         if (references.decrementAndGet() == 0) {
+            try {
+               channel.close();
+            }
+            catch (Exception e) {
+               ActiveMQServerLogger.LOGGER.warn(e.getMessage(), e);
+            }
+            finally {
+               closed.countDown();
+            }
+         }
+      }
+
+      /**
+       * Waits for every chunk sent to be written.
+       */
+      boolean awaitClosed(final long timeout, final TimeUnit unit) throws InterruptedException {
+         return closed.await(timeout, unit);
+      }
+   }
+}
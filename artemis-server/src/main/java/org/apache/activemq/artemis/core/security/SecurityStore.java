@@ -27,4 +27,19 @@ public interface SecurityStore {
    boolean isSecurityEnabled();
 
    void stop();
+
+   /**
+    * Returns the number of permission checks answered from the cache.
+    */
+   long getCacheHits();
+
+   /**
+    * Returns the number of permission checks which found nothing in the cache.
+    */
+   long getCacheMisses();
+
+   /**
+    * Returns the number of permission checks which found an expired permission in the cache and validated it again.
+    */
+   long getCacheReloads();
 }
@@ -16,9 +16,11 @@
  */
 package org.apache.activemq.artemis.core.security.impl;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.api.core.management.CoreNotificationType;
@@ -35,7 +37,6 @@ import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
 import org.apache.activemq.artemis.core.settings.HierarchicalRepositoryChangeListener;
 import org.apache.activemq.artemis.spi.core.security.ActiveMQSecurityManager;
 import org.apache.activemq.artemis.spi.core.security.ActiveMQSecurityManager2;
-import org.apache.activemq.artemis.utils.ConcurrentHashSet;
 import org.apache.activemq.artemis.utils.TypedProperties;
 
 /**
@@ -54,11 +55,21 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
 
    private final ActiveMQSecurityManager securityManager;
 
-   private final ConcurrentMap<String, ConcurrentHashSet<SimpleString>> cache = new ConcurrentHashMap<String, ConcurrentHashSet<SimpleString>>();
+   // the permissions granted to each user, the anonymous user has its own entry as a map can't hold a null key
+   private final ConcurrentMap<String, PermissionCache> cache = new ConcurrentHashMap<String, PermissionCache>();
+
+   private final PermissionCache anonymousCache = new PermissionCache();
 
    private final long invalidationInterval;
 
-   private volatile long lastCheck;
+   private final AtomicLong cacheHits = new AtomicLong();
+
+   private final AtomicLong cacheMisses = new AtomicLong();
+
+   private final AtomicLong cacheReloads = new AtomicLong();
+
+   // the next time the expired permissions of every user are dropped, so the cache only holds recently used addresses
+   private final AtomicLong nextPurge = new AtomicLong();
 
    private final boolean securityEnabled;
 
@@ -146,11 +157,14 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
          }
 
          String user = session.getUsername();
-         if (checkCached(address, user, checkType)) {
+         ConcurrentMap<SimpleString, Permission> permissions = getPermissionCache(user).get(checkType);
+         if (checkCached(permissions, address)) {
             // OK
             return;
          }
 
+         purgeExpired();
+
          String saddress = address.toString();
 
          Set<Role> roles = securityRepository.getMatch(saddress);
@@ -185,18 +199,39 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
             throw ActiveMQMessageBundle.BUNDLE.userNoPermissions(session.getUsername(), checkType, saddress);
          }
          // if we get here we're granted, add to the cache
-         ConcurrentHashSet<SimpleString> set = new ConcurrentHashSet<SimpleString>();
-         ConcurrentHashSet<SimpleString> act = cache.putIfAbsent(user + "." + checkType.name(), set);
-         if (act != null) {
-            set = act;
+         Permission permission = new Permission(roles, System.currentTimeMillis() + invalidationInterval);
+         // looked up again, as purging may have dropped the cache of the user while it was empty
+         permissions = getPermissionCache(user).get(checkType);
+         permissions.put(address, permission);
+
+         // the settings may have changed while we validated, after the listener went through the cache
+         if (securityRepository.getMatch(saddress) != roles) {
+            permissions.remove(address, permission);
          }
-         set.add(address);
-
       }
    }
 
+   /**
+    * Drops the cached permissions of the addresses whose matching security settings have changed, all the others
+    * stay valid.
+    */
    public void onChange() {
-      invalidateCache();
+      invalidateAll(System.currentTimeMillis());
+   }
+
+   @Override
+   public long getCacheHits() {
+      return cacheHits.get();
+   }
+
+   @Override
+   public long getCacheMisses() {
+      return cacheMisses.get();
+   }
+
+   @Override
+   public long getCacheReloads() {
+      return cacheReloads.get();
    }
 
    // Public --------------------------------------------------------
@@ -206,30 +241,154 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
    // Package Private -----------------------------------------------
 
    // Private -------------------------------------------------------
-   private void invalidateCache() {
-      cache.clear();
+   private PermissionCache getPermissionCache(final String user) {
+      if (user == null) {
+         return anonymousCache;
+      }
+
+      PermissionCache permissionCache = cache.get(user);
+      if (permissionCache == null) {
+         permissionCache = new PermissionCache();
+         PermissionCache act = cache.putIfAbsent(user, permissionCache);
+         if (act != null) {
+            permissionCache = act;
+         }
+      }
+
+      return permissionCache;
+   }
+
+   private boolean checkCached(final ConcurrentMap<SimpleString, Permission> permissions, final SimpleString dest) {
+      Permission permission = permissions.get(dest);
+
+      if (permission == null) {
+         cacheMisses.incrementAndGet();
+
+         return false;
+      }
+
+      if (System.currentTimeMillis() >= permission.expiration) {
+         // each permission expires on its own, so they are not all validated again at once
+         permissions.remove(dest, permission);
+
+         cacheReloads.incrementAndGet();
+
+         return false;
+      }
+
+      cacheHits.incrementAndGet();
+
+      return true;
    }
 
-   private boolean checkCached(final SimpleString dest, final String user, final CheckType checkType) {
+   /**
+    * Drops the expired permissions of every user at most once per invalidation interval, as the permissions of the
+    * addresses that aren't checked anymore, such as temporary queues, or of the users who left would never expire
+    * otherwise.
+    */
+   private void purgeExpired() {
       long now = System.currentTimeMillis();
+      long next = nextPurge.get();
 
-      boolean granted = false;
+      if (now >= next && nextPurge.compareAndSet(next, now + invalidationInterval)) {
+         invalidateAll(now);
+      }
+   }
 
-      if (now - lastCheck > invalidationInterval) {
-         invalidateCache();
+   private void invalidateAll(final long now) {
+      invalidate(anonymousCache, now);
 
-         lastCheck = now;
+      for (Map.Entry<String, PermissionCache> entry : cache.entrySet()) {
+         if (invalidate(entry.getValue(), now)) {
+            // a permission added to the cache meanwhile is just looked up again
+            cache.remove(entry.getKey(), entry.getValue());
+         }
       }
-      else {
-         ConcurrentHashSet<SimpleString> act = cache.get(user + "." + checkType.name());
-         if (act != null) {
-            granted = act.contains(dest);
+   }
+
+   /**
+    * @return whether no permission is left in the cache
+    */
+   private boolean invalidate(final PermissionCache permissionCache, final long now) {
+      boolean empty = true;
+
+      for (ConcurrentMap<SimpleString, Permission> permissions : permissionCache.permissions) {
+         for (Map.Entry<SimpleString, Permission> entry : permissions.entrySet()) {
+            Permission permission = entry.getValue();
+
+            if (now >= permission.expiration || securityRepository.getMatch(entry.getKey().toString()) != permission.roles) {
+               permissions.remove(entry.getKey(), permission);
+            }
+            else {
+               empty = false;
+            }
+         }
+      }
+
+      return empty;
+   }
+
+   /**
+    * @return the number of permissions cached for all the users
+    */
+   int getCachedPermissionCount() {
+      int count = 0;
+
+      for (ConcurrentMap<SimpleString, Permission> permissions : anonymousCache.permissions) {
+         count += permissions.size();
+      }
+
+      for (PermissionCache permissionCache : cache.values()) {
+         for (ConcurrentMap<SimpleString, Permission> permissions : permissionCache.permissions) {
+            count += permissions.size();
          }
       }
 
-      return granted;
+      return count;
+   }
+
+   /**
+    * @return the number of users with a permission cache
+    */
+   int getCachedUserCount() {
+      return cache.size();
    }
 
    // Inner class ---------------------------------------------------
 
+   /**
+    * The addresses a user was granted access to, one map per {@link CheckType} so the lookup key is the address
+    * itself.
+    */
+   private static final class PermissionCache {
+
+      private final ConcurrentMap<SimpleString, Permission>[] permissions;
+
+      @SuppressWarnings("unchecked")
+      PermissionCache() {
+         permissions = new ConcurrentMap[CheckType.values().length];
+         for (int i = 0; i < permissions.length; i++) {
+            permissions[i] = new ConcurrentHashMap<SimpleString, Permission>();
+         }
+      }
+
+      ConcurrentMap<SimpleString, Permission> get(final CheckType checkType) {
+         return permissions[checkType.ordinal()];
+      }
+   }
+
+   /**
+    * A granted permission, along with the roles it was validated against.
+    */
+   private static final class Permission {
+
+      private final Set<Role> roles;
+
+      private final long expiration;
+
+      Permission(final Set<Role> roles, final long expiration) {
+         this.roles = roles;
+         this.expiration = expiration;
+      }
+   }
 }
@@ -362,4 +362,7 @@ public interface ActiveMQMessageBundle {
 
    @Message(id = 119114, value = "Replication synchronization process timed out after waiting {0} milliseconds", format = Message.Format.MESSAGE_FORMAT)
    IllegalStateException replicationSynchronizationTimeout(long timeout);
+
+   @Message(id = 119115, value = "Invalid duplicate id cache type {0}", format = Message.Format.MESSAGE_FORMAT)
+   IllegalArgumentException invalidDuplicateIDCacheType(String val);
 }
@@ -300,6 +300,10 @@ public interface ActiveMQServerLogger extends BasicLogger {
    @Message(id = 221050, value = "Activating Shared Store Slave", format = Message.Format.MESSAGE_FORMAT)
    void activatingSharedStoreSlave();
 
+   @LogMessage(level = Logger.Level.INFO)
+   @Message(id = 221051, value = "Replication: synchronized {0} files ({1} bytes) with the backup in {2} milliseconds, {3} bytes per second", format = Message.Format.MESSAGE_FORMAT)
+   void replicationSynchronized(long files, long bytes, long elapsed, long throughput);
+
    @LogMessage(level = Logger.Level.WARN)
    @Message(id = 222000, value = "ActiveMQServer is being finalized and has not been stopped. Please remember to stop the server before letting it go out of scope",
       format = Message.Format.MESSAGE_FORMAT)
@@ -1186,6 +1190,11 @@ public interface ActiveMQServerLogger extends BasicLogger {
       format = Message.Format.MESSAGE_FORMAT)
    void noProtocolManagerFound(String protocol, String host);
 
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(id = 222204, value = "The duplicate IDs of address {0} are not transferred on scale down as its duplicate-id-cache-type is OFF_HEAP, messages resent to the target server after scaling down won''t be detected as duplicates",
+      format = Message.Format.MESSAGE_FORMAT)
+   void duplicateIDsNotScaledDown(SimpleString address);
+
    @LogMessage(level = Logger.Level.ERROR)
    @Message(id = 224000, value = "Failure in initialisation", format = Message.Format.MESSAGE_FORMAT)
    void initializationError(@Cause Throwable e);
@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.artemis.core.server;
 
+import org.apache.activemq.artemis.core.server.impl.OffHeapMessageBuffer;
 import org.apache.activemq.artemis.utils.SizeFormatterUtil;
 
 /**
@@ -122,6 +123,7 @@ public class MemoryManager implements ActiveMQComponent {
             info.append(String.format("max memory:       %s%n", SizeFormatterUtil.sizeof(maxMemory)));
             info.append(String.format("total memory:     %s%n", SizeFormatterUtil.sizeof(totalMemory)));
             info.append(String.format("available memory: %.2f%%%n", availableMemoryPercent));
+            info.append(String.format("off-heap bodies:  %s%n", SizeFormatterUtil.sizeof(OffHeapMessageBuffer.getTotalSize())));
 
             if (ActiveMQServerLogger.LOGGER.isDebugEnabled()) {
                ActiveMQServerLogger.LOGGER.debug(info);
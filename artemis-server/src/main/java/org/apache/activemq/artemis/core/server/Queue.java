@@ -87,6 +87,26 @@ public interface Queue extends Bindable {
 
    void unproposed(SimpleString groupID);
 
+   /**
+    * Returns the number of message groups currently assigned to a consumer.
+    */
+   int getGroupCount();
+
+   /**
+    * Returns the consumer every message group is currently assigned to.
+    */
+   Map<SimpleString, Consumer> getGroups();
+
+   /**
+    * Releases the message group, so its next message is assigned to a consumer as if the group was new.
+    */
+   void resetGroup(SimpleString groupID);
+
+   /**
+    * Releases all the message groups.
+    */
+   void resetAllGroups();
+
    /**
     * This method will make sure that any pending message (including paged message) will be delivered
     */
@@ -100,6 +120,12 @@ public interface Queue extends Bindable {
 
    long getMessageCount();
 
+   /**
+    * Same as {@link #getMessageCount()} but without locking the queue, so it may be slightly off while messages
+    * are being added or delivered.
+    */
+   long getMessageCountEstimate();
+
    int getDeliveringCount();
 
    void referenceHandled();
@@ -242,6 +268,16 @@ public interface Queue extends Bindable {
 
    float getRate();
 
+   /**
+    * @return the number of messages moved to other nodes of the cluster
+    */
+   long getMessagesRedistributed();
+
+   /**
+    * @return the number of messages moved to other nodes of the cluster per second since the last call
+    */
+   float getRedistributionRate();
+
    /**
     * @return the user who created this queue
     */
@@ -56,6 +56,11 @@ public interface ServerMessage extends MessageInternal, EncodingSupport {
 
    int getRefCount();
 
+   /**
+    * Moves the body of a referenced message into a pooled direct buffer, given back once the last reference is gone.
+    */
+   void moveBodyOffHeap();
+
    ServerMessage makeCopyForExpiryOrDLA(long newID,
                                         MessageReference originalReference,
                                         boolean expiry,
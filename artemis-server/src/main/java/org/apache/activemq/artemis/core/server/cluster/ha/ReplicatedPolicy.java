@@ -33,6 +33,8 @@ public class ReplicatedPolicy implements HAPolicy<LiveActivation> {
 
    private long initialReplicationSyncTimeout = ActiveMQDefaultConfiguration.getDefaultInitialReplicationSyncTimeout();
 
+   private int replicationWindow = ActiveMQDefaultConfiguration.getDefaultReplicationWindow();
+
    /*
    * these are only set by the ReplicaPolicy after failover to decide if the live server can failback, these should not
    * be exposed in configuration.
@@ -101,6 +103,14 @@ public class ReplicatedPolicy implements HAPolicy<LiveActivation> {
       this.initialReplicationSyncTimeout = initialReplicationSyncTimeout;
    }
 
+   public int getReplicationWindow() {
+      return replicationWindow;
+   }
+
+   public void setReplicationWindow(int replicationWindow) {
+      this.replicationWindow = replicationWindow;
+   }
+
    public String getClusterName() {
       return clusterName;
    }
@@ -19,6 +19,7 @@ package org.apache.activemq.artemis.core.server.cluster.impl;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.Pair;
@@ -51,6 +52,23 @@ public class Redistributor implements Consumer {
 
    private final Queue queue;
 
+   /**
+    * How many messages are moved in one transaction.
+    */
+   private final int transactionBatchSize;
+
+   /**
+    * Counts the messages moved once they are stored on this node, kept by the queue.
+    */
+   private final AtomicLong redistributedCounter;
+
+   /**
+    * The transaction the messages of the current batch are moved in, when moving more than one per transaction.
+    */
+   private Transaction batchTx;
+
+   private int batchCount;
+
    private int count;
 
    // a Flush executor here is happening inside another executor.
@@ -63,6 +81,21 @@ public class Redistributor implements Consumer {
                         final PostOffice postOffice,
                         final Executor executor,
                         final int batchSize) {
+      this(queue, storageManager, postOffice, executor, batchSize, 1, new AtomicLong());
+   }
+
+   /**
+    * @param batchSize             how many messages are moved before letting other tasks use the executor
+    * @param transactionBatchSize  how many messages are moved in one transaction
+    * @param redistributedCounter  counts the messages moved
+    */
+   public Redistributor(final Queue queue,
+                        final StorageManager storageManager,
+                        final PostOffice postOffice,
+                        final Executor executor,
+                        final int batchSize,
+                        final int transactionBatchSize,
+                        final AtomicLong redistributedCounter) {
       this.queue = queue;
 
       this.storageManager = storageManager;
@@ -72,6 +105,10 @@ public class Redistributor implements Consumer {
       this.executor = executor;
 
       this.batchSize = batchSize;
+
+      this.transactionBatchSize = transactionBatchSize;
+
+      this.redistributedCounter = redistributedCounter;
    }
 
    public Filter getFilter() {
@@ -98,6 +135,8 @@ public class Redistributor implements Consumer {
    public synchronized void stop() throws Exception {
       active = false;
 
+      commitBatch();
+
       boolean ok = flushExecutor();
 
       if (!ok) {
@@ -106,6 +145,13 @@ public class Redistributor implements Consumer {
    }
 
    public synchronized void close() {
+      try {
+         commitBatch();
+      }
+      catch (Exception e) {
+         ActiveMQServerLogger.LOGGER.warn(e.getMessage(), e);
+      }
+
       boolean ok = flushExecutor();
 
       if (!ok) {
@@ -134,6 +180,9 @@ public class Redistributor implements Consumer {
       else if (reference.getMessage().getSimpleStringProperty(Message.HDR_GROUP_ID) != null) {
          return HandleStatus.NO_MATCH;
       }
+      else if (transactionBatchSize > 1 && !reference.getMessage().isLargeMessage()) {
+         return handleBatched(reference);
+      }
 
       final Transaction tx = new TransactionImpl(storageManager);
 
@@ -187,6 +236,87 @@ public class Redistributor implements Consumer {
       return HandleStatus.HANDLED;
    }
 
+   /**
+    * Moves the message in the transaction of the current batch, which is committed once it is full or once the
+    * queue is done delivering for now, whichever happens first.
+    */
+   private HandleStatus handleBatched(final MessageReference reference) throws Exception {
+      final boolean newBatch = batchTx == null;
+
+      if (newBatch) {
+         batchTx = new TransactionImpl(storageManager);
+      }
+
+      try {
+         final Pair<RoutingContext, ServerMessage> routingInfo = postOffice.redistribute(reference.getMessage(), queue, batchTx);
+
+         if (routingInfo == null) {
+            if (newBatch) {
+               batchTx = null;
+            }
+            return HandleStatus.BUSY;
+         }
+
+         routingInfo.getB().finishCopy();
+
+         postOffice.processRoute(routingInfo.getB(), routingInfo.getA(), false);
+
+         reference.handled();
+
+         queue.acknowledge(batchTx, reference);
+      }
+      catch (Exception e) {
+         Transaction tx = batchTx;
+         batchTx = null;
+         batchCount = 0;
+         // the messages of the batch go back to the queue
+         tx.rollback();
+         throw e;
+      }
+
+      batchCount++;
+
+      if (batchCount >= transactionBatchSize) {
+         commitBatch();
+      }
+      else if (newBatch) {
+         // this runs after the queue's current delivery, as it uses the same executor
+         internalExecute(new BatchCommitter(batchTx));
+      }
+
+      return HandleStatus.HANDLED;
+   }
+
+   /**
+    * Commits the current batch, if any, without waiting for it to be stored.
+    */
+   private void commitBatch() throws Exception {
+      Transaction tx = batchTx;
+      int messages = batchCount;
+
+      batchTx = null;
+      batchCount = 0;
+
+      if (tx != null) {
+         commitBatch(tx, messages);
+      }
+   }
+
+   private void commitBatch(final Transaction tx, final int messages) throws Exception {
+      tx.commit();
+
+      storageManager.afterCompleteOperations(new IOCallback() {
+
+         public void onError(final int errorCode, final String errorMessage) {
+            ActiveMQServerLogger.LOGGER.ioErrorRedistributing(errorCode, errorMessage);
+         }
+
+         public void done() {
+            execPrompter(messages);
+         }
+      });
+   }
+
    public void proceedDeliver(MessageReference ref) {
       // no op
    }
@@ -219,13 +349,15 @@ public class Redistributor implements Consumer {
          }
 
          public void done() {
-            execPrompter();
+            execPrompter(1);
          }
       });
    }
 
-   private void execPrompter() {
-      count++;
+   private void execPrompter(final int messages) {
+      redistributedCounter.addAndGet(messages);
+
+      count += messages;
 
       // We use >= as the large message redistribution will set count to max_int
       // so we are use the prompter will get called
@@ -241,6 +373,49 @@ public class Redistributor implements Consumer {
 
    }
 
+   /**
+    * Commits a batch which didn't fill up during the delivery that started it.
+    */
+   private class BatchCommitter implements Runnable {
+
+      private final Transaction tx;
+
+      BatchCommitter(final Transaction tx) {
+         this.tx = tx;
+      }
+
+      public void run() {
+         int messages;
+
+         synchronized (Redistributor.this) {
+            if (batchTx != tx) {
+               // already committed
+               return;
+            }
+
+            messages = batchCount;
+
+            batchTx = null;
+
+            batchCount = 0;
+         }
+
+         // committing acknowledges on the queue, whose lock is taken before this one on deliveries
+         try {
+            commitBatch(tx, messages);
+         }
+         catch (Exception e) {
+            ActiveMQServerLogger.LOGGER.warn(e.getMessage(), e);
+            try {
+               tx.rollback();
+            }
+            catch (Exception e2) {
+               ActiveMQServerLogger.LOGGER.warn(e2.getMessage(), e2);
+            }
+         }
+      }
+   }
+
    private class Prompter implements Runnable {
 
       public void run() {
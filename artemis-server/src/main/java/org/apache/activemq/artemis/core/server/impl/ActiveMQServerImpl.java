@@ -127,6 +127,7 @@ import org.apache.activemq.artemis.spi.core.security.ActiveMQSecurityManager;
 import org.apache.activemq.artemis.utils.ActiveMQThreadFactory;
 import org.apache.activemq.artemis.utils.ConcurrentHashSet;
 import org.apache.activemq.artemis.utils.ExecutorFactory;
+import org.apache.activemq.artemis.utils.MpscOrderedExecutorFactory;
 import org.apache.activemq.artemis.utils.OrderedExecutorFactory;
 import org.apache.activemq.artemis.utils.ReusableLatch;
 import org.apache.activemq.artemis.utils.SecurityFormatter;
@@ -190,6 +191,8 @@ public class ActiveMQServerImpl implements ActiveMQServer {
 
    private volatile QueueFactory queueFactory;
 
+   private volatile ScheduledDeliveryWheel scheduledDeliveryWheel;
+
    private volatile PagingManager pagingManager;
 
    private volatile PostOffice postOffice;
@@ -646,6 +649,8 @@ public class ActiveMQServerImpl implements ActiveMQServer {
 
       stopComponent(postOffice);
 
+      stopComponent(scheduledDeliveryWheel);
+
       if (scheduledPool != null && !scheduledPoolSupplied) {
          // we just interrupt all running tasks, these are supposed to be pings and the like.
          scheduledPool.shutdownNow();
@@ -681,6 +686,7 @@ public class ActiveMQServerImpl implements ActiveMQServer {
       resourceManager = null;
       postOffice = null;
       queueFactory = null;
+      scheduledDeliveryWheel = null;
       resourceManager = null;
       messagingServerControl = null;
       memoryManager = null;
@@ -1417,7 +1423,12 @@ public class ActiveMQServerImpl implements ActiveMQServer {
          threadPool = serviceRegistry.getExecutorService();
          this.threadPoolSupplied = true;
       }
-      this.executorFactory = new OrderedExecutorFactory(threadPool);
+      if (configuration.isMpscOrderedExecutor()) {
+         this.executorFactory = new MpscOrderedExecutorFactory(threadPool, configuration.getOrderedExecutorBatchSize());
+      }
+      else {
+         this.executorFactory = new OrderedExecutorFactory(threadPool);
+      }
 
        /* We check to see if a Scheduled Executor Service is provided in the InjectedObjectRegistry.  If so we use this
        * Scheduled ExecutorService otherwise we create a new one.
@@ -1479,12 +1490,17 @@ public class ActiveMQServerImpl implements ActiveMQServer {
 
       securityStore = new SecurityStoreImpl(securityRepository, securityManager, configuration.getSecurityInvalidationInterval(), configuration.isSecurityEnabled(), configuration.getClusterUser(), configuration.getClusterPassword(), managementService);
 
-      queueFactory = new QueueFactoryImpl(executorFactory, scheduledPool, addressSettingsRepository, storageManager);
+      if (configuration.getScheduledDeliveryTickDuration() > 0) {
+         scheduledDeliveryWheel = new ScheduledDeliveryWheel(configuration.getScheduledDeliveryTickDuration(), new ActiveMQThreadFactory("ActiveMQ-scheduled-delivery-" + this.toString(), true, getThisClassLoader()));
+         scheduledDeliveryWheel.start();
+      }
+
+      queueFactory = new QueueFactoryImpl(executorFactory, scheduledPool, addressSettingsRepository, storageManager, scheduledDeliveryWheel);
 
       pagingManager = createPagingManager();
 
       resourceManager = new ResourceManagerImpl((int) (configuration.getTransactionTimeout() / 1000), configuration.getTransactionTimeoutScanPeriod(), scheduledPool);
-      postOffice = new PostOfficeImpl(this, storageManager, pagingManager, queueFactory, managementService, configuration.getMessageExpiryScanPeriod(), configuration.getMessageExpiryThreadPriority(), configuration.isWildcardRoutingEnabled(), configuration.getIDCacheSize(), configuration.isPersistIDCache(), addressSettingsRepository);
+      postOffice = new PostOfficeImpl(this, storageManager, pagingManager, queueFactory, managementService, configuration.getMessageExpiryScanPeriod(), configuration.getMessageExpiryThreadPriority(), configuration.isWildcardRoutingEnabled(), configuration.getIDCacheSize(), configuration.isPersistIDCache(), configuration.isOffHeapMessageBodies(), addressSettingsRepository);
 
       // This can't be created until node id is set
       clusterManager = new ClusterManager(executorFactory, this, postOffice, scheduledPool, managementService, configuration, nodeManager, haPolicy.isBackup());
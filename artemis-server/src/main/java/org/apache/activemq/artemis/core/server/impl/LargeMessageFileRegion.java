@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.channel.DefaultFileRegion;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+import org.apache.activemq.artemis.core.server.LargeServerMessage;
+
+/**
+ * A chunk of a large message written to the connection straight from the file the message is stored in,
+ * so the chunk never gets copied into the heap.
+ * <p>
+ * The chunks of a message share the file channel of their {@link Source}. The channel is closed, and the
+ * message allowed to be deleted, once the deliverer and every chunk it sent are done with it, as Netty
+ * releases a chunk only after writing it.
+ */
+final class LargeMessageFileRegion extends DefaultFileRegion {
+
+   private final Source source;
+
+   private LargeMessageFileRegion(final Source source, final long position, final long count) {
+      super(source.channel, position, count);
+      this.source = source;
+   }
+
+   @Override
+   protected void deallocate() {
+      // the channel is shared by all the chunks, the source closes it
+      source.release();
+   }
+
+   static final class Source {
+
+      private final LargeServerMessage message;
+
+      private final FileChannel channel;
+
+      // one for the deliverer plus one for every chunk not released yet
+      private final AtomicInteger references = new AtomicInteger(1);
+
+      Source(final LargeServerMessage message) throws Exception {
+         this.channel = FileChannel.open(message.getFile().getJavaFile().toPath(), StandardOpenOption.READ);
+         this.message = message;
+         message.incrementDelayDeletionCount();
+      }
+
+      LargeMessageFileRegion region(final long position, final long count) {
+         references.incrementAndGet();
+         return new LargeMessageFileRegion(this, position, count);
+      }
+
+      /**
+       * Reads a chunk into the heap, for when it can't be sent as a region.
+       */
+      byte[] read(final long position, final int length) throws IOException {
+         ByteBuffer buffer = ByteBuffer.allocate(length);
+
+         while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+               break;
+            }
+         }
+
+         return buffer.array();
+      }
+
+      void release() {
+         if (references.decrementAndGet() == 0) {
+            try {
+               channel.close();
+
+               message.decrementDelayDeletionCount();
+            }
+            catch (Exception e) {
+               ActiveMQServerLogger.LOGGER.warn(e.getMessage(), e);
+            }
+         }
+      }
+   }
+}
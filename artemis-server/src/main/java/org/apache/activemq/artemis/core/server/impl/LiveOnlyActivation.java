@@ -24,6 +24,7 @@ import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
 import org.apache.activemq.artemis.core.client.impl.ClientSessionFactoryInternal;
 import org.apache.activemq.artemis.core.client.impl.ServerLocatorInternal;
 import org.apache.activemq.artemis.core.postoffice.DuplicateIDCache;
+import org.apache.activemq.artemis.core.postoffice.impl.OffHeapDuplicateIDCache;
 import org.apache.activemq.artemis.core.postoffice.impl.PostOfficeImpl;
 import org.apache.activemq.artemis.core.remoting.server.RemotingService;
 import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
@@ -160,6 +161,10 @@ public class LiveOnlyActivation extends Activation {
       Map<SimpleString, List<Pair<byte[], Long>>> duplicateIDMap = new HashMap<>();
       for (SimpleString address : duplicateIDCaches.keySet()) {
          DuplicateIDCache duplicateIDCache = activeMQServer.getPostOffice().getDuplicateIDCache(address);
+         if (duplicateIDCache instanceof OffHeapDuplicateIDCache && ((OffHeapDuplicateIDCache) duplicateIDCache).size() > 0) {
+            // only hashes of the ids are kept, there is nothing to send
+            ActiveMQServerLogger.LOGGER.duplicateIDsNotScaledDown(address);
+         }
          duplicateIDMap.put(address, duplicateIDCache.getMap());
       }
       return scaleDownHandler.scaleDown(scaleDownClientSessionFactory, activeMQServer.getResourceManager(), duplicateIDMap, activeMQServer.getManagementService().getManagementAddress(), null);
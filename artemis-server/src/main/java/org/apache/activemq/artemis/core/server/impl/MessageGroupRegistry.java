@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.server.Consumer;
+
+/**
+ * The consumers the message groups of a queue are assigned to.
+ * <p>
+ * Every consumer keeps count of the groups it owns, so removing a consumer only marks its groups as
+ * released instead of going through all the groups of the queue. A released group is dropped when
+ * it's next looked up, or a few at a time by the following assignments.
+ * <p>
+ * The groups are kept in least recently used order, so evicting them once there are more than
+ * {@link #setMaxGroups(int) maxGroups} and expiring the ones idle for longer than
+ * {@link #setIdleTimeout(long) idleTimeout} only touches the groups being removed.
+ * <p>
+ * This class is not thread safe, it's guarded by the lock of its queue.
+ */
+final class MessageGroupRegistry {
+
+   // released groups checked on every assignment
+   private static final int SWEEP_BATCH = 8;
+
+   private final Map<SimpleString, Group> groups = new HashMap<SimpleString, Group>();
+
+   private final Map<Consumer, Owner> owners = new IdentityHashMap<Consumer, Owner>();
+
+   // least recently used first
+   private Group head;
+
+   private Group tail;
+
+   // the next group to check for a removed owner
+   private Group sweep;
+
+   // groups whose owner was removed but that are still in the map
+   private int released;
+
+   private volatile int maxGroups = -1;
+
+   private volatile long idleTimeout = -1;
+
+   void setMaxGroups(final int maxGroups) {
+      this.maxGroups = maxGroups;
+   }
+
+   void setIdleTimeout(final long idleTimeout) {
+      this.idleTimeout = idleTimeout;
+   }
+
+   /**
+    * @return the consumer the group is assigned to, null if it isn't assigned
+    */
+   Consumer get(final SimpleString groupID) {
+      expireIdle();
+
+      Group group = groups.get(groupID);
+
+      if (group == null) {
+         return null;
+      }
+
+      if (group.owner.removed) {
+         drop(group);
+         return null;
+      }
+
+      unlink(group);
+      group.lastUsed = System.currentTimeMillis();
+      linkLast(group);
+
+      return group.owner.consumer;
+   }
+
+   void put(final SimpleString groupID, final Consumer consumer) {
+      Group group = groups.get(groupID);
+      if (group != null) {
+         drop(group);
+      }
+
+      Owner owner = owners.get(consumer);
+      if (owner == null) {
+         owner = new Owner(consumer);
+         owners.put(consumer, owner);
+      }
+
+      group = new Group(groupID, owner, System.currentTimeMillis());
+      owner.groupCount++;
+      groups.put(groupID, group);
+      linkLast(group);
+
+      sweep();
+
+      int max = maxGroups;
+      if (max > 0) {
+         while (groups.size() > max) {
+            drop(head);
+         }
+      }
+   }
+
+   /**
+    * @return true if the group was assigned to a consumer
+    */
+   boolean remove(final SimpleString groupID) {
+      Group group = groups.get(groupID);
+
+      if (group == null) {
+         return false;
+      }
+
+      boolean assigned = !group.owner.removed;
+      drop(group);
+      return assigned;
+   }
+
+   /**
+    * Releases all the groups assigned to the consumer, without going through them.
+    */
+   void removeConsumer(final Consumer consumer) {
+      Owner owner = owners.remove(consumer);
+
+      if (owner != null) {
+         owner.removed = true;
+         released += owner.groupCount;
+      }
+   }
+
+   void clear() {
+      groups.clear();
+      owners.clear();
+      head = null;
+      tail = null;
+      sweep = null;
+      released = 0;
+   }
+
+   /**
+    * @return the number of groups assigned to a consumer
+    */
+   int size() {
+      expireIdle();
+
+      return groups.size() - released;
+   }
+
+   /**
+    * @return the consumer of every assigned group, least recently used first
+    */
+   Map<SimpleString, Consumer> getGroups() {
+      expireIdle();
+
+      Map<SimpleString, Consumer> result = new LinkedHashMap<SimpleString, Consumer>();
+      for (Group group = head; group != null; group = group.next) {
+         if (!group.owner.removed) {
+            result.put(group.groupID, group.owner.consumer);
+         }
+      }
+      return result;
+   }
+
+   private void expireIdle() {
+      long timeout = idleTimeout;
+
+      if (timeout <= 0 || head == null) {
+         return;
+      }
+
+      long now = System.currentTimeMillis();
+
+      while (head != null && (head.owner.removed || now - head.lastUsed >= timeout)) {
+         drop(head);
+      }
+   }
+
+   private void sweep() {
+      for (int i = 0; i < SWEEP_BATCH && released > 0; i++) {
+         if (sweep == null) {
+            sweep = head;
+         }
+
+         Group group = sweep;
+         sweep = group.next;
+
+         if (group.owner.removed) {
+            drop(group);
+         }
+      }
+   }
+
+   private void drop(final Group group) {
+      groups.remove(group.groupID);
+      unlink(group);
+
+      Owner owner = group.owner;
+      owner.groupCount--;
+
+      if (owner.removed) {
+         released--;
+      }
+      else if (owner.groupCount == 0) {
+         owners.remove(owner.consumer);
+      }
+   }
+
+   private void linkLast(final Group group) {
+      group.prev = tail;
+      group.next = null;
+
+      if (tail == null) {
+         head = group;
+      }
+      else {
+         tail.next = group;
+      }
+      tail = group;
+   }
+
+   private void unlink(final Group group) {
+      if (sweep == group) {
+         sweep = group.next;
+      }
+
+      if (group.prev == null) {
+         head = group.next;
+      }
+      else {
+         group.prev.next = group.next;
+      }
+
+      if (group.next == null) {
+         tail = group.prev;
+      }
+      else {
+         group.next.prev = group.prev;
+      }
+
+      group.prev = null;
+      group.next = null;
+   }
+
+   private static final class Owner {
+
+      private final Consumer consumer;
+
+      private int groupCount;
+
+      private boolean removed;
+
+      private Owner(final Consumer consumer) {
+         this.consumer = consumer;
+      }
+   }
+
+   private static final class Group {
+
+      private final SimpleString groupID;
+
+      private final Owner owner;
+
+      private long lastUsed;
+
+      private Group prev;
+
+      private Group next;
+
+      private Group(final SimpleString groupID, final Owner owner, final long lastUsed) {
+         this.groupID = groupID;
+         this.owner = owner;
+         this.lastUsed = lastUsed;
+      }
+   }
+}
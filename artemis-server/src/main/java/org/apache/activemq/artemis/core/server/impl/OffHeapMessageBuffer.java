@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.core.buffers.impl.ChannelBufferWrapper;
+import org.apache.activemq.artemis.core.remoting.impl.netty.PartialPooledByteBufAllocator;
+
+/**
+ * The body of a routed message kept in a pooled direct buffer.
+ * <p>
+ * The message holds one reference to the pooled buffer and gives it back through {@link #release()} once its last
+ * {@link org.apache.activemq.artemis.core.server.MessageReference} is gone. Deliveries get a
+ * {@link #retainedDuplicate()} which holds a reference of its own, released by the transport once written, so the
+ * memory is never reused while a write is still pending.
+ * <p>
+ * Copies are always made on the heap: a copy is owned by whoever asked for it and nobody would release a pooled one.
+ */
+public final class OffHeapMessageBuffer extends ChannelBufferWrapper {
+
+   private static final AtomicLong totalSize = new AtomicLong();
+
+   private final ByteBuf pooled;
+
+   private final int pooledSize;
+
+   private final AtomicBoolean released = new AtomicBoolean();
+
+   private OffHeapMessageBuffer(final ByteBuf pooled, final boolean releasable, final int pooledSize) {
+      super(pooled, releasable);
+
+      this.pooled = pooled;
+
+      this.pooledSize = pooledSize;
+   }
+
+   /**
+    * Copies the first {@code length} bytes of {@code buffer} into a new pooled direct buffer of {@code capacity}
+    * bytes, keeping its reader and writer indexes.
+    */
+   public static OffHeapMessageBuffer copyOf(final ActiveMQBuffer buffer, final int length, final int capacity) {
+      ByteBuf pooled = PartialPooledByteBufAllocator.INSTANCE.directBuffer(capacity);
+
+      pooled.writeBytes(buffer.byteBuf(), 0, length);
+
+      pooled.setIndex(buffer.readerIndex(), buffer.writerIndex());
+
+      int pooledSize = getPooledSize(capacity);
+
+      totalSize.addAndGet(pooledSize);
+
+      // not releasable: only the owning message gives the memory back, through release()
+      return new OffHeapMessageBuffer(pooled, false, pooledSize);
+   }
+
+   /**
+    * Returns the number of bytes currently held in pooled direct buffers by message bodies.
+    */
+   public static long getTotalSize() {
+      return totalSize.get();
+   }
+
+   /**
+    * The size the pool hands out for a request of {@code size} bytes, following the tiny, small/normal and huge
+    * size classes of Netty's pooled allocator.
+    */
+   static int getPooledSize(final int size) {
+      if (size < 512) {
+         return (size + 15) & ~15;
+      }
+      else if (size >= 16 * 1024 * 1024) {
+         return size;
+      }
+      else {
+         return Integer.highestOneBit(size - 1) << 1;
+      }
+   }
+
+   public int getPooledSize() {
+      return pooledSize;
+   }
+
+   /**
+    * Returns a buffer sharing this memory with its own indexes and its own reference on it, to be released by
+    * whoever writes it.
+    */
+   public OffHeapMessageBuffer retainedDuplicate() {
+      return new OffHeapMessageBuffer(pooled.duplicate().retain(), true, 0);
+   }
+
+   /**
+    * Gives back the reference held by the owning message. Only the first call has any effect.
+    */
+   public void release() {
+      if (released.compareAndSet(false, true)) {
+         totalSize.addAndGet(-pooledSize);
+
+         pooled.release();
+      }
+   }
+
+   public boolean isReleased() {
+      return released.get();
+   }
+
+   @Override
+   public ActiveMQBuffer copy() {
+      return copy(buffer.readerIndex(), buffer.readableBytes());
+   }
+
+   @Override
+   public ActiveMQBuffer copy(final int index, final int length) {
+      return new ChannelBufferWrapper(Unpooled.buffer(length).writeBytes(buffer, index, length));
+   }
+
+   @Override
+   public ActiveMQBuffer readBytes(final int length) {
+      ActiveMQBuffer copy = copy(buffer.readerIndex(), length);
+
+      buffer.skipBytes(length);
+
+      return copy;
+   }
+}
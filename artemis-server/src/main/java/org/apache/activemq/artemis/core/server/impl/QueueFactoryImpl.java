@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.artemis.core.server.impl;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.activemq.artemis.api.core.SimpleString;
@@ -25,6 +26,7 @@ import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.postoffice.PostOffice;
 import org.apache.activemq.artemis.core.server.Queue;
 import org.apache.activemq.artemis.core.server.QueueFactory;
+import org.apache.activemq.artemis.core.server.ScheduledDeliveryHandler;
 import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
 import org.apache.activemq.artemis.utils.ExecutorFactory;
@@ -47,10 +49,24 @@ public class QueueFactoryImpl implements QueueFactory {
 
    protected final ExecutorFactory executorFactory;
 
+   /**
+    * The broker wide timing wheel used to deliver scheduled messages, or null if every queue
+    * schedules its own deliveries on the scheduled executor
+    */
+   protected final ScheduledDeliveryWheel scheduledDeliveryWheel;
+
    public QueueFactoryImpl(final ExecutorFactory executorFactory,
                            final ScheduledExecutorService scheduledExecutor,
                            final HierarchicalRepository<AddressSettings> addressSettingsRepository,
                            final StorageManager storageManager) {
+      this(executorFactory, scheduledExecutor, addressSettingsRepository, storageManager, null);
+   }
+
+   public QueueFactoryImpl(final ExecutorFactory executorFactory,
+                           final ScheduledExecutorService scheduledExecutor,
+                           final HierarchicalRepository<AddressSettings> addressSettingsRepository,
+                           final StorageManager storageManager,
+                           final ScheduledDeliveryWheel scheduledDeliveryWheel) {
       this.addressSettingsRepository = addressSettingsRepository;
 
       this.scheduledExecutor = scheduledExecutor;
@@ -58,6 +74,8 @@ public class QueueFactoryImpl implements QueueFactory {
       this.storageManager = storageManager;
 
       this.executorFactory = executorFactory;
+
+      this.scheduledDeliveryWheel = scheduledDeliveryWheel;
    }
 
    public void setPostOffice(final PostOffice postOffice) {
@@ -75,12 +93,22 @@ public class QueueFactoryImpl implements QueueFactory {
                             final boolean autoCreated) {
       AddressSettings addressSettings = addressSettingsRepository.getMatch(address.toString());
 
+      Executor executor = executorFactory.getExecutor();
+
+      ScheduledDeliveryHandler scheduledDeliveryHandler;
+      if (scheduledDeliveryWheel != null) {
+         scheduledDeliveryHandler = scheduledDeliveryWheel.createHandler(executor);
+      }
+      else {
+         scheduledDeliveryHandler = new ScheduledDeliveryHandlerImpl(scheduledExecutor);
+      }
+
       Queue queue;
       if (addressSettings.isLastValueQueue()) {
-         queue = new LastValueQueue(persistenceID, address, name, filter, pageSubscription, user, durable, temporary, autoCreated, scheduledExecutor, postOffice, storageManager, addressSettingsRepository, executorFactory.getExecutor());
+         queue = new LastValueQueue(persistenceID, address, name, filter, pageSubscription, user, durable, temporary, autoCreated, scheduledExecutor, postOffice, storageManager, addressSettingsRepository, executor, scheduledDeliveryHandler);
       }
       else {
-         queue = new QueueImpl(persistenceID, address, name, filter, pageSubscription, user, durable, temporary, autoCreated, scheduledExecutor, postOffice, storageManager, addressSettingsRepository, executorFactory.getExecutor());
+         queue = new QueueImpl(persistenceID, address, name, filter, pageSubscription, user, durable, temporary, autoCreated, scheduledExecutor, postOffice, storageManager, addressSettingsRepository, executor, scheduledDeliveryHandler);
       }
 
       return queue;
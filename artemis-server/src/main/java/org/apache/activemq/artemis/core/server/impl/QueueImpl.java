@@ -82,6 +82,7 @@ import org.apache.activemq.artemis.core.transaction.impl.TransactionImpl;
 import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.artemis.utils.ConcurrentHashSet;
 import org.apache.activemq.artemis.utils.FutureLatch;
+import org.apache.activemq.artemis.utils.IDSupplier;
 import org.apache.activemq.artemis.utils.LinkedListIterator;
 import org.apache.activemq.artemis.utils.PriorityLinkedList;
 import org.apache.activemq.artemis.utils.PriorityLinkedListImpl;
@@ -116,6 +117,12 @@ public class QueueImpl implements Queue {
 
    public static final int DEFAULT_FLUSH_LIMIT = 500;
 
+   private static final IDSupplier<MessageReference> MESSAGE_ID_SUPPLIER = new IDSupplier<MessageReference>() {
+      public long getID(final MessageReference ref) {
+         return ref.getMessage().getMessageID();
+      }
+   };
+
    private final long id;
 
    private final SimpleString name;
@@ -146,7 +153,9 @@ public class QueueImpl implements Queue {
    private final ConcurrentLinkedQueue<MessageReference> intermediateMessageReferences = new ConcurrentLinkedQueue<MessageReference>();
 
    // This is where messages are stored
-   private final PriorityLinkedList<MessageReference> messageReferences = new PriorityLinkedListImpl<MessageReference>(QueueImpl.NUM_PRIORITIES);
+   // If the address settings say so they are also indexed by messageID, so management operations on single messages
+   // don't need to scan the queue
+   private final PriorityLinkedList<MessageReference> messageReferences;
 
    // The quantity of pagedReferences on messageReferences priority list
    private final AtomicInteger pagedReferences = new AtomicInteger(0);
@@ -161,9 +170,10 @@ public class QueueImpl implements Queue {
 
    private final ScheduledDeliveryHandler scheduledDeliveryHandler;
 
-   private long messagesAdded;
+   // updated without the queue lock so they can be sampled without it too
+   private final AtomicLong messagesAdded = new AtomicLong(0);
 
-   private long messagesAcknowledged;
+   private final AtomicLong messagesAcknowledged = new AtomicLong(0);
 
    protected final AtomicInteger deliveringCount = new AtomicInteger(0);
 
@@ -200,7 +210,7 @@ public class QueueImpl implements Queue {
 
    private final Set<Consumer> consumerSet = new HashSet<Consumer>();
 
-   private final Map<SimpleString, Consumer> groups = new HashMap<SimpleString, Consumer>();
+   private final MessageGroupRegistry groups = new MessageGroupRegistry();
 
    private volatile SimpleString expiryAddress;
 
@@ -224,6 +234,12 @@ public class QueueImpl implements Queue {
 
    private AtomicLong messagesAddedSnapshot = new AtomicLong(0);
 
+   private final AtomicLong messagesRedistributed = new AtomicLong(0);
+
+   private AtomicLong redistributionRateCheckTime = new AtomicLong(System.currentTimeMillis());
+
+   private AtomicLong messagesRedistributedSnapshot = new AtomicLong(0);
+
    private ScheduledFuture slowConsumerReaperFuture;
 
    private SlowConsumerReaperRunnable slowConsumerReaperRunnable;
@@ -252,7 +268,7 @@ public class QueueImpl implements Queue {
 
       synchronized (this) {
          ArrayList<SimpleString> groupsUsed = new ArrayList<SimpleString>();
-         groupsUsed.addAll(groups.keySet());
+         groupsUsed.addAll(groups.getGroups().keySet());
          return groupsUsed;
       }
    }
@@ -324,6 +340,24 @@ public class QueueImpl implements Queue {
                     final StorageManager storageManager,
                     final HierarchicalRepository<AddressSettings> addressSettingsRepository,
                     final Executor executor) {
+      this(id, address, name, filter, pageSubscription, user, durable, temporary, autoCreated, scheduledExecutor, postOffice, storageManager, addressSettingsRepository, executor, new ScheduledDeliveryHandlerImpl(scheduledExecutor));
+   }
+
+   public QueueImpl(final long id,
+                    final SimpleString address,
+                    final SimpleString name,
+                    final Filter filter,
+                    final PageSubscription pageSubscription,
+                    final SimpleString user,
+                    final boolean durable,
+                    final boolean temporary,
+                    final boolean autoCreated,
+                    final ScheduledExecutorService scheduledExecutor,
+                    final PostOffice postOffice,
+                    final StorageManager storageManager,
+                    final HierarchicalRepository<AddressSettings> addressSettingsRepository,
+                    final Executor executor,
+                    final ScheduledDeliveryHandler scheduledDeliveryHandler) {
       this.id = id;
 
       this.address = address;
@@ -348,7 +382,11 @@ public class QueueImpl implements Queue {
 
       this.scheduledExecutor = scheduledExecutor;
 
-      scheduledDeliveryHandler = new ScheduledDeliveryHandlerImpl(scheduledExecutor);
+      this.scheduledDeliveryHandler = scheduledDeliveryHandler;
+
+      boolean messageIDIndex = addressSettingsRepository != null && addressSettingsRepository.getMatch(address.toString()).isMessageIDIndex();
+
+      this.messageReferences = new PriorityLinkedListImpl<MessageReference>(QueueImpl.NUM_PRIORITIES, MESSAGE_ID_SUPPLIER, messageIDIndex);
 
       if (addressSettingsRepository != null) {
          addressSettingsRepositoryListener = new AddressSettingsRepositoryListener();
@@ -453,7 +491,7 @@ public class QueueImpl implements Queue {
          getExecutor().execute(new Runnable() {
             public void run() {
                synchronized (QueueImpl.this) {
-                  if (groups.remove(groupIDToRemove) != null) {
+                  if (groups.remove(groupIDToRemove)) {
                      ActiveMQServerLogger.LOGGER.debug("Removing group after unproposal " + groupID + " from queue " + QueueImpl.this);
                   }
                   else {
@@ -465,6 +503,22 @@ public class QueueImpl implements Queue {
       }
    }
 
+   public synchronized int getGroupCount() {
+      return groups.size();
+   }
+
+   public synchronized Map<SimpleString, Consumer> getGroups() {
+      return groups.getGroups();
+   }
+
+   public synchronized void resetGroup(final SimpleString groupID) {
+      groups.remove(groupID);
+   }
+
+   public synchronized void resetAllGroups() {
+      groups.clear();
+   }
+
    /* Called when a message is cancelled back into the queue */
    public synchronized void addHead(final MessageReference ref) {
       flushDeliveriesInTransit();
@@ -497,7 +551,7 @@ public class QueueImpl implements Queue {
 
       directDeliver = false;
 
-      messagesAdded++;
+      messagesAdded.incrementAndGet();
    }
 
    public void addTail(final MessageReference ref) {
@@ -506,9 +560,7 @@ public class QueueImpl implements Queue {
 
    public void addTail(final MessageReference ref, final boolean direct) {
       if (scheduledDeliveryHandler.checkAndSchedule(ref, true)) {
-         synchronized (this) {
-            messagesAdded++;
-         }
+         messagesAdded.incrementAndGet();
 
          return;
       }
@@ -707,25 +759,7 @@ public class QueueImpl implements Queue {
 
          consumerSet.remove(consumer);
 
-         LinkedList<SimpleString> groupsToRemove = null;
-
-         for (SimpleString groupID : groups.keySet()) {
-            if (consumer == groups.get(groupID)) {
-               if (groupsToRemove == null) {
-                  groupsToRemove = new LinkedList<SimpleString>();
-               }
-               groupsToRemove.add(groupID);
-            }
-         }
-
-         // We use an auxiliary List here to avoid concurrent modification exceptions on the keySet
-         // while the iteration is being done.
-         // Since that's a simple HashMap there's no Iterator's support with a remove operation
-         if (groupsToRemove != null) {
-            for (SimpleString groupID : groupsToRemove) {
-               groups.remove(groupID);
-            }
-         }
+         groups.removeConsumer(consumer);
 
          if (refCountForConsumers != null) {
             refCountForConsumers.decrement();
@@ -825,55 +859,21 @@ public class QueueImpl implements Queue {
    }
 
    public synchronized MessageReference removeReferenceWithID(final long id1) throws Exception {
-      LinkedListIterator<MessageReference> iterator = iterator();
-
-      try {
-
-         MessageReference removed = null;
-
-         while (iterator.hasNext()) {
-            MessageReference ref = iterator.next();
-
-            if (ref.getMessage().getMessageID() == id1) {
-               iterator.remove();
-               refRemoved(ref);
-
-               removed = ref;
-
-               break;
-            }
-         }
+      MessageReference removed = messageReferences.removeWithID(id1);
 
-         if (removed == null) {
-            // Look in scheduled deliveries
-            removed = scheduledDeliveryHandler.removeReferenceWithID(id1);
-         }
-
-         return removed;
+      if (removed != null) {
+         refRemoved(removed);
       }
-      finally {
-         iterator.close();
+      else {
+         // Look in scheduled deliveries
+         removed = scheduledDeliveryHandler.removeReferenceWithID(id1);
       }
+
+      return removed;
    }
 
    public synchronized MessageReference getReference(final long id1) {
-      LinkedListIterator<MessageReference> iterator = iterator();
-
-      try {
-
-         while (iterator.hasNext()) {
-            MessageReference ref = iterator.next();
-
-            if (ref.getMessage().getMessageID() == id1) {
-               return ref;
-            }
-         }
-
-         return null;
-      }
-      finally {
-         iterator.close();
-      }
+      return messageReferences.peekWithID(id1);
    }
 
    public long getMessageCount() {
@@ -881,17 +881,27 @@ public class QueueImpl implements Queue {
          if (pageSubscription != null) {
             // messageReferences will have depaged messages which we need to discount from the counter as they are
             // counted on the pageSubscription as well
-            return messageReferences.size() + getScheduledCount() +
+            return messageReferences.size() + scheduledDeliveryHandler.getScheduledCount() +
                deliveringCount.get() +
                pageSubscription.getMessageCount();
          }
          else {
-            return messageReferences.size() + getScheduledCount() + deliveringCount.get();
+            return messageReferences.size() + scheduledDeliveryHandler.getScheduledCount() + deliveringCount.get();
          }
       }
    }
 
-   public synchronized int getScheduledCount() {
+   public long getMessageCountEstimate() {
+      long count = messageReferences.size() + scheduledDeliveryHandler.getScheduledCount() + deliveringCount.get();
+
+      if (pageSubscription != null) {
+         count += pageSubscription.getMessageCount();
+      }
+
+      return count;
+   }
+
+   public int getScheduledCount() {
       return scheduledDeliveryHandler.getScheduledCount();
    }
 
@@ -935,7 +945,7 @@ public class QueueImpl implements Queue {
          postAcknowledge(ref);
       }
 
-      messagesAcknowledged++;
+      messagesAcknowledged.incrementAndGet();
 
    }
 
@@ -959,7 +969,7 @@ public class QueueImpl implements Queue {
          getRefsOperation(tx).addAck(ref);
       }
 
-      messagesAcknowledged++;
+      messagesAcknowledged.incrementAndGet();
    }
 
    public void reacknowledge(final Transaction tx, final MessageReference ref) throws Exception {
@@ -974,7 +984,7 @@ public class QueueImpl implements Queue {
       // https://issues.jboss.org/browse/HORNETQ-609
       incDelivering();
 
-      messagesAcknowledged++;
+      messagesAcknowledged.incrementAndGet();
    }
 
    private RefsOperation getRefsOperation(final Transaction tx) {
@@ -1046,7 +1056,7 @@ public class QueueImpl implements Queue {
    }
 
    public void incrementMesssagesAdded() {
-      messagesAdded++;
+      messagesAdded.incrementAndGet();
    }
 
    @Override
@@ -1063,15 +1073,15 @@ public class QueueImpl implements Queue {
 
    public long getMessagesAdded() {
       if (pageSubscription != null) {
-         return messagesAdded + pageSubscription.getCounter().getValue() - pagedReferences.get();
+         return messagesAdded.get() + pageSubscription.getCounter().getValue() - pagedReferences.get();
       }
       else {
-         return messagesAdded;
+         return messagesAdded.get();
       }
    }
 
    public long getMessagesAcknowledged() {
-      return messagesAcknowledged;
+      return messagesAcknowledged.get();
    }
 
    public int deleteAllReferences() throws Exception {
@@ -1208,33 +1218,23 @@ public class QueueImpl implements Queue {
 
       Transaction tx = new TransactionImpl(storageManager);
 
-      LinkedListIterator<MessageReference> iter = iterator();
-      try {
-
-         while (iter.hasNext()) {
-            MessageReference ref = iter.next();
-            if (ref.getMessage().getMessageID() == messageID) {
-               incDelivering();
-               acknowledge(tx, ref);
-               iter.remove();
-               refRemoved(ref);
-               deleted = true;
-               break;
-            }
-         }
-
-         if (!deleted) {
-            // Look in scheduled deliveries
-            deleted = scheduledDeliveryHandler.removeReferenceWithID(messageID) != null ? true : false;
-         }
+      MessageReference ref = messageReferences.peekWithID(messageID);
 
-         tx.commit();
-
-         return deleted;
+      if (ref != null) {
+         incDelivering();
+         acknowledge(tx, ref);
+         messageReferences.removeWithID(messageID);
+         refRemoved(ref);
+         deleted = true;
       }
-      finally {
-         iter.close();
+      else {
+         // Look in scheduled deliveries
+         deleted = scheduledDeliveryHandler.removeReferenceWithID(messageID) != null ? true : false;
       }
+
+      tx.commit();
+
+      return deleted;
    }
 
    public void deleteQueue() throws Exception {
@@ -1287,24 +1287,17 @@ public class QueueImpl implements Queue {
          return false;
       }
 
-      LinkedListIterator<MessageReference> iter = iterator();
-      try {
+      MessageReference ref = messageReferences.peekWithID(messageID);
 
-         while (iter.hasNext()) {
-            MessageReference ref = iter.next();
-            if (ref.getMessage().getMessageID() == messageID) {
-               incDelivering();
-               expire(ref);
-               iter.remove();
-               refRemoved(ref);
-               return true;
-            }
-         }
+      if (ref == null) {
          return false;
       }
-      finally {
-         iter.close();
-      }
+
+      incDelivering();
+      expire(ref);
+      messageReferences.removeWithID(messageID);
+      refRemoved(ref);
+      return true;
    }
 
    public synchronized int expireReferences(final Filter filter) throws Exception {
@@ -1407,24 +1400,17 @@ public class QueueImpl implements Queue {
    }
 
    public synchronized boolean sendMessageToDeadLetterAddress(final long messageID) throws Exception {
-      LinkedListIterator<MessageReference> iter = iterator();
+      MessageReference ref = messageReferences.peekWithID(messageID);
 
-      try {
-         while (iter.hasNext()) {
-            MessageReference ref = iter.next();
-            if (ref.getMessage().getMessageID() == messageID) {
-               incDelivering();
-               sendToDeadLetterAddress(ref);
-               iter.remove();
-               refRemoved(ref);
-               return true;
-            }
-         }
+      if (ref == null) {
          return false;
       }
-      finally {
-         iter.close();
-      }
+
+      incDelivering();
+      sendToDeadLetterAddress(ref);
+      messageReferences.removeWithID(messageID);
+      refRemoved(ref);
+      return true;
    }
 
    public synchronized int sendMessagesToDeadLetterAddress(Filter filter) throws Exception {
@@ -1456,30 +1442,22 @@ public class QueueImpl implements Queue {
    public synchronized boolean moveReference(final long messageID,
                                              final SimpleString toAddress,
                                              final boolean rejectDuplicate) throws Exception {
-      LinkedListIterator<MessageReference> iter = iterator();
+      MessageReference ref = messageReferences.removeWithID(messageID);
 
-      try {
-         while (iter.hasNext()) {
-            MessageReference ref = iter.next();
-            if (ref.getMessage().getMessageID() == messageID) {
-               iter.remove();
-               refRemoved(ref);
-               incDelivering();
-               try {
-                  move(toAddress, ref, false, rejectDuplicate);
-               }
-               catch (Exception e) {
-                  decDelivering();
-                  throw e;
-               }
-               return true;
-            }
-         }
+      if (ref == null) {
          return false;
       }
-      finally {
-         iter.close();
+
+      refRemoved(ref);
+      incDelivering();
+      try {
+         move(toAddress, ref, false, rejectDuplicate);
       }
+      catch (Exception e) {
+         decDelivering();
+         throw e;
+      }
+      return true;
    }
 
    public int moveReferences(final Filter filter, final SimpleString toAddress) throws Exception {
@@ -1571,26 +1549,16 @@ public class QueueImpl implements Queue {
    }
 
    public synchronized boolean changeReferencePriority(final long messageID, final byte newPriority) throws Exception {
-      LinkedListIterator<MessageReference> iter = iterator();
-
-      try {
-
-         while (iter.hasNext()) {
-            MessageReference ref = iter.next();
-            if (ref.getMessage().getMessageID() == messageID) {
-               iter.remove();
-               refRemoved(ref);
-               ref.getMessage().setPriority(newPriority);
-               addTail(ref, false);
-               return true;
-            }
-         }
+      MessageReference ref = messageReferences.removeWithID(messageID);
 
+      if (ref == null) {
          return false;
       }
-      finally {
-         iter.close();
-      }
+
+      refRemoved(ref);
+      ref.getMessage().setPriority(newPriority);
+      addTail(ref, false);
+      return true;
    }
 
    public synchronized int changeReferencesPriority(final Filter filter, final byte newPriority) throws Exception {
@@ -1714,7 +1682,7 @@ public class QueueImpl implements Queue {
       while ((ref = intermediateMessageReferences.poll()) != null) {
          internalAddTail(ref);
 
-         messagesAdded++;
+         messagesAdded.incrementAndGet();
          if (added++ > MAX_DELIVERIES_IN_LOOP) {
             // if we just keep polling from the intermediate we could starve in case there's a sustained load
             deliverAsync();
@@ -2025,7 +1993,9 @@ public class QueueImpl implements Queue {
    private void internalAddRedistributor(final Executor executor) {
       // create the redistributor only once if there are no local consumers
       if (consumerSet.isEmpty() && redistributor == null) {
-         redistributor = new Redistributor(this, storageManager, postOffice, executor, QueueImpl.REDISTRIBUTOR_BATCH_SIZE);
+         int transactionBatchSize = addressSettingsRepository == null ? AddressSettings.DEFAULT_REDISTRIBUTION_BATCH_SIZE : addressSettingsRepository.getMatch(address.toString()).getRedistributionBatchSize();
+
+         redistributor = new Redistributor(this, storageManager, postOffice, executor, QueueImpl.REDISTRIBUTOR_BATCH_SIZE, transactionBatchSize, messagesRedistributed);
 
          consumerList.add(new ConsumerHolder(redistributor));
 
@@ -2374,7 +2344,7 @@ public class QueueImpl implements Queue {
                   groups.put(groupID, consumer);
                }
 
-               messagesAdded++;
+               messagesAdded.incrementAndGet();
 
                deliveriesInTransit.countUp();
                proceedDeliver(consumer, ref);
@@ -2539,20 +2509,35 @@ public class QueueImpl implements Queue {
    }
 
    public synchronized void resetMessagesAdded() {
-      messagesAdded = 0;
+      messagesAdded.set(0);
    }
 
    public synchronized void resetMessagesAcknowledged() {
-      messagesAcknowledged = 0;
+      messagesAcknowledged.set(0);
    }
 
    public float getRate() {
+      long added = messagesAdded.get();
       float timeSlice = ((System.currentTimeMillis() - queueRateCheckTime.getAndSet(System.currentTimeMillis())) / 1000.0f);
       if (timeSlice == 0) {
-         messagesAddedSnapshot.getAndSet(messagesAdded);
+         messagesAddedSnapshot.getAndSet(added);
+         return 0.0f;
+      }
+      return BigDecimal.valueOf((added - messagesAddedSnapshot.getAndSet(added)) / timeSlice).setScale(2, BigDecimal.ROUND_UP).floatValue();
+   }
+
+   public long getMessagesRedistributed() {
+      return messagesRedistributed.get();
+   }
+
+   public float getRedistributionRate() {
+      long redistributed = messagesRedistributed.get();
+      float timeSlice = ((System.currentTimeMillis() - redistributionRateCheckTime.getAndSet(System.currentTimeMillis())) / 1000.0f);
+      if (timeSlice == 0) {
+         messagesRedistributedSnapshot.getAndSet(redistributed);
          return 0.0f;
       }
-      return BigDecimal.valueOf((messagesAdded - messagesAddedSnapshot.getAndSet(messagesAdded)) / timeSlice).setScale(2, BigDecimal.ROUND_UP).floatValue();
+      return BigDecimal.valueOf((redistributed - messagesRedistributedSnapshot.getAndSet(redistributed)) / timeSlice).setScale(2, BigDecimal.ROUND_UP).floatValue();
    }
 
    // Inner classes
@@ -2762,6 +2747,11 @@ public class QueueImpl implements Queue {
       this.expiryAddress = settings == null ? null : settings.getExpiryAddress();
    }
 
+   private void configureGroups(final AddressSettings settings) {
+      groups.setMaxGroups(settings.getMaxGroups());
+      groups.setIdleTimeout(settings.getGroupIdleTimeout());
+   }
+
    private void configureSlowConsumerReaper(final AddressSettings settings) {
       if (settings == null || settings.getSlowConsumerThreshold() == AddressSettings.DEFAULT_SLOW_CONSUMER_THRESHOLD) {
          if (slowConsumerReaperFuture != null) {
@@ -2806,6 +2796,7 @@ public class QueueImpl implements Queue {
          AddressSettings settings = addressSettingsRepository.getMatch(address.toString());
          configureExpiry(settings);
          configureSlowConsumerReaper(settings);
+         configureGroups(settings);
       }
    }
 
@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.activemq.artemis.core.server.ActiveMQComponent;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+import org.apache.activemq.artemis.core.server.MessageReference;
+
+/**
+ * A hierarchical timing wheel shared by every queue of a broker to deliver scheduled messages.
+ * <p>
+ * Time is divided in ticks of {@code tickDuration} milliseconds. The wheel has {@link #LEVELS} levels
+ * of {@link #SLOTS} slots each, level {@code n} covering {@code SLOTS^(n+1)} ticks. A timeout is placed
+ * in the lowest level able to hold it and it is cascaded down one level every time the slot it sits
+ * on is reached, so scheduling and expiring are constant time operations whatever the number of
+ * scheduled messages. Timeouts further away than the whole wheel are kept on an overflow list that
+ * is re-examined every time the highest level completes a turn.
+ * <p>
+ * Scheduling is lock free: timeouts are handed to the single timer thread through a concurrent
+ * queue. On every tick the timeouts that became due are grouped by {@link ScheduledDeliveryWheelHandler}
+ * and each batch is delivered to its queue on the queue's executor.
+ */
+public class ScheduledDeliveryWheel implements ActiveMQComponent {
+
+   private static final boolean trace = ActiveMQServerLogger.LOGGER.isTraceEnabled();
+
+   static final int SLOT_BITS = 8;
+
+   static final int SLOTS = 1 << SLOT_BITS;
+
+   static final int SLOT_MASK = SLOTS - 1;
+
+   static final int LEVELS = 4;
+
+   private final long tickDuration;
+
+   private final ThreadFactory threadFactory;
+
+   private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<Timeout>();
+
+   // only accessed by the timer thread
+   private final Timeout[][] wheel = new Timeout[LEVELS][SLOTS];
+
+   // only accessed by the timer thread
+   private Timeout overflow;
+
+   // only accessed by the timer thread
+   private long currentTick;
+
+   private volatile long lastProcessedTick;
+
+   private volatile boolean started;
+
+   private volatile Thread timerThread;
+
+   public ScheduledDeliveryWheel(final long tickDuration, final ThreadFactory threadFactory) {
+      if (tickDuration <= 0) {
+         throw new IllegalArgumentException("tickDuration must be > 0, was " + tickDuration);
+      }
+      this.tickDuration = tickDuration;
+      this.threadFactory = threadFactory;
+   }
+
+   public long getTickDuration() {
+      return tickDuration;
+   }
+
+   public ScheduledDeliveryWheelHandler createHandler(final Executor executor) {
+      return new ScheduledDeliveryWheelHandler(this, executor);
+   }
+
+   public synchronized void start() {
+      if (started) {
+         return;
+      }
+      currentTick = System.currentTimeMillis() / tickDuration;
+      lastProcessedTick = currentTick;
+      started = true;
+      timerThread = threadFactory.newThread(new Worker());
+      timerThread.start();
+   }
+
+   public synchronized void stop() throws Exception {
+      if (!started) {
+         return;
+      }
+      started = false;
+      Thread thread = timerThread;
+      timerThread = null;
+      LockSupport.unpark(thread);
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+
+      // the queues are going away with the server, there's nothing left to deliver to
+      pending.clear();
+      for (int level = 0; level < LEVELS; level++) {
+         for (int slot = 0; slot < SLOTS; slot++) {
+            wheel[level][slot] = null;
+         }
+      }
+      overflow = null;
+   }
+
+   public boolean isStarted() {
+      return started;
+   }
+
+   void schedule(final Timeout timeout) {
+      timeout.deadlineTick = (timeout.deliveryTime + tickDuration - 1) / tickDuration;
+
+      pending.add(timeout);
+
+      if (timeout.deadlineTick <= lastProcessedTick) {
+         // it is already due, don't make it wait for the next tick
+         LockSupport.unpark(timerThread);
+      }
+   }
+
+   private void place(final Timeout timeout, final List<Timeout> due) {
+      long delta = timeout.deadlineTick - currentTick;
+
+      if (delta <= 0) {
+         due.add(timeout);
+         return;
+      }
+
+      for (int level = 0; level < LEVELS; level++) {
+         if (delta < 1L << (SLOT_BITS * (level + 1))) {
+            int slot = (int) ((timeout.deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            timeout.next = wheel[level][slot];
+            wheel[level][slot] = timeout;
+            return;
+         }
+      }
+
+      timeout.next = overflow;
+      overflow = timeout;
+   }
+
+   private void advance(final List<Timeout> due) {
+      currentTick++;
+
+      // the overflow is re-examined every time the highest level moves to its next slot
+      if ((currentTick & ((1L << (SLOT_BITS * (LEVELS - 1))) - 1)) == 0) {
+         Timeout head = overflow;
+         overflow = null;
+         cascade(head, due);
+      }
+
+      // cascade the higher levels whose slot has been reached, from the top so entries can trickle down
+      for (int level = LEVELS - 1; level > 0; level--) {
+         if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+            int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Timeout head = wheel[level][slot];
+            wheel[level][slot] = null;
+            cascade(head, due);
+         }
+      }
+
+      int slot = (int) (currentTick & SLOT_MASK);
+      Timeout head = wheel[0][slot];
+      wheel[0][slot] = null;
+      while (head != null) {
+         Timeout next = head.next;
+         head.next = null;
+         if (!head.isCancelled()) {
+            due.add(head);
+         }
+         head = next;
+      }
+   }
+
+   private void cascade(Timeout head, final List<Timeout> due) {
+      while (head != null) {
+         Timeout next = head.next;
+         head.next = null;
+         // cancelled timeouts are simply dropped here instead of travelling down the wheel
+         if (!head.isCancelled()) {
+            place(head, due);
+         }
+         head = next;
+      }
+   }
+
+   private void expire(final List<Timeout> due) {
+      if (due.isEmpty()) {
+         return;
+      }
+
+      if (trace) {
+         ActiveMQServerLogger.LOGGER.trace("Tick " + currentTick + " expired " + due.size() + " scheduled deliveries");
+      }
+
+      Map<ScheduledDeliveryWheelHandler, List<Timeout>> batches = new HashMap<ScheduledDeliveryWheelHandler, List<Timeout>>();
+      for (Timeout timeout : due) {
+         List<Timeout> batch = batches.get(timeout.handler);
+         if (batch == null) {
+            batch = new ArrayList<Timeout>();
+            batches.put(timeout.handler, batch);
+         }
+         batch.add(timeout);
+      }
+      due.clear();
+
+      for (Map.Entry<ScheduledDeliveryWheelHandler, List<Timeout>> entry : batches.entrySet()) {
+         entry.getKey().deliver(entry.getValue());
+      }
+   }
+
+   private final class Worker implements Runnable {
+
+      public void run() {
+         List<Timeout> due = new ArrayList<Timeout>();
+
+         while (started) {
+            try {
+               Timeout timeout;
+               while ((timeout = pending.poll()) != null) {
+                  place(timeout, due);
+               }
+
+               long now = System.currentTimeMillis();
+               long nowTick = now / tickDuration;
+               while (currentTick < nowTick) {
+                  advance(due);
+               }
+               lastProcessedTick = currentTick;
+
+               expire(due);
+
+               // timeouts added while we were advancing could already be due
+               if (!pending.isEmpty()) {
+                  continue;
+               }
+
+               long sleep = (currentTick + 1) * tickDuration - System.currentTimeMillis();
+               if (sleep > 0) {
+                  LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(sleep));
+               }
+            }
+            catch (Throwable e) {
+               ActiveMQServerLogger.LOGGER.warn(e.getMessage(), e);
+            }
+         }
+      }
+   }
+
+   /**
+    * A scheduled delivery of a single reference.
+    */
+   static final class Timeout {
+
+      final ScheduledDeliveryWheelHandler handler;
+
+      final MessageReference ref;
+
+      final boolean tail;
+
+      final long sequence;
+
+      final long deliveryTime;
+
+      long deadlineTick;
+
+      // next timeout on the same wheel slot, only accessed by the timer thread
+      Timeout next;
+
+      // next timeout for the same message ID on the handler, guarded by the handler
+      Timeout nextWithSameID;
+
+      private volatile boolean cancelled;
+
+      Timeout(final ScheduledDeliveryWheelHandler handler,
+              final MessageReference ref,
+              final boolean tail,
+              final long sequence) {
+         this.handler = handler;
+         this.ref = ref;
+         this.tail = tail;
+         this.sequence = sequence;
+         this.deliveryTime = ref.getScheduledDeliveryTime();
+      }
+
+      void cancel() {
+         cancelled = true;
+      }
+
+      boolean isCancelled() {
+         return cancelled;
+      }
+   }
+}
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.ScheduledDeliveryHandler;
+import org.apache.activemq.artemis.core.server.impl.ScheduledDeliveryWheel.Timeout;
+
+/**
+ * A {@link ScheduledDeliveryHandler} backed by the broker wide {@link ScheduledDeliveryWheel}.
+ * <p>
+ * The references are only indexed here by message ID, their ordering is left to the wheel. Deliveries
+ * that become due on the same tick are handed back as a single batch which is delivered to the queue
+ * on its executor, keeping the same ordering {@link ScheduledDeliveryHandlerImpl} would have used.
+ */
+public class ScheduledDeliveryWheelHandler implements ScheduledDeliveryHandler {
+
+   private static final boolean trace = ActiveMQServerLogger.LOGGER.isTraceEnabled();
+
+   private static final Comparator<Timeout> DELIVERY_ORDER = new Comparator<Timeout>() {
+      public int compare(final Timeout t1, final Timeout t2) {
+         if (t1.deliveryTime != t2.deliveryTime) {
+            return t1.deliveryTime < t2.deliveryTime ? -1 : 1;
+         }
+         if (t1.tail != t2.tail) {
+            return t1.tail ? 1 : -1;
+         }
+         if (t1.sequence == t2.sequence) {
+            return 0;
+         }
+         // references added to the head are delivered in reverse order, the ones added to the tail in order
+         boolean before = t1.sequence < t2.sequence;
+         return before == t1.tail ? -1 : 1;
+      }
+   };
+
+   private final ScheduledDeliveryWheel wheel;
+
+   private final Executor executor;
+
+   // guarded by this
+   private final Map<Long, Timeout> scheduled = new HashMap<Long, Timeout>();
+
+   // guarded by this
+   private long sequence;
+
+   private volatile int scheduledCount;
+
+   ScheduledDeliveryWheelHandler(final ScheduledDeliveryWheel wheel, final Executor executor) {
+      this.wheel = wheel;
+      this.executor = executor;
+   }
+
+   public boolean checkAndSchedule(final MessageReference ref, final boolean tail) {
+      if (ref.getScheduledDeliveryTime() <= 0) {
+         return false;
+      }
+
+      if (trace) {
+         ActiveMQServerLogger.LOGGER.trace("Scheduling delivery for " + ref + " to occur at " + ref.getScheduledDeliveryTime());
+      }
+
+      Timeout timeout;
+      synchronized (this) {
+         timeout = new Timeout(this, ref, tail, sequence++);
+         Long id = ref.getMessage().getMessageID();
+         timeout.nextWithSameID = scheduled.put(id, timeout);
+         scheduledCount++;
+      }
+
+      wheel.schedule(timeout);
+
+      return true;
+   }
+
+   public int getScheduledCount() {
+      return scheduledCount;
+   }
+
+   public List<MessageReference> getScheduledReferences() {
+      List<Timeout> timeouts = new ArrayList<Timeout>();
+      synchronized (this) {
+         for (Timeout timeout : scheduled.values()) {
+            for (Timeout t = timeout; t != null; t = t.nextWithSameID) {
+               timeouts.add(t);
+            }
+         }
+      }
+      Collections.sort(timeouts, DELIVERY_ORDER);
+
+      List<MessageReference> refs = new LinkedList<MessageReference>();
+      for (Timeout timeout : timeouts) {
+         refs.add(timeout.ref);
+      }
+      return refs;
+   }
+
+   public List<MessageReference> cancel(final Filter filter) {
+      List<Timeout> timeouts = new ArrayList<Timeout>();
+      synchronized (this) {
+         Iterator<Timeout> iter = scheduled.values().iterator();
+         while (iter.hasNext()) {
+            Timeout head = iter.next();
+            Timeout kept = null;
+            Timeout t = head;
+            while (t != null) {
+               Timeout next = t.nextWithSameID;
+               if (filter == null || filter.match(t.ref.getMessage())) {
+                  t.cancel();
+                  timeouts.add(t);
+               }
+               else {
+                  t.nextWithSameID = kept;
+                  kept = t;
+               }
+               t = next;
+            }
+            if (kept == null) {
+               iter.remove();
+            }
+            else if (kept != head) {
+               scheduled.put(kept.ref.getMessage().getMessageID(), kept);
+            }
+         }
+         scheduledCount -= timeouts.size();
+      }
+      Collections.sort(timeouts, DELIVERY_ORDER);
+
+      List<MessageReference> refs = new ArrayList<MessageReference>(timeouts.size());
+      for (Timeout timeout : timeouts) {
+         refs.add(timeout.ref);
+      }
+      return refs;
+   }
+
+   public synchronized MessageReference removeReferenceWithID(final long id) {
+      Timeout head = scheduled.remove(id);
+      if (head == null) {
+         return null;
+      }
+      if (head.nextWithSameID != null) {
+         scheduled.put(id, head.nextWithSameID);
+      }
+      head.cancel();
+      scheduledCount--;
+      return head.ref;
+   }
+
+   /**
+    * Called by the wheel with the timeouts of this handler that became due on the same tick.
+    */
+   void deliver(final List<Timeout> timeouts) {
+      executor.execute(new Runnable() {
+         public void run() {
+            deliverNow(timeouts);
+         }
+      });
+   }
+
+   private void deliverNow(final List<Timeout> timeouts) {
+      HashMap<Queue, LinkedList<MessageReference>> refs = new HashMap<Queue, LinkedList<MessageReference>>();
+
+      Collections.sort(timeouts, DELIVERY_ORDER);
+
+      synchronized (this) {
+         for (Timeout timeout : timeouts) {
+            // it could have been cancelled or removed since the wheel expired it
+            if (timeout.isCancelled() || !unlink(timeout)) {
+               continue;
+            }
+
+            MessageReference reference = timeout.ref;
+
+            reference.setScheduledDeliveryTime(0);
+
+            LinkedList<MessageReference> references = refs.get(reference.getQueue());
+
+            if (references == null) {
+               references = new LinkedList<MessageReference>();
+               refs.put(reference.getQueue(), references);
+            }
+
+            references.addFirst(reference);
+         }
+      }
+
+      for (Map.Entry<Queue, LinkedList<MessageReference>> entry : refs.entrySet()) {
+         Queue queue = entry.getKey();
+         LinkedList<MessageReference> list = entry.getValue();
+         if (trace) {
+            ActiveMQServerLogger.LOGGER.trace("Delivering " + list.size() + " elements on list to queue " + queue);
+         }
+         queue.addHead(list);
+      }
+   }
+
+   // must be called holding the lock
+   private boolean unlink(final Timeout timeout) {
+      Long id = timeout.ref.getMessage().getMessageID();
+      Timeout head = scheduled.get(id);
+      Timeout previous = null;
+      for (Timeout t = head; t != null; previous = t, t = t.nextWithSameID) {
+         if (t == timeout) {
+            if (previous != null) {
+               previous.nextWithSameID = t.nextWithSameID;
+            }
+            else if (t.nextWithSameID != null) {
+               scheduled.put(id, t.nextWithSameID);
+            }
+            else {
+               scheduled.remove(id);
+            }
+            t.nextWithSameID = null;
+            scheduledCount--;
+            return true;
+         }
+      }
+      return false;
+   }
+}
@@ -884,6 +884,11 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
 
       private BodyEncoder context;
 
+      /**
+       * Where the chunks are sent from when they can be written to the connection as file regions
+       */
+      private LargeMessageFileRegion.Source fileSource;
+
       public LargeMessageDeliverer(final LargeServerMessage message, final MessageReference ref) throws Exception {
          largeMessage = message;
 
@@ -915,6 +920,10 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
 
                context.open();
 
+               if (largeMessage.getFile() != null) {
+                  fileSource = new LargeMessageFileRegion.Source(largeMessage);
+               }
+
                sentInitialPacket = true;
 
                int packetSize = callback.sendLargeMessage(largeMessage, ServerConsumerImpl.this, context.getLargeBodySize(), ref.getDeliveryCount());
@@ -952,15 +961,46 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
 
                localChunkLen = (int) Math.min(sizePendingLargeMessage - positionPendingLargeMessage, minLargeMessageSize);
 
-               ActiveMQBuffer bodyBuffer = ActiveMQBuffers.fixedBuffer(localChunkLen);
+               boolean continues = positionPendingLargeMessage + localChunkLen < sizePendingLargeMessage;
+
+               int packetSize = -1;
+
+               if (fileSource != null) {
+                  LargeMessageFileRegion region = fileSource.region(positionPendingLargeMessage, localChunkLen);
+
+                  packetSize = callback.sendLargeMessageContinuation(ServerConsumerImpl.this, region, continues);
+
+                  if (packetSize < 0) {
+                     // the connection can't take file regions (e.g. it's using SSL or there are interceptors)
+                     region.release();
+
+                     if (positionPendingLargeMessage == 0) {
+                        // nothing was sent from the file, the body encoder can carry on from the start
+                        fileSource.release();
+
+                        fileSource = null;
+                     }
+                  }
+               }
 
-               context.encode(bodyBuffer, localChunkLen);
+               if (packetSize < 0) {
+                  byte[] body;
 
-               byte[] body = bodyBuffer.toByteBuffer().array();
+                  if (fileSource != null) {
+                     body = fileSource.read(positionPendingLargeMessage, localChunkLen);
+                  }
+                  else {
+                     ActiveMQBuffer bodyBuffer = ActiveMQBuffers.fixedBuffer(localChunkLen);
 
-               int packetSize = callback.sendLargeMessageContinuation(ServerConsumerImpl.this, body, positionPendingLargeMessage + localChunkLen < sizePendingLargeMessage, false);
+                     context.encode(bodyBuffer, localChunkLen);
 
-               int chunkLen = body.length;
+                     body = bodyBuffer.toByteBuffer().array();
+                  }
+
+                  packetSize = callback.sendLargeMessageContinuation(ServerConsumerImpl.this, body, continues, false);
+               }
+
+               int chunkLen = localChunkLen;
 
                if (availableCredits != null) {
                   availableCredits.addAndGet(-packetSize);
@@ -1007,6 +1047,13 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
                context.close();
             }
 
+            if (fileSource != null) {
+               // the file is closed once the chunks still being written are done with it
+               fileSource.release();
+
+               fileSource = null;
+            }
+
             largeMessage.releaseResources();
 
             largeMessage.decrementDelayDeletionCount();
@@ -19,6 +19,7 @@ package org.apache.activemq.artemis.core.server.impl;
 import java.io.InputStream;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.message.impl.MessageImpl;
@@ -42,6 +43,9 @@ public class ServerMessageImpl extends MessageImpl implements ServerMessage {
 
    private boolean persisted = false;
 
+   // the body moved off heap by moveBodyOffHeap, kept apart from buffer since re-encoding may replace that by a copy
+   private OffHeapMessageBuffer offHeapBody;
+
    static {
       // This is an estimate of how much memory a ServerMessageImpl takes up, exclusing body and properties
       // Note, it is only an estimate, it's not possible to be entirely sure with Java
@@ -136,9 +140,62 @@ public class ServerMessageImpl extends MessageImpl implements ServerMessage {
          }
       }
 
+      if (count == 0) {
+         releaseOffHeapBody();
+      }
+
       return count;
    }
 
+   public synchronized void moveBodyOffHeap() {
+      if (buffer == null || offHeapBody != null || isLargeMessage() || refCount.get() == 0) {
+         return;
+      }
+
+      int previousEstimate = getMemoryEstimate();
+
+      // an encoded message may end past the writer index, which only covers the body once decoded from a packet
+      int length = Math.min(Math.max(buffer.writerIndex(), getEndOfMessagePosition()), buffer.capacity());
+
+      // room for encoding the headers and properties again, and for the consumer ID and delivery count
+      // written after them on delivery
+      int capacity = Math.max(length, MessageImpl.BUFFER_HEADER_SPACE + getEncodeSize()) + DataConstants.SIZE_LONG + DataConstants.SIZE_INT;
+
+      offHeapBody = OffHeapMessageBuffer.copyOf(buffer, length, capacity);
+
+      buffer = offHeapBody;
+
+      bodyBuffer = null;
+
+      memoryEstimate = -1;
+
+      if (pagingStore != null) {
+         pagingStore.addSize(getMemoryEstimate() - previousEstimate);
+      }
+   }
+
+   private synchronized void releaseOffHeapBody() {
+      if (offHeapBody != null) {
+         offHeapBody.release();
+      }
+   }
+
+   @Override
+   public synchronized ActiveMQBuffer getEncodedBuffer() {
+      ActiveMQBuffer encoded = super.getEncodedBuffer();
+
+      if (offHeapBody != null && encoded == offHeapBody) {
+         // the transport releases what it writes, so it gets its own reference on the pooled memory
+         OffHeapMessageBuffer duplicate = offHeapBody.retainedDuplicate();
+
+         duplicate.setIndex(encoded.readerIndex(), encoded.writerIndex());
+
+         return duplicate;
+      }
+
+      return encoded;
+   }
+
    public int incrementDurableRefCount() {
       return durableRefCount.incrementAndGet();
    }
@@ -159,7 +216,9 @@ public class ServerMessageImpl extends MessageImpl implements ServerMessage {
 
    public int getMemoryEstimate() {
       if (memoryEstimate == -1) {
-         memoryEstimate = ServerMessageImpl.memoryOffset + buffer.capacity() + properties.getMemoryOffset();
+         int bufferSize = offHeapBody != null && buffer == offHeapBody ? offHeapBody.getPooledSize() : buffer.capacity();
+
+         memoryEstimate = ServerMessageImpl.memoryOffset + bufferSize + properties.getMemoryOffset();
       }
 
       return memoryEstimate;
@@ -274,7 +333,7 @@ public class ServerMessageImpl extends MessageImpl implements ServerMessage {
 
    @Override
    public String toString() {
-      return "ServerMessage[messageID=" + messageID + ",durable=" + isDurable() + ",userID=" + getUserID() + ",priority=" + this.getPriority() + ", bodySize=" + this.getBodyBufferCopy().capacity() +
+      return "ServerMessage[messageID=" + messageID + ",durable=" + isDurable() + ",userID=" + getUserID() + ",priority=" + this.getPriority() + ", bodySize=" + buffer.capacity() +
          ", timestamp=" + toDate(getTimestamp()) + ",expiration=" + toDate(getExpiration()) +
          ", durable=" + durable + ", address=" + getAddress() + ",properties=" + properties.toString() + "]@" + System.identityHashCode(this);
    }
@@ -152,7 +152,7 @@ public class SharedNothingLiveActivation extends LiveActivation {
          ReplicationFailureListener listener = new ReplicationFailureListener();
          rc.addCloseListener(listener);
          rc.addFailureListener(listener);
-         replicationManager = new ReplicationManager(rc, activeMQServer.getExecutorFactory());
+         replicationManager = new ReplicationManager(rc, activeMQServer.getExecutorFactory(), replicatedPolicy.getReplicationWindow());
          replicationManager.start();
          Thread t = new Thread(new Runnable() {
             public void run() {
@@ -68,6 +68,16 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
 
    public static final SlowConsumerPolicy DEFAULT_SLOW_CONSUMER_POLICY = SlowConsumerPolicy.NOTIFY;
 
+   public static final DuplicateIDCacheType DEFAULT_DUPLICATE_ID_CACHE_TYPE = DuplicateIDCacheType.DEFAULT;
+
+   public static final int DEFAULT_MAX_GROUPS = -1;
+
+   public static final long DEFAULT_GROUP_IDLE_TIMEOUT = -1;
+
+   public static final int DEFAULT_REDISTRIBUTION_BATCH_SIZE = 1;
+
+   public static final boolean DEFAULT_MESSAGE_ID_INDEX = false;
+
    private AddressFullMessagePolicy addressFullMessagePolicy = null;
 
    private Long maxSizeBytes = null;
@@ -110,6 +120,16 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
 
    private Boolean autoDeleteJmsQueues = null;
 
+   private DuplicateIDCacheType duplicateIDCacheType = null;
+
+   private Integer maxGroups = null;
+
+   private Long groupIdleTimeout = null;
+
+   private Integer redistributionBatchSize = null;
+
+   private Boolean messageIDIndex = null;
+
    public AddressSettings(AddressSettings other) {
       this.addressFullMessagePolicy = other.addressFullMessagePolicy;
       this.maxSizeBytes = other.maxSizeBytes;
@@ -132,6 +152,11 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       this.slowConsumerPolicy = other.slowConsumerPolicy;
       this.autoCreateJmsQueues = other.autoCreateJmsQueues;
       this.autoDeleteJmsQueues = other.autoDeleteJmsQueues;
+      this.duplicateIDCacheType = other.duplicateIDCacheType;
+      this.maxGroups = other.maxGroups;
+      this.groupIdleTimeout = other.groupIdleTimeout;
+      this.redistributionBatchSize = other.redistributionBatchSize;
+      this.messageIDIndex = other.messageIDIndex;
    }
 
    public AddressSettings() {
@@ -310,6 +335,51 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       return this;
    }
 
+   public DuplicateIDCacheType getDuplicateIDCacheType() {
+      return duplicateIDCacheType != null ? duplicateIDCacheType : AddressSettings.DEFAULT_DUPLICATE_ID_CACHE_TYPE;
+   }
+
+   public AddressSettings setDuplicateIDCacheType(final DuplicateIDCacheType duplicateIDCacheType) {
+      this.duplicateIDCacheType = duplicateIDCacheType;
+      return this;
+   }
+
+   public int getMaxGroups() {
+      return maxGroups != null ? maxGroups : AddressSettings.DEFAULT_MAX_GROUPS;
+   }
+
+   public AddressSettings setMaxGroups(final int maxGroups) {
+      this.maxGroups = maxGroups;
+      return this;
+   }
+
+   public long getGroupIdleTimeout() {
+      return groupIdleTimeout != null ? groupIdleTimeout : AddressSettings.DEFAULT_GROUP_IDLE_TIMEOUT;
+   }
+
+   public AddressSettings setGroupIdleTimeout(final long groupIdleTimeout) {
+      this.groupIdleTimeout = groupIdleTimeout;
+      return this;
+   }
+
+   public int getRedistributionBatchSize() {
+      return redistributionBatchSize != null ? redistributionBatchSize : AddressSettings.DEFAULT_REDISTRIBUTION_BATCH_SIZE;
+   }
+
+   public AddressSettings setRedistributionBatchSize(final int redistributionBatchSize) {
+      this.redistributionBatchSize = redistributionBatchSize;
+      return this;
+   }
+
+   public boolean isMessageIDIndex() {
+      return messageIDIndex != null ? messageIDIndex : AddressSettings.DEFAULT_MESSAGE_ID_INDEX;
+   }
+
+   public AddressSettings setMessageIDIndex(final boolean messageIDIndex) {
+      this.messageIDIndex = messageIDIndex;
+      return this;
+   }
+
    public SlowConsumerPolicy getSlowConsumerPolicy() {
       return slowConsumerPolicy != null ? slowConsumerPolicy : AddressSettings.DEFAULT_SLOW_CONSUMER_POLICY;
    }
@@ -385,6 +455,21 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       if (autoDeleteJmsQueues == null) {
          autoDeleteJmsQueues = merged.autoDeleteJmsQueues;
       }
+      if (duplicateIDCacheType == null) {
+         duplicateIDCacheType = merged.duplicateIDCacheType;
+      }
+      if (maxGroups == null) {
+         maxGroups = merged.maxGroups;
+      }
+      if (groupIdleTimeout == null) {
+         groupIdleTimeout = merged.groupIdleTimeout;
+      }
+      if (redistributionBatchSize == null) {
+         redistributionBatchSize = merged.redistributionBatchSize;
+      }
+      if (messageIDIndex == null) {
+         messageIDIndex = merged.messageIDIndex;
+      }
    }
 
    @Override
@@ -444,6 +529,27 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       autoCreateJmsQueues = BufferHelper.readNullableBoolean(buffer);
 
       autoDeleteJmsQueues = BufferHelper.readNullableBoolean(buffer);
+
+      // settings persisted by older versions end here
+      if (buffer.readableBytes() > 0) {
+         policyStr = buffer.readNullableSimpleString();
+
+         duplicateIDCacheType = policyStr != null ? DuplicateIDCacheType.valueOf(policyStr.toString()) : null;
+      }
+
+      if (buffer.readableBytes() > 0) {
+         maxGroups = BufferHelper.readNullableInteger(buffer);
+
+         groupIdleTimeout = BufferHelper.readNullableLong(buffer);
+      }
+
+      if (buffer.readableBytes() > 0) {
+         redistributionBatchSize = BufferHelper.readNullableInteger(buffer);
+      }
+
+      if (buffer.readableBytes() > 0) {
+         messageIDIndex = BufferHelper.readNullableBoolean(buffer);
+      }
    }
 
    @Override
@@ -469,7 +575,12 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
          BufferHelper.sizeOfNullableLong(slowConsumerThreshold) +
          BufferHelper.sizeOfNullableSimpleString(slowConsumerPolicy != null ? slowConsumerPolicy.toString() : null) +
          BufferHelper.sizeOfNullableBoolean(autoCreateJmsQueues) +
-         BufferHelper.sizeOfNullableBoolean(autoDeleteJmsQueues);
+         BufferHelper.sizeOfNullableBoolean(autoDeleteJmsQueues) +
+         BufferHelper.sizeOfNullableSimpleString(duplicateIDCacheType != null ? duplicateIDCacheType.toString() : null) +
+         BufferHelper.sizeOfNullableInteger(maxGroups) +
+         BufferHelper.sizeOfNullableLong(groupIdleTimeout) +
+         BufferHelper.sizeOfNullableInteger(redistributionBatchSize) +
+         BufferHelper.sizeOfNullableBoolean(messageIDIndex);
    }
 
    @Override
@@ -515,6 +626,16 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       BufferHelper.writeNullableBoolean(buffer, autoCreateJmsQueues);
 
       BufferHelper.writeNullableBoolean(buffer, autoDeleteJmsQueues);
+
+      buffer.writeNullableSimpleString(duplicateIDCacheType != null ? new SimpleString(duplicateIDCacheType.toString()) : null);
+
+      BufferHelper.writeNullableInteger(buffer, maxGroups);
+
+      BufferHelper.writeNullableLong(buffer, groupIdleTimeout);
+
+      BufferHelper.writeNullableInteger(buffer, redistributionBatchSize);
+
+      BufferHelper.writeNullableBoolean(buffer, messageIDIndex);
    }
 
    /* (non-Javadoc)
@@ -545,6 +666,11 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       result = prime * result + ((slowConsumerPolicy == null) ? 0 : slowConsumerPolicy.hashCode());
       result = prime * result + ((autoCreateJmsQueues == null) ? 0 : autoCreateJmsQueues.hashCode());
       result = prime * result + ((autoDeleteJmsQueues == null) ? 0 : autoDeleteJmsQueues.hashCode());
+      result = prime * result + ((duplicateIDCacheType == null) ? 0 : duplicateIDCacheType.hashCode());
+      result = prime * result + ((maxGroups == null) ? 0 : maxGroups.hashCode());
+      result = prime * result + ((groupIdleTimeout == null) ? 0 : groupIdleTimeout.hashCode());
+      result = prime * result + ((redistributionBatchSize == null) ? 0 : redistributionBatchSize.hashCode());
+      result = prime * result + ((messageIDIndex == null) ? 0 : messageIDIndex.hashCode());
       return result;
    }
 
@@ -686,6 +812,36 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       }
       else if (!autoDeleteJmsQueues.equals(other.autoDeleteJmsQueues))
          return false;
+      if (duplicateIDCacheType == null) {
+         if (other.duplicateIDCacheType != null)
+            return false;
+      }
+      else if (!duplicateIDCacheType.equals(other.duplicateIDCacheType))
+         return false;
+      if (maxGroups == null) {
+         if (other.maxGroups != null)
+            return false;
+      }
+      else if (!maxGroups.equals(other.maxGroups))
+         return false;
+      if (groupIdleTimeout == null) {
+         if (other.groupIdleTimeout != null)
+            return false;
+      }
+      else if (!groupIdleTimeout.equals(other.groupIdleTimeout))
+         return false;
+      if (redistributionBatchSize == null) {
+         if (other.redistributionBatchSize != null)
+            return false;
+      }
+      else if (!redistributionBatchSize.equals(other.redistributionBatchSize))
+         return false;
+      if (messageIDIndex == null) {
+         if (other.messageIDIndex != null)
+            return false;
+      }
+      else if (!messageIDIndex.equals(other.messageIDIndex))
+         return false;
       return true;
    }
 
@@ -735,6 +891,16 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
          autoCreateJmsQueues +
          ", autoDeleteJmsQueues=" +
          autoDeleteJmsQueues +
+         ", duplicateIDCacheType=" +
+         duplicateIDCacheType +
+         ", maxGroups=" +
+         maxGroups +
+         ", groupIdleTimeout=" +
+         groupIdleTimeout +
+         ", redistributionBatchSize=" +
+         redistributionBatchSize +
+         ", messageIDIndex=" +
+         messageIDIndex +
          "]";
    }
 }
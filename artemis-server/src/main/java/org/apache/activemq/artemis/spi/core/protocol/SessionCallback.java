@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.artemis.spi.core.protocol;
 
+import io.netty.channel.FileRegion;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.server.ServerConsumer;
 import org.apache.activemq.artemis.core.server.ServerMessage;
@@ -41,6 +42,16 @@ public interface SessionCallback {
                                     boolean continues,
                                     boolean requiresResponse);
 
+   /**
+    * Sends the next chunk of a large message as a region of the file the message is stored in,
+    * so the chunk is written to the connection without being copied into the heap.
+    *
+    * @return the size of the packet sent, or -1 if the chunk wasn't sent and has to be sent through
+    * {@link #sendLargeMessageContinuation(ServerConsumer, byte[], boolean, boolean)} instead,
+    * in which case the region is left untouched
+    */
+   int sendLargeMessageContinuation(ServerConsumer consumerID, FileRegion body, boolean continues);
+
    void closed();
 
    void addReadyListener(ReadyListener listener);
@@ -40,6 +40,7 @@ import org.apache.activemq.artemis.core.remoting.impl.netty.TransportConstants;
 import org.apache.activemq.artemis.core.security.Role;
 import org.apache.activemq.artemis.core.server.JournalType;
 import org.apache.activemq.artemis.core.server.cluster.impl.MessageLoadBalancingType;
+import org.apache.activemq.artemis.core.settings.impl.DuplicateIDCacheType;
 import org.apache.activemq.artemis.core.settings.impl.SlowConsumerPolicy;
 import org.junit.Assert;
 import org.junit.Test;
@@ -57,6 +58,8 @@ public class FileConfigurationTest extends ConfigurationImplTest {
       Assert.assertEquals(true, conf.isClustered());
       Assert.assertEquals(12345, conf.getScheduledThreadPoolMaxSize());
       Assert.assertEquals(54321, conf.getThreadPoolMaxSize());
+      Assert.assertTrue(conf.isMpscOrderedExecutor());
+      Assert.assertEquals(128, conf.getOrderedExecutorBatchSize());
       Assert.assertEquals(false, conf.isSecurityEnabled());
       Assert.assertEquals(5423, conf.getSecurityInvalidationInterval());
       Assert.assertEquals(true, conf.isWildcardRoutingEnabled());
@@ -74,8 +77,10 @@ public class FileConfigurationTest extends ConfigurationImplTest {
       Assert.assertEquals(56789, conf.getTransactionTimeoutScanPeriod());
       Assert.assertEquals(10111213, conf.getMessageExpiryScanPeriod());
       Assert.assertEquals(8, conf.getMessageExpiryThreadPriority());
+      Assert.assertEquals(5, conf.getScheduledDeliveryTickDuration());
       Assert.assertEquals(127, conf.getIDCacheSize());
       Assert.assertEquals(true, conf.isPersistIDCache());
+      Assert.assertEquals(true, conf.isOffHeapMessageBodies());
       Assert.assertEquals(true, conf.isPersistDeliveryCountBeforeDelivery());
       Assert.assertEquals("pagingdir", conf.getPagingDirectory());
       Assert.assertEquals("somedir", conf.getBindingsDirectory());
@@ -94,6 +99,7 @@ public class FileConfigurationTest extends ConfigurationImplTest {
       Assert.assertEquals(12345678, conf.getJournalFileSize());
       Assert.assertEquals(100, conf.getJournalMinFiles());
       Assert.assertEquals(123, conf.getJournalCompactMinFiles());
+      Assert.assertEquals(7, conf.getJournalLoadThreads());
       Assert.assertEquals(33, conf.getJournalCompactPercentage());
       Assert.assertEquals(true, conf.isGracefulShutdownEnabled());
       Assert.assertEquals(12345, conf.getGracefulShutdownTimeout());
@@ -283,6 +289,11 @@ public class FileConfigurationTest extends ConfigurationImplTest {
       assertEquals(SlowConsumerPolicy.NOTIFY, conf.getAddressesSettings().get("a1").getSlowConsumerPolicy());
       assertEquals(true, conf.getAddressesSettings().get("a1").isAutoCreateJmsQueues());
       assertEquals(true, conf.getAddressesSettings().get("a1").isAutoDeleteJmsQueues());
+      assertEquals(DuplicateIDCacheType.DEFAULT, conf.getAddressesSettings().get("a1").getDuplicateIDCacheType());
+      assertEquals(-1, conf.getAddressesSettings().get("a1").getMaxGroups());
+      assertEquals(-1, conf.getAddressesSettings().get("a1").getGroupIdleTimeout());
+      assertEquals(1, conf.getAddressesSettings().get("a1").getRedistributionBatchSize());
+      assertEquals(false, conf.getAddressesSettings().get("a1").isMessageIDIndex());
 
       assertEquals("a2.1", conf.getAddressesSettings().get("a2").getDeadLetterAddress().toString());
       assertEquals("a2.2", conf.getAddressesSettings().get("a2").getExpiryAddress().toString());
@@ -296,6 +307,11 @@ public class FileConfigurationTest extends ConfigurationImplTest {
       assertEquals(SlowConsumerPolicy.KILL, conf.getAddressesSettings().get("a2").getSlowConsumerPolicy());
       assertEquals(false, conf.getAddressesSettings().get("a2").isAutoCreateJmsQueues());
       assertEquals(false, conf.getAddressesSettings().get("a2").isAutoDeleteJmsQueues());
+      assertEquals(DuplicateIDCacheType.OFF_HEAP, conf.getAddressesSettings().get("a2").getDuplicateIDCacheType());
+      assertEquals(1000, conf.getAddressesSettings().get("a2").getMaxGroups());
+      assertEquals(60000, conf.getAddressesSettings().get("a2").getGroupIdleTimeout());
+      assertEquals(500, conf.getAddressesSettings().get("a2").getRedistributionBatchSize());
+      assertEquals(true, conf.getAddressesSettings().get("a2").isMessageIDIndex());
 
       assertTrue(conf.getResourceLimitSettings().containsKey("myUser"));
       assertEquals(104, conf.getResourceLimitSettings().get("myUser").getMaxConnections());
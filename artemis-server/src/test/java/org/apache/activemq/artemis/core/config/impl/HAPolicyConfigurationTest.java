@@ -122,6 +122,7 @@ public class HAPolicyConfigurationTest extends ActiveMQTestBase {
          assertTrue(replicatedPolicy.isCheckForLiveServer());
          assertEquals(replicatedPolicy.getClusterName(), "abcdefg");
          assertEquals(replicatedPolicy.getInitialReplicationSyncTimeout(), 9876);
+         assertEquals(replicatedPolicy.getReplicationWindow(), 5);
       }
       finally {
          server.stop();
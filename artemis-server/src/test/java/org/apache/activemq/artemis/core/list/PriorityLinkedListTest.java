@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.artemis.core.list;
 
+import org.apache.activemq.artemis.utils.IDSupplier;
 import org.apache.activemq.artemis.utils.LinkedListIterator;
 import org.apache.activemq.artemis.utils.PriorityLinkedListImpl;
 import org.junit.Assert;
@@ -817,6 +818,44 @@ public final class PriorityLinkedListTest extends Assert {
       Assert.assertNull(list.poll());
    }
 
+   @Test
+   public void testRemoveWithID() {
+      PriorityLinkedListImpl<Wibble> indexed = new PriorityLinkedListImpl<Wibble>(10, new IDSupplier<Wibble>() {
+         public long getID(Wibble element) {
+            return element.s1.charAt(0);
+         }
+      });
+
+      indexed.addTail(a, 0);
+      indexed.addTail(b, 3);
+      indexed.addTail(c, 3);
+      indexed.addTail(d, 9);
+      indexed.addTail(e, 9);
+
+      LinkedListIterator<Wibble> iter = indexed.iterator();
+      assertTrue(iter.hasNext());
+      assertEquals(d, iter.next());
+
+      assertEquals(c, indexed.peekWithID('c'));
+      assertEquals(c, indexed.removeWithID('c'));
+      assertNull(indexed.removeWithID('c'));
+      assertEquals(d, indexed.removeWithID('d'));
+      assertEquals(e, indexed.removeWithID('e'));
+      assertNull(indexed.peekWithID('z'));
+      assertEquals(2, indexed.size());
+
+      assertTrue(iter.hasNext());
+      assertEquals(b, iter.next());
+      iter.close();
+
+      assertEquals(b, indexed.poll());
+      assertEquals(a, indexed.poll());
+      assertNull(indexed.poll());
+      assertTrue(indexed.isEmpty());
+
+      assertNull(list.removeWithID('a'));
+   }
+
    @Test
    public void testMixupIterator() {
       list.addTail(c, 5);
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.messagecounter;
+
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MessageCounterSamplesTest extends ActiveMQTestBase {
+
+   @Test
+   public void testSampleOnEveryUpdate() {
+      MessageCounterSamples samples = new MessageCounterSamples(0, 3);
+
+      // the first update only starts the interval
+      samples.update(1000, 5, 0, 5);
+      Assert.assertEquals(0, samples.getSamples().length);
+
+      samples.update(2000, 10, 4, 11);
+      samples.update(4000, 0, 6, 5);
+
+      MessageCounterSamples.Sample[] list = samples.getSamples();
+      Assert.assertEquals(2, list.length);
+
+      Assert.assertEquals(2000, list[0].getTimestamp());
+      Assert.assertEquals(1000, list[0].getDuration());
+      Assert.assertEquals(15, list[0].getAdded());
+      Assert.assertEquals(4, list[0].getAcknowledged());
+      Assert.assertEquals(11, list[0].getDepth());
+      Assert.assertEquals(15.0, list[0].getAddRate(), 0.001);
+      Assert.assertEquals(6.0, list[0].getDepthRate(), 0.001);
+
+      Assert.assertEquals(4000, list[1].getTimestamp());
+      Assert.assertEquals(3.0, list[1].getAcknowledgeRate(), 0.001);
+      Assert.assertEquals(-3.0, list[1].getDepthRate(), 0.001);
+   }
+
+   @Test
+   public void testOldestSamplesOverwritten() {
+      MessageCounterSamples samples = new MessageCounterSamples(0, 3);
+
+      for (int i = 0; i <= 10; i++) {
+         samples.update(i * 1000, 1, 1, i);
+      }
+
+      MessageCounterSamples.Sample[] list = samples.getSamples();
+      Assert.assertEquals(3, list.length);
+      for (int i = 0; i < list.length; i++) {
+         Assert.assertEquals(8 + i, list[i].getDepth());
+      }
+   }
+
+   @Test
+   public void testSamplesAggregatedOnResolution() {
+      MessageCounterSamples samples = new MessageCounterSamples(60000, 10);
+
+      samples.update(30000, 0, 0, 0);
+      samples.update(40000, 2, 0, 2);
+      samples.update(50000, 2, 1, 3);
+      Assert.assertEquals(0, samples.getSamples().length);
+
+      samples.update(60000, 2, 1, 4);
+
+      MessageCounterSamples.Sample[] list = samples.getSamples();
+      Assert.assertEquals(1, list.length);
+      Assert.assertEquals(30000, list[0].getDuration());
+      Assert.assertEquals(6, list[0].getAdded());
+      Assert.assertEquals(2, list[0].getAcknowledged());
+      Assert.assertEquals(4, list[0].getDepth());
+      Assert.assertEquals(0.2, list[0].getAddRate(), 0.001);
+   }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.postoffice.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PersistentHashMapTest {
+
+   @Test
+   public void testPutGetRemove() {
+      PersistentHashMap<String, Integer> empty = PersistentHashMap.empty();
+      PersistentHashMap<String, Integer> map = empty.put("a", 1).put("b", 2).put("a", 3);
+
+      Assert.assertEquals(2, map.size());
+      Assert.assertEquals(Integer.valueOf(3), map.get("a"));
+      Assert.assertEquals(Integer.valueOf(2), map.get("b"));
+      Assert.assertNull(map.get("c"));
+
+      Assert.assertSame(map, map.remove("c"));
+
+      PersistentHashMap<String, Integer> removed = map.remove("a");
+      Assert.assertEquals(1, removed.size());
+      Assert.assertNull(removed.get("a"));
+
+      // the previous versions are left unchanged
+      Assert.assertTrue(empty.isEmpty());
+      Assert.assertEquals(Integer.valueOf(3), map.get("a"));
+   }
+
+   @Test
+   public void testSameAsHashMap() {
+      Random random = new Random(1);
+      PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+      Map<Key, Integer> expected = new HashMap<Key, Integer>();
+
+      PersistentHashMap<Key, Integer> halfway = null;
+      Map<Key, Integer> expectedHalfway = null;
+
+      for (int i = 0; i < 100000; i++) {
+         int value = random.nextInt(5000);
+         // a quarter of the keys share a few hashes, to be chained
+         Key key = new Key(random.nextInt(4) == 0 ? value % 7 : value * 31, value);
+         if (random.nextInt(3) == 0) {
+            map = map.remove(key);
+            expected.remove(key);
+         }
+         else {
+            map = map.put(key, i);
+            expected.put(key, i);
+         }
+
+         if (i == 50000) {
+            halfway = map;
+            expectedHalfway = new HashMap<Key, Integer>(expected);
+         }
+      }
+
+      assertSame(expected, map);
+      assertSame(expectedHalfway, halfway);
+   }
+
+   private static void assertSame(final Map<Key, Integer> expected, final PersistentHashMap<Key, Integer> map) {
+      Assert.assertEquals(expected.size(), map.size());
+
+      int entries = 0;
+      for (Map.Entry<Key, Integer> entry : map) {
+         Assert.assertEquals(expected.get(entry.getKey()), entry.getValue());
+         entries++;
+      }
+      Assert.assertEquals(expected.size(), entries);
+
+      for (Map.Entry<Key, Integer> entry : expected.entrySet()) {
+         Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+      }
+   }
+
+   private static final class Key {
+
+      private final int hash;
+
+      private final int value;
+
+      Key(final int hash, final int value) {
+         this.hash = hash;
+         this.value = value;
+      }
+
+      @Override
+      public int hashCode() {
+         return hash;
+      }
+
+      @Override
+      public boolean equals(final Object other) {
+         return other instanceof Key && ((Key) other).value == value;
+      }
+   }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.security.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.activemq.artemis.api.core.ActiveMQSecurityException;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.security.CheckType;
+import org.apache.activemq.artemis.core.security.Role;
+import org.apache.activemq.artemis.core.security.SecurityAuth;
+import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
+import org.apache.activemq.artemis.core.settings.impl.HierarchicalObjectRepository;
+import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
+import org.apache.activemq.artemis.spi.core.security.ActiveMQSecurityManagerImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SecurityStoreImplTest extends Assert {
+
+   private static final SimpleString ADDRESS_A = new SimpleString("a.queue");
+
+   private static final SimpleString ADDRESS_B = new SimpleString("b.queue");
+
+   private HierarchicalRepository<Set<Role>> repository;
+
+   private ActiveMQSecurityManagerImpl securityManager;
+
+   private final SecurityAuth session = new SecurityAuth() {
+      public String getUsername() {
+         return "user";
+      }
+
+      public String getPassword() {
+         return "password";
+      }
+
+      public RemotingConnection getRemotingConnection() {
+         return null;
+      }
+   };
+
+   private final SecurityAuth otherSession = new SecurityAuth() {
+      public String getUsername() {
+         return "other";
+      }
+
+      public String getPassword() {
+         return "password";
+      }
+
+      public RemotingConnection getRemotingConnection() {
+         return null;
+      }
+   };
+
+   @Before
+   public void setUp() throws Exception {
+      repository = new HierarchicalObjectRepository<Set<Role>>();
+      repository.addMatch("a.#", roles(true));
+      repository.addMatch("b.#", roles(true));
+
+      securityManager = new ActiveMQSecurityManagerImpl();
+      securityManager.getConfiguration().addUser("user", "password");
+      securityManager.getConfiguration().addRole("user", "role");
+      securityManager.getConfiguration().addUser("other", "password");
+      securityManager.getConfiguration().addRole("other", "role");
+   }
+
+   @Test
+   public void testCachedPermissions() throws Exception {
+      SecurityStoreImpl store = new SecurityStoreImpl(repository, securityManager, 10000, true, "cluster", "cluster", null);
+
+      store.check(ADDRESS_A, CheckType.SEND, session);
+      store.check(ADDRESS_A, CheckType.SEND, session);
+      store.check(ADDRESS_A, CheckType.CONSUME, session);
+
+      assertEquals(1, store.getCacheHits());
+      assertEquals(2, store.getCacheMisses());
+      assertEquals(0, store.getCacheReloads());
+   }
+
+   @Test
+   public void testChangeOnlyInvalidatesMatchingAddresses() throws Exception {
+      SecurityStoreImpl store = new SecurityStoreImpl(repository, securityManager, 10000, true, "cluster", "cluster", null);
+
+      store.check(ADDRESS_A, CheckType.SEND, session);
+      store.check(ADDRESS_B, CheckType.SEND, session);
+
+      repository.addMatch("b.#", roles(false));
+
+      store.check(ADDRESS_A, CheckType.SEND, session);
+      assertEquals(1, store.getCacheHits());
+
+      try {
+         store.check(ADDRESS_B, CheckType.SEND, session);
+         fail("the permission to send to " + ADDRESS_B + " should have been revoked");
+      }
+      catch (ActiveMQSecurityException expected) {
+      }
+      assertEquals(3, store.getCacheMisses());
+
+      store.stop();
+   }
+
+   @Test
+   public void testExpiredPermissionsAreReloaded() throws Exception {
+      SecurityStoreImpl store = new SecurityStoreImpl(repository, securityManager, 0, true, "cluster", "cluster", null);
+
+      store.check(ADDRESS_A, CheckType.SEND, session);
+      store.check(ADDRESS_A, CheckType.SEND, session);
+
+      assertEquals(0, store.getCacheHits());
+      assertEquals(1, store.getCacheMisses());
+      assertEquals(1, store.getCacheReloads());
+   }
+
+   @Test
+   public void testExpiredPermissionsAreEvicted() throws Exception {
+      SecurityStoreImpl store = new SecurityStoreImpl(repository, securityManager, 100, true, "cluster", "cluster", null);
+
+      // addresses never checked again, such as temporary queues, by a user who then leaves
+      for (int i = 0; i < 10; i++) {
+         store.check(new SimpleString("a.temp." + i), CheckType.SEND, session);
+      }
+      assertEquals(10, store.getCachedPermissionCount());
+      assertEquals(1, store.getCachedUserCount());
+
+      Thread.sleep(200);
+
+      // any miss once the interval has elapsed drops the expired permissions of every user
+      store.check(ADDRESS_B, CheckType.SEND, otherSession);
+
+      assertEquals(1, store.getCachedPermissionCount());
+      assertEquals(1, store.getCachedUserCount());
+      assertEquals(0, store.getCacheReloads());
+
+      store.stop();
+   }
+
+   private static Set<Role> roles(final boolean send) {
+      Set<Role> roles = new HashSet<Role>();
+      roles.add(new Role("role", send, true, true, true, true, true, true));
+      return roles;
+   }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.server.Consumer;
+import org.apache.activemq.artemis.core.server.HandleStatus;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MessageGroupRegistryTest {
+
+   private static final SimpleString GROUP_A = new SimpleString("A");
+
+   private static final SimpleString GROUP_B = new SimpleString("B");
+
+   private static final SimpleString GROUP_C = new SimpleString("C");
+
+   @Test
+   public void testPutAndGet() {
+      MessageGroupRegistry registry = new MessageGroupRegistry();
+      Consumer consumer = new GroupConsumer("c1");
+
+      Assert.assertNull(registry.get(GROUP_A));
+
+      registry.put(GROUP_A, consumer);
+
+      Assert.assertSame(consumer, registry.get(GROUP_A));
+      Assert.assertEquals(1, registry.size());
+   }
+
+   @Test
+   public void testPutReassignsGroup() {
+      MessageGroupRegistry registry = new MessageGroupRegistry();
+      Consumer consumer1 = new GroupConsumer("c1");
+      Consumer consumer2 = new GroupConsumer("c2");
+
+      registry.put(GROUP_A, consumer1);
+      registry.put(GROUP_A, consumer2);
+
+      Assert.assertSame(consumer2, registry.get(GROUP_A));
+      Assert.assertEquals(1, registry.size());
+   }
+
+   @Test
+   public void testRemoveConsumerReleasesItsGroups() {
+      MessageGroupRegistry registry = new MessageGroupRegistry();
+      Consumer consumer1 = new GroupConsumer("c1");
+      Consumer consumer2 = new GroupConsumer("c2");
+
+      registry.put(GROUP_A, consumer1);
+      registry.put(GROUP_B, consumer2);
+      registry.put(GROUP_C, consumer1);
+
+      registry.removeConsumer(consumer1);
+
+      Assert.assertEquals(1, registry.size());
+      Assert.assertNull(registry.get(GROUP_A));
+      Assert.assertSame(consumer2, registry.get(GROUP_B));
+      Assert.assertNull(registry.get(GROUP_C));
+      Assert.assertFalse(registry.remove(GROUP_A));
+
+      Map<SimpleString, Consumer> groups = registry.getGroups();
+      Assert.assertEquals(1, groups.size());
+      Assert.assertSame(consumer2, groups.get(GROUP_B));
+
+      // the consumer can be assigned groups again once it's been removed
+      registry.put(GROUP_A, consumer1);
+      Assert.assertSame(consumer1, registry.get(GROUP_A));
+      Assert.assertEquals(2, registry.size());
+   }
+
+   @Test
+   public void testMaxGroupsEvictsLeastRecentlyUsed() {
+      MessageGroupRegistry registry = new MessageGroupRegistry();
+      registry.setMaxGroups(2);
+      Consumer consumer = new GroupConsumer("c1");
+
+      registry.put(GROUP_A, consumer);
+      registry.put(GROUP_B, consumer);
+      registry.get(GROUP_A);
+      registry.put(GROUP_C, consumer);
+
+      Assert.assertEquals(2, registry.size());
+      Assert.assertSame(consumer, registry.get(GROUP_A));
+      Assert.assertNull(registry.get(GROUP_B));
+      Assert.assertSame(consumer, registry.get(GROUP_C));
+   }
+
+   @Test
+   public void testIdleGroupsExpire() throws Exception {
+      MessageGroupRegistry registry = new MessageGroupRegistry();
+      registry.setIdleTimeout(50);
+      Consumer consumer = new GroupConsumer("c1");
+
+      registry.put(GROUP_A, consumer);
+      Assert.assertSame(consumer, registry.get(GROUP_A));
+
+      Thread.sleep(100);
+
+      Assert.assertEquals(0, registry.size());
+      Assert.assertNull(registry.get(GROUP_A));
+   }
+
+   @Test
+   public void testRemoveAndClear() {
+      MessageGroupRegistry registry = new MessageGroupRegistry();
+      Consumer consumer = new GroupConsumer("c1");
+
+      registry.put(GROUP_A, consumer);
+      registry.put(GROUP_B, consumer);
+
+      Assert.assertTrue(registry.remove(GROUP_A));
+      Assert.assertFalse(registry.remove(GROUP_A));
+      Assert.assertEquals(1, registry.size());
+
+      registry.clear();
+
+      Assert.assertEquals(0, registry.size());
+      Assert.assertNull(registry.get(GROUP_B));
+      Assert.assertTrue(registry.getGroups().isEmpty());
+   }
+
+   private static final class GroupConsumer implements Consumer {
+
+      private final String name;
+
+      private GroupConsumer(final String name) {
+         this.name = name;
+      }
+
+      @Override
+      public HandleStatus handle(final MessageReference reference) throws Exception {
+         return HandleStatus.BUSY;
+      }
+
+      @Override
+      public void proceedDeliver(final MessageReference reference) throws Exception {
+      }
+
+      @Override
+      public Filter getFilter() {
+         return null;
+      }
+
+      @Override
+      public List<MessageReference> getDeliveringMessages() {
+         return null;
+      }
+
+      @Override
+      public String debug() {
+         return name;
+      }
+
+      @Override
+      public String toManagementString() {
+         return name;
+      }
+
+      @Override
+      public void disconnect() {
+      }
+   }
+}
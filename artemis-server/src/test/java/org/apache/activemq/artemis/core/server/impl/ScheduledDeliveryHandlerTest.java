@@ -44,6 +44,7 @@ import org.apache.activemq.artemis.core.server.Consumer;
 import org.apache.activemq.artemis.core.server.MessageReference;
 import org.apache.activemq.artemis.core.server.Queue;
 import org.apache.activemq.artemis.core.server.RoutingContext;
+import org.apache.activemq.artemis.core.server.ScheduledDeliveryHandler;
 import org.apache.activemq.artemis.core.server.ServerMessage;
 import org.apache.activemq.artemis.core.transaction.Transaction;
 import org.apache.activemq.artemis.tests.util.RandomUtil;
@@ -228,7 +229,142 @@ public class ScheduledDeliveryHandlerTest extends Assert {
       }
    }
 
-   private void validateSequence(ScheduledDeliveryHandlerImpl handler) {
+   @Test
+   public void testWheelScheduleWithAddHeads() throws Exception {
+      ScheduledDeliveryWheel wheel = new ScheduledDeliveryWheel(1, Executors.defaultThreadFactory());
+      ScheduledDeliveryHandler handler = wheel.createHandler(null);
+
+      checkAndSchedule(handler, 0, 1, true, null);
+      checkAndSchedule(handler, 1, 2, true, null);
+      checkAndSchedule(handler, 2, 3, true, null);
+      checkAndSchedule(handler, 3, 3, true, null);
+      checkAndSchedule(handler, 4, 4, true, null);
+
+      checkAndSchedule(handler, 10, 5, false, null);
+      checkAndSchedule(handler, 9, 5, false, null);
+      checkAndSchedule(handler, 8, 5, false, null);
+      checkAndSchedule(handler, 7, 5, false, null);
+      checkAndSchedule(handler, 6, 5, false, null);
+      checkAndSchedule(handler, 5, 5, false, null);
+
+      assertEquals(11, handler.getScheduledCount());
+
+      validateSequence(handler);
+   }
+
+   @Test
+   public void testWheelCancelAndRemove() throws Exception {
+      ScheduledDeliveryWheel wheel = new ScheduledDeliveryWheel(1, Executors.defaultThreadFactory());
+      ScheduledDeliveryHandler handler = wheel.createHandler(null);
+
+      long time = System.currentTimeMillis() + 60000;
+      for (int i = 0; i < 100; i++) {
+         checkAndSchedule(handler, i, time + i, true, null);
+      }
+      // the same message could be scheduled twice on the same queue
+      checkAndSchedule(handler, 50, time, true, null);
+
+      assertEquals(101, handler.getScheduledCount());
+
+      assertEquals(50, handler.removeReferenceWithID(50).getMessage().getMessageID());
+      assertEquals(50, handler.removeReferenceWithID(50).getMessage().getMessageID());
+      assertNull(handler.removeReferenceWithID(50));
+      assertEquals(99, handler.getScheduledCount());
+
+      List<MessageReference> cancelled = handler.cancel(null);
+      assertEquals(99, cancelled.size());
+      assertEquals(0, handler.getScheduledCount());
+      assertTrue(handler.getScheduledReferences().isEmpty());
+   }
+
+   @Test
+   public void testWheelDelivery() throws Exception {
+      final int NUMBER_OF_MESSAGES = 200;
+      int NUMBER_OF_THREADS = 20;
+
+      ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+      ScheduledDeliveryWheel wheel = new ScheduledDeliveryWheel(1, Executors.defaultThreadFactory());
+      wheel.start();
+      try {
+         final ScheduledDeliveryHandler handler = wheel.createHandler(executor);
+         final FakeQueueForScheduleUnitTest fakeQueue = new FakeQueueForScheduleUnitTest(NUMBER_OF_MESSAGES * NUMBER_OF_THREADS);
+
+         final long now = System.currentTimeMillis();
+
+         final CountDownLatch latchDone = new CountDownLatch(NUMBER_OF_THREADS);
+
+         final AtomicInteger error = new AtomicInteger(0);
+
+         for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+            final int thread = i;
+            executor.execute(new Runnable() {
+               public void run() {
+                  try {
+                     for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+                        // half of them are already due, the other half is a few ticks away
+                        checkAndSchedule(handler, thread * NUMBER_OF_MESSAGES + i, now + (i % 2) * 50, false, fakeQueue);
+                     }
+                  }
+                  catch (Exception e) {
+                     e.printStackTrace();
+                     error.incrementAndGet();
+                  }
+                  finally {
+                     latchDone.countDown();
+                  }
+               }
+            });
+         }
+
+         assertTrue(latchDone.await(1, TimeUnit.MINUTES));
+
+         assertEquals(0, error.get());
+
+         if (!fakeQueue.waitCompletion(2, TimeUnit.SECONDS)) {
+            fail("Couldn't complete queue.add, still missing " + fakeQueue.expectedElements.toString());
+         }
+
+         assertEquals(0, handler.getScheduledCount());
+      }
+      finally {
+         wheel.stop();
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testWheelDeliveryOrder() throws Exception {
+      final int NUMBER_OF_MESSAGES = 1000;
+
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      ScheduledDeliveryWheel wheel = new ScheduledDeliveryWheel(1, Executors.defaultThreadFactory());
+      wheel.start();
+      try {
+         ScheduledDeliveryHandler handler = wheel.createHandler(executor);
+         FakeQueueForScheduleUnitTest fakeQueue = new FakeQueueForScheduleUnitTest(NUMBER_OF_MESSAGES);
+
+         long time = System.currentTimeMillis() + 100;
+         for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+            checkAndSchedule(handler, i, time, true, fakeQueue);
+         }
+
+         assertTrue(fakeQueue.waitCompletion(2, TimeUnit.SECONDS));
+         assertTrue(System.currentTimeMillis() >= time);
+
+         long lastSequence = -1;
+         for (MessageReference ref : fakeQueue.messages) {
+            assertEquals(lastSequence + 1, ref.getMessage().getMessageID());
+            assertEquals(0, ref.getScheduledDeliveryTime());
+            lastSequence = ref.getMessage().getMessageID();
+         }
+      }
+      finally {
+         wheel.stop();
+         executor.shutdownNow();
+      }
+   }
+
+   private void validateSequence(ScheduledDeliveryHandler handler) {
       long lastSequence = -1;
       for (MessageReference ref : handler.getScheduledReferences()) {
          assertEquals(lastSequence + 1, ref.getMessage().getMessageID());
@@ -245,7 +381,7 @@ public class ScheduledDeliveryHandlerTest extends Assert {
       handler.addInPlace(nextScheduledTime, refImpl, tail);
    }
 
-   private void checkAndSchedule(ScheduledDeliveryHandlerImpl handler,
+   private void checkAndSchedule(ScheduledDeliveryHandler handler,
                                  long nextMessageID,
                                  long nextScheduledTime,
                                  boolean tail,
@@ -355,6 +491,10 @@ public class ScheduledDeliveryHandlerTest extends Assert {
          return 0;
       }
 
+      @Override
+      public void moveBodyOffHeap() {
+      }
+
       @Override
       public ServerMessage makeCopyForExpiryOrDLA(long newID,
                                                   MessageReference originalReference,
@@ -851,6 +991,26 @@ public class ScheduledDeliveryHandlerTest extends Assert {
 
       }
 
+      @Override
+      public int getGroupCount() {
+         return 0;
+      }
+
+      @Override
+      public Map<SimpleString, Consumer> getGroups() {
+         return null;
+      }
+
+      @Override
+      public void resetGroup(SimpleString groupID) {
+
+      }
+
+      @Override
+      public void resetAllGroups() {
+
+      }
+
       public FakeQueueForScheduleUnitTest(final int expectedElements) {
          this.expectedElements = new CountDownLatch(expectedElements);
       }
@@ -1019,6 +1179,11 @@ public class ScheduledDeliveryHandlerTest extends Assert {
          return 0;
       }
 
+      @Override
+      public long getMessageCountEstimate() {
+         return 0;
+      }
+
       @Override
       public int getDeliveringCount() {
          return 0;
@@ -1289,6 +1454,16 @@ public class ScheduledDeliveryHandlerTest extends Assert {
          return 0.0f;
       }
 
+      @Override
+      public long getMessagesRedistributed() {
+         return 0;
+      }
+
+      @Override
+      public float getRedistributionRate() {
+         return 0.0f;
+      }
+
       @Override
       public SimpleString getUser() {
          return null;
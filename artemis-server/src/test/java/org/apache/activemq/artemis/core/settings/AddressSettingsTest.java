@@ -41,6 +41,10 @@ public class AddressSettingsTest extends ActiveMQTestBase {
       Assert.assertEquals(AddressSettings.DEFAULT_SLOW_CONSUMER_POLICY, addressSettings.getSlowConsumerPolicy());
       Assert.assertEquals(AddressSettings.DEFAULT_AUTO_CREATE_QUEUES, addressSettings.isAutoCreateJmsQueues());
       Assert.assertEquals(AddressSettings.DEFAULT_AUTO_DELETE_QUEUES, addressSettings.isAutoDeleteJmsQueues());
+      Assert.assertEquals(AddressSettings.DEFAULT_MAX_GROUPS, addressSettings.getMaxGroups());
+      Assert.assertEquals(AddressSettings.DEFAULT_GROUP_IDLE_TIMEOUT, addressSettings.getGroupIdleTimeout());
+      Assert.assertEquals(AddressSettings.DEFAULT_REDISTRIBUTION_BATCH_SIZE, addressSettings.getRedistributionBatchSize());
+      Assert.assertEquals(AddressSettings.DEFAULT_MESSAGE_ID_INDEX, addressSettings.isMessageIDIndex());
    }
 
    @Test
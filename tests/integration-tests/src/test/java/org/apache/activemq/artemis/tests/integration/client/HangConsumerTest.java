@@ -25,6 +25,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
+import io.netty.channel.FileRegion;
 import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.Interceptor;
 import org.apache.activemq.artemis.api.core.SimpleString;
@@ -527,6 +528,11 @@ public class HangConsumerTest extends ActiveMQTestBase {
          return targetCallback.sendLargeMessageContinuation(consumer, body, continues, requiresResponse);
       }
 
+      @Override
+      public int sendLargeMessageContinuation(ServerConsumer consumer, FileRegion body, boolean continues) {
+         return targetCallback.sendLargeMessageContinuation(consumer, body, continues);
+      }
+
       /* (non-Javadoc)
        * @see SessionCallback#closed()
        */
@@ -18,9 +18,14 @@ package org.apache.activemq.artemis.tests.integration.cluster.distribution;
 
 import javax.transaction.xa.XAResource;
 import javax.transaction.xa.Xid;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.SimpleString;
@@ -31,7 +36,9 @@ import org.apache.activemq.artemis.api.core.client.ClientSession;
 import org.apache.activemq.artemis.core.server.cluster.impl.MessageLoadBalancingType;
 import org.apache.activemq.artemis.tests.integration.IntegrationTestLogger;
 import org.apache.activemq.artemis.core.message.impl.MessageImpl;
+import org.apache.activemq.artemis.core.postoffice.PostOffice;
 import org.apache.activemq.artemis.core.server.Bindable;
+import org.apache.activemq.artemis.core.server.Queue;
 import org.apache.activemq.artemis.core.server.cluster.impl.Redistributor;
 import org.apache.activemq.artemis.core.server.group.impl.GroupingHandlerConfiguration;
 import org.apache.activemq.artemis.core.server.impl.QueueImpl;
@@ -984,6 +991,84 @@ public class MessageRedistributionTest extends ClusterTestBase {
       verifyReceiveAll(QueueImpl.REDISTRIBUTOR_BATCH_SIZE * 2, 1);
    }
 
+   @Test
+   public void testBatchedRedistributionCommitsFullBatches() throws Exception {
+      setRedistributionBatchSize(0, 10);
+
+      Queue queue = sendToQueueWithoutConsumers(30);
+
+      addConsumer(1, 1, "queue0", null);
+
+      verifyReceiveAll(30, 1);
+
+      waitForMessagesRedistributed(queue, 30);
+   }
+
+   @Test
+   public void testBatchedRedistributionCommitsPartialBatchWhenIdle() throws Exception {
+      setRedistributionBatchSize(0, 10);
+
+      // the batch never fills up, only the commit scheduled once the queue is done delivering moves the messages
+      Queue queue = sendToQueueWithoutConsumers(5);
+
+      addConsumer(1, 1, "queue0", null);
+
+      verifyReceiveAll(5, 1);
+
+      waitForMessagesRedistributed(queue, 5);
+   }
+
+   @Test
+   public void testBatchedRedistributionRollsBackOnFailure() throws Exception {
+      // no redistributor is added by the cluster, so the failing one is the only one
+      setRedistributionBatchSize(-1, 10);
+
+      final Queue queue = sendToQueueWithoutConsumers(20);
+
+      addConsumer(1, 1, "queue0", null);
+
+      waitForBindings(0, "queues.testaddress", 2, 1, false);
+
+      final PostOffice postOffice = servers[0].getPostOffice();
+      final AtomicInteger redistributions = new AtomicInteger();
+      PostOffice failingPostOffice = (PostOffice) Proxy.newProxyInstance(PostOffice.class.getClassLoader(), new Class[]{PostOffice.class}, new InvocationHandler() {
+         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("redistribute") && redistributions.incrementAndGet() == 3) {
+               throw new IllegalStateException("failing the third message of the batch");
+            }
+            try {
+               return method.invoke(postOffice, args);
+            }
+            catch (InvocationTargetException e) {
+               throw e.getCause();
+            }
+         }
+      });
+
+      AtomicLong failedCounter = new AtomicLong();
+      Redistributor redistributor = new Redistributor(queue, servers[0].getStorageManager(), failingPostOffice, servers[0].getExecutorFactory().getExecutor(), QueueImpl.REDISTRIBUTOR_BATCH_SIZE, 10, failedCounter);
+      redistributor.start();
+      queue.addConsumer(redistributor);
+      queue.deliverAsync();
+
+      // the queue removes a consumer that fails, once the two messages moved in its batch are back
+      long timeout = System.currentTimeMillis() + 5000;
+      while (queue.getConsumerCount() > 0 && System.currentTimeMillis() < timeout) {
+         Thread.sleep(10);
+      }
+      Assert.assertEquals(0, queue.getConsumerCount());
+      Assert.assertEquals(20, queue.getMessageCount());
+      Assert.assertEquals(0, failedCounter.get());
+      Assert.assertEquals(0, queue.getMessagesRedistributed());
+      Assert.assertNull(getConsumer(1).receiveImmediate());
+
+      queue.addRedistributor(0);
+
+      verifyReceiveAll(20, 1);
+
+      waitForMessagesRedistributed(queue, 20);
+   }
+
    /*
     * Start one node with no consumers and send some messages
     * Start another node add a consumer and verify all messages are redistribute
@@ -1099,6 +1184,52 @@ public class MessageRedistributionTest extends ClusterTestBase {
       getServer(2).getAddressSettingsRepository().addMatch("queues.*", as);
    }
 
+   protected void setRedistributionBatchSize(final long delay, final int batchSize) {
+      AddressSettings as = new AddressSettings().setRedistributionDelay(delay).setRedistributionBatchSize(batchSize);
+
+      getServer(0).getAddressSettingsRepository().addMatch("queues.*", as);
+      getServer(1).getAddressSettingsRepository().addMatch("queues.*", as);
+      getServer(2).getAddressSettingsRepository().addMatch("queues.*", as);
+   }
+
+   /**
+    * Leaves the messages on queue0 of node 0, with no consumer on any node.
+    */
+   private Queue sendToQueueWithoutConsumers(final int messages) throws Exception {
+      setupCluster(MessageLoadBalancingType.ON_DEMAND);
+
+      startServers(0, 1, 2);
+
+      setupSessionFactory(0, isNetty());
+      setupSessionFactory(1, isNetty());
+      setupSessionFactory(2, isNetty());
+
+      createQueue(0, "queues.testaddress", "queue0", null, false);
+      createQueue(1, "queues.testaddress", "queue0", null, false);
+      createQueue(2, "queues.testaddress", "queue0", null, false);
+
+      addConsumer(0, 0, "queue0", null);
+
+      waitForBindings(0, "queues.testaddress", 1, 1, true);
+      waitForBindings(1, "queues.testaddress", 2, 1, false);
+      waitForBindings(2, "queues.testaddress", 2, 1, false);
+
+      send(0, "queues.testaddress", messages, false, null);
+
+      removeConsumer(0);
+
+      return servers[0].locateQueue(new SimpleString("queue0"));
+   }
+
+   private static void waitForMessagesRedistributed(final Queue queue, final long messages) throws Exception {
+      // the counter moves once the batches are stored, which may be after the messages are received
+      long timeout = System.currentTimeMillis() + 5000;
+      while (queue.getMessagesRedistributed() < messages && System.currentTimeMillis() < timeout) {
+         Thread.sleep(10);
+      }
+      Assert.assertEquals(messages, queue.getMessagesRedistributed());
+   }
+
    protected void setupServers() throws Exception {
       setupServer(0, isFileStorage(), isNetty());
       setupServer(1, isFileStorage(), isNetty());
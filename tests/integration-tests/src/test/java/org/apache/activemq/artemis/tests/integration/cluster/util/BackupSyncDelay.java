@@ -24,6 +24,7 @@ import org.apache.activemq.artemis.core.protocol.core.Channel;
 import org.apache.activemq.artemis.core.protocol.core.ChannelHandler;
 import org.apache.activemq.artemis.core.protocol.core.CommandConfirmationHandler;
 import org.apache.activemq.artemis.core.protocol.core.CoreRemotingConnection;
+import org.apache.activemq.artemis.core.protocol.core.FileRegionPacket;
 import org.apache.activemq.artemis.core.protocol.core.Packet;
 import org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationResponseMessage;
@@ -224,6 +225,11 @@ public class BackupSyncDelay implements Interceptor {
          throw new UnsupportedOperationException();
       }
 
+      @Override
+      public boolean sendFileRegion(FileRegionPacket packet) {
+         throw new UnsupportedOperationException();
+      }
+
       @Override
       public Packet sendBlocking(Packet packet, byte expected) throws ActiveMQException {
          throw new UnsupportedOperationException();
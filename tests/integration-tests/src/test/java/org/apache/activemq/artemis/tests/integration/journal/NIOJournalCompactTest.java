@@ -33,6 +33,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.apache.activemq.artemis.api.core.Pair;
 import org.apache.activemq.artemis.core.io.IOCallback;
 import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.journal.PauseHistogram;
 import org.apache.activemq.artemis.core.journal.PreparedTransactionInfo;
 import org.apache.activemq.artemis.core.journal.RecordInfo;
 import org.apache.activemq.artemis.core.io.SequentialFile;
@@ -1157,6 +1158,40 @@ public class NIOJournalCompactTest extends JournalImplTestBase {
 
    }
 
+   @Test
+   public void testCompactPauses() throws Exception {
+      setup(2, 60 * 1024, false);
+
+      createJournal();
+      startJournal();
+      load();
+
+      for (int i = 0; i < 100; i++) {
+         add(i);
+         if (i % 10 == 0) {
+            journal.forceMoveNextFile();
+         }
+      }
+
+      for (int i = 0; i < 100; i += 2) {
+         delete(i);
+      }
+
+      assertEquals(0, journal.getCompactPauses().getCount());
+
+      journal.testCompact();
+
+      // appends are held out twice, to hand the records over to the compactor and to swap the compacted files in
+      PauseHistogram pauses = journal.getCompactPauses();
+      assertEquals(2, pauses.getCount());
+      assertTrue(pauses.getMaxMicros() <= pauses.getTotalMicros());
+
+      stopJournal();
+      createJournal();
+      startJournal();
+      loadAndCheck();
+   }
+
    @Test
    public void testLiveSize() throws Exception {
       setup(2, 60 * 1024, true);
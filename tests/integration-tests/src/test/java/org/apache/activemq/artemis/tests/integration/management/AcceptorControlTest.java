@@ -21,10 +21,12 @@ import org.apache.activemq.artemis.tests.integration.SimpleNotificationService;
 import org.junit.Test;
 
 import java.util.HashMap;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.api.core.TransportConfiguration;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
 import org.apache.activemq.artemis.api.core.client.ClientSession;
 import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
 import org.apache.activemq.artemis.api.core.client.ServerLocator;
@@ -32,9 +34,13 @@ import org.apache.activemq.artemis.api.core.management.AcceptorControl;
 import org.apache.activemq.artemis.api.core.management.CoreNotificationType;
 import org.apache.activemq.artemis.core.config.Configuration;
 import org.apache.activemq.artemis.core.remoting.impl.invm.InVMAcceptorFactory;
+import org.apache.activemq.artemis.core.remoting.impl.netty.NettyAcceptorFactory;
+import org.apache.activemq.artemis.core.remoting.impl.netty.TransportConstants;
 import org.apache.activemq.artemis.core.server.ActiveMQServer;
 import org.apache.activemq.artemis.core.server.management.Notification;
 import org.apache.activemq.artemis.tests.util.RandomUtil;
+import org.apache.activemq.artemis.utils.json.JSONArray;
+import org.apache.activemq.artemis.utils.json.JSONObject;
 
 public class AcceptorControlTest extends ManagementTestBase {
    // Static --------------------------------------------------------
@@ -141,6 +147,40 @@ public class AcceptorControlTest extends ManagementTestBase {
       Assert.assertEquals(InVMAcceptorFactory.class.getName(), notif.getProperties().getSimpleStringProperty(new SimpleString("factory")).toString());
    }
 
+   @Test
+   public void testListConnectionFlushes() throws Exception {
+      Map<String, Object> params = new HashMap<String, Object>();
+      params.put(TransportConstants.ADAPTIVE_BATCHING, true);
+      TransportConfiguration acceptorConfig = new TransportConfiguration(NettyAcceptorFactory.class.getName(), params, RandomUtil.randomString());
+      Configuration config = createDefaultInVMConfig().addAcceptorConfiguration(acceptorConfig);
+      ActiveMQServer service = createServer(false, config);
+      service.setMBeanServer(mbeanServer);
+      service.start();
+
+      AcceptorControl acceptorControl = createManagementControl(acceptorConfig.getName());
+
+      Assert.assertEquals(0, new JSONArray(acceptorControl.listConnectionFlushesAsJSON()).length());
+
+      ServerLocator locator = createNettyNonHALocator();
+      ClientSessionFactory sf = createSessionFactory(locator);
+      ClientSession session = sf.createSession(false, true, true);
+      SimpleString address = RandomUtil.randomSimpleString();
+      session.createQueue(address, address, false);
+      ClientProducer producer = session.createProducer(address);
+      for (int i = 0; i < 10; i++) {
+         producer.send(session.createMessage(false));
+      }
+
+      JSONArray array = new JSONArray(acceptorControl.listConnectionFlushesAsJSON());
+      Assert.assertEquals(1, array.length());
+      JSONObject connection = array.getJSONObject(0);
+      Assert.assertTrue(connection.getLong("flushes") > 0);
+      Assert.assertTrue(connection.getLong("bytes") > 0);
+      Assert.assertEquals(connection.getLong("bytes") / connection.getLong("flushes"), connection.getLong("bytesPerFlush"));
+
+      session.close();
+   }
+
    // Package protected ---------------------------------------------
 
    // Protected -----------------------------------------------------
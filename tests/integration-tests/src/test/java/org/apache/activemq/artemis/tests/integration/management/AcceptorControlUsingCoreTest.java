@@ -77,6 +77,10 @@ public class AcceptorControlUsingCoreTest extends AcceptorControlTest {
             proxy.invokeOperation("stop");
          }
 
+         public String listConnectionFlushesAsJSON() throws Exception {
+            return (String) proxy.invokeOperation("listConnectionFlushesAsJSON");
+         }
+
       };
    }
 
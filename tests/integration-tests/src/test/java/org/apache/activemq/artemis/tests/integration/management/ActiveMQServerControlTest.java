@@ -391,6 +391,33 @@ public class ActiveMQServerControlTest extends ManagementTestBase {
       server.start();
    }
 
+   @Test
+   public void testListJournalCompactPausesAsJSON() throws Exception {
+      ActiveMQServerControl serverControl = createManagementControl();
+
+      JSONObject pauses = new JSONObject(serverControl.listJournalCompactPausesAsJSON());
+      Assert.assertEquals(0, pauses.getJSONObject("messages").getLong("count"));
+      Assert.assertEquals(0, pauses.getJSONObject("messages").getJSONArray("buckets").length());
+      Assert.assertEquals(0, pauses.getJSONObject("bindings").getLong("count"));
+
+      server.getStorageManager().getMessageJournal().scheduleCompactAndBlock(60);
+
+      pauses = new JSONObject(serverControl.listJournalCompactPausesAsJSON());
+      JSONObject messages = pauses.getJSONObject("messages");
+      Assert.assertTrue(messages.getLong("count") > 0);
+      Assert.assertTrue(messages.getLong("maxMicros") <= messages.getLong("totalMicros"));
+
+      long bucketed = 0;
+      JSONArray buckets = messages.getJSONArray("buckets");
+      for (int i = 0; i < buckets.length(); i++) {
+         JSONObject bucket = buckets.getJSONObject(i);
+         Assert.assertTrue(bucket.getLong("lessThanMicros") > 0);
+         bucketed += bucket.getLong("count");
+      }
+      Assert.assertEquals(messages.getLong("count"), bucketed);
+      Assert.assertEquals(0, pauses.getJSONObject("bindings").getLong("count"));
+   }
+
    @Test
    public void testSecuritySettings() throws Exception {
       ActiveMQServerControl serverControl = createManagementControl();
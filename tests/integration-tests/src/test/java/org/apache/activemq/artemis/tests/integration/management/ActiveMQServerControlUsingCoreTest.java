@@ -262,6 +262,30 @@ public class ActiveMQServerControlUsingCoreTest extends ActiveMQServerControlTes
             return (Long) proxy.retrieveAttributeValue("securityInvalidationInterval", Long.class);
          }
 
+         public long getSecurityCacheHits() {
+            return (Long) proxy.retrieveAttributeValue("securityCacheHits", Long.class);
+         }
+
+         public long getSecurityCacheMisses() {
+            return (Long) proxy.retrieveAttributeValue("securityCacheMisses", Long.class);
+         }
+
+         public long getSecurityCacheReloads() {
+            return (Long) proxy.retrieveAttributeValue("securityCacheReloads", Long.class);
+         }
+
+         public long getReplicationSyncFiles() {
+            return (Long) proxy.retrieveAttributeValue("replicationSyncFiles", Long.class);
+         }
+
+         public long getReplicationSyncBytes() {
+            return (Long) proxy.retrieveAttributeValue("replicationSyncBytes", Long.class);
+         }
+
+         public long getReplicationSyncThroughput() {
+            return (Long) proxy.retrieveAttributeValue("replicationSyncThroughput", Long.class);
+         }
+
          public long getTransactionTimeout() {
             return (Long) proxy.retrieveAttributeValue("transactionTimeout", Long.class);
          }
@@ -382,6 +406,10 @@ public class ActiveMQServerControlUsingCoreTest extends ActiveMQServerControlTes
             proxy.invokeOperation("resetAllMessageCounterHistories");
          }
 
+         public String listMessageCounterSamplesAsJSON() throws Exception {
+            return (String) proxy.invokeOperation("listMessageCounterSamplesAsJSON");
+         }
+
          public void resetAllMessageCounters() throws Exception {
             proxy.invokeOperation("resetAllMessageCounters");
          }
@@ -418,6 +446,10 @@ public class ActiveMQServerControlUsingCoreTest extends ActiveMQServerControlTes
             return (Integer) proxy.retrieveAttributeValue("JournalCompactPercentage");
          }
 
+         public String listJournalCompactPausesAsJSON() throws Exception {
+            return (String) proxy.invokeOperation("listJournalCompactPausesAsJSON");
+         }
+
          public boolean isPersistenceEnabled() {
             return (Boolean) proxy.retrieveAttributeValue("PersistenceEnabled");
          }
@@ -104,6 +104,14 @@ public class QueueControlUsingCoreTest extends QueueControlTest {
             return (Integer) proxy.retrieveAttributeValue("messagesAcknowledged");
          }
 
+         public long getMessagesRedistributed() {
+            return ((Number) proxy.retrieveAttributeValue("messagesRedistributed")).longValue();
+         }
+
+         public float getRedistributionRate() {
+            return ((Number) proxy.retrieveAttributeValue("redistributionRate")).floatValue();
+         }
+
          public void resetMessagesAdded() throws Exception {
             proxy.invokeOperation("resetMessagesAdded");
          }
@@ -285,6 +293,26 @@ public class QueueControlUsingCoreTest extends QueueControlTest {
             return (String) proxy.invokeOperation("listConsumersAsJSON");
          }
 
+         public int getGroupCount() {
+            return (Integer) proxy.retrieveAttributeValue("groupCount");
+         }
+
+         public String listGroupsAsJSON() throws Exception {
+            return (String) proxy.invokeOperation("listGroupsAsJSON");
+         }
+
+         public String listGroupDistributionAsJSON() throws Exception {
+            return (String) proxy.invokeOperation("listGroupDistributionAsJSON");
+         }
+
+         public void resetGroup(final String groupID) throws Exception {
+            proxy.invokeOperation("resetGroup", groupID);
+         }
+
+         public void resetAllGroups() throws Exception {
+            proxy.invokeOperation("resetAllGroups");
+         }
+
          public Map<String, Map<String, Object>[]> listDeliveringMessages() throws Exception {
             // This map code could be done better,
             // however that's just to convert stuff for the test class, so I
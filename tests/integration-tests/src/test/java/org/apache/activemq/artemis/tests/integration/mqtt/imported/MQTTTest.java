@@ -28,8 +28,12 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
+import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.protocol.mqtt.MQTTConnectionManager;
-import org.apache.activemq.artemis.core.protocol.mqtt.MQTTSession;
+import org.apache.activemq.artemis.core.protocol.mqtt.MQTTSessionStateRegistry;
+import org.apache.activemq.artemis.core.protocol.mqtt.MQTTUtil;
+import org.apache.activemq.artemis.core.server.ServerMessage;
+import org.apache.activemq.artemis.core.server.impl.ServerMessageImpl;
 import org.apache.activemq.artemis.tests.integration.mqtt.imported.util.Wait;
 import org.fusesource.mqtt.client.BlockingConnection;
 import org.fusesource.mqtt.client.MQTT;
@@ -57,10 +61,6 @@ public class MQTTTest extends MQTTTestSupport {
 
    @Before
    public void setUp() throws Exception {
-      Field sessions = MQTTSession.class.getDeclaredField("SESSIONS");
-      sessions.setAccessible(true);
-      sessions.set(null, new ConcurrentHashMap<>());
-
       Field connectedClients = MQTTConnectionManager.class.getDeclaredField("CONNECTED_CLIENTS");
       connectedClients.setAccessible(true);
       connectedClients.set(null, new ConcurrentHashSet<>());
@@ -551,6 +551,109 @@ public class MQTTTest extends MQTTTestSupport {
       }
    }
 
+   @Test(timeout = 60 * 1000)
+   public void testRetainedMessagesSurviveRestart() throws Exception {
+      MQTT mqtt = createMQTTConnection();
+      mqtt.setClientId("retainer");
+      mqtt.setKeepAlive((short) 60);
+
+      BlockingConnection connection = mqtt.blockingConnection();
+      connection.connect();
+      connection.publish("site/1/temp", "21".getBytes(), QoS.AT_LEAST_ONCE, true);
+      connection.publish("site/2/temp", "22".getBytes(), QoS.AT_LEAST_ONCE, true);
+      connection.publish("site/2/temp", "23".getBytes(), QoS.AT_LEAST_ONCE, true);
+      connection.publish("site/3/temp", "24".getBytes(), QoS.AT_LEAST_ONCE, true);
+      connection.publish("site/3/temp", "".getBytes(), QoS.AT_LEAST_ONCE, true);
+      connection.disconnect();
+
+      server.stop();
+      server.start();
+      server.waitForActivation(10, TimeUnit.SECONDS);
+
+      connection = mqtt.blockingConnection();
+      connection.connect();
+      connection.subscribe(new Topic[]{new Topic("site/+/temp", QoS.AT_LEAST_ONCE)});
+
+      List<String> received = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+         Message msg = connection.receive(5000, TimeUnit.MILLISECONDS);
+         assertNotNull("Missing retained message " + i, msg);
+         received.add(new String(msg.getPayload()));
+         msg.ack();
+      }
+      assertNull(connection.receive(500, TimeUnit.MILLISECONDS));
+      assertTrue(received.toString(), received.containsAll(Arrays.asList("21", "23")));
+
+      connection.disconnect();
+   }
+
+   @Test(timeout = 60 * 1000)
+   public void testSessionSurvivesRestart() throws Exception {
+      MQTT mqtt = createMQTTConnection();
+      mqtt.setClientId("durable");
+      mqtt.setCleanSession(false);
+
+      BlockingConnection connection = mqtt.blockingConnection();
+      connection.connect();
+      connection.subscribe(new Topic[]{new Topic("site/5/temp", QoS.AT_LEAST_ONCE)});
+      connection.disconnect();
+
+      server.stop();
+      server.start();
+      server.waitForActivation(10, TimeUnit.SECONDS);
+
+      // the session is stored through the journal of the server, so it's also replicated
+      assertEquals(1, server.locateQueue(MQTTSessionStateRegistry.SESSIONS_ADDRESS).getMessageCount());
+
+      // the session comes back with its subscription, without subscribing again
+      connection = mqtt.blockingConnection();
+      connection.connect();
+
+      MQTT publisherMqtt = createMQTTConnection();
+      BlockingConnection publisher = publisherMqtt.blockingConnection();
+      publisher.connect();
+      publisher.publish("site/5/temp", "26".getBytes(), QoS.AT_LEAST_ONCE, false);
+      publisher.disconnect();
+
+      Message msg = connection.receive(5000, TimeUnit.MILLISECONDS);
+      assertNotNull(msg);
+      assertEquals("26", new String(msg.getPayload()));
+      msg.ack();
+
+      connection.disconnect();
+   }
+
+   @Test(timeout = 60 * 1000)
+   public void testLegacyRetainedMessagesImported() throws Exception {
+      SimpleString legacyAddress = new SimpleString(MQTTUtil.MQTT_RETAIN_ADDRESS_PREFIX + "site.4.temp");
+      server.createQueue(legacyAddress, legacyAddress, null, true, false);
+
+      ServerMessage legacyMessage = new ServerMessageImpl(server.getStorageManager().generateID(), 50);
+      legacyMessage.setAddress(legacyAddress);
+      legacyMessage.setDurable(true);
+      legacyMessage.getBodyBuffer().writeBytes("25".getBytes());
+      server.getPostOffice().route(legacyMessage, null, true);
+
+      server.stop();
+      server.start();
+      server.waitForActivation(10, TimeUnit.SECONDS);
+
+      assertNull(server.locateQueue(legacyAddress));
+
+      MQTT mqtt = createMQTTConnection();
+      BlockingConnection connection = mqtt.blockingConnection();
+      connection.connect();
+      connection.subscribe(new Topic[]{new Topic("site/4/temp", QoS.AT_LEAST_ONCE)});
+
+      Message msg = connection.receive(5000, TimeUnit.MILLISECONDS);
+      assertNotNull(msg);
+      assertEquals("site/4/temp", msg.getTopic());
+      assertEquals("25", new String(msg.getPayload()));
+      msg.ack();
+
+      connection.disconnect();
+   }
+
    @Ignore
    @Test(timeout = 120 * 1000)
    public void testRetainedMessageOnVirtualTopics() throws Exception {
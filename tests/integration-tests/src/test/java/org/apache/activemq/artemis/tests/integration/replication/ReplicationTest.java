@@ -47,12 +47,14 @@ import org.apache.activemq.artemis.api.core.client.ServerLocator;
 import org.apache.activemq.artemis.core.io.IOCallback;
 import org.apache.activemq.artemis.core.config.ClusterConnectionConfiguration;
 import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.ha.ReplicatedPolicyConfiguration;
 import org.apache.activemq.artemis.core.config.ha.SharedStoreSlavePolicyConfiguration;
 import org.apache.activemq.artemis.core.journal.EncodingSupport;
 import org.apache.activemq.artemis.core.journal.IOCompletion;
 import org.apache.activemq.artemis.core.journal.Journal;
 import org.apache.activemq.artemis.core.journal.JournalLoadInformation;
 import org.apache.activemq.artemis.core.journal.LoaderCallback;
+import org.apache.activemq.artemis.core.journal.PauseHistogram;
 import org.apache.activemq.artemis.core.journal.PreparedTransactionInfo;
 import org.apache.activemq.artemis.core.journal.RecordInfo;
 import org.apache.activemq.artemis.core.io.SequentialFileFactory;
@@ -283,6 +285,54 @@ public final class ReplicationTest extends ActiveMQTestBase {
       Assert.assertEquals(0, store.getNumberOfPages());
    }
 
+   @Test
+   public void testSendPacketsWithReplicationWindow() throws Exception {
+      ExtraConfigurer configurer = new ExtraConfigurer() {
+
+         @Override
+         public void config(Configuration liveConfig, Configuration backupConfig) {
+            ((ReplicatedPolicyConfiguration) liveConfig.getHAPolicyConfiguration()).setReplicationWindow(2);
+         }
+      };
+      this.setupServer(false, true, configurer);
+
+      StorageManager storage = getStorage();
+
+      manager = liveServer.getReplicationManager();
+      waitForComponent(manager);
+
+      Journal replicatedJournal = new ReplicatedJournal((byte) 1, new FakeJournal(), manager);
+
+      for (int i = 0; i < 1000; i++) {
+         replicatedJournal.appendAddRecord(i, (byte) 1, new FakeData(), false);
+         replicatedJournal.appendUpdateRecord(i, (byte) 2, new FakeData(), false);
+         if (i % 100 == 0) {
+            replicatedJournal.appendDeleteRecord(i, false);
+         }
+      }
+
+      ServerMessage msg = new ServerMessageImpl(1, 1024);
+
+      SimpleString dummy = new SimpleString("dummy");
+      msg.setAddress(dummy);
+
+      PagedMessage pgmsg = new PagedMessageImpl(msg, new long[0]);
+      for (int i = 1; i <= 4; i++) {
+         manager.pageWrite(pgmsg, i);
+      }
+
+      blockOnReplication(storage, manager);
+
+      Assert.assertTrue("Expecting no active tokens:" + manager.getActiveTokens(), manager.getActiveTokens().isEmpty());
+
+      PagingManager pagingManager = createPageManager(backupServer.getStorageManager(), backupServer.getConfiguration(), backupServer.getExecutorFactory(), backupServer.getAddressSettingsRepository());
+
+      PagingStore store = pagingManager.getPageStore(dummy);
+      store.start();
+      Assert.assertEquals(4, store.getNumberOfPages());
+      store.stop();
+   }
+
    @Test
    public void testSendPacketsWithFailure() throws Exception {
       final int nMsg = 100;
@@ -847,6 +897,11 @@ public final class ReplicationTest extends ActiveMQTestBase {
       public void scheduleCompactAndBlock(int timeout) throws Exception {
       }
 
+      @Override
+      public PauseHistogram getCompactPauses() {
+         return new PauseHistogram();
+      }
+
       @Override
       public void replicationSyncPreserveOldFiles() {
          // no-op
@@ -173,6 +173,12 @@ public abstract class StompTestBase extends ActiveMQTestBase {
 
    }
 
+   /**
+    * Allows subclasses to run the same tests with other settings on the STOMP acceptor.
+    */
+   protected void addAcceptorParams(Map<String, Object> params) {
+   }
+
    /**
     * @return
     * @throws Exception
@@ -182,6 +188,7 @@ public abstract class StompTestBase extends ActiveMQTestBase {
       params.put(TransportConstants.PROTOCOLS_PROP_NAME, StompProtocolManagerFactory.STOMP_PROTOCOL_NAME);
       params.put(TransportConstants.PORT_PROP_NAME, TransportConstants.DEFAULT_STOMP_PORT);
       params.put(TransportConstants.STOMP_CONSUMERS_CREDIT, "-1");
+      addAcceptorParams(params);
       TransportConfiguration stompTransport = new TransportConfiguration(NettyAcceptorFactory.class.getName(), params);
 
       Configuration config = createBasicConfig().setPersistenceEnabled(false).addAcceptorConfiguration(stompTransport).addAcceptorConfiguration(new TransportConfiguration(InVMAcceptorFactory.class.getName()));
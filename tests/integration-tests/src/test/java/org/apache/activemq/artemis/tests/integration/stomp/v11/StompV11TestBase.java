@@ -92,6 +92,12 @@ public abstract class StompV11TestBase extends ActiveMQTestBase {
       connection.start();
    }
 
+   /**
+    * Allows subclasses to run the same tests with other settings on the STOMP acceptor.
+    */
+   protected void addAcceptorParams(Map<String, Object> params) {
+   }
+
    /**
     * @return
     * @throws Exception
@@ -101,6 +107,7 @@ public abstract class StompV11TestBase extends ActiveMQTestBase {
       params.put(TransportConstants.PROTOCOLS_PROP_NAME, StompProtocolManagerFactory.STOMP_PROTOCOL_NAME);
       params.put(TransportConstants.PORT_PROP_NAME, TransportConstants.DEFAULT_STOMP_PORT);
       params.put(TransportConstants.STOMP_CONSUMERS_CREDIT, "-1");
+      addAcceptorParams(params);
       TransportConfiguration stompTransport = new TransportConfiguration(NettyAcceptorFactory.class.getName(), params);
 
       Configuration config = createBasicConfig().setPersistenceEnabled(persistenceEnabled).addAcceptorConfiguration(stompTransport).addAcceptorConfiguration(new TransportConfiguration(InVMAcceptorFactory.class.getName()));
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.server.Consumer;
+import org.apache.activemq.artemis.core.server.HandleStatus;
+import org.apache.activemq.artemis.core.server.MessageReference;
+
+/**
+ * A consumer that takes every message and acknowledges it as soon as it's delivered, so the
+ * queues of a benchmark don't grow.
+ */
+final class AcknowledgingConsumer implements Consumer {
+
+   private final AtomicLong acknowledged = new AtomicLong();
+
+   long getAcknowledged() {
+      return acknowledged.get();
+   }
+
+   public HandleStatus handle(final MessageReference reference) throws Exception {
+      reference.handled();
+      return HandleStatus.HANDLED;
+   }
+
+   public void proceedDeliver(final MessageReference reference) throws Exception {
+      reference.getQueue().acknowledge(reference);
+      acknowledged.incrementAndGet();
+   }
+
+   public Filter getFilter() {
+      return null;
+   }
+
+   public List<MessageReference> getDeliveringMessages() {
+      return Collections.emptyList();
+   }
+
+   public String debug() {
+      return toString();
+   }
+
+   public String toManagementString() {
+      return toString();
+   }
+
+   public void disconnect() {
+   }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks, taking the usual JMH command line options.
+ * <p>
+ * Unless told otherwise with {@code -rf} and {@code -rff} the results are written as JSON into
+ * {@code jmh-result.json}, so they can be compared between commits.
+ */
+public final class BenchmarkRunner {
+
+   public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+   private BenchmarkRunner() {
+   }
+
+   public static void main(final String[] args) throws Exception {
+      CommandLineOptions commandLine = new CommandLineOptions(args);
+
+      if (commandLine.shouldHelp()) {
+         commandLine.showHelp();
+         return;
+      }
+
+      if (commandLine.shouldList()) {
+         new Runner(commandLine).list();
+         return;
+      }
+
+      ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+      if (!commandLine.getResultFormat().hasValue()) {
+         options.resultFormat(ResultFormatType.JSON);
+      }
+      if (!commandLine.getResult().hasValue()) {
+         options.result(DEFAULT_RESULT_FILE);
+      }
+
+      new Runner(options.build()).run();
+   }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.core.journal.EncodingSupport;
+import org.apache.activemq.artemis.core.journal.PreparedTransactionInfo;
+import org.apache.activemq.artemis.core.journal.RecordInfo;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.core.journal.impl.dataformat.ByteArrayEncoding;
+import org.apache.activemq.artemis.tests.unit.core.journal.impl.fakes.FakeSequentialFileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link JournalImpl#appendAddRecord} over an in memory {@link FakeSequentialFileFactory}, so the
+ * bookkeeping of the journal is measured without any disk I/O.
+ * <p>
+ * Each operation adds a record and deletes the one added {@link #LIVE_RECORDS} operations before,
+ * as a queue with a steady backlog would, so the journal files keep being reclaimed and the memory
+ * used by the benchmark stays bounded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JournalAppendBenchmark {
+
+   private static final int LIVE_RECORDS = 1000;
+
+   private static final int FILE_SIZE = 10 * 1024 * 1024;
+
+   private static final byte RECORD_TYPE = 1;
+
+   @Param({"100", "1024"})
+   public int recordSize;
+
+   private JournalImpl journal;
+
+   private EncodingSupport record;
+
+   private long id;
+
+   @Setup(Level.Iteration)
+   public void setup() throws Exception {
+      record = new ByteArrayEncoding(new byte[recordSize]);
+
+      journal = new JournalImpl(FILE_SIZE, 2, 0, 0, new FakeSequentialFileFactory(), "activemq-data", "amq", 1);
+      journal.start();
+      journal.load(new ArrayList<RecordInfo>(), new ArrayList<PreparedTransactionInfo>(), null);
+
+      id = 0;
+      for (int i = 0; i < LIVE_RECORDS; i++) {
+         journal.appendAddRecord(id++, RECORD_TYPE, record, false);
+      }
+   }
+
+   @TearDown(Level.Iteration)
+   public void tearDown() throws Exception {
+      journal.stop();
+   }
+
+   @Benchmark
+   public void appendAddRecord() throws Exception {
+      journal.appendAddRecord(id, RECORD_TYPE, record, false);
+      journal.appendDeleteRecord(id - LIVE_RECORDS, false);
+      id++;
+   }
+}
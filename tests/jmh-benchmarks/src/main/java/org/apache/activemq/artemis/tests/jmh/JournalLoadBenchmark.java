@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.core.journal.impl.dataformat.ByteArrayEncoding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The load of a journal holding a large number of live records, as on the restart of a broker with a deep
+ * backlog of durable messages.
+ * <p>
+ * Besides the time taken, every invocation prints the heap retained by the record index of the loaded journal,
+ * so the memory used per live record can be compared between versions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JournalLoadBenchmark {
+
+   private static final int FILE_SIZE = 10 * 1024 * 1024;
+
+   private static final byte RECORD_TYPE = 1;
+
+   @Param({"20000000"})
+   public int recordCount;
+
+   @Param({"32"})
+   public int recordSize;
+
+   // every updateInterval-th record is updated once, as a redelivered message gets its delivery count updated
+   @Param({"10"})
+   public int updateInterval;
+
+   private File dataDirectory;
+
+   private SequentialFileFactory fileFactory;
+
+   private JournalImpl journal;
+
+   private long heapBeforeLoad;
+
+   @Setup
+   public void setup() throws Exception {
+      dataDirectory = TemporaryDirectory.create();
+
+      fileFactory = new NIOSequentialFileFactory(dataDirectory, true, 1);
+
+      JournalImpl writer = newJournal();
+      writer.start();
+      writer.loadInternalOnly();
+
+      ByteArrayEncoding record = new ByteArrayEncoding(new byte[recordSize]);
+      for (long id = 0; id < recordCount; id++) {
+         writer.appendAddRecord(id, RECORD_TYPE, record, false);
+         if (id % updateInterval == 0) {
+            writer.appendUpdateRecord(id, RECORD_TYPE, record, false);
+         }
+      }
+
+      writer.stop();
+   }
+
+   @TearDown
+   public void tearDown() {
+      TemporaryDirectory.delete(dataDirectory);
+   }
+
+   @Setup(Level.Invocation)
+   public void measureHeapBeforeLoad() throws Exception {
+      journal = newJournal();
+      heapBeforeLoad = usedHeap();
+   }
+
+   @TearDown(Level.Invocation)
+   public void measureHeapAfterLoad() throws Exception {
+      long retained = usedHeap() - heapBeforeLoad;
+
+      System.out.println();
+      System.out.println(journal.getIDMapSize() + " live records retain " + (retained >> 20) + " MiB of heap, " +
+                            (retained / journal.getIDMapSize()) + " bytes per record");
+
+      journal.stop();
+      journal = null;
+   }
+
+   @Benchmark
+   public JournalImpl load() throws Exception {
+      journal.start();
+      journal.loadInternalOnly();
+      return journal;
+   }
+
+   private JournalImpl newJournal() {
+      return new JournalImpl(FILE_SIZE, 2, 0, 0, fileFactory, "activemq-data", "amq", 1);
+   }
+
+   private static long usedHeap() throws InterruptedException {
+      Runtime runtime = Runtime.getRuntime();
+      for (int i = 0; i < 3; i++) {
+         System.gc();
+         Thread.sleep(100);
+      }
+      return runtime.totalMemory() - runtime.freeMemory();
+   }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.api.core.Interceptor;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.TransportConfiguration;
+import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.protocol.core.Packet;
+import org.apache.activemq.artemis.core.remoting.impl.netty.NettyAcceptorFactory;
+import org.apache.activemq.artemis.core.remoting.impl.netty.NettyConnectorFactory;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.ActiveMQServers;
+import org.apache.activemq.artemis.core.server.JournalType;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Delivery of a large message from the broker to a core client over a Netty connection on the loopback
+ * interface. Each operation streams the whole body of a {@link #size} MiB message to the consumer and rolls
+ * it back, so the same message is delivered again by the next operation.
+ * <p>
+ * With {@link #fileRegions} the chunks are written to the connection straight from the large message file,
+ * otherwise an outgoing interceptor makes the broker read them into the heap first. Multiply the
+ * operations per second by {@link #size} to get the MiB per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class LargeMessageStreamingBenchmark {
+
+   private static final SimpleString QUEUE = new SimpleString("benchmark.large");
+
+   @Param({"1024"})
+   public int size;
+
+   @Param({"true", "false"})
+   public boolean fileRegions;
+
+   private File dataDirectory;
+
+   private ActiveMQServer server;
+
+   private ServerLocator locator;
+
+   private ClientSessionFactory sessionFactory;
+
+   private ClientSession session;
+
+   private ClientConsumer consumer;
+
+   private final OutputStream discard = new OutputStream() {
+      @Override
+      public void write(final int b) {
+      }
+
+      @Override
+      public void write(final byte[] b, final int off, final int len) {
+      }
+   };
+
+   @Setup
+   public void setup() throws Exception {
+      dataDirectory = TemporaryDirectory.create();
+
+      Configuration configuration = new ConfigurationImpl().setPersistenceEnabled(true).setSecurityEnabled(false).setJMXManagementEnabled(false).setJournalType(JournalType.NIO).setJournalSyncTransactional(false).setJournalSyncNonTransactional(false).setBindingsDirectory(new File(dataDirectory, "bindings").getPath()).setJournalDirectory(new File(dataDirectory, "journal").getPath()).setPagingDirectory(new File(dataDirectory, "paging").getPath()).setLargeMessagesDirectory(new File(dataDirectory, "large-messages").getPath()).addAcceptorConfiguration(new TransportConfiguration(NettyAcceptorFactory.class.getName()));
+
+      server = ActiveMQServers.newActiveMQServer(configuration, true);
+      // the message is rolled back after every delivery, it must never go to a dead letter address
+      server.getAddressSettingsRepository().addMatch(QUEUE.toString(), new AddressSettings().setMaxDeliveryAttempts(-1));
+      server.start();
+
+      if (!fileRegions) {
+         server.getRemotingService().addOutgoingInterceptor(new Interceptor() {
+            @Override
+            public boolean intercept(final Packet packet, final RemotingConnection connection) throws ActiveMQException {
+               return true;
+            }
+         });
+      }
+
+      server.createQueue(QUEUE, QUEUE, null, true, false);
+
+      locator = ActiveMQClient.createServerLocatorWithoutHA(new TransportConfiguration(NettyConnectorFactory.class.getName()));
+      sessionFactory = locator.createSessionFactory();
+
+      ClientSession producerSession = sessionFactory.createSession();
+      try {
+         ClientProducer producer = producerSession.createProducer(QUEUE);
+         ClientMessage message = producerSession.createMessage(true);
+         message.setBodyInputStream(new GeneratedInputStream(size * 1024L * 1024L));
+         producer.send(message);
+      }
+      finally {
+         producerSession.close();
+      }
+
+      // acknowledgements are never committed, rolling back delivers the message again
+      session = sessionFactory.createSession(true, false);
+      consumer = session.createConsumer(QUEUE);
+      session.start();
+   }
+
+   @TearDown
+   public void tearDown() throws Exception {
+      session.close();
+      sessionFactory.close();
+      locator.close();
+      server.stop();
+      TemporaryDirectory.delete(dataDirectory);
+   }
+
+   @Benchmark
+   public void deliver() throws Exception {
+      ClientMessage message = consumer.receive(60000);
+
+      if (message == null) {
+         throw new IllegalStateException("The large message wasn't delivered");
+      }
+
+      message.saveToOutputStream(discard);
+      message.acknowledge();
+
+      session.rollback();
+   }
+
+   private static final class GeneratedInputStream extends InputStream {
+
+      private long remaining;
+
+      private GeneratedInputStream(final long size) {
+         this.remaining = size;
+      }
+
+      @Override
+      public int read() {
+         if (remaining <= 0) {
+            return -1;
+         }
+
+         return (int) (remaining-- & 0xFF);
+      }
+   }
+}
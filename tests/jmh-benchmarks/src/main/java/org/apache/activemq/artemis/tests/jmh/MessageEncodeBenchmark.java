@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.server.ServerMessage;
+import org.apache.activemq.artemis.core.server.impl.ServerMessageImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding of a message into the buffer written to the journal and to paging, which goes through
+ * {@code MessageImpl.encodeToBuffer}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MessageEncodeBenchmark {
+
+   @Param({"100", "1024", "10240"})
+   public int bodySize;
+
+   private ServerMessage message;
+
+   private ActiveMQBuffer buffer;
+
+   private long timestamp;
+
+   @Setup
+   public void setup() {
+      message = new ServerMessageImpl(1, bodySize + 512);
+      message.setAddress(new SimpleString("jms.queue.benchmark"));
+      message.setDurable(true);
+      message.getBodyBuffer().writeBytes(new byte[bodySize]);
+      for (int i = 0; i < 8; i++) {
+         message.putStringProperty(new SimpleString("property" + i), new SimpleString("value" + i));
+      }
+      message.putLongProperty(new SimpleString("sequence"), 0);
+
+      buffer = ActiveMQBuffers.dynamicBuffer(message.getEncodeSize());
+   }
+
+   /**
+    * Every change to the message invalidates its encoded buffer, as when it is routed for the
+    * first time.
+    */
+   @Benchmark
+   public ActiveMQBuffer encode() {
+      message.setTimestamp(timestamp++);
+      buffer.clear();
+      message.encode(buffer);
+      return buffer;
+   }
+
+   /**
+    * The encoded buffer is reused, as when the message is written to more than one destination.
+    */
+   @Benchmark
+   public ActiveMQBuffer encodeUnchanged() {
+      buffer.clear();
+      message.encode(buffer);
+      return buffer;
+   }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.paging.cursor.PageSubscription;
+import org.apache.activemq.artemis.core.paging.cursor.PagedReference;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.ActiveMQServers;
+import org.apache.activemq.artemis.core.server.JournalType;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.ServerMessage;
+import org.apache.activemq.artemis.core.server.impl.ServerMessageImpl;
+import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.utils.LinkedListIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Iteration through all the messages paged for a queue by its {@link PageSubscription}, as done
+ * when depaging or browsing the queue.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PageSubscriptionBenchmark {
+
+   private static final SimpleString ADDRESS = new SimpleString("jms.queue.benchmark");
+
+   @Param({"10000"})
+   public int messageCount;
+
+   @Param({"1024"})
+   public int bodySize;
+
+   private File dataDirectory;
+
+   private ActiveMQServer server;
+
+   private PageSubscription subscription;
+
+   @Setup
+   public void setup() throws Exception {
+      dataDirectory = TemporaryDirectory.create();
+
+      ConfigurationImpl configuration = new ConfigurationImpl().setPersistenceEnabled(true).setSecurityEnabled(false).setJMXManagementEnabled(false).setJournalType(JournalType.NIO).setJournalSyncTransactional(false).setJournalSyncNonTransactional(false).setBindingsDirectory(new File(dataDirectory, "bindings").getPath()).setJournalDirectory(new File(dataDirectory, "journal").getPath()).setPagingDirectory(new File(dataDirectory, "paging").getPath()).setLargeMessagesDirectory(new File(dataDirectory, "large-messages").getPath());
+
+      server = ActiveMQServers.newActiveMQServer(configuration, true);
+      server.start();
+
+      server.getAddressSettingsRepository().addMatch(ADDRESS.toString(), new AddressSettings().setAddressFullMessagePolicy(AddressFullMessagePolicy.PAGE).setMaxSizeBytes(100 * 1024).setPageSizeBytes(1024 * 1024));
+
+      Queue queue = server.createQueue(ADDRESS, ADDRESS, null, true, false);
+
+      for (int i = 0; i < messageCount; i++) {
+         ServerMessage message = new ServerMessageImpl(server.getStorageManager().generateID(), bodySize + 100);
+         message.setAddress(ADDRESS);
+         message.setDurable(false);
+         message.getBodyBuffer().writeBytes(new byte[bodySize]);
+         server.getPostOffice().route(message, null, false);
+      }
+
+      subscription = queue.getPageSubscription();
+   }
+
+   @TearDown
+   public void tearDown() throws Exception {
+      server.stop();
+      TemporaryDirectory.delete(dataDirectory);
+   }
+
+   @Benchmark
+   public int iterate(final Blackhole blackhole) {
+      int count = 0;
+      LinkedListIterator<PagedReference> iterator = subscription.iterator();
+      try {
+         while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+            count++;
+         }
+      }
+      finally {
+         iterator.close();
+      }
+      return count;
+   }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.postoffice.PostOffice;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.ActiveMQServers;
+import org.apache.activemq.artemis.core.server.ServerMessage;
+import org.apache.activemq.artemis.core.server.impl.ServerMessageImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link PostOffice#route} of non persistent messages on an address with one or more subscriptions,
+ * on a broker without persistence or security. Every subscription has a consumer that
+ * acknowledges the messages, the batch is complete once all of them were acknowledged.
+ * <p>
+ * With {@link #filtered} every subscription selects its own region and each message matches only
+ * one of them, otherwise each message goes to every subscription.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PostOfficeRouteBenchmark {
+
+   private static final int BATCH = 1000;
+
+   private static final SimpleString ADDRESS = new SimpleString("jms.topic.benchmark");
+
+   private static final SimpleString REGION = new SimpleString("region");
+
+   @Param({"1", "10", "100"})
+   public int subscriptions;
+
+   @Param({"false", "true"})
+   public boolean filtered;
+
+   private ActiveMQServer server;
+
+   private PostOffice postOffice;
+
+   private AcknowledgingConsumer[] consumers;
+
+   private SimpleString[] regions;
+
+   private long routed;
+
+   private long expectedAcknowledgements;
+
+   @Setup
+   public void setup() throws Exception {
+      server = ActiveMQServers.newActiveMQServer(new ConfigurationImpl().setPersistenceEnabled(false).setSecurityEnabled(false).setJMXManagementEnabled(false), false);
+      server.start();
+
+      postOffice = server.getPostOffice();
+
+      consumers = new AcknowledgingConsumer[subscriptions];
+      regions = new SimpleString[subscriptions];
+      for (int i = 0; i < subscriptions; i++) {
+         regions[i] = new SimpleString("region" + i);
+         SimpleString filter = filtered ? new SimpleString("region = 'region" + i + "'") : null;
+         consumers[i] = new AcknowledgingConsumer();
+         server.createQueue(ADDRESS, new SimpleString("subscription" + i), filter, false, false).addConsumer(consumers[i]);
+      }
+   }
+
+   @TearDown
+   public void tearDown() throws Exception {
+      server.stop();
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(BATCH)
+   public void route() throws Exception {
+      for (int i = 0; i < BATCH; i++) {
+         ServerMessage message = new ServerMessageImpl(server.getStorageManager().generateID(), 100);
+         message.setAddress(ADDRESS);
+         message.setDurable(false);
+         message.putStringProperty(REGION, regions[(int) (routed++ % subscriptions)]);
+
+         postOffice.route(message, null, true);
+      }
+
+      expectedAcknowledgements += filtered ? BATCH : BATCH * subscriptions;
+      while (getAcknowledged() < expectedAcknowledgements) {
+         Thread.yield();
+      }
+   }
+
+   private long getAcknowledged() {
+      long acknowledged = 0;
+      for (AcknowledgingConsumer consumer : consumers) {
+         acknowledged += consumer.getAcknowledged();
+      }
+      return acknowledged;
+   }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.ServerMessage;
+import org.apache.activemq.artemis.core.server.impl.QueueImpl;
+import org.apache.activemq.artemis.core.server.impl.ServerMessageImpl;
+import org.apache.activemq.artemis.tests.unit.core.server.impl.fakes.FakePostOffice;
+import org.apache.activemq.artemis.utils.OrderedExecutorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link QueueImpl#addTail} and the delivery of the added references to consumers that
+ * acknowledge them straight away.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class QueueBenchmark {
+
+   private static final int BATCH = 1000;
+
+   private static final SimpleString ADDRESS = new SimpleString("jms.queue.benchmark");
+
+   @Param({"1", "4"})
+   public int consumerCount;
+
+   private ExecutorService threadPool;
+
+   private ScheduledExecutorService scheduledExecutor;
+
+   private QueueImpl queue;
+
+   private AcknowledgingConsumer[] consumers;
+
+   private long messageID;
+
+   private long added;
+
+   @Setup
+   public void setup() throws Exception {
+      threadPool = Executors.newCachedThreadPool();
+      scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
+
+      queue = new QueueImpl(1, ADDRESS, ADDRESS, null, null, false, false, false, scheduledExecutor, new FakePostOffice(), null, null, new OrderedExecutorFactory(threadPool).getExecutor());
+
+      consumers = new AcknowledgingConsumer[consumerCount];
+      for (int i = 0; i < consumerCount; i++) {
+         consumers[i] = new AcknowledgingConsumer();
+         queue.addConsumer(consumers[i]);
+      }
+   }
+
+   @TearDown
+   public void tearDown() throws Exception {
+      queue.close();
+      scheduledExecutor.shutdownNow();
+      threadPool.shutdownNow();
+   }
+
+   /**
+    * The queue is empty, so the reference is delivered by the calling thread.
+    */
+   @Benchmark
+   public void addTailDirect() throws Exception {
+      queue.addTail(createReference(), true);
+   }
+
+   /**
+    * References are delivered by the queue executor, the batch is complete once all of them were
+    * acknowledged.
+    */
+   @Benchmark
+   @OperationsPerInvocation(BATCH)
+   public void addTailAsync() throws Exception {
+      for (int i = 0; i < BATCH; i++) {
+         queue.addTail(createReference(), false);
+      }
+
+      long expected = added;
+      while (getAcknowledged() < expected) {
+         Thread.yield();
+      }
+   }
+
+   private MessageReference createReference() throws Exception {
+      ServerMessage message = new ServerMessageImpl(messageID++, 100);
+      message.setAddress(ADDRESS);
+      // as the post office does when routing
+      message.incrementRefCount();
+      added++;
+      return message.createReference(queue);
+   }
+
+   private long getAcknowledged() {
+      long acknowledged = 0;
+      for (AcknowledgingConsumer consumer : consumers) {
+         acknowledged += consumer.getAcknowledged();
+      }
+      return acknowledged;
+   }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SimpleString} hashing and equality, as used by every address, queue and property lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SimpleStringBenchmark {
+
+   @Param({"8", "64", "512"})
+   public int length;
+
+   private byte[] data;
+
+   private SimpleString string;
+
+   private SimpleString sameContent;
+
+   private SimpleString differentLastChar;
+
+   @Setup
+   public void setup() {
+      StringBuilder builder = new StringBuilder(length);
+      for (int i = 0; i < length; i++) {
+         builder.append((char) ('a' + i % 26));
+      }
+
+      string = new SimpleString(builder.toString());
+      data = string.getData();
+      sameContent = new SimpleString(builder.toString());
+
+      builder.setCharAt(length - 1, '#');
+      differentLastChar = new SimpleString(builder.toString());
+
+      // compute the cached hashes
+      string.hashCode();
+      sameContent.hashCode();
+      differentLastChar.hashCode();
+   }
+
+   @Benchmark
+   public int hashCodeUncached() {
+      return new SimpleString(data).hashCode();
+   }
+
+   @Benchmark
+   public int hashCodeCached() {
+      return string.hashCode();
+   }
+
+   @Benchmark
+   public boolean equalsSameContent() {
+      return string.equals(sameContent);
+   }
+
+   @Benchmark
+   public boolean equalsDifferentLastChar() {
+      return string.equals(differentLastChar);
+   }
+}
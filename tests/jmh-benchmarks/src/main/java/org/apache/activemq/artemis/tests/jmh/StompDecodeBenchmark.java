@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.protocol.stomp.StompConnection;
+import org.apache.activemq.artemis.core.protocol.stomp.StompFrame;
+import org.apache.activemq.artemis.core.protocol.stomp.StompFrameInterceptor;
+import org.apache.activemq.artemis.core.protocol.stomp.StompProtocolManagerFactory;
+import org.apache.activemq.artemis.core.protocol.stomp.StompVersions;
+import org.apache.activemq.artemis.core.protocol.stomp.VersionedStompFrameHandler;
+import org.apache.activemq.artemis.core.remoting.impl.netty.TransportConstants;
+import org.apache.activemq.artemis.core.security.ActiveMQPrincipal;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.ActiveMQServers;
+import org.apache.activemq.artemis.core.server.cluster.ClusterConnection;
+import org.apache.activemq.artemis.core.server.management.NotificationService;
+import org.apache.activemq.artemis.spi.core.protocol.ProtocolManager;
+import org.apache.activemq.artemis.spi.core.remoting.Acceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decodes a read of small SEND frames, as a STOMP producer publishing at a high rate sends them, with the decoder of
+ * the 1.0, 1.1 or 1.2 frame handler, and copies each body into a buffer the way the handlers copy it into the
+ * message. Run with {@code -prof gc} to compare the allocation rate of the pooled decoder with the default one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StompDecodeBenchmark {
+
+   @Param({"V1_0", "V1_1", "V1_2"})
+   public StompVersions version;
+
+   @Param({"false", "true"})
+   public boolean pooled;
+
+   // frames per read
+   @Param({"64"})
+   public int frames;
+
+   @Param({"128"})
+   public int bodySize;
+
+   private ActiveMQServer server;
+
+   private VersionedStompFrameHandler handler;
+
+   private byte[] bytes;
+
+   private ActiveMQBuffer messageBody;
+
+   @Setup
+   public void setup() throws Exception {
+      server = ActiveMQServers.newActiveMQServer(new ConfigurationImpl().setPersistenceEnabled(false).setSecurityEnabled(false).setJMXManagementEnabled(false), false);
+      server.start();
+
+      ProtocolManager manager = new StompProtocolManagerFactory().createProtocolManager(server, Collections.<StompFrameInterceptor>emptyList(), Collections.<StompFrameInterceptor>emptyList());
+
+      Map<String, Object> params = new HashMap<>();
+      params.put(TransportConstants.STOMP_POOLED_DECODER, pooled);
+      StompConnection connection = (StompConnection) manager.createConnectionEntry(new BenchmarkAcceptor(params), null).connection;
+      handler = VersionedStompFrameHandler.getHandler(connection, version);
+
+      StringBuilder body = new StringBuilder();
+      for (int i = 0; i < bodySize; i++) {
+         body.append((char) ('a' + i % 26));
+      }
+
+      StringBuilder read = new StringBuilder();
+      for (int i = 0; i < frames; i++) {
+         read.append("SEND\n");
+         read.append("destination:jms.queue.orders\n");
+         read.append("content-type:text/plain\n");
+         read.append("content-length:").append(bodySize).append('\n');
+         read.append("persistent:true\n");
+         read.append("priority:4\n");
+         read.append('\n');
+         read.append(body);
+         read.append('\u0000');
+      }
+      bytes = read.toString().getBytes(StandardCharsets.UTF_8);
+
+      messageBody = ActiveMQBuffers.fixedBuffer(bodySize);
+   }
+
+   @TearDown
+   public void stopServer() throws Exception {
+      server.stop();
+   }
+
+   @Benchmark
+   public int decode() throws Exception {
+      ActiveMQBuffer buffer = ActiveMQBuffers.wrappedBuffer(bytes);
+      int decoded = 0;
+      do {
+         StompFrame frame = handler.decode(buffer);
+         if (frame == null) {
+            break;
+         }
+         messageBody.clear();
+         frame.writeBodyTo(messageBody);
+         decoded += frame.getHeadersMap().size();
+      } while (handler.hasBytes());
+      return decoded;
+   }
+
+   private static final class BenchmarkAcceptor implements Acceptor {
+
+      private final Map<String, Object> configuration;
+
+      private BenchmarkAcceptor(Map<String, Object> configuration) {
+         this.configuration = configuration;
+      }
+
+      @Override
+      public void pause() {
+      }
+
+      @Override
+      public ClusterConnection getClusterConnection() {
+         return null;
+      }
+
+      @Override
+      public Map<String, Object> getConfiguration() {
+         return configuration;
+      }
+
+      @Override
+      public void setNotificationService(NotificationService notificationService) {
+      }
+
+      @Override
+      public void setDefaultActiveMQPrincipal(ActiveMQPrincipal defaultActiveMQPrincipal) {
+      }
+
+      @Override
+      public boolean isUnsecurable() {
+         return false;
+      }
+
+      @Override
+      public void start() {
+      }
+
+      @Override
+      public void stop() {
+      }
+
+      @Override
+      public boolean isStarted() {
+         return true;
+      }
+   }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration;
+import org.apache.activemq.artemis.core.io.IOCallback;
+import org.apache.activemq.artemis.core.io.buffer.TimedBuffer;
+import org.apache.activemq.artemis.core.io.buffer.TimedBufferObserver;
+import org.apache.activemq.artemis.core.journal.EncodingSupport;
+import org.apache.activemq.artemis.core.journal.impl.dataformat.ByteArrayEncoding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Records added to the {@link TimedBuffer} the journal writes through, with an observer that
+ * discards the flushed buffers so only the buffering itself is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TimedBufferBenchmark {
+
+   private static final IOCallback CALLBACK = new IOCallback() {
+      public void done() {
+      }
+
+      public void onError(final int errorCode, final String errorMessage) {
+      }
+   };
+
+   @Param({"64", "1024"})
+   public int recordSize;
+
+   private TimedBuffer timedBuffer;
+
+   private EncodingSupport record;
+
+   @Setup
+   public void setup() {
+      record = new ByteArrayEncoding(new byte[recordSize]);
+
+      int bufferSize = ActiveMQDefaultConfiguration.getDefaultJournalBufferSizeNio();
+      timedBuffer = new TimedBuffer(bufferSize, ActiveMQDefaultConfiguration.getDefaultJournalBufferTimeoutNio(), false);
+      timedBuffer.start();
+      timedBuffer.setObserver(new DiscardingObserver(bufferSize));
+   }
+
+   @TearDown
+   public void tearDown() {
+      timedBuffer.stop();
+   }
+
+   @Benchmark
+   public void addBytes() {
+      timedBuffer.checkSize(recordSize);
+      timedBuffer.addBytes(record, false, CALLBACK);
+   }
+
+   private static final class DiscardingObserver implements TimedBufferObserver {
+
+      private final ByteBuffer buffer;
+
+      private DiscardingObserver(final int size) {
+         buffer = ByteBuffer.allocateDirect(size);
+      }
+
+      public void flushBuffer(final ByteBuffer buffer, final boolean syncRequested, final List<IOCallback> callbacks) {
+         for (IOCallback callback : callbacks) {
+            callback.done();
+         }
+      }
+
+      public int getRemainingBytes() {
+         return Integer.MAX_VALUE;
+      }
+
+      public ByteBuffer newBuffer(final int size, final int limit) {
+         buffer.clear();
+         buffer.limit(limit);
+         return buffer;
+      }
+   }
+}
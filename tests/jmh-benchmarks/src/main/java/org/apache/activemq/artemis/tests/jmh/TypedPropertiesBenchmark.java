@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.utils.TypedProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding and decoding of {@link TypedProperties}, done for the properties of every message
+ * written to the wire, the journal or a page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TypedPropertiesBenchmark {
+
+   @Param({"4", "32"})
+   public int size;
+
+   private TypedProperties properties;
+
+   private ActiveMQBuffer encodeBuffer;
+
+   private ActiveMQBuffer encoded;
+
+   @Setup
+   public void setup() {
+      properties = new TypedProperties();
+      for (int i = 0; i < size; i++) {
+         SimpleString key = new SimpleString("property" + i);
+         switch (i % 4) {
+            case 0:
+               properties.putSimpleStringProperty(key, new SimpleString("value" + i));
+               break;
+            case 1:
+               properties.putIntProperty(key, i);
+               break;
+            case 2:
+               properties.putLongProperty(key, System.currentTimeMillis());
+               break;
+            default:
+               properties.putBooleanProperty(key, true);
+         }
+      }
+
+      encodeBuffer = ActiveMQBuffers.fixedBuffer(properties.getEncodeSize());
+
+      encoded = ActiveMQBuffers.fixedBuffer(properties.getEncodeSize());
+      properties.encode(encoded);
+   }
+
+   @Benchmark
+   public ActiveMQBuffer encode() {
+      encodeBuffer.clear();
+      properties.encode(encodeBuffer);
+      return encodeBuffer;
+   }
+
+   @Benchmark
+   public TypedProperties decode() {
+      encoded.readerIndex(0);
+      TypedProperties decoded = new TypedProperties();
+      decoded.decode(encoded);
+      return decoded;
+   }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.postoffice.Bindings;
+import org.apache.activemq.artemis.core.postoffice.PostOffice;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.ActiveMQServers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The first lookup of many distinct hierarchical addresses, as MQTT or STOMP clients publishing to a topic per
+ * device would do, on a broker with wildcard subscriptions. Every lookup creates the address and links it to the
+ * subscriptions it matches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WildcardAddressBenchmark {
+
+   @Param({"1000000"})
+   public int addresses;
+
+   // one subscription per site, on sensor.<site>.*.temp
+   @Param({"10000"})
+   public int subscriptions;
+
+   private ActiveMQServer server;
+
+   private PostOffice postOffice;
+
+   private SimpleString[] addressNames;
+
+   @Setup
+   public void setup() {
+      addressNames = new SimpleString[addresses];
+      for (int i = 0; i < addresses; i++) {
+         addressNames[i] = new SimpleString("sensor.site" + (i % subscriptions) + ".device" + i + ".temp");
+      }
+   }
+
+   @Setup(Level.Iteration)
+   public void startServer() throws Exception {
+      server = ActiveMQServers.newActiveMQServer(new ConfigurationImpl().setPersistenceEnabled(false).setSecurityEnabled(false).setJMXManagementEnabled(false), false);
+      server.start();
+
+      postOffice = server.getPostOffice();
+
+      for (int i = 0; i < subscriptions; i++) {
+         server.createQueue(new SimpleString("sensor.site" + i + ".*.temp"), new SimpleString("subscription" + i), null, false, false);
+      }
+   }
+
+   @TearDown(Level.Iteration)
+   public void stopServer() throws Exception {
+      server.stop();
+   }
+
+   @Benchmark
+   public int createAddresses() throws Exception {
+      int linked = 0;
+      for (SimpleString address : addressNames) {
+         Bindings bindings = postOffice.lookupBindingsForAddress(address);
+         linked += bindings.getBindings().size();
+      }
+      return linked;
+   }
+}
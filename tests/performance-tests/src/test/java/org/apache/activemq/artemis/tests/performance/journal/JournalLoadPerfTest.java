@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.journal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.PreparedTransactionInfo;
+import org.apache.activemq.artemis.core.journal.RecordInfo;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.junit.Test;
+
+/**
+ * Writes a synthetic journal spread over many files and reports how long it takes to load it with a single thread
+ * and with one thread per processor.
+ */
+public class JournalLoadPerfTest extends ActiveMQTestBase {
+
+   private static final int RECORDS = Integer.getInteger("JOURNAL_TEST_RECORDS", 1000000);
+
+   private static final int RECORD_SIZE = Integer.getInteger("JOURNAL_TEST_RECORD_SIZE", 256);
+
+   private static final int FILE_SIZE = 10 * 1024 * 1024;
+
+   @Test
+   public void testLoad() throws Exception {
+      SequentialFileFactory factory = new NIOSequentialFileFactory(getTestDirfile(), 1);
+
+      JournalImpl journal = new JournalImpl(FILE_SIZE, 2, 0, 0, factory, "activemq-data", "amq", 1);
+      journal.start();
+      journal.load(new ArrayList<RecordInfo>(), new ArrayList<PreparedTransactionInfo>(), null);
+
+      byte[] body = new byte[RECORD_SIZE];
+      for (int i = 0; i < RECORDS; i++) {
+         journal.appendAddRecord(i, (byte) 1, body, false);
+         // every other record is updated and every tenth deleted, so the load has to resolve them across files
+         if (i % 2 == 0) {
+            journal.appendUpdateRecord(i, (byte) 1, body, false);
+         }
+         if (i % 10 == 0) {
+            journal.appendDeleteRecord(i, false);
+         }
+      }
+      journal.stop();
+
+      int processors = Runtime.getRuntime().availableProcessors();
+
+      // the first load warms the page cache up
+      load(factory, 1);
+      long single = load(factory, 1);
+      long parallel = load(factory, processors);
+
+      System.out.println(RECORDS + " records loaded in " + single + " ms with 1 thread, " + parallel + " ms with " + processors + " threads");
+   }
+
+   private long load(final SequentialFileFactory factory, final int threads) throws Exception {
+      JournalImpl journal = new JournalImpl(FILE_SIZE, 2, 0, 0, factory, "activemq-data", "amq", 1);
+      journal.setLoadThreads(threads);
+      journal.start();
+
+      List<RecordInfo> records = new ArrayList<>();
+      long start = System.currentTimeMillis();
+      journal.load(records, new ArrayList<PreparedTransactionInfo>(), null);
+      long elapsed = System.currentTimeMillis() - start;
+
+      assertEquals(RECORDS - RECORDS / 10, journal.getIDMapSize());
+
+      journal.stop();
+      return elapsed;
+   }
+}
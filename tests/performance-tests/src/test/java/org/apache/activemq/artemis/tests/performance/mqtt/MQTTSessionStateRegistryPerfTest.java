@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.mqtt;
+
+import org.apache.activemq.artemis.core.protocol.mqtt.MQTTSessionStateRegistry;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.junit.Test;
+
+/**
+ * Connects and disconnects a million synthetic MQTT clients that keep their sessions, and reports the heap used by
+ * their offline sessions, kept as they are or compacted.
+ */
+public class MQTTSessionStateRegistryPerfTest extends ActiveMQTestBase {
+
+   private static final int CLIENTS = Integer.getInteger("MQTT_TEST_CLIENTS", 1000000);
+
+   private static final int MAX_OFFLINE_SESSIONS = 10000;
+
+   @Test
+   public void testOfflineSessions() throws Exception {
+      long heap = measure(-1, 0);
+      System.out.println("offline sessions:   " + heap / CLIENTS + " bytes per client");
+   }
+
+   @Test
+   public void testCompactedOfflineSessions() throws Exception {
+      long heap = measure(MAX_OFFLINE_SESSIONS, CLIENTS - MAX_OFFLINE_SESSIONS);
+      System.out.println("compacted sessions: " + heap / CLIENTS + " bytes per client");
+   }
+
+   private long measure(final int maxOfflineSessions, final int expectedCompacted) throws Exception {
+      ActiveMQServer server = createServer(true);
+      server.start();
+
+      MQTTSessionStateRegistry registry = new MQTTSessionStateRegistry(server, maxOfflineSessions);
+      registry.start();
+
+      long before = usedHeap();
+      long start = System.currentTimeMillis();
+      for (int i = 0; i < CLIENTS; i++) {
+         registry.detach(registry.attach("client-" + i, false));
+      }
+      long elapsed = System.currentTimeMillis() - start;
+      long heap = usedHeap() - before;
+
+      System.out.println(CLIENTS + " clients connected and disconnected in " + elapsed + " ms, " + heap / 1024 / 1024 + " MiB of heap");
+
+      assertEquals(CLIENTS, registry.size());
+      assertEquals(CLIENTS, registry.getOfflineCount());
+      assertEquals(expectedCompacted, registry.getCompactedCount());
+
+      // a compacted session is materialized again when its client reconnects
+      registry.attach("client-0", false);
+      assertEquals(CLIENTS - 1, registry.getOfflineCount());
+
+      registry.stop();
+      return heap;
+   }
+
+   private static long usedHeap() throws InterruptedException {
+      Runtime runtime = Runtime.getRuntime();
+      for (int i = 0; i < 5; i++) {
+         System.gc();
+         Thread.sleep(100);
+      }
+      return runtime.totalMemory() - runtime.freeMemory();
+   }
+}
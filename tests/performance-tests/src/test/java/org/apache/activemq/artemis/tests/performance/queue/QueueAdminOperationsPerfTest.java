@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.queue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.apache.activemq.artemis.utils.LinkedListIterator;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures the delivery latency seen by a consumer on a very deep queue while management
+ * operations (remove, move, change priority) are executed on single messages of the same queue.
+ * <p>
+ * The queue size can be changed with -DARTEMIS_QUEUE_SIZE, by default 5M messages.
+ */
+public class QueueAdminOperationsPerfTest extends ActiveMQTestBase {
+
+   private static final SimpleString ADDRESS = new SimpleString("perfQueue");
+
+   private static final SimpleString MOVE_ADDRESS = new SimpleString("perfMoveQueue");
+
+   private static final int QUEUE_SIZE = Integer.getInteger("ARTEMIS_QUEUE_SIZE", 5000000);
+
+   private static final int ADMIN_OPERATIONS = 3000;
+
+   private ActiveMQServer server;
+
+   private ClientSessionFactory sf;
+
+   @Override
+   @Before
+   public void setUp() throws Exception {
+      super.setUp();
+
+      server = createServer(false);
+      server.start();
+
+      server.getAddressSettingsRepository().addMatch(ADDRESS.toString(), new AddressSettings().setMessageIDIndex(true));
+
+      ServerLocator locator = createInVMNonHALocator().setBlockOnNonDurableSend(false).setConsumerWindowSize(64 * 1024);
+      sf = createSessionFactory(locator);
+
+      ClientSession session = addClientSession(sf.createSession(false, true, true));
+      session.createQueue(ADDRESS, ADDRESS, false);
+      session.createQueue(MOVE_ADDRESS, MOVE_ADDRESS, false);
+   }
+
+   @Test
+   public void testDeliveryLatencyDuringAdminOperations() throws Exception {
+      ClientSession session = addClientSession(sf.createSession(false, true, true));
+      ClientProducer producer = session.createProducer(ADDRESS);
+
+      long start = System.currentTimeMillis();
+      for (int i = 0; i < QUEUE_SIZE; i++) {
+         ClientMessage message = session.createMessage(false);
+         message.putIntProperty("i", i);
+         producer.send(message);
+      }
+
+      final Queue queue = server.locateQueue(ADDRESS);
+      long timeout = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(5);
+      while (getMessageCount(queue) < QUEUE_SIZE && System.currentTimeMillis() < timeout) {
+         Thread.sleep(100);
+      }
+      assertEquals(QUEUE_SIZE, getMessageCount(queue));
+      System.out.println("Sent " + QUEUE_SIZE + " messages in " + (System.currentTimeMillis() - start) + " ms");
+
+      // the operations target the tail of the queue, the worst case for a scan
+      final long[] targets = collectTailIDs(queue, ADMIN_OPERATIONS);
+
+      final AtomicBoolean running = new AtomicBoolean(true);
+      final CountDownLatch adminDone = new CountDownLatch(1);
+      final long[] adminTimes = new long[targets.length];
+
+      Thread admin = new Thread("admin-operations") {
+         @Override
+         public void run() {
+            try {
+               for (int i = 0; i < targets.length && running.get(); i++) {
+                  long before = System.nanoTime();
+                  switch (i % 3) {
+                     case 0:
+                        queue.deleteReference(targets[i]);
+                        break;
+                     case 1:
+                        queue.moveReference(targets[i], MOVE_ADDRESS);
+                        break;
+                     default:
+                        queue.changeReferencePriority(targets[i], (byte) 9);
+                  }
+                  adminTimes[i] = System.nanoTime() - before;
+               }
+            }
+            catch (Exception e) {
+               e.printStackTrace();
+            }
+            finally {
+               adminDone.countDown();
+            }
+         }
+      };
+
+      ClientSession consumerSession = addClientSession(sf.createSession(false, true, true));
+      ClientConsumer consumer = consumerSession.createConsumer(ADDRESS);
+      consumerSession.start();
+
+      List<Long> gaps = new ArrayList<Long>();
+      assertNotNull(consumer.receive(5000));
+      admin.start();
+
+      long last = System.nanoTime();
+      while (adminDone.getCount() > 0) {
+         ClientMessage message = consumer.receive(5000);
+         assertNotNull(message);
+         message.acknowledge();
+         long now = System.nanoTime();
+         gaps.add(now - last);
+         last = now;
+      }
+      running.set(false);
+      assertTrue(adminDone.await(1, TimeUnit.MINUTES));
+
+      printPercentiles("delivery gap", toArray(gaps));
+      printPercentiles("admin operation", adminTimes);
+   }
+
+   private long[] collectTailIDs(final Queue queue, final int count) {
+      long[] ids = new long[count];
+      int skip = QUEUE_SIZE - count;
+      int i = 0;
+      LinkedListIterator<MessageReference> iterator = queue.iterator();
+      try {
+         while (iterator.hasNext() && i < count) {
+            MessageReference ref = iterator.next();
+            if (skip > 0) {
+               skip--;
+            }
+            else {
+               ids[i++] = ref.getMessage().getMessageID();
+            }
+         }
+      }
+      finally {
+         iterator.close();
+      }
+      return Arrays.copyOf(ids, i);
+   }
+
+   private static long[] toArray(final List<Long> values) {
+      long[] array = new long[values.size()];
+      for (int i = 0; i < array.length; i++) {
+         array[i] = values.get(i);
+      }
+      return array;
+   }
+
+   private static void printPercentiles(final String name, final long[] nanos) {
+      long[] sorted = nanos.clone();
+      Arrays.sort(sorted);
+      if (sorted.length == 0) {
+         return;
+      }
+      System.out.println(name + " (" + sorted.length + " samples): p50=" + micros(sorted, 0.5) +
+                            "us, p99=" + micros(sorted, 0.99) +
+                            "us, p99.9=" + micros(sorted, 0.999) +
+                            "us, max=" + TimeUnit.NANOSECONDS.toMicros(sorted[sorted.length - 1]) + "us");
+   }
+
+   private static long micros(final long[] sorted, final double percentile) {
+      return TimeUnit.NANOSECONDS.toMicros(sorted[(int) ((sorted.length - 1) * percentile)]);
+   }
+}
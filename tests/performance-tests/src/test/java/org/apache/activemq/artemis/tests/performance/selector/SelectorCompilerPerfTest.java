@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.selector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.activemq.artemis.selector.filter.BooleanExpression;
+import org.apache.activemq.artemis.selector.filter.FilterException;
+import org.apache.activemq.artemis.selector.filter.Filterable;
+import org.apache.activemq.artemis.selector.impl.SelectorCompiler;
+import org.apache.activemq.artemis.selector.impl.SelectorParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares the throughput of the interpreted selectors with the ones compiled by
+ * {@link SelectorCompiler} over a few typical selectors.
+ * <p>
+ * The number of evaluations per selector can be changed with -DARTEMIS_SELECTOR_ITERATIONS, by
+ * default 10M.
+ */
+public class SelectorCompilerPerfTest {
+
+   private static final int ITERATIONS = Integer.getInteger("ARTEMIS_SELECTOR_ITERATIONS", 10000000);
+
+   private static final String[] SELECTORS = new String[]{
+      "color = 'red'",
+      "priority > 5",
+      "price BETWEEN 10.5 AND 100",
+      "color IN ('red', 'green', 'blue', 'yellow', 'black', 'white')",
+      "region = 'EU' AND priority >= 4 AND price < 50",
+      "missing IS NULL OR (color = 'red' AND priority > 2 * 3)",
+      "NOT (color = 'red') AND quantity <> 0 AND description LIKE 'large%'"
+   };
+
+   @Test
+   public void testCompiledAgainstInterpreted() throws Exception {
+      Filterable[] messages = new Filterable[]{
+         new MapFilterable("red", 7, 45.5, "EU", 3L, "large box"),
+         new MapFilterable("green", 2, 150.0, "US", 0L, "small box"),
+         new MapFilterable("black", 9, 10.0, "EU", 12L, "large crate")
+      };
+
+      for (String selector : SELECTORS) {
+         BooleanExpression interpreted = SelectorParser.parse(selector);
+         BooleanExpression compiled = SelectorCompiler.compile(selector);
+
+         for (Filterable message : messages) {
+            Assert.assertEquals(selector, interpreted.matches(message), compiled.matches(message));
+         }
+
+         // warm up both before measuring
+         run(interpreted, messages, ITERATIONS / 10);
+         run(compiled, messages, ITERATIONS / 10);
+
+         long interpretedTime = run(interpreted, messages, ITERATIONS);
+         long compiledTime = run(compiled, messages, ITERATIONS);
+
+         System.out.println(String.format("%-75s interpreted %6d ms, compiled %6d ms (%.2fx)", selector, interpretedTime, compiledTime, (double) interpretedTime / Math.max(1, compiledTime)));
+      }
+   }
+
+   private static long run(BooleanExpression expression, Filterable[] messages, int iterations) throws FilterException {
+      int matches = 0;
+      long start = System.currentTimeMillis();
+      for (int i = 0; i < iterations; i++) {
+         if (expression.matches(messages[i % messages.length])) {
+            matches++;
+         }
+      }
+      long time = System.currentTimeMillis() - start;
+      // keeps the loop from being optimised away
+      Assert.assertTrue(matches >= 0);
+      return time;
+   }
+
+   private static final class MapFilterable implements Filterable {
+
+      private final Map<String, Object> properties = new HashMap<String, Object>();
+
+      MapFilterable(String color, int priority, double price, String region, long quantity, String description) {
+         properties.put("color", color);
+         properties.put("priority", priority);
+         properties.put("price", price);
+         properties.put("region", region);
+         properties.put("quantity", quantity);
+         properties.put("description", description);
+      }
+
+      @Override
+      public <T> T getBodyAs(Class<T> type) throws FilterException {
+         return null;
+      }
+
+      @Override
+      public Object getProperty(String name) {
+         return properties.get(name);
+      }
+
+      @Override
+      public Object getLocalConnectionId() {
+         return null;
+      }
+   }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.sends;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.netty.channel.epoll.Epoll;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.TransportConfiguration;
+import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.core.remoting.impl.netty.TransportConstants;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Compares the NIO and the native epoll transports over loopback: throughput of non durable
+ * messages going through a queue, and the round trip latency of a single message.
+ */
+public class EpollLoopbackPerfTest extends ActiveMQTestBase {
+
+   private static final SimpleString QUEUE = new SimpleString("epoll-perf");
+
+   private static final int MESSAGES = Integer.getInteger("EPOLL_TEST_MESSAGES", 200000);
+
+   private static final int ROUND_TRIPS = Integer.getInteger("EPOLL_TEST_ROUND_TRIPS", 20000);
+
+   @Test
+   public void testNIO() throws Exception {
+      Result result = measure(false);
+      System.out.println("NIO:   " + result);
+   }
+
+   @Test
+   public void testEpoll() throws Exception {
+      Assume.assumeTrue("epoll is not available on this platform", Epoll.isAvailable());
+      Result result = measure(true);
+      System.out.println("epoll: " + result);
+   }
+
+   private Result measure(final boolean useEpoll) throws Exception {
+      Map<String, Object> params = new HashMap<String, Object>();
+      params.put(TransportConstants.USE_EPOLL_PROP_NAME, useEpoll);
+      params.put(TransportConstants.TCP_QUICKACK_PROPNAME, useEpoll);
+
+      ActiveMQServer server = createServer(false, createBasicConfig().addAcceptorConfiguration(new TransportConfiguration(NETTY_ACCEPTOR_FACTORY, params)));
+      server.start();
+
+      ServerLocator locator = addServerLocator(ActiveMQClient.createServerLocatorWithoutHA(new TransportConfiguration(NETTY_CONNECTOR_FACTORY, params)));
+      locator.setBlockOnNonDurableSend(false).setPreAcknowledge(true).setConsumerWindowSize(1024 * 1024);
+
+      ClientSessionFactory factory = createSessionFactory(locator);
+      ClientSession session = addClientSession(factory.createSession(false, true, true));
+      session.createQueue(QUEUE, QUEUE, null, false);
+
+      ClientProducer producer = session.createProducer(QUEUE);
+      ClientConsumer consumer = session.createConsumer(QUEUE);
+      session.start();
+
+      // warm up both paths before measuring
+      for (int i = 0; i < ROUND_TRIPS; i++) {
+         roundTrip(session, producer, consumer);
+      }
+
+      long start = System.nanoTime();
+      for (int i = 0; i < MESSAGES; i++) {
+         producer.send(createMessage(session, i));
+         if (i % 1000 == 999) {
+            // keep the queue from growing without bounds
+            for (int j = 0; j < 1000; j++) {
+               assertNotNull(consumer.receive(5000));
+            }
+         }
+      }
+      for (int i = 0; i < MESSAGES % 1000; i++) {
+         assertNotNull(consumer.receive(5000));
+      }
+      long elapsed = System.nanoTime() - start;
+
+      long[] latencies = new long[ROUND_TRIPS];
+      for (int i = 0; i < ROUND_TRIPS; i++) {
+         latencies[i] = roundTrip(session, producer, consumer);
+      }
+      Arrays.sort(latencies);
+
+      session.close();
+      factory.close();
+      server.stop();
+
+      return new Result(MESSAGES * 1000000000d / elapsed, latencies[latencies.length / 2], latencies[(int) (latencies.length * 0.99)]);
+   }
+
+   private long roundTrip(final ClientSession session,
+                          final ClientProducer producer,
+                          final ClientConsumer consumer) throws Exception {
+      long start = System.nanoTime();
+      producer.send(createMessage(session, 0));
+      assertNotNull(consumer.receive(5000));
+      return System.nanoTime() - start;
+   }
+
+   private static ClientMessage createMessage(final ClientSession session, final int i) {
+      ClientMessage message = session.createMessage(false);
+      message.getBodyBuffer().writeInt(i);
+      return message;
+   }
+
+   private static final class Result {
+
+      private final double messagesPerSecond;
+
+      private final long p50;
+
+      private final long p99;
+
+      private Result(final double messagesPerSecond, final long p50, final long p99) {
+         this.messagesPerSecond = messagesPerSecond;
+         this.p50 = p50;
+         this.p99 = p99;
+      }
+
+      @Override
+      public String toString() {
+         return String.format("%.0f msgs/sec, round trip p50 = %d us, p99 = %d us", messagesPerSecond, p50 / 1000, p99 / 1000);
+      }
+   }
+}
@@ -353,4 +353,90 @@ public class TimedBufferTest extends ActiveMQTestBase {
          timedBuffer.stop();
       }
    }
+
+   @Test
+   public void testAddBytesWhileFlushing() throws Exception {
+      final ArrayList<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+      final CountDownLatch flushing = new CountDownLatch(1);
+      final CountDownLatch releaseFlush = new CountDownLatch(1);
+      class TestObserver implements TimedBufferObserver {
+
+         public void flushBuffer(final ByteBuffer buffer, final boolean sync, final List<IOCallback> callbacks) {
+            buffers.add(buffer);
+            for (IOCallback callback : callbacks) {
+               callback.done();
+            }
+            flushing.countDown();
+            try {
+               releaseFlush.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         }
+
+         public ByteBuffer newBuffer(final int minSize, final int maxSize) {
+            return ByteBuffer.allocate(maxSize);
+         }
+
+         public int getRemainingBytes() {
+            return 1024 * 1024;
+         }
+      }
+
+      final List<Integer> completed = new ArrayList<Integer>();
+
+      final TimedBuffer timedBuffer = new TimedBuffer(100, TimedBufferTest.ONE_SECOND_IN_NANOS, false);
+
+      timedBuffer.start();
+
+      try {
+         timedBuffer.setObserver(new TestObserver());
+
+         for (int i = 0; i < 2; i++) {
+            final int record = i;
+
+            timedBuffer.checkSize(10);
+            timedBuffer.addBytes(ActiveMQBuffers.wrappedBuffer(new byte[10]), false, new IOCallback() {
+               public void done() {
+                  completed.add(record);
+               }
+
+               public void onError(final int errorCode, final String errorMessage) {
+               }
+            });
+
+            if (i == 0) {
+               Thread flusher = new Thread() {
+                  @Override
+                  public void run() {
+                     timedBuffer.flush();
+                  }
+               };
+               flusher.start();
+
+               Assert.assertTrue(flushing.await(10, TimeUnit.SECONDS));
+            }
+         }
+
+         // the second record was added while the observer was still writing the first one
+         Assert.assertEquals(1, buffers.size());
+
+         releaseFlush.countDown();
+
+         timedBuffer.flush();
+
+         Assert.assertEquals(2, buffers.size());
+
+         Assert.assertEquals(10, buffers.get(1).limit());
+
+         Assert.assertEquals(0, completed.get(0).intValue());
+
+         Assert.assertEquals(1, completed.get(1).intValue());
+      }
+      finally {
+         releaseFlush.countDown();
+         timedBuffer.stop();
+      }
+   }
 }
@@ -276,4 +276,29 @@ public class AddressImplTest extends ActiveMQTestBase {
       Assert.assertFalse(a1.matches(w));
    }
 
+   @Test
+   public void testAnyWordsMatchingNoWord() {
+      SimpleString s1 = new SimpleString("a.b");
+      SimpleString s2 = new SimpleString("a.c");
+      SimpleString s3 = new SimpleString("#.b");
+      SimpleString s4 = new SimpleString("a.#.b");
+      Address a1 = new AddressImpl(s1);
+      Address a2 = new AddressImpl(s2);
+      Address w1 = new AddressImpl(s3);
+      Address w2 = new AddressImpl(s4);
+      Assert.assertTrue(a1.matches(w1));
+      Assert.assertTrue(a1.matches(w2));
+      Assert.assertFalse(a2.matches(w1));
+      Assert.assertFalse(a2.matches(w2));
+   }
+
+   @Test
+   public void testAnyWordsNotMatchingMissingWords() {
+      SimpleString s1 = new SimpleString("c.a.b");
+      SimpleString s3 = new SimpleString("#.b.a.#");
+      Address a1 = new AddressImpl(s1);
+      Address w = new AddressImpl(s3);
+      Assert.assertFalse(a1.matches(w));
+   }
+
 }
@@ -21,14 +21,17 @@ import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
 import org.apache.activemq.artemis.core.server.impl.RefsOperation;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.transaction.xa.Xid;
 
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.filter.impl.FilterImpl;
 import org.apache.activemq.artemis.core.postoffice.Binding;
 import org.apache.activemq.artemis.core.postoffice.BindingType;
 import org.apache.activemq.artemis.core.postoffice.Bindings;
@@ -69,6 +72,146 @@ public class BindingsImplTest extends ActiveMQTestBase {
       }
    }
 
+   @Test
+   public void testRouteWithFilters() throws Exception {
+      String[] filters = {"region = 'EU'", "region = 'EU' AND type = 'X'", "type = 'X' AND region IN ('EU', 'US')", "region IN ('US', 'US', 'APAC')", "region = 'EU' OR type = 'Y'", "NOT (region = 'EU')", "'US' = region AND amount > 10", "region <> 'US'", "region = 'EU' AND (type = 'X' OR amount < 5)", "amount = 10", null};
+
+      Bindings bind = new BindingsImpl(null, null, null);
+      List<FakeBinding> bindings = new ArrayList<FakeBinding>();
+      for (int i = 0; i < filters.length * 2; i++) {
+         String filter = filters[i % filters.length];
+         FakeBinding binding = new FakeBinding(new SimpleString("queue" + i), i, filter == null ? null : FilterImpl.createFilter(filter));
+         bindings.add(binding);
+         bind.addBinding(binding);
+      }
+
+      // removed and added back, it must be routed only once
+      bind.removeBinding(bindings.get(1));
+      bind.addBinding(bindings.get(1));
+
+      // routed nowhere after being removed
+      FakeBinding removed = bindings.remove(bindings.size() - 2);
+      bind.removeBinding(removed);
+
+      String[] regions = {"EU", "US", "APAC", null};
+      String[] types = {"X", "Y", null};
+      int[] amounts = {1, 10, 20};
+      long id = 0;
+      for (String region : regions) {
+         for (String type : types) {
+            for (int amount : amounts) {
+               ServerMessage message = new ServerMessageImpl(id++, 100);
+               if (region != null) {
+                  message.putStringProperty("region", region);
+               }
+               if (type != null) {
+                  message.putStringProperty(new SimpleString("type"), new SimpleString(type));
+               }
+               message.putIntProperty("amount", amount);
+
+               for (FakeBinding binding : bindings) {
+                  binding.routed = 0;
+               }
+               removed.routed = 0;
+
+               bind.route(message, new RoutingContextImpl(new FakeTransaction()));
+
+               for (FakeBinding binding : bindings) {
+                  int expected = binding.filter == null || binding.filter.match(message) ? 1 : 0;
+                  assertEquals(binding.filter + " with " + message, expected, binding.routed);
+               }
+               assertEquals(0, removed.routed);
+            }
+         }
+      }
+   }
+
+   @Test
+   public void testRouteWhileIndexUpdated() throws Exception {
+      final Bindings bind = new BindingsImpl(null, null, null);
+
+      // alone, the routing name is indexed by its filter, with the other binding it isn't anymore
+      FakeBinding indexed = new FakeBinding(new SimpleString("queue"), 1, FilterImpl.createFilter("region = 'EU'"));
+      final FakeBinding other = new FakeBinding(new SimpleString("queue"), 2, FilterImpl.createFilter("region = 'EU'"));
+      bind.addBinding(indexed);
+
+      final AtomicBoolean running = new AtomicBoolean(true);
+
+      Thread updater = new Thread() {
+         @Override
+         public void run() {
+            while (running.get()) {
+               bind.addBinding(other);
+               bind.removeBinding(other);
+            }
+         }
+      };
+      updater.start();
+
+      try {
+         ServerMessage message = new ServerMessageImpl(1, 100);
+         message.putStringProperty("region", "EU");
+
+         for (int i = 0; i < 100000; i++) {
+            indexed.routed = 0;
+            other.routed = 0;
+
+            bind.route(message, new RoutingContextImpl(new FakeTransaction()));
+
+            // whether the routing name is indexed or not at that moment, it must get the message once
+            assertEquals("routing " + i, 1, indexed.routed + other.routed);
+         }
+      }
+      finally {
+         running.set(false);
+         updater.join();
+      }
+   }
+
+   @Test
+   public void testAddManyFilteredBindings() throws Exception {
+      final int count = 20000;
+
+      // half of them with a value of their own, the other half sharing one value
+      List<FakeBinding> bindings = new ArrayList<FakeBinding>();
+      for (int i = 0; i < count; i++) {
+         String filter = i % 2 == 0 ? "region = 'region" + i + "'" : "region = 'EU' AND id = " + i;
+         bindings.add(new FakeBinding(new SimpleString("queue" + i), i, FilterImpl.createFilter(filter)));
+      }
+
+      Bindings bind = new BindingsImpl(null, null, null);
+
+      long start = System.currentTimeMillis();
+      for (FakeBinding binding : bindings) {
+         bind.addBinding(binding);
+      }
+      for (int i = 0; i < count; i += 4) {
+         bind.removeBinding(bindings.get(i));
+      }
+      long time = System.currentTimeMillis() - start;
+
+      // every change used to copy the whole index, which is quadratic in the number of bindings
+      assertTrue("adding " + count + " bindings took " + time + " ms", time < 5000);
+
+      ServerMessage message = new ServerMessageImpl(1, 100);
+      message.putStringProperty("region", "region2");
+      message.putIntProperty("id", 2);
+      bind.route(message, new RoutingContextImpl(new FakeTransaction()));
+
+      message = new ServerMessageImpl(2, 100);
+      message.putStringProperty("region", "EU");
+      message.putIntProperty("id", 3);
+      bind.route(message, new RoutingContextImpl(new FakeTransaction()));
+
+      message = new ServerMessageImpl(3, 100);
+      message.putStringProperty("region", "region4");
+      bind.route(message, new RoutingContextImpl(new FakeTransaction()));
+
+      for (int i = 0; i < count; i++) {
+         assertEquals("binding " + i, i == 2 || i == 3 ? 1 : 0, bindings.get(i).routed);
+      }
+   }
+
    private void internalTest(final boolean route) throws Exception {
       final FakeBinding fake = new FakeBinding(new SimpleString("a"));
 
@@ -250,8 +393,20 @@ public class BindingsImplTest extends ActiveMQTestBase {
 
       final SimpleString name;
 
+      final long id;
+
+      final Filter filter;
+
+      int routed;
+
       FakeBinding(final SimpleString name) {
+         this(name, 0, new FakeFilter());
+      }
+
+      FakeBinding(final SimpleString name, final long id, final Filter filter) {
          this.name = name;
+         this.id = id;
+         this.filter = filter;
       }
 
       public SimpleString getAddress() {
@@ -285,11 +440,11 @@ public class BindingsImplTest extends ActiveMQTestBase {
        * @see org.apache.activemq.artemis.core.postoffice.Binding#getFilter()
        */
       public Filter getFilter() {
-         return new FakeFilter();
+         return filter;
       }
 
       public long getID() {
-         return 0;
+         return id;
       }
 
       /* (non-Javadoc)
@@ -323,7 +478,7 @@ public class BindingsImplTest extends ActiveMQTestBase {
       }
 
       public void route(final ServerMessage message, final RoutingContext context) throws Exception {
-
+         routed++;
       }
 
       /* (non-Javadoc)
@@ -49,6 +49,26 @@ public class FakeQueue implements Queue {
 
    }
 
+   @Override
+   public int getGroupCount() {
+      return 0;
+   }
+
+   @Override
+   public Map<SimpleString, Consumer> getGroups() {
+      return null;
+   }
+
+   @Override
+   public void resetGroup(SimpleString groupID) {
+
+   }
+
+   @Override
+   public void resetAllGroups() {
+
+   }
+
    @Override
    public int retryMessages(Filter filter) throws Exception {
       return 0;
@@ -280,6 +300,11 @@ public class FakeQueue implements Queue {
       return messageCount;
    }
 
+   @Override
+   public long getMessageCountEstimate() {
+      return messageCount;
+   }
+
    public void setMessageCount(long messageCount) {
       this.messageCount = messageCount;
    }
@@ -541,6 +566,16 @@ public class FakeQueue implements Queue {
       return 0.0f;
    }
 
+   @Override
+   public long getMessagesRedistributed() {
+      return 0;
+   }
+
+   @Override
+   public float getRedistributionRate() {
+      return 0.0f;
+   }
+
    @Override
    public SimpleString getUser() {
       return null;
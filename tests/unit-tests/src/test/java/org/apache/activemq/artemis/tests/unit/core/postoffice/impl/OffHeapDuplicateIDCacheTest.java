@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.unit.core.postoffice.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration;
+import org.apache.activemq.artemis.api.core.Pair;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.persistence.GroupingInfo;
+import org.apache.activemq.artemis.core.persistence.QueueBindingInfo;
+import org.apache.activemq.artemis.core.persistence.impl.journal.JournalStorageManager;
+import org.apache.activemq.artemis.core.persistence.impl.nullpm.NullStorageManager;
+import org.apache.activemq.artemis.core.postoffice.PostOffice;
+import org.apache.activemq.artemis.core.postoffice.impl.DuplicateIDCacheImpl;
+import org.apache.activemq.artemis.core.postoffice.impl.OffHeapDuplicateIDCache;
+import org.apache.activemq.artemis.core.server.impl.PostOfficeJournalLoader;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.core.transaction.impl.ResourceManagerImpl;
+import org.apache.activemq.artemis.core.transaction.impl.TransactionImpl;
+import org.apache.activemq.artemis.tests.unit.core.server.impl.fakes.FakePostOffice;
+import org.apache.activemq.artemis.tests.unit.util.FakePagingManager;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.apache.activemq.artemis.tests.util.RandomUtil;
+import org.apache.activemq.artemis.utils.ExecutorFactory;
+import org.apache.activemq.artemis.utils.OrderedExecutorFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OffHeapDuplicateIDCacheTest extends ActiveMQTestBase {
+
+   private static final SimpleString ADDRESS = new SimpleString("address");
+
+   ExecutorService executor;
+
+   ExecutorFactory factory;
+
+   @Override
+   @After
+   public void tearDown() throws Exception {
+      executor.shutdown();
+      super.tearDown();
+   }
+
+   @Override
+   @Before
+   public void setUp() throws Exception {
+      super.setUp();
+      executor = Executors.newSingleThreadExecutor();
+      factory = new OrderedExecutorFactory(executor);
+   }
+
+   @Test
+   public void testAddContainsAndEvict() throws Exception {
+      OffHeapDuplicateIDCache cache = new OffHeapDuplicateIDCache(ADDRESS, 10, new NullStorageManager(), false);
+
+      byte[][] ids = new byte[15][];
+      for (int i = 0; i < ids.length; i++) {
+         ids[i] = RandomUtil.randomBytes();
+         Assert.assertFalse(cache.contains(ids[i]));
+         cache.addToCache(ids[i], null);
+         Assert.assertTrue(cache.contains(ids[i]));
+      }
+
+      Assert.assertEquals(10, cache.size());
+
+      // the oldest ids were evicted
+      for (int i = 0; i < ids.length; i++) {
+         Assert.assertEquals(i >= 5, cache.contains(ids[i]));
+      }
+
+      cache.deleteFromCache(ids[10]);
+      Assert.assertFalse(cache.contains(ids[10]));
+      Assert.assertEquals(9, cache.size());
+
+      // a copy of the id has to match as well
+      Assert.assertTrue(cache.contains(ids[11].clone()));
+
+      cache.clear();
+      Assert.assertEquals(0, cache.size());
+      Assert.assertFalse(cache.contains(ids[11]));
+   }
+
+   @Test
+   public void testStripedCacheKeepsConfiguredSize() throws Exception {
+      int size = 100000;
+      OffHeapDuplicateIDCache cache = new OffHeapDuplicateIDCache(ADDRESS, size, new NullStorageManager(), false);
+
+      List<byte[]> ids = new ArrayList<byte[]>();
+      for (int i = 0; i < size; i++) {
+         byte[] id = ("id-" + i).getBytes();
+         ids.add(id);
+         cache.addToCache(id, null);
+      }
+
+      for (byte[] id : ids) {
+         Assert.assertTrue(cache.contains(id));
+      }
+
+      Assert.assertFalse(cache.contains("id-x".getBytes()));
+   }
+
+   @Test
+   public void testTransactionalAdd() throws Exception {
+      NullStorageManager storageManager = new NullStorageManager();
+      OffHeapDuplicateIDCache cache = new OffHeapDuplicateIDCache(ADDRESS, 10, storageManager, false);
+
+      byte[] id = RandomUtil.randomBytes();
+
+      Transaction tx = new TransactionImpl(storageManager);
+      cache.addToCache(id, tx);
+      Assert.assertFalse(cache.contains(id));
+      tx.commit();
+      Assert.assertTrue(cache.contains(id));
+
+      byte[] rolledBack = RandomUtil.randomBytes();
+      tx = new TransactionImpl(storageManager);
+      cache.addToCache(rolledBack, tx);
+      tx.rollback();
+      Assert.assertFalse(cache.contains(rolledBack));
+   }
+
+   @Test
+   public void testReloadFromDefaultCacheRecords() throws Exception {
+      JournalStorageManager journal = null;
+
+      try {
+         clearDataRecreateServerDirs();
+
+         Configuration configuration = createDefaultInVMConfig();
+
+         PostOffice postOffice = new FakePostOffice();
+
+         ScheduledExecutorService scheduledThreadPool = Executors.newScheduledThreadPool(ActiveMQDefaultConfiguration.getDefaultScheduledThreadPoolMaxSize());
+
+         journal = new JournalStorageManager(configuration, factory, null);
+         journal.start();
+         journal.loadBindingJournal(new ArrayList<QueueBindingInfo>(), new ArrayList<GroupingInfo>());
+
+         HashMap<SimpleString, List<Pair<byte[], Long>>> mapDups = new HashMap<SimpleString, List<Pair<byte[], Long>>>();
+
+         FakePagingManager pagingManager = new FakePagingManager();
+         journal.loadMessageJournal(postOffice, pagingManager, new ResourceManagerImpl(0, 0, scheduledThreadPool), null, mapDups, null, null, new PostOfficeJournalLoader(postOffice, pagingManager, null, null, null, null, null, null));
+
+         // records written by the default implementation
+         DuplicateIDCacheImpl defaultCache = new DuplicateIDCacheImpl(ADDRESS, 10, journal, true);
+
+         List<byte[]> ids = new ArrayList<byte[]>();
+         for (int i = 0; i < 10; i++) {
+            byte[] id = RandomUtil.randomBytes();
+            ids.add(id);
+            defaultCache.addToCache(id, null);
+         }
+
+         journal.stop();
+
+         journal = new JournalStorageManager(configuration, factory, null);
+         journal.start();
+         journal.loadBindingJournal(new ArrayList<QueueBindingInfo>(), new ArrayList<GroupingInfo>());
+         journal.loadMessageJournal(postOffice, pagingManager, new ResourceManagerImpl(0, 0, scheduledThreadPool), null, mapDups, null, null, new PostOfficeJournalLoader(postOffice, pagingManager, null, null, null, null, null, null));
+
+         OffHeapDuplicateIDCache cache = new OffHeapDuplicateIDCache(ADDRESS, 10, journal, true);
+         cache.load(mapDups.get(ADDRESS));
+
+         for (byte[] id : ids) {
+            Assert.assertTrue(cache.contains(id));
+         }
+
+         // evicting the old ids has to delete their records
+         for (int i = 0; i < 100; i++) {
+            cache.addToCache(RandomUtil.randomBytes(), null);
+         }
+
+         journal.stop();
+
+         mapDups.clear();
+
+         journal = new JournalStorageManager(configuration, factory, null);
+         journal.start();
+         journal.loadBindingJournal(new ArrayList<QueueBindingInfo>(), new ArrayList<GroupingInfo>());
+         journal.loadMessageJournal(postOffice, pagingManager, new ResourceManagerImpl(0, 0, scheduledThreadPool), null, mapDups, null, null, new PostOfficeJournalLoader(postOffice, pagingManager, null, null, null, null, null, null));
+
+         Assert.assertEquals(10, mapDups.get(ADDRESS).size());
+      }
+      finally {
+         if (journal != null) {
+            try {
+               journal.stop();
+            }
+            catch (Throwable ignored) {
+            }
+         }
+      }
+   }
+}
@@ -71,6 +71,27 @@ public class WildcardAddressManagerUnitTest extends ActiveMQTestBase {
       assertEquals("Exception happened during the process", 0, errors);
    }
 
+   @Test
+   public void testWildCardBindingsRouted() throws Exception {
+      WildcardAddressManager ad = new WildcardAddressManager(new BindingFactoryFake());
+      ad.addBinding(new BindingFake("sensor.site1.device1.temp", "device1"));
+      ad.addBinding(new BindingFake("sensor.*.*.temp", "allTemps"));
+      ad.addBinding(new BindingFake("sensor.site1.#", "site1"));
+      ad.addBinding(new BindingFake("#.humidity", "allHumidity"));
+
+      assertEquals(3, ad.getBindingsForRoutingAddress(SimpleString.toSimpleString("sensor.site1.device1.temp")).getBindings().size());
+      assertEquals(2, ad.getBindingsForRoutingAddress(SimpleString.toSimpleString("sensor.site1.device2.temp")).getBindings().size());
+      assertEquals(1, ad.getBindingsForRoutingAddress(SimpleString.toSimpleString("sensor.site2.device1.temp")).getBindings().size());
+      assertEquals(2, ad.getBindingsForRoutingAddress(SimpleString.toSimpleString("sensor.site1.humidity")).getBindings().size());
+      assertEquals(1, ad.getBindingsForRoutingAddress(SimpleString.toSimpleString("humidity")).getBindings().size());
+      assertNull(ad.getBindingsForRoutingAddress(SimpleString.toSimpleString("sensor.site2.device1.pressure")));
+
+      ad.removeBinding(SimpleString.toSimpleString("allTemps"), null);
+
+      assertEquals(2, ad.getBindingsForRoutingAddress(SimpleString.toSimpleString("sensor.site1.device1.temp")).getBindings().size());
+      assertEquals(1, ad.getBindingsForRoutingAddress(SimpleString.toSimpleString("sensor.site1.device2.temp")).getBindings().size());
+   }
+
    class BindingFactoryFake implements BindingsFactory {
 
       public Bindings createBindings(SimpleString address) throws Exception {
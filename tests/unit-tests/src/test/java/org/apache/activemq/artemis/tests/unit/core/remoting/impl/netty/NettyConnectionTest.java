@@ -59,6 +59,30 @@ public class NettyConnectionTest extends ActiveMQTestBase {
       Assert.assertEquals(1, channel.outboundMessages().size());
    }
 
+   @Test
+   public void testAdaptiveWriteFlushesOncePerTurn() throws Exception {
+      EmbeddedChannel channel = createChannel();
+      NettyConnection conn = new NettyConnection(emptyMap, channel, new MyListener(), false, false, 1024);
+
+      for (int i = 0; i < 3; i++) {
+         conn.write(ActiveMQBuffers.wrappedBuffer(ByteBuffer.allocate(128)));
+      }
+      Assert.assertEquals(0, channel.outboundMessages().size());
+
+      channel.runPendingTasks();
+      Assert.assertEquals(3, channel.outboundMessages().size());
+      Assert.assertEquals(1, conn.getFlushCount());
+      Assert.assertEquals(3 * 128, conn.getFlushedBytes());
+
+      // going over the batch size flushes without waiting for the end of the turn
+      conn.write(ActiveMQBuffers.wrappedBuffer(ByteBuffer.allocate(2048)));
+      conn.write(ActiveMQBuffers.wrappedBuffer(ByteBuffer.allocate(128)));
+      channel.runPendingTasks();
+      Assert.assertEquals(5, channel.outboundMessages().size());
+      Assert.assertEquals(3, conn.getFlushCount());
+      Assert.assertEquals(3 * 128 + 2048 + 128, conn.getFlushedBytes());
+   }
+
    @Test
    public void testCreateBuffer() throws Exception {
       EmbeddedChannel channel = createChannel();
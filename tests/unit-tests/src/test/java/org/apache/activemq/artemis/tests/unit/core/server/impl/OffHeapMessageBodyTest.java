@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.unit.core.server.impl;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.server.impl.OffHeapMessageBuffer;
+import org.apache.activemq.artemis.core.server.impl.ServerMessageImpl;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.apache.activemq.artemis.tests.util.RandomUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapMessageBodyTest extends ActiveMQTestBase {
+
+   @Test
+   public void testBodyMovedOffHeapAndReleased() throws Exception {
+      byte[] body = RandomUtil.randomBytes(1000);
+
+      ServerMessageImpl message = new ServerMessageImpl(1, 1500);
+      message.setAddress(new SimpleString("address"));
+      message.getBodyBuffer().writeBytes(body);
+
+      long sizeBefore = OffHeapMessageBuffer.getTotalSize();
+
+      // nothing references the message yet, so there is nothing to keep
+      message.moveBodyOffHeap();
+      Assert.assertFalse(message.getWholeBuffer() instanceof OffHeapMessageBuffer);
+
+      message.incrementRefCount();
+      message.incrementRefCount();
+      message.moveBodyOffHeap();
+
+      Assert.assertTrue(message.getWholeBuffer() instanceof OffHeapMessageBuffer);
+      OffHeapMessageBuffer offHeap = (OffHeapMessageBuffer) message.getWholeBuffer();
+      Assert.assertEquals(sizeBefore + offHeap.getPooledSize(), OffHeapMessageBuffer.getTotalSize());
+
+      byte[] read = new byte[body.length];
+      message.getBodyBuffer().readBytes(read);
+      assertEqualsByteArrays(body, read);
+
+      ActiveMQBuffer copy = message.getBodyBufferCopy();
+      Assert.assertFalse(copy.byteBuf().isDirect());
+
+      ActiveMQBuffer delivered = message.getEncodedBuffer();
+      Assert.assertNotSame(offHeap, delivered);
+      Assert.assertEquals(message.getEndOfMessagePosition(), delivered.writerIndex());
+
+      message.decrementRefCount();
+      Assert.assertFalse(offHeap.isReleased());
+
+      message.decrementRefCount();
+      Assert.assertTrue(offHeap.isReleased());
+      Assert.assertEquals(sizeBefore, OffHeapMessageBuffer.getTotalSize());
+
+      // the delivery still holds its own reference until the transport is done with it
+      Assert.assertEquals(1, delivered.byteBuf().refCnt());
+      Assert.assertEquals(body[0], delivered.getByte(ServerMessageImpl.BODY_OFFSET));
+      Assert.assertTrue(delivered.byteBuf().release());
+   }
+}
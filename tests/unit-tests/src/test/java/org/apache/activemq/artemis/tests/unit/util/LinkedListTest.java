@@ -23,6 +23,7 @@ import java.util.NoSuchElementException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.apache.activemq.artemis.utils.IDSupplier;
 import org.apache.activemq.artemis.utils.LinkedListImpl;
 import org.apache.activemq.artemis.utils.LinkedListIterator;
 import org.junit.Before;
@@ -40,6 +41,104 @@ public class LinkedListTest extends ActiveMQTestBase {
       list = new LinkedListImpl<Integer>();
    }
 
+   @Test
+   public void testRemoveWithID() {
+      LinkedListImpl<Integer> indexed = new LinkedListImpl<Integer>(new IDSupplier<Integer>() {
+         public long getID(Integer element) {
+            return element;
+         }
+      });
+
+      for (int i = 0; i < 10; i++) {
+         indexed.addTail(i);
+      }
+
+      LinkedListIterator<Integer> iter = indexed.iterator();
+
+      assertEquals(0, iter.next().intValue());
+      assertEquals(1, iter.next().intValue());
+
+      assertEquals(5, indexed.peekWithID(5).intValue());
+      assertEquals(5, indexed.removeWithID(5).intValue());
+      assertNull(indexed.peekWithID(5));
+      assertNull(indexed.removeWithID(5));
+
+      // removing the element the iterator is positioned on has to nudge it
+      assertEquals(1, indexed.removeWithID(1).intValue());
+      assertEquals(0, indexed.removeWithID(0).intValue());
+      assertEquals(9, indexed.removeWithID(9).intValue());
+      assertEquals(6, indexed.size());
+
+      for (int i : new int[]{2, 3, 4, 6, 7, 8}) {
+         assertTrue(iter.hasNext());
+         assertEquals(i, iter.next().intValue());
+      }
+      assertFalse(iter.hasNext());
+      iter.close();
+
+      indexed.addHead(1);
+      assertEquals(1, indexed.poll().intValue());
+      assertNull(indexed.peekWithID(1));
+
+      indexed.clear();
+      assertNull(indexed.peekWithID(2));
+
+      // a list without an IDSupplier is not indexed
+      list.addTail(1);
+      assertNull(list.removeWithID(1));
+      assertEquals(1, list.size());
+   }
+
+   @Test
+   public void testRemoveWithDuplicateID() {
+      IDSupplier<int[]> idSupplier = new IDSupplier<int[]>() {
+         public long getID(int[] element) {
+            return element[0];
+         }
+      };
+
+      LinkedListImpl<int[]> indexed = new LinkedListImpl<int[]>(idSupplier);
+
+      int[] first = new int[]{1};
+      int[] second = new int[]{1};
+      int[] third = new int[]{1};
+
+      indexed.addTail(first);
+      indexed.addTail(second);
+      indexed.addTail(third);
+
+      // removing the last one added must leave the others indexed
+      LinkedListIterator<int[]> iter = indexed.iterator();
+      iter.next();
+      iter.next();
+      iter.next();
+      iter.remove();
+      iter.close();
+
+      assertSame(first, indexed.removeWithID(1));
+      assertSame(second, indexed.removeWithID(1));
+      assertNull(indexed.removeWithID(1));
+      assertEquals(0, indexed.size());
+   }
+
+   @Test
+   public void testRemoveWithIDNotIndexed() {
+      LinkedListImpl<Integer> scanned = new LinkedListImpl<Integer>(new IDSupplier<Integer>() {
+         public long getID(Integer element) {
+            return element;
+         }
+      }, false);
+
+      for (int i = 0; i < 10; i++) {
+         scanned.addTail(i);
+      }
+
+      assertEquals(5, scanned.peekWithID(5).intValue());
+      assertEquals(5, scanned.removeWithID(5).intValue());
+      assertNull(scanned.peekWithID(5));
+      assertEquals(9, scanned.size());
+   }
+
    @Test
    public void testAddAndRemove() {
       final AtomicInteger count = new AtomicInteger(0);
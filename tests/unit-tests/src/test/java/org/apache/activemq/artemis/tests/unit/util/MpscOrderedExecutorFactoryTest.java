@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.unit.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.apache.activemq.artemis.utils.MpscOrderedExecutorFactory;
+import org.apache.activemq.artemis.utils.MpscOrderedExecutorFactory.MpscOrderedExecutor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MpscOrderedExecutorFactoryTest extends ActiveMQTestBase {
+
+   private ExecutorService threadPool;
+
+   @Override
+   @Before
+   public void setUp() throws Exception {
+      super.setUp();
+      threadPool = Executors.newFixedThreadPool(4);
+   }
+
+   @Override
+   @After
+   public void tearDown() throws Exception {
+      threadPool.shutdownNow();
+      super.tearDown();
+   }
+
+   @Test
+   public void testTasksFromOneThreadRunInOrder() throws Exception {
+      testTasksRunInOrder(new MpscOrderedExecutorFactory(threadPool));
+   }
+
+   @Test
+   public void testTasksRunInOrderWithBatches() throws Exception {
+      testTasksRunInOrder(new MpscOrderedExecutorFactory(threadPool, 7));
+   }
+
+   private void testTasksRunInOrder(final MpscOrderedExecutorFactory factory) throws Exception {
+      // more tasks than fit in a chunk, so the queue has to move over to new ones
+      final int tasks = 10000;
+      final MpscOrderedExecutor executor = factory.getExecutor();
+      final AtomicInteger next = new AtomicInteger();
+      final AtomicInteger outOfOrder = new AtomicInteger();
+      final CountDownLatch done = new CountDownLatch(tasks);
+
+      for (int i = 0; i < tasks; i++) {
+         final int expected = i;
+         executor.execute(new Runnable() {
+            public void run() {
+               if (next.getAndIncrement() != expected) {
+                  outOfOrder.incrementAndGet();
+               }
+               done.countDown();
+            }
+         });
+      }
+
+      Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+      waitForEmptyQueue(executor);
+      Assert.assertEquals(0, outOfOrder.get());
+      Assert.assertEquals(tasks, executor.getExecutedCount());
+      Assert.assertTrue(executor.getMaxLatency() >= executor.getAverageLatency());
+   }
+
+   @Test
+   public void testTasksFromManyThreadsRunOneAtATime() throws Exception {
+      final MpscOrderedExecutor executor = new MpscOrderedExecutorFactory(threadPool, 16).getExecutor();
+      final int producers = 8;
+      final int tasksPerProducer = 5000;
+      final AtomicInteger running = new AtomicInteger();
+      final AtomicInteger overlaps = new AtomicInteger();
+      final int[] lastSeen = new int[producers];
+      final AtomicInteger outOfOrder = new AtomicInteger();
+      final CountDownLatch done = new CountDownLatch(producers * tasksPerProducer);
+
+      Thread[] threads = new Thread[producers];
+      for (int p = 0; p < producers; p++) {
+         final int producer = p;
+         lastSeen[producer] = -1;
+         threads[p] = new Thread() {
+            @Override
+            public void run() {
+               for (int i = 0; i < tasksPerProducer; i++) {
+                  final int sequence = i;
+                  executor.execute(new Runnable() {
+                     public void run() {
+                        if (running.incrementAndGet() != 1) {
+                           overlaps.incrementAndGet();
+                        }
+                        // each producer's own tasks still have to come out in the order it added them
+                        if (lastSeen[producer] != sequence - 1) {
+                           outOfOrder.incrementAndGet();
+                        }
+                        lastSeen[producer] = sequence;
+                        running.decrementAndGet();
+                        done.countDown();
+                     }
+                  });
+               }
+            }
+         };
+         threads[p].start();
+      }
+
+      for (Thread thread : threads) {
+         thread.join();
+      }
+
+      Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+      waitForEmptyQueue(executor);
+      Assert.assertEquals(0, overlaps.get());
+      Assert.assertEquals(0, outOfOrder.get());
+      Assert.assertEquals(producers * tasksPerProducer, executor.getExecutedCount());
+   }
+
+   @Test
+   public void testExceptionDoesNotStopExecutor() throws Exception {
+      MpscOrderedExecutor executor = new MpscOrderedExecutorFactory(threadPool).getExecutor();
+      final CountDownLatch done = new CountDownLatch(1);
+
+      executor.execute(new Runnable() {
+         public void run() {
+            throw new IllegalStateException("expected by the test");
+         }
+      });
+      executor.execute(new Runnable() {
+         public void run() {
+            done.countDown();
+         }
+      });
+
+      Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+   }
+
+   private static void waitForEmptyQueue(final MpscOrderedExecutor executor) throws Exception {
+      // the counters are updated once the runner is done with a batch, after the last task counted down
+      long timeout = System.currentTimeMillis() + 10000;
+      while (executor.getQueueDepth() != 0 && System.currentTimeMillis() < timeout) {
+         Thread.sleep(1);
+      }
+      Assert.assertEquals(0, executor.getQueueDepth());
+   }
+}